@@ -3,6 +3,7 @@ package com.modernbazaar.core.api;
 import com.modernbazaar.core.api.dto.AdminAnalyticsSummaryDTO;
 import com.modernbazaar.core.service.AdminAnalyticsService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
@@ -22,7 +23,10 @@ public class AdminAnalyticsController {
 
     @GetMapping("/summary")
     @Operation(summary = "Growth & usage snapshot (users, subscriptions, plan mix, signups trend)")
-    public AdminAnalyticsSummaryDTO summary(@RequestParam(name = "trendDays", defaultValue = "30") int trendDays) {
-        return analytics.summary(trendDays);
+    public AdminAnalyticsSummaryDTO summary(
+            @RequestParam(name = "trendDays", defaultValue = "30") int trendDays,
+            @Parameter(description = "Add today's signups/cancellations/new users live on top of the daily rollup")
+            @RequestParam(name = "live", defaultValue = "true") boolean live) {
+        return analytics.summary(trendDays, live);
     }
 }
@@ -25,11 +25,17 @@ public class AdminCancellationController {
     private final SubscriptionService subscriptions;
 
     @GetMapping
-    @Operation(summary = "List cancellation feedback, newest first (paginated)")
+    @Operation(summary = "List cancellation feedback, newest first (paginated; ?after= for cursor pages)")
     public PagedResponseDTO<AdminCancellationDTO> list(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "50") int limit
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean withTotal
     ) {
+        if (after != null) {
+            var result = subscriptions.listCancellationsAfter(limit, after);
+            return withTotal ? result.withTotal(subscriptions.countCancellations()) : result;
+        }
         return subscriptions.listCancellations(page, limit);
     }
 }
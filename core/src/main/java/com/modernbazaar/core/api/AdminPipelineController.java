@@ -0,0 +1,31 @@
+package com.modernbazaar.core.api;
+
+import com.modernbazaar.core.api.dto.PipelineStatusDTO;
+import com.modernbazaar.core.service.PipelineTelemetry;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Where a slow or stale dashboard comes from: pipeline stage timings and source lag
+ * (admin only, via SecurityConfig's {@code /api/admin/**} rule). Stage timings are this
+ * node's; a read-only node reports only the lag.
+ */
+@RestController
+@RequestMapping(path = "/api/admin/pipeline", produces = MediaType.APPLICATION_JSON_VALUE)
+@RequiredArgsConstructor
+@Tag(name = "Admin Pipeline")
+public class AdminPipelineController {
+
+    private final PipelineTelemetry telemetry;
+
+    @GetMapping
+    @Operation(summary = "Pipeline stage timings (fetch → finance) and lag of each source")
+    public PipelineStatusDTO status() {
+        return telemetry.status();
+    }
+}
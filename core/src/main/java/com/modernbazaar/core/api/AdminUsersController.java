@@ -23,13 +23,19 @@ public class AdminUsersController {
     private final AdminUserService users;
 
     @GetMapping
-    @Operation(summary = "Paginated list of user subscriptions (optional ?q= filters by user id)")
+    @Operation(summary = "Paginated list of user subscriptions (optional ?q= filters by user id; ?after= for cursor pages)")
     public PagedResponseDTO<AdminUserDTO> list(
             @RequestParam(required = false) String q,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "25") int limit,
             @RequestParam(defaultValue = "userId") String sortBy,
-            @RequestParam(defaultValue = "asc") String dir) {
+            @RequestParam(defaultValue = "asc") String dir,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        if (after != null) {
+            var result = users.listAfter(limit, q, sortBy, dir, after);
+            return withTotal ? result.withTotal(users.count(q)) : result;
+        }
         return users.list(page, limit, q, sortBy, dir);
     }
 
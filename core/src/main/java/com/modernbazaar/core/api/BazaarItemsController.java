@@ -2,19 +2,22 @@ package com.modernbazaar.core.api;
 
 import com.modernbazaar.core.api.dto.*;
 import com.modernbazaar.core.service.BazaarItemsQueryService;
-import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * REST controller for managing Hypixel Skyblock Bazaar items.
@@ -51,13 +54,15 @@ public class BazaarItemsController {
      * @param page Page number (0-based)
      * @param limit Items per page
      * @param withHour Include hourly data in response
+     * @param fields Comma-separated snapshot/hour fields to keep (default: all)
+     * @param after Cursor from the previous page's {@code nextCursor}; pass empty to start cursor mode
+     * @param withTotal In cursor mode, also return the (cached) filter total
      * @return Paginated response with bazaar items
      */
     @GetMapping
     @Operation(summary = "Latest items (hourly close)",
             responses = @ApiResponse(responseCode = "200"))
-    @RateLimiter(name = "bazaarEndpoint")
-    public PagedResponseDTO<BazaarItemLiveViewResponseDTO> getItems(
+    public MappingJacksonValue getItems(
             @RequestParam(required = false) String q,
             @RequestParam(required = false) Double minSell,
             @RequestParam(required = false) Double maxSell,
@@ -70,10 +75,22 @@ public class BazaarItemsController {
             @RequestParam(
                 name = "withHour",
                 defaultValue = "false"
-            ) boolean withHour) {
+            ) boolean withHour,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
 
         var filter = BazaarItemFilterDTO.of(q, minSell, maxSell, minBuy, maxBuy, minSpread);
-        return service.getLatestPaginated(filter, Optional.ofNullable(sort), page, limit, withHour);
+        Set<String> selected = SparseFields.parse(fields);
+        boolean includeHour = withHour && SparseFields.wantsHour(selected); // nobody asked → don't load
+        if (after != null) {
+            var result = service.getLatestAfter(filter, Optional.ofNullable(sort), after, limit, includeHour);
+            if (withTotal) result = result.withTotal(service.countLatest(filter));
+            return SparseFields.wrap(result, selected);
+        }
+        return SparseFields.wrap(
+                service.getLatestPaginated(filter, Optional.ofNullable(sort), page, limit, includeHour),
+                selected);
     }
 
     /* ---------- DETAIL ---------- */
@@ -89,7 +106,6 @@ public class BazaarItemsController {
             responses = {
                     @ApiResponse(responseCode = "200"),
                     @ApiResponse(responseCode = "404")})
-    @RateLimiter(name = "bazaarEndpoint")
     public BazaarItemLiveViewResponseDTO getItem(
             @Parameter(in = ParameterIn.PATH, required = true)
             @PathVariable String productId) {
@@ -110,8 +126,9 @@ public class BazaarItemsController {
      */
     @GetMapping("/{productId}/history")
     @Operation(summary = "Hourly history",
-            description = "With ?withPoints=true each hour embeds its kept minute points.")
-    @RateLimiter(name = "bazaarEndpoint")
+            description = "With ?withPoints=true each hour embeds its kept minute points. "
+                    + "Ranges wider than the configured maximum (90 days by default) are rejected with 400; "
+                    + "without 'from' the range is that maximum, ending at 'to'.")
     public List<BazaarItemHourSummaryResponseDTO> getHistory(
             @PathVariable String productId,
             @RequestParam(required = false) Instant from,
@@ -121,6 +138,39 @@ public class BazaarItemsController {
         return service.getHistory(productId, from, to, withPoints);
     }
 
+    /* ---------- BATCH ---------- */
+
+    /**
+     * Resolves up to 50 items in one call (watchlists), keyed by product id.
+     * 
+     * @param body The product ids to resolve
+     * @return Live view per found product id, in request order
+     */
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Batch items (watchlist)",
+            description = "Same payload as the single-item endpoint for up to 50 ids; unknown ids are omitted.")
+    public Map<String, BazaarItemLiveViewResponseDTO> getItemsBatch(
+            @Valid @RequestBody BazaarItemsBatchRequestDTO body) {
+
+        return service.getItems(body.productIds());
+    }
+
+    /**
+     * Retrieves hourly history for up to 50 items in one call, keyed by product id.
+     * 
+     * @param body The product ids plus optional range and points flag
+     * @return Hourly summaries per product id with data in range
+     */
+    @PostMapping(path = "/history/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Batch hourly history (watchlist)",
+            description = "Defaults to the last 48h and no minute points; same range limit as single-item history.")
+    public Map<String, List<BazaarItemHourSummaryResponseDTO>> getHistoryBatch(
+            @Valid @RequestBody BazaarHistoryBatchRequestDTO body) {
+
+        return service.getHistories(body.productIds(), body.from(), body.to(),
+                Boolean.TRUE.equals(body.withPoints()));
+    }
+
     /* ---------- AVERAGE ---------- */
 
     /**
@@ -132,7 +182,6 @@ public class BazaarItemsController {
     @GetMapping("/{productId}/average")
     @Operation(summary = "Last 48 hour average",
             description = "Get the average of the last 48 hour summaries for a product.")
-    @RateLimiter(name = "bazaarEndpoint")
     public BazaarItemHourAverageResponseDTO getLast48HourAverage(
             @Parameter(in = ParameterIn.PATH, required = true)
             @PathVariable String productId) {
@@ -152,7 +201,6 @@ public class BazaarItemsController {
     @GetMapping("/{productId}/snapshots")
     @Operation(summary = "Latest snapshots",
             description = "Get the latest snapshots from the last hour that haven't been processed into hourly summaries yet.")
-    @RateLimiter(name = "bazaarEndpoint")
     public List<BazaarItemHourSummaryResponseDTO> getLatestSnapshots(
             @Parameter(in = ParameterIn.PATH, required = true)
             @PathVariable String productId,
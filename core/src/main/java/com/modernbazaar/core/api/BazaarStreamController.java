@@ -0,0 +1,58 @@
+package com.modernbazaar.core.api;
+
+import com.modernbazaar.core.service.BazaarStreamService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Live market deltas over Server-Sent Events, so dashboards stop re-downloading
+ * the whole item list every minute.
+ *
+ * Events: {@code snapshot} (full state, on first connect or when the resume
+ * window was missed) and {@code delta} (changed fields only). The event id is
+ * {@code <boot epoch>-<market generation>}; browsers send it back as
+ * {@code Last-Event-ID} on reconnect automatically, and an id from another boot
+ * or node gets a fresh snapshot.
+ */
+@RestController
+@RequestMapping("/api/bazaar/stream")
+@RequiredArgsConstructor
+@Tag(name = "Bazaar Items")
+public class BazaarStreamController {
+
+    private final BazaarStreamService stream;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream per-poll price deltas (SSE)")
+    public ResponseEntity<SseEmitter> stream(
+            @Parameter(description = "Comma-separated product ids to receive (default: all)")
+            @RequestParam(required = false) String products,
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId
+    ) {
+        Set<String> filter = products == null ? null : Arrays.stream(products.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toSet());
+
+        SseEmitter emitter = stream.subscribe(filter, lastEventId);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "30")
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no") // keep reverse proxies from buffering the stream
+                .body(emitter);
+    }
+}
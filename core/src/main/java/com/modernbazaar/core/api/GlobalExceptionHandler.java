@@ -1,4 +1,5 @@
 package com.modernbazaar.core.api;
+import com.modernbazaar.core.service.HeavyWorkExecutor;
 import io.github.resilience4j.ratelimiter.RequestNotPermitted;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -141,6 +142,25 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.FORBIDDEN);
     }
 
+    /**
+     * Load shedding from {@link HeavyWorkExecutor}: queue full or budget spent -> 503.
+     */
+    @ExceptionHandler(HeavyWorkExecutor.OverloadedException.class)
+    protected ResponseEntity<ErrorResponse> handleOverloaded(
+            HeavyWorkExecutor.OverloadedException ex,
+            WebRequest request) {
+
+        ErrorResponse body = new ErrorResponse(
+                Instant.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                ex.getMessage(),
+                Map.of("retryAfterSeconds", ex.getRetryAfterSeconds())
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", Long.toString(ex.getRetryAfterSeconds()))
+                .body(body);
+    }
+
     /**
      * Catch-all for unexpected exceptions not handled by specific handlers.
      * 
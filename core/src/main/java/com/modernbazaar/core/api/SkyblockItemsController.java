@@ -2,6 +2,7 @@ package com.modernbazaar.core.api;
 
 import com.modernbazaar.core.api.dto.PagedResponseDTO;
 import com.modernbazaar.core.api.dto.SkyblockItemDTO;
+import com.modernbazaar.core.service.ItemSearchIndex;
 import com.modernbazaar.core.service.SkyblockItemsCatalogService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -10,6 +11,7 @@ import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Duration;
+import java.util.List;
 
 /**
  * REST controller for managing Hypixel Skyblock item catalog.
@@ -40,6 +42,8 @@ public class SkyblockItemsController {
      * @param maxNpc Maximum NPC sell price filter
      * @param page Page number (0-based)
      * @param limit Items per page
+     * @param after Cursor from the previous page's {@code nextCursor}; pass empty to start cursor mode
+     * @param withTotal In cursor mode, also return the (cached) filter total
      * @return Paginated response with matching items
      */
     @Operation(summary = "Search catalog (paginated)")
@@ -52,11 +56,36 @@ public class SkyblockItemsController {
             @RequestParam(required = false) Double minNpc,
             @RequestParam(required = false) Double maxNpc,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "50") int limit
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean withTotal
     ) {
+        if (after != null) {
+            var result = service.searchAfter(q, tier, category, inBazaar, minNpc, maxNpc, after, limit);
+            return withTotal
+                    ? result.withTotal(service.countSearch(q, tier, category, inBazaar, minNpc, maxNpc))
+                    : result;
+        }
         return service.search(q, tier, category, inBazaar, minNpc, maxNpc, page, limit);
     }
 
+    /**
+     * Ranked type-ahead matches over product ids and catalog names, served from the
+     * in-memory search index (exact, then prefix, then word prefix, then substring).
+     *
+     * @param q Partial id or name
+     * @param limit Maximum suggestions (capped at 50)
+     * @return Matching product ids with their display names
+     */
+    @Operation(summary = "Suggest items by id/name fragment")
+    @GetMapping("/suggest")
+    public List<ItemSearchIndex.Hit> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return service.suggest(q, limit);
+    }
+
     /**
      * Retrieves detailed information about a specific Skyblock item.
      * 
@@ -0,0 +1,84 @@
+package com.modernbazaar.core.api;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.modernbazaar.core.api.dto.BazaarItemHourSummaryResponseDTO;
+import com.modernbazaar.core.api.dto.BazaarItemSnapshotResponseDTO;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * {@code ?fields=a,b,c} support for the wide list endpoints.
+ *
+ * The leaf DTOs carry the {@link #FILTER_ID} Jackson filter (mix-ins registered in
+ * {@code JacksonConfig}); wrappers like {@code PagedResponseDTO} always serialize.
+ * Filter providers are built once per distinct field set and reused, so a response
+ * costs a set lookup per property — Jackson's per-class serializers stay cached.
+ * {@code productId} is always kept so rows stay addressable.
+ */
+public final class SparseFields {
+
+    public static final String FILTER_ID = "fields";
+
+    /** Hour-summary fields that the snapshot DTO does not also carry. */
+    static final Set<String> HOUR_ONLY_FIELDS;
+
+    static {
+        Set<String> hour = componentNames(BazaarItemHourSummaryResponseDTO.class);
+        hour.removeAll(componentNames(BazaarItemSnapshotResponseDTO.class));
+        HOUR_ONLY_FIELDS = Collections.unmodifiableSet(hour);
+    }
+
+    private static final Cache<Set<String>, FilterProvider> PROVIDERS = Caffeine.newBuilder()
+            .maximumSize(256) // field sets are client-chosen; keep the table bounded
+            .build();
+
+    private SparseFields() {}
+
+    /** Parses {@code fields}; null/blank means "everything" and returns null. */
+    public static Set<String> parse(String fields) {
+        if (fields == null || fields.isBlank()) return null;
+        Set<String> out = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(f -> !f.isEmpty())
+                .collect(Collectors.toCollection(TreeSet::new));
+        if (out.isEmpty()) return null;
+        out.add("productId");
+        return Collections.unmodifiableSet(out);
+    }
+
+    /** True when the hour summary has to be loaded to satisfy the field set. */
+    public static boolean wantsHour(Set<String> fields) {
+        return fields == null || fields.stream().anyMatch(HOUR_ONLY_FIELDS::contains);
+    }
+
+    /** Wraps the body so the message converter applies the cached filter for this field set. */
+    public static MappingJacksonValue wrap(Object body, Set<String> fields) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        if (fields != null) {
+            value.setFilters(PROVIDERS.get(fields, SparseFields::provider));
+        }
+        return value;
+    }
+
+    private static FilterProvider provider(Set<String> fields) {
+        return new SimpleFilterProvider()
+                .addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(fields));
+    }
+
+    private static Set<String> componentNames(Class<? extends Record> type) {
+        return Arrays.stream(type.getRecordComponents())
+                .map(RecordComponent::getName)
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+}
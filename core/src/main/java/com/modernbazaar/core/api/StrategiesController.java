@@ -7,12 +7,12 @@ import com.modernbazaar.core.api.dto.PagedResponseDTO;
 import com.modernbazaar.core.service.StrategyFlippingService;
 import com.modernbazaar.core.service.StrategyManipulationService;
 import com.modernbazaar.core.service.SubscriptionService;
-import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -71,14 +71,14 @@ public class StrategiesController {
      * @param horizonHours Time horizon for analysis
      * @param page Page number (0-based)
      * @param limit Items per page
+     * @param fields Comma-separated response fields to keep (default: all)
      * @return Paginated response with flipping opportunities
      */
     @GetMapping("/flipping")
     @Operation(summary = "Bazaar Flipping opportunities",
             description = "Lista oportunidades baseadas no snapshot atual e últimas médias de 48h.",
             responses = @ApiResponse(responseCode = "200"))
-    @RateLimiter(name = "bazaarEndpoint")
-    public PagedResponseDTO<FlipOpportunityResponseDTO> listFlipping(
+    public MappingJacksonValue listFlipping(
             @AuthenticationPrincipal Jwt jwt,
             @RequestParam(required = false) String q,
             @RequestParam(required = false) Double minSell,
@@ -97,15 +97,18 @@ public class StrategiesController {
             @RequestParam(required = false) Double budget,
             @RequestParam(required = false) Double horizonHours,
             @RequestParam(defaultValue = "0")  Integer page,
-            @RequestParam(defaultValue = "50") Integer limit
+            @RequestParam(defaultValue = "50") Integer limit,
+            @RequestParam(required = false) String fields
     ) {
         require(jwt, "use:bazaar-flipping");
         var filter = BazaarItemFilterDTO.of(q, minSell, maxSell, minBuy, maxBuy, minSpread,
                                            maxTime, minUnitsPerHour, maxUnitsPerHour);
-        return flipping.listWithAdvancedFilters(filter, Optional.ofNullable(sort), page, limit, budget, horizonHours,
-                                               maxTime, minUnitsPerHour, maxUnitsPerHour, maxCompetitionPerHour, maxRiskScore,
-                                               Boolean.TRUE.equals(disableCompetitionPenalties),
-                                               Boolean.TRUE.equals(disableRiskPenalties));
+        PagedResponseDTO<FlipOpportunityResponseDTO> result =
+                flipping.listWithAdvancedFilters(filter, Optional.ofNullable(sort), page, limit, budget, horizonHours,
+                                                 maxTime, minUnitsPerHour, maxUnitsPerHour, maxCompetitionPerHour, maxRiskScore,
+                                                 Boolean.TRUE.equals(disableCompetitionPenalties),
+                                                 Boolean.TRUE.equals(disableRiskPenalties));
+        return SparseFields.wrap(result, SparseFields.parse(fields));
     }
 
     /**
@@ -131,13 +134,13 @@ public class StrategiesController {
      * @param sort       Sort field: score | profit | ratio | cornerCost | demand
      * @param page       Page number (0-based)
      * @param limit      Items per page
+     * @param fields     Comma-separated response fields to keep (default: all)
      */
     @GetMapping("/manipulation")
     @Operation(summary = "Bazaar Manipulation opportunities",
             description = "Items with thin supply and strong demand that can be cornered within budget, with a full execution plan.",
             responses = @ApiResponse(responseCode = "200"))
-    @RateLimiter(name = "bazaarEndpoint")
-    public PagedResponseDTO<ManipulationOpportunityResponseDTO> listManipulation(
+    public MappingJacksonValue listManipulation(
             @AuthenticationPrincipal Jwt jwt,
             @RequestParam(required = false) String q,
             @RequestParam(required = false) Double minSell,
@@ -155,12 +158,15 @@ public class StrategiesController {
             @RequestParam(required = false) String formulaVersion,
             @RequestParam(required = false) String sort,
             @RequestParam(defaultValue = "0")  Integer page,
-            @RequestParam(defaultValue = "50") Integer limit
+            @RequestParam(defaultValue = "50") Integer limit,
+            @RequestParam(required = false) String fields
     ) {
         require(jwt, "use:bazaar-manipulation");
         var filter = BazaarItemFilterDTO.of(q, minSell, maxSell, minBuy, maxBuy, null);
-        return manipulation.list(filter, Optional.ofNullable(sort), page, limit,
-                                 budget, roi, taxRate, sellWallFactor, minDemandSupplyRatio, minProfit,
-                                 maxCornerSupply, maxItemPrice, formulaVersion);
+        PagedResponseDTO<ManipulationOpportunityResponseDTO> result =
+                manipulation.list(filter, Optional.ofNullable(sort), page, limit,
+                                  budget, roi, taxRate, sellWallFactor, minDemandSupplyRatio, minProfit,
+                                  maxCornerSupply, maxItemPrice, formulaVersion);
+        return SparseFields.wrap(result, SparseFields.parse(fields));
     }
 }
@@ -0,0 +1,22 @@
+package com.modernbazaar.core.api.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Request DTO for the watchlist batch history lookup.
+ *
+ * @param productIds Product ids to resolve (max 50, duplicates ignored)
+ * @param from Start of the range (default: 48h before {@code to})
+ * @param to End of the range (default: now)
+ * @param withPoints Embed each hour's kept minute points (default false)
+ */
+public record BazaarHistoryBatchRequestDTO(
+        @NotEmpty @Size(max = 50) List<String> productIds,
+        Instant from,
+        Instant to,
+        Boolean withPoints
+) {}
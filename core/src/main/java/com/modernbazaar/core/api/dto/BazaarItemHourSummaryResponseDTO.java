@@ -31,6 +31,17 @@ public record BazaarItemHourSummaryResponseDTO(
     public static BazaarItemHourSummaryResponseDTO of(
             BazaarItemHourSummary s, boolean withPoints) {
 
+        String name = (s.getItem() != null &&
+                s.getItem().getSkyblockItem() != null)
+                ? s.getItem().getSkyblockItem().getName()
+                : null;
+        return of(s, withPoints, name);
+    }
+
+    /** Same as {@link #of(BazaarItemHourSummary, boolean)} with a preloaded name (batch paths skip the item join). */
+    public static BazaarItemHourSummaryResponseDTO of(
+            BazaarItemHourSummary s, boolean withPoints, @Nullable String name) {
+
         List<BazaarItemHourPointDTO> pts = null;
 
         if (withPoints && s.getPoints() != null) {
@@ -50,11 +61,6 @@ public record BazaarItemHourSummaryResponseDTO(
                     .toList();
         }
 
-        String name = (s.getItem() != null &&
-                s.getItem().getSkyblockItem() != null)
-                ? s.getItem().getSkyblockItem().getName()
-                : null;
-
         return new BazaarItemHourSummaryResponseDTO(
                 s.getProductId(),               name,
                 s.getHourStart(),
@@ -0,0 +1,15 @@
+package com.modernbazaar.core.api.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Request DTO for the watchlist batch lookup.
+ *
+ * @param productIds Product ids to resolve (max 50, duplicates ignored)
+ */
+public record BazaarItemsBatchRequestDTO(
+        @NotEmpty @Size(max = 50) List<String> productIds
+) {}
@@ -4,6 +4,13 @@ import org.springframework.data.domain.Page;
 
 import java.util.List;
 
+/**
+ * Page envelope shared by offset and cursor pagination.
+ *
+ * In cursor mode ({@code ?after=}) {@code nextCursor} carries the opaque token
+ * for the following page, {@code page} is always 0 and the totals are -1 unless
+ * the caller asked for them ({@code withTotal=true}).
+ */
 public record PagedResponseDTO<T>(
         List<T> items,
         int page,
@@ -11,8 +18,32 @@ public record PagedResponseDTO<T>(
         int totalItems,
         int totalPages,
         boolean hasNext,
-        boolean hasPrevious
+        boolean hasPrevious,
+        String nextCursor
 ) {
+    /** Count not computed (cursor mode without {@code withTotal}). */
+    public static final int UNKNOWN_TOTAL = -1;
+
+    public PagedResponseDTO(List<T> items, int page, int limit, int totalItems, int totalPages,
+                            boolean hasNext, boolean hasPrevious) {
+        this(items, page, limit, totalItems, totalPages, hasNext, hasPrevious, null);
+    }
+
+    /** Cursor-mode page; {@code total} may be null when the count was not requested. */
+    public static <T> PagedResponseDTO<T> ofCursor(List<T> items, int limit, String nextCursor,
+                                                   boolean hasPrevious, Long total) {
+        int totalItems = total == null ? UNKNOWN_TOTAL : total.intValue();
+        int totalPages = total == null ? UNKNOWN_TOTAL
+                : (total == 0 ? 1 : (int) Math.ceil((double) total / limit));
+        return new PagedResponseDTO<>(items, 0, limit, totalItems, totalPages,
+                nextCursor != null, hasPrevious, nextCursor);
+    }
+
+    /** Same cursor page with the (separately cached) total filled in. */
+    public PagedResponseDTO<T> withTotal(Long total) {
+        return ofCursor(items, limit, nextCursor, hasPrevious, total);
+    }
+
     public static <T> PagedResponseDTO<T> of(List<T> allItems, int page, int limit) {
         int totalItems = allItems.size();
         int totalPages = totalItems == 0 ? 1 : (int) Math.ceil((double) totalItems / limit);
@@ -0,0 +1,20 @@
+package com.modernbazaar.core.api.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Market data pipeline at a glance: how long each stage takes on this node and how far
+ * behind each source is. Durations in ms (p50/p99/max over the last hour, mean since
+ * start), ages in seconds; null when there is nothing to report yet.
+ */
+public record PipelineStatusDTO(
+        Instant checkedAt,
+        Instant lagProbedAt,     // last successful lag probe
+        List<Stage> stages,      // fetch, parse, dedupe, persist, compaction, finance
+        List<Lag> lags           // hypixel, unprocessed, sealed_hour, finance
+) {
+    public record Stage(String name, long runs, Double meanMs, Double p50Ms, Double p99Ms,
+                        double maxMs, Instant lastRunAt) {}
+    public record Lag(String source, Instant at, Double ageSeconds) {}
+}
@@ -1,19 +1,29 @@
 package com.modernbazaar.core.config;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 @Configuration
-@EnableCaching
+// Caching wraps @Transactional (default order LOWEST_PRECEDENCE): a hit, stale or not, must
+// not open a transaction first, and a background refresh must run the loader with its tx.
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
 public class CacheConfig {
 
     /**
@@ -24,37 +34,38 @@ public class CacheConfig {
      */
     @Bean
     public CacheManager cacheManager(
+            MeterRegistry meterRegistry,
 //            @Value("${skyblock.bazaar.cache.liveViewList.ttl-seconds:30}") long listTtlSeconds,
-            @Value("${skyblock.bazaar.poll.interval-seconds:60}") long itemTtlSeconds
+            @Value("${skyblock.bazaar.poll.interval-seconds:60}") long itemTtlSeconds,
 //            @Value("${skyblock.bazaar.cache.liveViewHistory.ttl-seconds:300}") long historyTtlSeconds
+            @Value("${skyblock.bazaar.cache.stale-grace-seconds:900}") long staleGraceSeconds,
+            @Value("${skyblock.bazaar.cache.refresh-threads:2}") int refreshThreads
     ) {
         long listTtlSeconds = 5 * 60; // Default TTL for liveViewList cache
         long historyTtlSeconds = 5 * 60; // Default TTL for liveViewHistory cache
 
-        // Create individual caches with different TTL values
-        CaffeineCache liveViewListCache = new CaffeineCache("liveViewList",
-                Caffeine.newBuilder()
-                        .expireAfterWrite(listTtlSeconds, TimeUnit.SECONDS)
-                        .maximumSize(10_000)
+        // Market + strategy caches: stale-while-revalidate (TTL = freshness, then served
+        // stale while one background reload runs; up to the grace if reloads keep failing)
+        Duration grace = Duration.ofSeconds(staleGraceSeconds);
+        Executor refresher = new ThreadPoolExecutor(refreshThreads, refreshThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(256),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("cache-refresh-%d")
+                        .setDaemon(true)
                         .build());
 
-        CaffeineCache liveViewItemCache = new CaffeineCache("liveViewItem",
-                Caffeine.newBuilder()
-                        .expireAfterWrite(itemTtlSeconds, TimeUnit.SECONDS)
-                        .maximumSize(10_000)
-                        .build());
+        // Create individual caches with different TTL values
+        Cache liveViewListCache = new StaleWhileRevalidateCache("liveViewList",
+                Duration.ofSeconds(listTtlSeconds), grace, 10_000, refresher, meterRegistry);
 
-        CaffeineCache liveViewHistoryCache = new CaffeineCache("liveViewHistory",
-                Caffeine.newBuilder()
-                        .expireAfterWrite(historyTtlSeconds, TimeUnit.SECONDS)
-                        .maximumSize(10_000)
-                        .build());
+        Cache liveViewItemCache = new StaleWhileRevalidateCache("liveViewItem",
+                Duration.ofSeconds(itemTtlSeconds), grace, 10_000, refresher, meterRegistry);
 
-        CaffeineCache liveViewHourAverageCache = new CaffeineCache("liveViewHourAverage",
-                Caffeine.newBuilder()
-                        .expireAfterWrite(historyTtlSeconds, TimeUnit.SECONDS) // Same TTL as history
-                        .maximumSize(10_000)
-                        .build());
+        Cache liveViewHistoryCache = new StaleWhileRevalidateCache("liveViewHistory",
+                Duration.ofSeconds(historyTtlSeconds), grace, 10_000, refresher, meterRegistry);
+
+        Cache liveViewHourAverageCache = new StaleWhileRevalidateCache("liveViewHourAverage",
+                Duration.ofSeconds(historyTtlSeconds), grace, 10_000, refresher, meterRegistry); // Same TTL as history
 
         CaffeineCache financeAveragesCache = new CaffeineCache("financeAverages",
                 Caffeine.newBuilder()
@@ -62,27 +73,21 @@ public class CacheConfig {
                         .maximumSize(10_000)
                         .build());
 
-        CaffeineCache flipOpportunitiesCache = new CaffeineCache("flipOpportunities",
-                Caffeine.newBuilder()
-                        .expireAfterWrite(2, TimeUnit.MINUTES) // 5 minutes for flip opportunities
-                        .maximumSize(10_000)
-                        .build());
+        Cache flipOpportunitiesCache = new StaleWhileRevalidateCache("flipOpportunities",
+                Duration.ofMinutes(2), grace, 10_000, refresher, meterRegistry); // 2 minutes for flip opportunities
 
-        CaffeineCache flipOpportunitiesAdvancedCache = new CaffeineCache("flipOpportunitiesAdvanced",
-                Caffeine.newBuilder()
-                        .expireAfterWrite(2, TimeUnit.MINUTES) // 5 minutes for flip opportunities
-                        .maximumSize(10_000)
-                        .build());
+        Cache flipOpportunitiesAdvancedCache = new StaleWhileRevalidateCache("flipOpportunitiesAdvanced",
+                Duration.ofMinutes(2), grace, 10_000, refresher, meterRegistry); // 2 minutes for flip opportunities
 
-        CaffeineCache liveViewSnapshotsCache = new CaffeineCache("liveViewSnapshots",
-                Caffeine.newBuilder()
-                        .expireAfterWrite(1, TimeUnit.MINUTES) // 1 minute for liveViewSnapshots
-                        .maximumSize(10_000)
-                        .build());
+        Cache liveViewSnapshotsCache = new StaleWhileRevalidateCache("liveViewSnapshots",
+                Duration.ofMinutes(1), grace, 10_000, refresher, meterRegistry); // 1 minute for liveViewSnapshots
+
+        Cache manipulationOpportunitiesCache = new StaleWhileRevalidateCache("manipulationOpportunities",
+                Duration.ofMinutes(2), grace, 10_000, refresher, meterRegistry); // mirror flip opportunities TTL
 
-        CaffeineCache manipulationOpportunitiesCache = new CaffeineCache("manipulationOpportunities",
+        CaffeineCache pageTotalsCache = new CaffeineCache("pageTotals",
                 Caffeine.newBuilder()
-                        .expireAfterWrite(2, TimeUnit.MINUTES) // mirror flip opportunities TTL
+                        .expireAfterWrite(5, TimeUnit.MINUTES) // cursor-page totals; keys carry the market generation where it matters
                         .maximumSize(10_000)
                         .build());
 
@@ -97,7 +102,8 @@ public class CacheConfig {
                 flipOpportunitiesCache,
                 flipOpportunitiesAdvancedCache,
                 liveViewSnapshotsCache,
-                manipulationOpportunitiesCache
+                manipulationOpportunitiesCache,
+                pageTotalsCache
         ));
 
         return cacheManager;
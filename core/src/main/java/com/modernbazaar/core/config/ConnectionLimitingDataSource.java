@@ -0,0 +1,123 @@
+package com.modernbazaar.core.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps how many callers may hold a pooled connection at once.
+ *
+ * With platform threads the request pool (~200) and the scheduler bound concurrency;
+ * with virtual threads nothing does, and thousands of them would queue inside Hikari
+ * for 15 connections until its 30 s timeout. Here they park on a fair semaphore
+ * sized to the pool instead (a parked virtual thread costs a few hundred bytes), and
+ * give up after {@code acquireTimeout} with a transient error, so a slow history
+ * query backs up as fast 5xx rather than a pile of stuck requests.
+ *
+ * One instance per Hikari pool, directly in front of it ({@link #forPool}): behind a
+ * {@code LazyConnectionDataSourceProxy} a permit would be held for a handle that may
+ * never borrow a real connection, and one cap for two pools fits neither.
+ */
+public class ConnectionLimitingDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMs;
+    private final Counter rejected;
+
+    public ConnectionLimitingDataSource(DataSource target, String pool, int maxConcurrent, long acquireTimeoutMs,
+                                        MeterRegistry meterRegistry) {
+        super(target);
+        this.permits = new Semaphore(Math.max(1, maxConcurrent), true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        Tags tags = Tags.of("pool", pool);
+        this.rejected = meterRegistry.counter("modernbazaar.db.permits.rejected", tags);
+        meterRegistry.gauge("modernbazaar.db.permits.available", tags, permits, Semaphore::availablePermits);
+        meterRegistry.gauge("modernbazaar.db.permits.waiting", tags, permits, Semaphore::getQueueLength);
+    }
+
+    /**
+     * Permits = the pool's {@code maximumPoolSize}: more would only move the queue into
+     * Hikari, fewer would leave connections idle.
+     */
+    public static ConnectionLimitingDataSource forPool(HikariDataSource pool, String name, long acquireTimeoutMs,
+                                                       MeterRegistry meterRegistry) {
+        return new ConnectionLimitingDataSource(pool, name, pool.getMaximumPoolSize(), acquireTimeoutMs, meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasing(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasing(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                throw new PermitTimeoutException(
+                        "No database permit within " + acquireTimeoutMs + " ms (" + permits.getQueueLength() + " waiting)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted waiting for a database permit", e);
+        }
+    }
+
+    /** Returns the permit exactly once, when the caller closes (i.e. hands back) the connection. */
+    private Connection releasing(Connection target) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                        try {
+                            target.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) permits.release();
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    /** The pool is busy, not broken: all permits stayed taken for {@code acquireTimeout}. */
+    public static class PermitTimeoutException extends SQLTransientConnectionException {
+        PermitTimeoutException(String message) {
+            super(message);
+        }
+    }
+}
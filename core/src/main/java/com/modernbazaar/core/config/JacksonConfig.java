@@ -1,16 +1,28 @@
 package com.modernbazaar.core.config;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.*;
 import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.modernbazaar.core.api.SparseFields;
+import com.modernbazaar.core.api.dto.BazaarItemHourSummaryResponseDTO;
+import com.modernbazaar.core.api.dto.BazaarItemSnapshotResponseDTO;
+import com.modernbazaar.core.api.dto.FlipOpportunityResponseDTO;
+import com.modernbazaar.core.api.dto.ManipulationOpportunityResponseDTO;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class JacksonConfig {
 
+    /** Tags the wide DTOs with the {@code ?fields=} filter (see {@link SparseFields}). */
+    @JsonFilter(SparseFields.FILTER_ID)
+    interface SparseFieldsMixin {}
+
     @Bean
     public JsonMapper objectMapper() {
         return JsonMapper.builder()
@@ -18,6 +30,13 @@ public class JacksonConfig {
                 .addModule(new AfterburnerModule())
                 .serializationInclusion(JsonInclude.Include.NON_NULL)
                 .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .addMixIn(BazaarItemSnapshotResponseDTO.class, SparseFieldsMixin.class)
+                .addMixIn(BazaarItemHourSummaryResponseDTO.class, SparseFieldsMixin.class)
+                .addMixIn(FlipOpportunityResponseDTO.class, SparseFieldsMixin.class)
+                .addMixIn(ManipulationOpportunityResponseDTO.class, SparseFieldsMixin.class)
+                // no ?fields= → every property, everywhere else these DTOs are written
+                .filterProvider(new SimpleFilterProvider()
+                        .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()))
                 .build();
     }
 }
@@ -0,0 +1,91 @@
+package com.modernbazaar.core.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Measures how many entities each JPA transaction leaves in its persistence context
+ * (ADR-001: a cascade that loaded every snapshot into one session was what ran the
+ * heap out during polls).
+ *
+ * Spring Boot registers {@link TransactionExecutionListener} beans on its transaction
+ * manager; just before a new transaction commits or rolls back, the session it is bound
+ * to is still open and we read its managed-entity count into
+ * {@code modernbazaar.jpa.context.entities{readonly}}. Above {@code warn-entities} the
+ * transaction is logged and counted in {@code modernbazaar.jpa.context.oversized{transaction}}.
+ * Work that flushes and clears in batches shows only what is left after its last clear.
+ */
+@Component
+@Slf4j
+public class PersistenceContextSampler implements TransactionExecutionListener {
+
+    private final EntityManagerFactory emf;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int warnEntities;
+    private final DistributionSummary readWrite;
+    private final DistributionSummary readOnly;
+
+    public PersistenceContextSampler(
+            EntityManagerFactory emf,
+            MeterRegistry meterRegistry,
+            @Value("${skyblock.instrumentation.persistence-context.enabled:true}") boolean enabled,
+            @Value("${skyblock.instrumentation.persistence-context.warn-entities:5000}") int warnEntities
+    ) {
+        this.emf = emf;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.warnEntities = warnEntities;
+        this.readWrite = summary(meterRegistry, false);
+        this.readOnly = summary(meterRegistry, true);
+    }
+
+    private static DistributionSummary summary(MeterRegistry registry, boolean readOnly) {
+        return DistributionSummary.builder("modernbazaar.jpa.context.entities")
+                .description("Managed entities in the persistence context when a transaction ends")
+                .tag("readonly", Boolean.toString(readOnly))
+                .serviceLevelObjectives(10, 100, 1_000, 10_000, 100_000)
+                .register(registry);
+    }
+
+    @Override
+    public void beforeCommit(TransactionExecution tx) {
+        sample(tx);
+    }
+
+    @Override
+    public void beforeRollback(TransactionExecution tx) {
+        sample(tx);
+    }
+
+    private void sample(TransactionExecution tx) {
+        if (!enabled) return;
+        if (!(TransactionSynchronizationManager.getResource(emf) instanceof EntityManagerHolder holder)) return;
+        try {
+            PersistenceContext pc = holder.getEntityManager()
+                    .unwrap(SharedSessionContractImplementor.class)
+                    .getPersistenceContextInternal();
+            int entities = pc.getNumberOfManagedEntities();
+            (tx.isReadOnly() ? readOnly : readWrite).record(entities);
+            if (entities > warnEntities) {
+                String name = tx.getTransactionName() == null || tx.getTransactionName().isEmpty()
+                        ? "unnamed" : tx.getTransactionName();
+                meterRegistry.counter("modernbazaar.jpa.context.oversized", "transaction", name).increment();
+                log.warn("Transaction {} ends with {} managed entities and {} collections (warn at {})",
+                        name, entities, pc.getCollectionEntriesSize(), warnEntities);
+            }
+        } catch (RuntimeException e) {
+            log.debug("Persistence context sample skipped: {}", e.getMessage()); // session already closed
+        }
+    }
+}
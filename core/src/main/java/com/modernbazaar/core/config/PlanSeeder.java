@@ -27,9 +27,9 @@ public class PlanSeeder implements ApplicationRunner {
     private record Seed(String slug, String name, String featuresJson) {}
 
     private static final List<Seed> SEEDS = List.of(
-            new Seed("free", "Free", "{\"limits\":{\"maxItemsPerPage\":50}}"),
-            new Seed("flipper", "Flipper", "{\"limits\":{\"maxItemsPerPage\":100}}"),
-            new Seed("elite", "Elite", "{\"limits\":{\"maxItemsPerPage\":200}}")
+            new Seed("free", "Free", "{\"limits\":{\"maxItemsPerPage\":50,\"requestsPerMinute\":120}}"),
+            new Seed("flipper", "Flipper", "{\"limits\":{\"maxItemsPerPage\":100,\"requestsPerMinute\":300}}"),
+            new Seed("elite", "Elite", "{\"limits\":{\"maxItemsPerPage\":200,\"requestsPerMinute\":600}}")
     );
 
     @Override
@@ -0,0 +1,105 @@
+package com.modernbazaar.core.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Sends read-only transactions to a Postgres streaming replica
+ * ({@code skyblock.db.replica.enabled}); without it Boot's single pool is used as before.
+ *
+ * Two Hikari pools, "primary" and "replica", each with its own size and its own
+ * {@code hikaricp_*} metrics (tag {@code pool}). The {@code dataSource} bean is a
+ * {@link LazyConnectionDataSourceProxy}: it hands out a connection handle immediately
+ * but only borrows a real one at the first statement, by which time the transaction
+ * manager has marked it read-only or not. Read-only ones
+ * ({@code @Transactional(readOnly = true)}, Spring Data finders outside a write
+ * transaction) go through {@link ReplicaRoutingDataSource}; everything else, including
+ * Flyway, job leases and plain {@code JdbcTemplate} calls, to the primary.
+ * {@link com.modernbazaar.core.service.ClusterEventBus} LISTENs on
+ * {@code spring.datasource.url}, i.e. the primary, since NOTIFY is not replicated.
+ * In virtual-thread mode each pool gets its own {@link ConnectionLimitingDataSource},
+ * sized to it, under the proxy; the lag probe bypasses them.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "skyblock.db.replica", name = "enabled", havingValue = "true")
+@Slf4j
+public class ReadReplicaConfig {
+
+    private HikariDataSource primaryPool;
+    private HikariDataSource replicaPool;
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            DataSourceProperties primaryProps,
+            Environment env,
+            MeterRegistry meterRegistry,
+            @Value("${skyblock.db.replica.url}") String url,
+            @Value("${skyblock.db.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${skyblock.db.replica.password:${spring.datasource.password:}}") String password,
+            @Value("${skyblock.db.replica.max-lag-seconds:5}") double maxLagSeconds
+    ) {
+        primaryPool = primaryProps.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(env).bind("spring.datasource.hikari", Bindable.ofInstance(primaryPool));
+        configure(primaryPool, "primary", meterRegistry);
+
+        replicaPool = new HikariDataSource();
+        replicaPool.setJdbcUrl(url);
+        replicaPool.setUsername(username);
+        replicaPool.setPassword(password);
+        Binder.get(env).bind("skyblock.db.replica.hikari", Bindable.ofInstance(replicaPool));
+        replicaPool.setReadOnly(true);
+        replicaPool.setInitializationFailTimeout(-1); // a missing replica must not stop startup
+        configure(replicaPool, "replica", meterRegistry);
+
+        log.info("Read replica routing on: {} (max lag {} s)", url, maxLagSeconds);
+        return new ReplicaLagMonitor(primaryPool, replicaPool, maxLagSeconds, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            ReplicaLagMonitor replicaLagMonitor,
+            MeterRegistry meterRegistry,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${skyblock.db.acquire-timeout-ms:5000}") long acquireTimeoutMs
+    ) {
+        DataSource primary = primaryPool;
+        DataSource replica = replicaPool;
+        if (virtualThreads) {
+            log.info("Virtual threads on: limiting database access to {} (primary) / {} (replica) concurrent connections",
+                    primaryPool.getMaximumPoolSize(), replicaPool.getMaximumPoolSize());
+            primary = ConnectionLimitingDataSource.forPool(primaryPool, "primary", acquireTimeoutMs, meterRegistry);
+            replica = ConnectionLimitingDataSource.forPool(replicaPool, "replica", acquireTimeoutMs, meterRegistry);
+        }
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setReadOnlyDataSource(
+                new ReplicaRoutingDataSource(primary, replica, replicaLagMonitor, meterRegistry));
+        return proxy;
+    }
+
+    private static void configure(HikariDataSource pool, String name, MeterRegistry meterRegistry) {
+        if (pool.getPoolName() == null) pool.setPoolName(name);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+    }
+
+    @PreDestroy
+    public void close() {
+        if (replicaPool != null) replicaPool.close();
+        if (primaryPool != null) primaryPool.close();
+    }
+}
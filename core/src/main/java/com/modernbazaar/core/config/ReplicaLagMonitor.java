@@ -0,0 +1,133 @@
+package com.modernbazaar.core.config;
+
+import com.modernbazaar.core.service.ClusterEventBus;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Decides whether the read replica is fresh enough to serve reads.
+ *
+ * Lag is measured against the primary's current WAL position: a replica that has
+ * replayed everything the primary has written is 0 s behind no matter how long ago the
+ * last write was (the naive {@code now() - pg_last_xact_replay_timestamp()} grows on an
+ * idle primary); one that hasn't is behind by the age of its last replayed transaction.
+ * Above {@code maxLagSeconds}, or while the replica can't be reached, reads go to the
+ * primary. Starts out unusable until the first probe passes.
+ *
+ * Lag under the limit is still too much right after a poll: the caches fill under the
+ * new market generation and would keep pre-poll rows for a whole TTL. So each market
+ * write that caches key on ({@link #fence()}: generation bump, cluster cache events)
+ * records the primary's WAL position, and reads stay on the primary until a probe sees
+ * the replica past it.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final double maxLagSeconds;
+
+    private volatile boolean usable;
+    private volatile double lagSeconds = -1;
+    private volatile long lagBytes = -1;
+    /** Primary WAL position the replica must replay before serving again; null = none pending. */
+    private final AtomicReference<String> fenceLsn = new AtomicReference<>();
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, double maxLagSeconds, MeterRegistry meterRegistry) {
+        this(new JdbcTemplate(primary), new JdbcTemplate(replica), maxLagSeconds, meterRegistry);
+    }
+
+    ReplicaLagMonitor(JdbcTemplate primary, JdbcTemplate replica, double maxLagSeconds, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagSeconds = maxLagSeconds;
+        meterRegistry.gauge("modernbazaar.db.replica.lag.seconds", this, m -> m.lagSeconds);
+        meterRegistry.gauge("modernbazaar.db.replica.lag.bytes", this, m -> m.lagBytes);
+        meterRegistry.gauge("modernbazaar.db.replica.usable", this, m -> m.replicaUsable() ? 1 : 0);
+    }
+
+    public boolean replicaUsable() {
+        return usable && fenceLsn.get() == null;
+    }
+
+    /** Reads go to the primary until the replica has replayed everything written so far. */
+    public void fence() {
+        try {
+            fenceLsn.set(primary.queryForObject("select pg_current_wal_lsn()::text", String.class));
+        } catch (Exception e) {
+            markDown("fence: primary position unavailable: " + e.getMessage()); // next probe decides
+        }
+    }
+
+    /**
+     * Runs before {@code ClusterCacheInvalidator} clears, so the refill can't come from the replica.
+     * Our own events were already fenced when they committed ({@link ClusterEventBus#publish}).
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onClusterEvent(ClusterEventBus.ClusterEvent event) {
+        if (event.is(ClusterEventBus.RESYNC) || event.local()) return; // nothing new, or fenced already
+        fence();
+    }
+
+    public double lagSeconds() {
+        return lagSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${skyblock.db.replica.lag-check-seconds:5}", timeUnit = TimeUnit.SECONDS)
+    public void probe() {
+        String primaryLsn;
+        try {
+            primaryLsn = primary.queryForObject("select pg_current_wal_lsn()::text", String.class);
+        } catch (Exception e) {
+            log.debug("Replica lag probe: primary unavailable: {}", e.getMessage());
+            return; // nothing to compare against; keep the last verdict
+        }
+        try {
+            Map<String, Object> row = replica.queryForMap("""
+                    select pg_is_in_recovery() as standby,
+                           coalesce(pg_wal_lsn_diff(?::pg_lsn, pg_last_wal_replay_lsn()), 0)::bigint as behind,
+                           coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0)::float8 as age
+                    """, primaryLsn);
+            boolean standby = Boolean.TRUE.equals(row.get("standby"));
+            long behind = standby ? Math.max(0, ((Number) row.get("behind")).longValue()) : 0;
+            double lag = behind == 0 ? 0 : ((Number) row.get("age")).doubleValue();
+            update(lag <= maxLagSeconds, lag, behind);
+
+            String fence = fenceLsn.get();
+            if (fence != null && Boolean.TRUE.equals(replica.queryForObject(
+                    "select coalesce(pg_last_wal_replay_lsn() >= ?::pg_lsn, true)", Boolean.class, fence))) {
+                fenceLsn.compareAndSet(fence, null); // a newer fence set meanwhile stays
+            }
+        } catch (Exception e) {
+            update(false, -1, -1);
+            log.debug("Replica lag probe failed: {}", e.getMessage());
+        }
+    }
+
+    /** Called by the router when a replica connection attempt fails between probes. */
+    void markDown(String reason) {
+        update(false, -1, -1);
+        log.debug("Replica marked down: {}", reason);
+    }
+
+    private void update(boolean nowUsable, double lag, long bytes) {
+        lagSeconds = lag;
+        lagBytes = bytes;
+        if (nowUsable != usable) {
+            if (nowUsable) log.info("Read replica in use (lag {} s)", lag);
+            else log.warn("Read replica bypassed, reads go to the primary (lag {} s, max {} s)", lag, maxLagSeconds);
+        }
+        usable = nowUsable;
+    }
+}
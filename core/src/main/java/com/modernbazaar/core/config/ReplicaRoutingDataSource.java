@@ -0,0 +1,70 @@
+package com.modernbazaar.core.config;
+
+import com.modernbazaar.core.util.PrimaryReads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Where read-only connections come from: the replica while {@link ReplicaLagMonitor}
+ * says it is fresh and has replayed the last market write, the primary otherwise (and
+ * under {@link PrimaryReads}). A replica
+ * that refuses a connection between probes is marked down and the caller gets a primary
+ * connection instead of an error. One that is merely saturated (no
+ * {@link ConnectionLimitingDataSource} permit in time) only sends that caller to the
+ * primary.
+ *
+ * Only ever asked for read-only connections; see {@link ReadReplicaConfig}.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor lag;
+    private final Counter toPrimary;
+    private final Counter toReplica;
+    private final Counter fallbacks;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lag,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.lag = lag;
+        this.toPrimary = meterRegistry.counter("modernbazaar.db.readonly.routed", "target", "primary");
+        this.toReplica = meterRegistry.counter("modernbazaar.db.readonly.routed", "target", "replica");
+        this.fallbacks = meterRegistry.counter("modernbazaar.db.replica.fallbacks");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (PrimaryReads.active() || !lag.replicaUsable()) {
+            toPrimary.increment();
+            return primary.getConnection();
+        }
+        try {
+            Connection c = replica.getConnection();
+            toReplica.increment();
+            return c;
+        } catch (ConnectionLimitingDataSource.PermitTimeoutException e) {
+            fallbacks.increment();
+            toPrimary.increment();
+            return primary.getConnection();
+        } catch (SQLException e) {
+            lag.markDown(e.getMessage());
+            fallbacks.increment();
+            toPrimary.increment();
+            return primary.getConnection();
+        }
+    }
+
+    /** Explicit credentials bypass routing: the replica pool is read-only and carries its own. */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        toPrimary.increment();
+        return primary.getConnection(username, password);
+    }
+}
@@ -0,0 +1,195 @@
+package com.modernbazaar.core.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.modernbazaar.core.service.CatalogGeneration;
+import com.modernbazaar.core.service.MarketGeneration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response-level cache for the hot public market GETs. The Spring caches in
+ * {@link CacheConfig} keep DTO graphs, so every hit still paid Jackson + gzip on
+ * 20–40 KB bodies. This stores the final encoded bytes (identity + gzip) keyed by
+ * the normalized request and the current {@link MarketGeneration} and
+ * {@link CatalogGeneration}, and writes them straight to the servlet output stream on hit.
+ *
+ * Entries never need explicit invalidation: a new poll or a catalog refresh that changed
+ * rows bumps a generation, old keys become unreachable and age out of the byte-weighted
+ * Caffeine cache.
+ *
+ * Only 200 JSON responses are stored, and none built from a stale cache entry
+ * ({@link StaleWhileRevalidateCache#STALE_HEADER}). Runs after {@link TieredRateLimitFilter},
+ * so hits still count against the caller's budget (serving them costs a memcpy).
+ */
+@Component
+@Order(3)
+public class ResponseBytesCacheFilter extends OncePerRequestFilter {
+
+    private static final List<String> CACHEABLE_PREFIXES = List.of(
+            "/api/bazaar/items",
+            "/api/skyblock/items"
+    );
+
+    private final MarketGeneration generation;
+    private final CatalogGeneration catalogGeneration;
+    private final boolean enabled;
+    private final int maxEntryBytes;
+    private final Cache<String, EncodedBody> cache;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bytesSaved;
+
+    /** Final bytes of one response, both encodings. Gzip is computed once, at store time. */
+    record EncodedBody(String contentType, byte[] identity, byte[] gzip) {
+        int weight() { return identity.length + gzip.length; }
+    }
+
+    public ResponseBytesCacheFilter(
+            MarketGeneration generation,
+            CatalogGeneration catalogGeneration,
+            MeterRegistry meterRegistry,
+            @Value("${skyblock.bazaar.response-cache.enabled:true}") boolean enabled,
+            @Value("${skyblock.bazaar.response-cache.max-bytes:67108864}") long maxBytes,
+            @Value("${skyblock.bazaar.response-cache.max-entry-bytes:2097152}") int maxEntryBytes,
+            @Value("${skyblock.bazaar.response-cache.ttl-seconds:300}") long ttlSeconds
+    ) {
+        this.generation = generation;
+        this.catalogGeneration = catalogGeneration;
+        this.enabled = enabled;
+        this.maxEntryBytes = maxEntryBytes;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, EncodedBody body) -> key.length() + body.weight())
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build();
+
+        this.hits = meterRegistry.counter("modernbazaar.http.response_cache.hits");
+        this.misses = meterRegistry.counter("modernbazaar.http.response_cache.misses");
+        this.bytesSaved = meterRegistry.counter("modernbazaar.http.response_cache.bytes_saved");
+        Gauge.builder("modernbazaar.http.response_cache.weighted_bytes", cache,
+                        c -> c.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L))
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest req) {
+        if (!enabled || !"GET".equals(req.getMethod())) return true;
+        String uri = req.getRequestURI();
+        return CACHEABLE_PREFIXES.stream().noneMatch(uri::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws ServletException, IOException {
+        String key = cacheKey(req, generation.current(), catalogGeneration.current());
+        boolean gzip = acceptsGzip(req);
+
+        EncodedBody cached = cache.getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+            byte[] body = write(res, cached, gzip, "HIT");
+            bytesSaved.increment(body.length);
+            return;
+        }
+
+        misses.increment();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(res);
+        chain.doFilter(req, wrapper);
+
+        byte[] identity = wrapper.getContentAsByteArray();
+        String contentType = wrapper.getContentType();
+        boolean storable = wrapper.getStatus() == HttpServletResponse.SC_OK
+                && wrapper.getHeader(StaleWhileRevalidateCache.STALE_HEADER) == null // don't pin stale data
+                && contentType != null && contentType.contains("json")
+                && identity.length > 0 && identity.length <= maxEntryBytes;
+        if (!storable) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        EncodedBody body = new EncodedBody(contentType, identity, gzip(identity));
+        cache.put(key, body);
+        write(res, body, gzip, "MISS");
+    }
+
+    /** Writes the chosen encoding directly; returns the bytes sent. */
+    private static byte[] write(HttpServletResponse res, EncodedBody body, boolean gzip, String cacheStatus)
+            throws IOException {
+        byte[] bytes = gzip ? body.gzip() : body.identity();
+        res.setStatus(HttpServletResponse.SC_OK);
+        res.setContentType(body.contentType());
+        res.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        res.setHeader("X-Cache", cacheStatus);
+        if (gzip) res.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip"); // servlet compression skips pre-encoded bodies
+        res.setContentLength(bytes.length);
+        try (OutputStream out = res.getOutputStream()) {
+            out.write(bytes);
+        }
+        return bytes;
+    }
+
+    /** URI + query params sorted by name (and value) + generations, so param order never splits entries. */
+    static String cacheKey(HttpServletRequest req, long marketGen, long catalogGen) {
+        StringBuilder sb = new StringBuilder(req.getRequestURI()).append('?');
+        Map<String, String[]> sorted = new TreeMap<>(req.getParameterMap());
+        sorted.forEach((name, values) -> {
+            String[] v = values.clone();
+            Arrays.sort(v);
+            for (String value : v) sb.append(name).append('=').append(value).append('&');
+        });
+        return sb.append('#').append(marketGen).append('.').append(catalogGen).toString();
+    }
+
+    static boolean acceptsGzip(HttpServletRequest req) {
+        String ae = req.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (ae == null) return false;
+        for (String part : ae.split(",")) {
+            String[] tok = part.trim().split(";");
+            if (!tok[0].trim().equalsIgnoreCase("gzip")) continue;
+            return tok.length < 2 || qValue(tok[1]) > 0;
+        }
+        return false;
+    }
+
+    /** {@code q=0}, {@code q=0.0}, ... mean "not acceptable"; an unparsable weight counts as 1. */
+    private static double qValue(String param) {
+        String p = param.replace(" ", "");
+        if (!p.startsWith("q=")) return 1;
+        try {
+            return Double.parseDouble(p.substring(2));
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    private static byte[] gzip(byte[] identity) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(Math.max(64, identity.length / 4));
+        try (GZIPOutputStream gz = new GZIPOutputStream(bos)) {
+            gz.write(identity);
+        }
+        return bos.toByteArray();
+    }
+}
@@ -226,6 +226,9 @@ public class SecurityConfig {
                         // Public funnel: market data READS are public (SEO item pages, link
                         // shares, logged-out browsing). Mutations stay authenticated below.
                         .requestMatchers(HttpMethod.GET, "/api/bazaar/**", "/api/skyblock/**").permitAll()
+                        // Watchlist batch lookups are reads that only use POST for the id list.
+                        .requestMatchers(HttpMethod.POST, "/api/bazaar/items/batch",
+                                "/api/bazaar/items/history/batch").permitAll()
                         // Strategy-specific permissions: require feature scopes
                         // Feature access is enforced by DB plan in StrategiesController
                         // (the source of truth), so here we only require authentication.
@@ -296,7 +299,7 @@ public class SecurityConfig {
         configuration.setAllowedMethods(Arrays.asList(allowedMethods.split(",")));
         // Explicit header allowlist (safer than "*" when credentials are allowed).
         configuration.setAllowedHeaders(List.of("Authorization", "Content-Type", "Accept", "Origin", "X-Requested-With"));
-        configuration.setExposedHeaders(List.of("Authorization"));
+        configuration.setExposedHeaders(List.of("Authorization", StaleWhileRevalidateCache.STALE_HEADER));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -317,6 +320,8 @@ public class SecurityConfig {
     private String[] getPublicEndpoints() {
         return new String[]{
             "/actuator/health",
+            "/actuator/health/liveness",
+            "/actuator/health/readiness", // container healthcheck (status only; details stay admin)
             "/actuator/prometheus",
             "/v3/api-docs/**",
             "/swagger-ui.html",
@@ -337,7 +342,8 @@ public class SecurityConfig {
      */
     private String[] getAdminEndpoints() {
         return new String[]{
-                "/api/admin/**"
+                "/api/admin/**",
+                "/actuator/jfr", "/actuator/jfr/**" // on-demand Flight Recorder profiling
         };
     }
     
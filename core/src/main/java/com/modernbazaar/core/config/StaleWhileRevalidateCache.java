@@ -0,0 +1,197 @@
+package com.modernbazaar.core.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Spring cache with stale-while-revalidate semantics, for the market and strategy
+ * caches ({@code @Cacheable(sync = true)}, which hands us the loader).
+ *
+ * An entry is fresh for {@code fresh}; after that it is still returned at once while
+ * one background reload per key replaces it, so an expired entry costs the request
+ * nothing. If reloads keep failing (database restarting, slow) the old value goes on
+ * being served for up to {@code grace} more, and only then does a request load
+ * synchronously (and fail, if the database is still down). Responses that used a
+ * stale value carry {@value #STALE_HEADER} with its age.
+ *
+ * {@link #clear()} (cluster invalidation after a poll) does not drop anything: it marks
+ * every entry stale, so the next hit still answers from cache and reloads behind it
+ * instead of every first request after a poll recomputing synchronously. {@link #evict}
+ * and {@link #invalidate()} (resync after missed events) drop entries immediately. In
+ * all three cases a reload that started before them is discarded.
+ *
+ * A background reload runs with the {@code SecurityContext} of the request that found
+ * the entry stale, so loaders that go through {@code HeavyWorkExecutor} are queued at
+ * that caller's tier rather than as anonymous.
+ */
+@Slf4j
+public class StaleWhileRevalidateCache implements Cache {
+
+    /** Seconds since the served data was loaded; only present when it is past its TTL. */
+    public static final String STALE_HEADER = "X-Data-Stale-Seconds";
+
+    private record Entry(Object value, long loadedAt) {}
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Entry> store;
+    private final long freshNanos;
+    private final Executor refresher;
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+    private final AtomicLong epoch = new AtomicLong();
+    /** Entries loaded at or before this (nanoTime) are stale regardless of age; moved by {@link #clear()}. */
+    private volatile long staleUpTo = System.nanoTime() - 1;
+
+    private final Counter staleServed;
+    private final Counter refreshed;
+    private final Counter refreshFailed;
+
+    public StaleWhileRevalidateCache(String name, Duration fresh, Duration grace, long maximumSize,
+                                     Executor refresher, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.freshNanos = fresh.toNanos();
+        this.refresher = refresher;
+        this.store = Caffeine.newBuilder()
+                .expireAfterWrite(fresh.plus(grace))
+                .maximumSize(maximumSize)
+                .build();
+        this.staleServed = meterRegistry.counter("modernbazaar.cache.stale.served", "cache", name);
+        this.refreshed = meterRegistry.counter("modernbazaar.cache.refresh", "cache", name, "outcome", "ok");
+        this.refreshFailed = meterRegistry.counter("modernbazaar.cache.refresh", "cache", name, "outcome", "failed");
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return store;
+    }
+
+    /* ───── READ ───── */
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Entry e = store.getIfPresent(key);
+        if (e == null) return null;
+        if (isStale(e)) servedStale(e);
+        return new SimpleValueWrapper(e.value());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper w = get(key);
+        Object v = w == null ? null : w.get();
+        if (v != null && type != null && !type.isInstance(v)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + v);
+        }
+        return (T) v;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Entry e = store.getIfPresent(key);
+        if (e != null) {
+            if (isStale(e)) {
+                servedStale(e);
+                refreshAsync(key, valueLoader);
+            }
+            return (T) e.value();
+        }
+        return (T) store.get(key, k -> load(k, valueLoader)).value(); // one load per key at a time
+    }
+
+    private Entry load(Object key, Callable<?> valueLoader) {
+        long startedAt = System.nanoTime(); // the data is as old as the read, not its completion
+        try {
+            return new Entry(valueLoader.call(), startedAt);
+        } catch (Exception ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+    }
+
+    private void refreshAsync(Object key, Callable<?> valueLoader) {
+        if (!refreshing.add(key)) return; // a reload for this key is already under way
+        long startedIn = epoch.get();
+        try {
+            refresher.execute(new DelegatingSecurityContextRunnable(() -> {
+                try {
+                    Entry fresh = load(key, valueLoader);
+                    if (epoch.get() == startedIn) store.put(key, fresh); // else invalidated meanwhile
+                    refreshed.increment();
+                } catch (RuntimeException ex) {
+                    refreshFailed.increment(); // keep serving the old value until the grace runs out
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    log.debug("Refresh of {}[{}] failed: {}", name, key, cause.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            }));
+        } catch (RejectedExecutionException ex) {
+            refreshing.remove(key); // refresher saturated; the next stale hit tries again
+        }
+    }
+
+    private boolean isStale(Entry e) {
+        return System.nanoTime() - e.loadedAt() > freshNanos || e.loadedAt() - staleUpTo <= 0;
+    }
+
+    /** Counts and flags the current HTTP response, keeping the oldest age if several caches were stale. */
+    private void servedStale(Entry e) {
+        staleServed.increment();
+        RequestAttributes attrs = RequestContextHolder.getRequestAttributes();
+        if (!(attrs instanceof ServletRequestAttributes sra)) return;
+        HttpServletResponse res = sra.getResponse();
+        if (res == null || res.isCommitted()) return;
+        long age = (System.nanoTime() - e.loadedAt()) / 1_000_000_000L;
+        String prev = res.getHeader(STALE_HEADER);
+        if (prev == null || Long.parseLong(prev) < age) res.setHeader(STALE_HEADER, Long.toString(age));
+    }
+
+    /* ───── WRITE ───── */
+
+    @Override
+    public void put(Object key, Object value) {
+        store.put(key, new Entry(value, System.nanoTime()));
+    }
+
+    @Override
+    public void evict(Object key) {
+        epoch.incrementAndGet();
+        store.invalidate(key);
+    }
+
+    /** Marks every entry stale: served (flagged) until a background reload replaces it or the grace runs out. */
+    @Override
+    public void clear() {
+        epoch.incrementAndGet();
+        staleUpTo = System.nanoTime();
+    }
+
+    @Override
+    public boolean invalidate() {
+        epoch.incrementAndGet();
+        store.invalidateAll();
+        return true;
+    }
+}
@@ -0,0 +1,122 @@
+package com.modernbazaar.core.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.modernbazaar.core.api.GlobalExceptionHandler.ErrorResponse;
+import com.modernbazaar.core.service.TieredRateLimiter;
+import com.modernbazaar.core.service.TieredRateLimiter.Decision;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies {@link TieredRateLimiter} to the market and strategy APIs. Runs after
+ * Spring Security (so the JWT subject is known) and before the response-bytes
+ * cache, so cached responses count against the caller's budget too.
+ *
+ * Cost weights: strategy scoring and history with minute points are several
+ * times heavier than a list page, so they spend more tokens per call.
+ */
+@Component
+@Order(2)
+public class TieredRateLimitFilter extends OncePerRequestFilter {
+
+    private static final List<String> LIMITED_PREFIXES = List.of(
+            "/api/bazaar/",
+            "/api/strategies/"
+    );
+
+    private final TieredRateLimiter limiter;
+    private final ObjectMapper mapper;
+    private final boolean enabled;
+    private final int strategiesCost;
+    private final int historyPointsCost;
+    private final boolean trustForwardedFor;
+
+    public TieredRateLimitFilter(
+            TieredRateLimiter limiter,
+            ObjectMapper mapper,
+            @Value("${skyblock.ratelimit.enabled:true}") boolean enabled,
+            @Value("${skyblock.ratelimit.cost.strategies:10}") int strategiesCost,
+            @Value("${skyblock.ratelimit.cost.history-points:5}") int historyPointsCost,
+            @Value("${skyblock.ratelimit.trust-forwarded-for:true}") boolean trustForwardedFor
+    ) {
+        this.limiter = limiter;
+        this.mapper = mapper;
+        this.enabled = enabled;
+        this.strategiesCost = strategiesCost;
+        this.historyPointsCost = historyPointsCost;
+        this.trustForwardedFor = trustForwardedFor;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest req) {
+        if (!enabled || "OPTIONS".equalsIgnoreCase(req.getMethod())) return true;
+        String uri = req.getRequestURI();
+        return LIMITED_PREFIXES.stream().noneMatch(uri::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws ServletException, IOException {
+        Decision d = limiter.tryAcquire(currentSubject(), clientIp(req), costOf(req));
+        res.setHeader("X-RateLimit-Limit", Integer.toString(d.limitPerMinute()));
+        res.setHeader("X-RateLimit-Remaining", Long.toString(d.remaining()));
+
+        if (!d.allowed()) {
+            res.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            res.setHeader("Retry-After", Long.toString(d.retryAfterSeconds()));
+            mapper.writeValue(res.getOutputStream(), new ErrorResponse(
+                    Instant.now(),
+                    HttpStatus.TOO_MANY_REQUESTS.value(),
+                    "Rate limit exceeded, please retry in a bit.",
+                    Map.of("tier", d.tier(),
+                           "limitPerMinute", d.limitPerMinute(),
+                           "retryAfterSeconds", d.retryAfterSeconds())));
+            return;
+        }
+        chain.doFilter(req, res);
+    }
+
+    int costOf(HttpServletRequest req) {
+        String uri = req.getRequestURI();
+        if (uri.startsWith("/api/strategies/")) return strategiesCost;
+        if (uri.endsWith("/history/batch")) return historyPointsCost; // withPoints is in the body; assume the heavy case
+        if (uri.endsWith("/history") && !"false".equalsIgnoreCase(req.getParameter("withPoints"))) {
+            return historyPointsCost; // withPoints defaults to true
+        }
+        return 1;
+    }
+
+    private static String currentSubject() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth instanceof JwtAuthenticationToken jwt ? jwt.getToken().getSubject() : null;
+    }
+
+    /** Behind Caddy the socket peer is the proxy; the last X-Forwarded-For hop is the one it added. */
+    private String clientIp(HttpServletRequest req) {
+        if (trustForwardedFor) {
+            String xff = req.getHeader("X-Forwarded-For");
+            if (xff != null && !xff.isBlank()) {
+                String[] hops = xff.split(",");
+                return hops[hops.length - 1].trim();
+            }
+        }
+        return req.getRemoteAddr();
+    }
+}
@@ -0,0 +1,67 @@
+package com.modernbazaar.core.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Virtual-thread mode, switched by {@code spring.threads.virtual.enabled}
+ * ({@code VIRTUAL_THREADS=true}). Boot itself then runs Tomcat requests, {@code @Scheduled}
+ * jobs and the application task executor on virtual threads, which covers the blocking
+ * {@code WebClient.block()} in the poll and every JDBC call. This class adds what the
+ * switch needs to be safe here:
+ * <ul>
+ *   <li>a connection limiter in front of each Hikari pool, so request concurrency is
+ *       bounded by the pool again ({@link ConnectionLimitingDataSource}; with a read
+ *       replica, {@link ReadReplicaConfig} wraps its two pools itself);</li>
+ *   <li>pinning diagnostics ({@link VirtualThreadPinningMonitor}).</li>
+ * </ul>
+ * The jobs' single-flight locks are {@code ReentrantLock}s rather than monitors, so a
+ * job waiting on JDBC inside its critical section does not pin its carrier.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadConfig {
+
+    /**
+     * Wraps Boot's single Hikari pool, sized to its {@code maximumPoolSize}. With the
+     * replica on, the {@code dataSource} bean is a lazy proxy rather than a pool and is
+     * left alone.
+     */
+    @Bean
+    public static BeanPostProcessor connectionLimiter(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${skyblock.db.acquire-timeout-ms:5000}") long acquireTimeoutMs
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource pool && "dataSource".equals(beanName)) {
+                    log.info("Virtual threads on: limiting database access to {} concurrent connections",
+                            pool.getMaximumPoolSize());
+                    return ConnectionLimitingDataSource.forPool(pool, "primary", acquireTimeoutMs,
+                            meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${skyblock.vthreads.pinned-threshold-ms:20}") long thresholdMs
+    ) {
+        return new VirtualThreadPinningMonitor(meterRegistry, Duration.ofMillis(thresholdMs));
+    }
+}
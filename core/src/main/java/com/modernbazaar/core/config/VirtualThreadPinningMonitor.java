@@ -0,0 +1,75 @@
+package com.modernbazaar.core.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pinning diagnostics for virtual-thread mode. Streams the JDK's
+ * {@code jdk.VirtualThreadPinned} event (a virtual thread that blocked while holding
+ * a monitor or inside native code, so its carrier blocked too) into
+ * {@code modernbazaar.vthreads.pinned} and logs each distinct pinning site once with
+ * its top frames. Registered by {@link VirtualThreadConfig} only.
+ */
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private static final int LOGGED_FRAMES = 8;
+
+    private final Duration threshold;
+    private final Counter pinned;
+    private final Set<String> seenSites = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry, Duration threshold) {
+        this.threshold = threshold;
+        this.pinned = meterRegistry.counter("modernbazaar.vthreads.pinned");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        try {
+            stream = new RecordingStream();
+            stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+            stream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+            stream.startAsync();
+            log.info("Virtual-thread pinning monitor started (threshold {} ms)", threshold.toMillis());
+        } catch (Exception e) {
+            log.warn("Virtual-thread pinning monitor unavailable: {}", e.getMessage());
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.increment();
+        RecordedStackTrace trace = event.getStackTrace();
+        if (trace == null) return;
+        List<RecordedFrame> frames = trace.getFrames();
+        StringBuilder site = new StringBuilder();
+        for (int i = 0; i < Math.min(LOGGED_FRAMES, frames.size()); i++) {
+            RecordedFrame f = frames.get(i);
+            site.append("\n    at ").append(f.getMethod().getType().getName())
+                .append('.').append(f.getMethod().getName())
+                .append(':').append(f.getLineNumber());
+        }
+        if (seenSites.add(site.toString())) {
+            log.warn("Virtual thread pinned for {} ms:{}", event.getDuration().toMillis(), site);
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stop() {
+        if (stream != null) stream.close();
+    }
+}
@@ -0,0 +1,47 @@
+package com.modernbazaar.core.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timestamp;
+
+import java.time.Instant;
+
+/** Compaction of one hour of snapshots into hour summaries and points. */
+@Name("modernbazaar.Compaction")
+@Label("Hour Compaction")
+@Category({"ModernBazaar", "Pipeline"})
+@Description("One snapshot hour folded into summaries/points and deleted")
+@StackTrace(false)
+public class CompactionEvent extends Event {
+
+    @Label("Hour Start")
+    @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+    long hourStart;
+
+    @Label("Success")
+    boolean success;
+
+    @Label("Products")
+    int products;
+
+    @Label("Points Kept")
+    int pointsKept;
+
+    public static CompactionEvent start(Instant hourStart) {
+        CompactionEvent e = new CompactionEvent();
+        e.hourStart = hourStart.toEpochMilli();
+        e.begin();
+        return e;
+    }
+
+    /** Marks the hour compacted; {@link #commit()} still has to be called. */
+    public void finish(int products, int pointsKept) {
+        this.success = true;
+        this.products = products;
+        this.pointsKept = pointsKept;
+    }
+}
@@ -0,0 +1,43 @@
+package com.modernbazaar.core.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One full finance-metrics recompute; committed in a {@code finally}, so failed runs show too. */
+@Name("modernbazaar.FinanceRecompute")
+@Label("Finance Recompute")
+@Category({"ModernBazaar", "Pipeline"})
+@Description("Recompute of the pre-aggregated finance metrics for every product")
+@StackTrace(false)
+public class FinanceRecomputeEvent extends Event {
+
+    @Label("Windows")
+    String windows;
+
+    @Label("Success")
+    boolean success;
+
+    @Label("Products")
+    int products;
+
+    @Label("Rows Upserted")
+    int upserts;
+
+    public static FinanceRecomputeEvent start(String windows) {
+        FinanceRecomputeEvent e = new FinanceRecomputeEvent();
+        e.windows = windows;
+        e.begin();
+        return e;
+    }
+
+    /** Marks the run successful; {@link #commit()} still has to be called. */
+    public void finish(int products, int upserts) {
+        this.success = true;
+        this.products = products;
+        this.upserts = upserts;
+    }
+}
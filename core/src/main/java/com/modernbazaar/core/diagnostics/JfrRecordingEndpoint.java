@@ -0,0 +1,228 @@
+package com.modernbazaar.core.diagnostics;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.OptionalParameter;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * On-demand Flight Recorder profiling ({@code /actuator/jfr}, admin only via SecurityConfig).
+ *
+ * <pre>
+ *   POST   /actuator/jfr          {"seconds":120,"settings":"profile"}  start
+ *   GET    /actuator/jfr          state of the current recording and the files kept
+ *   DELETE /actuator/jfr          stop early
+ *   GET    /actuator/jfr/{file}   download a finished .jfr
+ * </pre>
+ *
+ * One recording at a time, bounded by {@code max-seconds} and {@code max-size-mb}, with the
+ * JDK's {@code default} (~1% overhead) or {@code profile} (~2%: allocation samples, lock
+ * contention over 10 ms) settings. The {@code modernbazaar.*} events (poll, compaction,
+ * finance recompute, strategy scoring) are always included. The last {@code keep} files stay
+ * in {@code dir}; open them in JDK Mission Control or with {@code jfr print}.
+ */
+@Component
+@WebEndpoint(id = "jfr")
+@Slf4j
+public class JfrRecordingEndpoint {
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+    private static final List<String> SETTINGS = List.of("default", "profile");
+    private static final DateTimeFormatter FILE_TS = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+
+    private final Path dir;
+    private final Duration maxDuration;
+    private final long maxSizeBytes;
+    private final int keep;
+
+    private Recording recording;                       // guarded by LOCK
+    private Path recordingFile;                        // guarded by LOCK
+    private final Deque<Path> files = new ArrayDeque<>(); // finished, oldest first; guarded by LOCK
+
+    public JfrRecordingEndpoint(
+            @Value("${skyblock.diagnostics.jfr.dir:${java.io.tmpdir}/modernbazaar-jfr}") String dir,
+            @Value("${skyblock.diagnostics.jfr.max-seconds:600}") long maxSeconds,
+            @Value("${skyblock.diagnostics.jfr.max-size-mb:200}") long maxSizeMb,
+            @Value("${skyblock.diagnostics.jfr.keep:3}") int keep
+    ) {
+        this.dir = Paths.get(dir);
+        this.maxDuration = Duration.ofSeconds(Math.max(1, maxSeconds));
+        this.maxSizeBytes = Math.max(1, maxSizeMb) * 1024 * 1024;
+        this.keep = Math.max(1, keep);
+    }
+
+    /* ───── OPERATIONS ───── */
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        LOCK.lock();
+        try {
+            collectFinished();
+            return describe();
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> start(@OptionalParameter Integer seconds, @OptionalParameter String settings) {
+        String config = settings == null || settings.isBlank() ? "profile" : settings.trim().toLowerCase();
+        if (!SETTINGS.contains(config)) {
+            return error(WebEndpointResponse.STATUS_BAD_REQUEST, "settings must be one of " + SETTINGS);
+        }
+        Duration duration = seconds == null || seconds <= 0
+                ? Duration.ofSeconds(120) : Duration.ofSeconds(seconds);
+        if (duration.compareTo(maxDuration) > 0) duration = maxDuration;
+
+        LOCK.lock();
+        try {
+            collectFinished();
+            if (recording != null) {
+                return error(409, "A recording is already running; DELETE /actuator/jfr to stop it");
+            }
+            Files.createDirectories(dir);
+            Instant now = Instant.now();
+            Path file = dir.resolve("modernbazaar-" + FILE_TS.format(now) + ".jfr");
+            Recording r = new Recording(Configuration.getConfiguration(config));
+            r.setName("modernbazaar-" + config);
+            r.setToDisk(true);
+            r.setDuration(duration);             // JFR stops it and writes the file by itself
+            r.setMaxSize(maxSizeBytes);
+            r.setDestination(file);
+            r.start();
+            recording = r;
+            recordingFile = file;
+            log.warn("JFR recording started: {} settings, {} s, up to {} MB → {}",
+                    config, duration.toSeconds(), maxSizeBytes / (1024 * 1024), file);
+            return new WebEndpointResponse<>(describe());
+        } catch (Exception e) {
+            log.warn("JFR recording could not start: {}", e.getMessage());
+            return error(WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR, "Could not start recording: " + e.getMessage());
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<Map<String, Object>> stop() {
+        LOCK.lock();
+        try {
+            collectFinished();
+            if (recording == null) return error(WebEndpointResponse.STATUS_NOT_FOUND, "No recording is running");
+            recording.stop(); // writes the destination file
+            collectFinished();
+            return new WebEndpointResponse<>(describe());
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> download(@Selector String file) {
+        LOCK.lock();
+        try {
+            collectFinished();
+            // only names this endpoint wrote; never a path from the request
+            return files.stream()
+                    .filter(p -> p.getFileName().toString().equals(file) && Files.isReadable(p))
+                    .findFirst()
+                    .map(p -> new WebEndpointResponse<Resource>(new FileSystemResource(p)))
+                    .orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /* ───── STATE ───── */
+
+    /** Moves a recording that ended (duration reached or stopped) to the kept files. */
+    private void collectFinished() {
+        if (recording == null || recording.getState() == RecordingState.RUNNING
+                || recording.getState() == RecordingState.DELAYED || recording.getState() == RecordingState.NEW) {
+            return;
+        }
+        recording.close();
+        recording = null;
+        if (Files.exists(recordingFile)) {
+            files.addLast(recordingFile);
+            log.info("JFR recording finished: {}", recordingFile);
+        }
+        recordingFile = null;
+        while (files.size() > keep) {
+            Path old = files.removeFirst();
+            try {
+                Files.deleteIfExists(old);
+            } catch (IOException e) {
+                log.debug("Could not delete old recording {}: {}", old, e.getMessage());
+            }
+        }
+    }
+
+    private Map<String, Object> describe() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        if (recording != null) {
+            Map<String, Object> current = new LinkedHashMap<>();
+            current.put("name", recording.getName());
+            current.put("state", recording.getState().name());
+            current.put("startedAt", recording.getStartTime());
+            current.put("duration", recording.getDuration() == null ? null : recording.getDuration().toSeconds());
+            current.put("sizeBytes", recording.getSize());
+            current.put("file", recordingFile.getFileName().toString());
+            out.put("recording", current);
+        }
+        out.put("files", files.stream().map(p -> {
+            Map<String, Object> f = new LinkedHashMap<>();
+            f.put("file", p.getFileName().toString());
+            try {
+                f.put("sizeBytes", Files.size(p));
+            } catch (IOException e) {
+                f.put("sizeBytes", null);
+            }
+            return f;
+        }).toList());
+        out.put("maxSeconds", maxDuration.toSeconds());
+        out.put("maxSizeMb", maxSizeBytes / (1024 * 1024));
+        return out;
+    }
+
+    private static WebEndpointResponse<Map<String, Object>> error(int status, String message) {
+        return new WebEndpointResponse<>(Map.of("error", message), status);
+    }
+
+    @PreDestroy
+    public void close() {
+        LOCK.lock();
+        try {
+            if (recording != null) recording.close(); // a half-written profile is not worth the shutdown delay
+        } finally {
+            LOCK.unlock();
+        }
+    }
+}
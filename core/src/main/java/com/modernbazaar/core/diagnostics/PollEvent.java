@@ -0,0 +1,39 @@
+package com.modernbazaar.core.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One Hypixel bazaar poll, fetch to flush; committed in a {@code finally}, so failed polls show too. */
+@Name("modernbazaar.Poll")
+@Label("Bazaar Poll")
+@Category({"ModernBazaar", "Pipeline"})
+@Description("Fetch, dedupe and persist of one Hypixel bazaar response")
+@StackTrace(false)
+public class PollEvent extends Event {
+
+    @Label("Success")
+    boolean success;
+
+    @Label("Products Fetched")
+    int products;
+
+    @Label("Snapshots Persisted")
+    int persisted;
+
+    public static PollEvent start() {
+        PollEvent e = new PollEvent();
+        e.begin();
+        return e;
+    }
+
+    /** Marks the poll successful; {@link #commit()} still has to be called. */
+    public void finish(int products, int persisted) {
+        this.success = true;
+        this.products = products;
+        this.persisted = persisted;
+    }
+}
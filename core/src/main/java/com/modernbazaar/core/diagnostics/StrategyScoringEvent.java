@@ -0,0 +1,49 @@
+package com.modernbazaar.core.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One strategy scoring pass (flipping or manipulation) over the latest snapshots.
+ * The caller commits it in a {@code finally}, so empty and failed passes are recorded too.
+ */
+@Name("modernbazaar.StrategyScoring")
+@Label("Strategy Scoring")
+@Category({"ModernBazaar", "Strategies"})
+@Description("Load and score of the candidate products for one strategy request")
+@StackTrace(false)
+public class StrategyScoringEvent extends Event {
+
+    @Label("Strategy")
+    String strategy;
+
+    @Label("Success")
+    boolean success;
+
+    @Label("Candidates")
+    int candidates;
+
+    @Label("Results")
+    int results;
+
+    public static StrategyScoringEvent start(String strategy) {
+        StrategyScoringEvent e = new StrategyScoringEvent();
+        e.strategy = strategy;
+        e.begin();
+        return e;
+    }
+
+    public void candidates(int candidates) {
+        this.candidates = candidates;
+    }
+
+    /** Marks the pass successful; {@link #commit()} still has to be called. */
+    public void finish(int results) {
+        this.success = true;
+        this.results = results;
+    }
+}
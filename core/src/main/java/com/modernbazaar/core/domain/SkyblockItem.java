@@ -77,4 +77,11 @@ public class SkyblockItem {
      */
     @Column(name = "last_refreshed", nullable = false)
     private Instant lastRefreshed;
+
+    /**
+     * Hash of the item's raw JSON as last received; a refresh skips items whose
+     * hash is unchanged without mapping them.
+     */
+    @Column(name = "content_hash", length = 32)
+    private String contentHash;
 }
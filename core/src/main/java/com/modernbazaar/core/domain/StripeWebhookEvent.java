@@ -34,4 +34,22 @@ public class StripeWebhookEvent {
 
     @Column(name = "last_error", length = 1000)
     private String lastError;
+
+    /** Raw verified event body, replayed by the inbox worker. */
+    @Column(columnDefinition = "text")
+    private String payload;
+
+    /** Stripe customer (or user / event id fallback); events sharing it are applied in order. */
+    @Column(name = "order_key", length = 255)
+    private String orderKey;
+
+    /** Stripe's {@code created} epoch seconds — the ordering within an order key. */
+    @Column(name = "stripe_created")
+    private Long stripeCreated;
+
+    @Column(name = "next_attempt_at")
+    private OffsetDateTime nextAttemptAt;
+
+    @Column(name = "locked_until")
+    private OffsetDateTime lockedUntil;
 }
@@ -48,6 +48,10 @@ public class UserSubscription {
     @Column(name = "last_seen_at")
     private OffsetDateTime lastSeenAt;
 
+    /** When the status last turned canceled; kept as-is by later updates (analytics bucket on it). */
+    @Column(name = "canceled_at")
+    private OffsetDateTime canceledAt;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private OffsetDateTime createdAt;
 
@@ -59,11 +63,19 @@ public class UserSubscription {
         var now = OffsetDateTime.now();
         createdAt = now;
         updatedAt = now;
+        trackCancellation(now);
     }
 
     @PreUpdate
     void onUpdate() {
-        updatedAt = OffsetDateTime.now();
+        var now = OffsetDateTime.now();
+        updatedAt = now;
+        trackCancellation(now);
+    }
+
+    private void trackCancellation(OffsetDateTime now) {
+        if (!"canceled".equals(status)) canceledAt = null;  // reactivated: a later cancel is a new one
+        else if (canceledAt == null) canceledAt = now;
     }
 }
 
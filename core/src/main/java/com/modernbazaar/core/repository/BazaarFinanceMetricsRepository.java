@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -17,4 +18,8 @@ public interface BazaarFinanceMetricsRepository extends JpaRepository<BazaarFina
                                                                  @Param("ids") Collection<String> ids);
 
     Optional<BazaarFinanceMetrics> findByProductIdAndWindowHours(String productId, int windowHours);
+
+    /** When the last recompute wrote (pipeline lag). */
+    @Query("select max(m.computedAt) from BazaarFinanceMetrics m")
+    Instant findNewestComputedAt();
 }
@@ -45,6 +45,35 @@ public interface BazaarItemHourSummaryRepository extends JpaRepository<BazaarIte
                                                     @Param("from") Instant from,
                                                     @Param("to")   Instant to);
 
+    /** Set-based {@link #findRange} for batch lookups; ordered per product then hour. */
+    @Query("""
+        select s
+        from   BazaarItemHourSummary s
+        where  s.productId in :ids
+          and  s.hourStart >= :from
+          and  s.hourStart <  :to
+        order by s.productId asc, s.hourStart asc
+        """)
+    List<BazaarItemHourSummary> findRangeForProductIds(
+            @Param("ids")  Collection<String> ids,
+            @Param("from") Instant from,
+            @Param("to")   Instant to);
+
+    /** Set-based {@link #findRangeWithPoints} for batch lookups. */
+    @EntityGraph(attributePaths = {"points"})
+    @Query("""
+        select distinct hs
+        from   BazaarItemHourSummary hs
+               left join fetch hs.points p
+        where  hs.productId in :ids
+          and  hs.hourStart >= :from
+          and  hs.hourStart <  :to
+        order  by hs.productId asc, hs.hourStart asc
+        """)
+    List<BazaarItemHourSummary> findRangeWithPointsForProductIds(@Param("ids")  Collection<String> ids,
+                                                                 @Param("from") Instant from,
+                                                                 @Param("to")   Instant to);
+
     @Query(value = """
         select distinct on (hs.product_id) hs.*
         from   bazaar_hour_summary hs
@@ -132,4 +161,8 @@ public interface BazaarItemHourSummaryRepository extends JpaRepository<BazaarIte
      */
     @Query("select min(hs.hourStart) from BazaarItemHourSummary hs")
     Instant findOldestHourStart();
+
+    /** Start of the newest compacted hour (pipeline lag). */
+    @Query("select max(hs.hourStart) from BazaarItemHourSummary hs")
+    Instant findNewestHourStart();
 }
@@ -23,4 +23,7 @@ public interface BazaarItemRepository extends JpaRepository<BazaarItem, String>
 
     @EntityGraph(attributePaths = "skyblockItem")
     List<BazaarItem> findAllByProductIdIn(Set<String> ids);
+
+    @Query("select b.productId from BazaarItem b")
+    List<String> findAllProductIds();
 }
\ No newline at end of file
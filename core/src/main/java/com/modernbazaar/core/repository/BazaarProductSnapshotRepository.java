@@ -1,7 +1,9 @@
 package com.modernbazaar.core.repository;
 
 import com.modernbazaar.core.domain.BazaarItemSnapshot;
+import com.modernbazaar.core.repository.projection.CursorIdRow;
 import com.modernbazaar.core.repository.projection.PagedIdRow;
+import com.modernbazaar.core.repository.projection.MarketOverviewRow;
 import com.modernbazaar.core.repository.projection.SellSideAggregateRow;
 import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.*;
@@ -36,6 +38,13 @@ public interface BazaarProductSnapshotRepository
     @Query("select min(s.fetchedAt) from BazaarItemSnapshot s")
     Instant findOldestFetchedAt();
 
+    /** Newest / oldest Hypixel timestamp still stored (pipeline lag; uses idx_snapshot_last_updated). */
+    @Query("select max(s.lastUpdated) from BazaarItemSnapshot s")
+    Instant findNewestLastUpdated();
+
+    @Query("select min(s.lastUpdated) from BazaarItemSnapshot s")
+    Instant findOldestLastUpdated();
+
     @Query("""
         select s from BazaarItemSnapshot s
         where s.productId = :productId
@@ -52,6 +61,11 @@ public interface BazaarProductSnapshotRepository
         return findLatestSnapshotsByProductId(productId, fromTime, PageRequest.of(0, limit));
     }
 
+    /**
+     * Latest snapshot per product matching the filter. Text search comes either as
+     * {@code q} (ILIKE fallback) or as the search index's candidate ids with
+     * {@code restrict = true}; the list/keyset/count queries below take the same pair.
+     */
     @Query(value = """
 
             select distinct on (s.product_id) s.*
@@ -60,6 +74,7 @@ public interface BazaarProductSnapshotRepository
         where ( :q is null
                 or si.name ilike concat('%', :q, '%')
                 or s.product_id ilike concat('%', :q, '%') )
+          and ( :restrict = false or s.product_id in (:ids) )
           and ( :minSell  is null or s.weighted_two_percent_sell_price >= :minSell )
           and ( :maxSell  is null or s.weighted_two_percent_sell_price <= :maxSell )
           and ( :minBuy   is null or s.weighted_two_percent_buy_price  >= :minBuy  )
@@ -70,6 +85,8 @@ public interface BazaarProductSnapshotRepository
         """, nativeQuery = true)
     List<BazaarItemSnapshot> searchLatest(
             @Param("q")        String q,
+            @Param("restrict") boolean restrict,
+            @Param("ids")      Collection<String> ids,
             @Param("minSell")  Double minSell,
             @Param("maxSell")  Double maxSell,
             @Param("minBuy")   Double minBuy,
@@ -95,6 +112,7 @@ public interface BazaarProductSnapshotRepository
           where  (:q is null
                     or si.name ilike concat('%', :q, '%')
                     or s.product_id ilike concat('%', :q, '%'))
+            and  (:restrict = false or s.product_id in (:ids))
             and  (:minSell  is null or s.weighted_two_percent_sell_price >= :minSell)
             and  (:maxSell  is null or s.weighted_two_percent_sell_price <= :maxSell)
             and  (:minBuy   is null or s.weighted_two_percent_buy_price  >= :minBuy)
@@ -115,6 +133,8 @@ public interface BazaarProductSnapshotRepository
         order  by p.latest_time desc
         """, nativeQuery = true)
     List<PagedIdRow> findLatestProductIdsPagedWithTotal(@Param("q")        String q,
+                                                        @Param("restrict") boolean restrict,
+                                                        @Param("ids")      Collection<String> ids,
                                                         @Param("minSell")  Double minSell,
                                                         @Param("maxSell")  Double maxSell,
                                                         @Param("minBuy")   Double minBuy,
@@ -123,6 +143,87 @@ public interface BazaarProductSnapshotRepository
                                                         @Param("limit")    int limit,
                                                         @Param("offset")   int offset);
 
+    /**
+     * Keyset variant of {@link #findLatestProductIdsPagedWithTotal}: same filter, but
+     * ordered in SQL by (sort key, product id) and seeking past the last row of the
+     * previous page instead of OFFSET; never counts. {@code sortBy} is {@code sell},
+     * {@code buy}, {@code spread} (buy − sell, instant prices) or null for id order;
+     * {@code sign} −1 turns a descending sort into an ascending key so one seek fits all.
+     * The key never involves fetched_at, which every poll rewrites.
+     */
+    @Query(value = """
+        with filtered as (
+          select distinct on (s.product_id)
+                 s.product_id         as id,
+                 s.instant_sell_price as sell,
+                 s.instant_buy_price  as buy
+          from   bazaar_product_snapshot s
+                 left join skyblock_item si on si.id = s.product_id
+          where  (:q is null
+                    or si.name ilike concat('%', :q, '%')
+                    or s.product_id ilike concat('%', :q, '%'))
+            and  (:restrict = false or s.product_id in (:ids))
+            and  (:minSell  is null or s.weighted_two_percent_sell_price >= :minSell)
+            and  (:maxSell  is null or s.weighted_two_percent_sell_price <= :maxSell)
+            and  (:minBuy   is null or s.weighted_two_percent_buy_price  >= :minBuy)
+            and  (:maxBuy   is null or s.weighted_two_percent_buy_price  <= :maxBuy)
+            and  (:minSpread is null or (s.weighted_two_percent_sell_price - s.weighted_two_percent_buy_price) >= :minSpread)
+          order by s.product_id, s.fetched_at desc
+        ), keyed as (
+          select id,
+                 cast(case cast(:sortBy as text)
+                        when 'sell'   then sell
+                        when 'buy'    then buy
+                        when 'spread' then buy - sell
+                        else 0
+                      end * :sign as double precision) as sort_key
+          from   filtered
+        )
+        select k.id       as id,
+               k.sort_key as sortKey
+        from   keyed k
+        where  (:afterId is null or (k.sort_key, k.id) > (cast(:afterKey as double precision), cast(:afterId as text)))
+        order  by k.sort_key, k.id
+        limit  :limit
+        """, nativeQuery = true)
+    List<CursorIdRow> findLatestProductIdsAfter(@Param("q")         String q,
+                                                @Param("restrict")  boolean restrict,
+                                                @Param("ids")       Collection<String> ids,
+                                                @Param("minSell")   Double minSell,
+                                                @Param("maxSell")   Double maxSell,
+                                                @Param("minBuy")    Double minBuy,
+                                                @Param("maxBuy")    Double maxBuy,
+                                                @Param("minSpread") Double minSpread,
+                                                @Param("sortBy")    String sortBy,
+                                                @Param("sign")      int sign,
+                                                @Param("afterKey")  Double afterKey,
+                                                @Param("afterId")   String afterId,
+                                                @Param("limit")     int limit);
+
+    /** Total for the filter above; callers cache it per filter + market generation. */
+    @Query(value = """
+        select count(distinct s.product_id)
+        from   bazaar_product_snapshot s
+               left join skyblock_item si on si.id = s.product_id
+        where  (:q is null
+                  or si.name ilike concat('%', :q, '%')
+                  or s.product_id ilike concat('%', :q, '%'))
+          and  (:restrict = false or s.product_id in (:ids))
+          and  (:minSell  is null or s.weighted_two_percent_sell_price >= :minSell)
+          and  (:maxSell  is null or s.weighted_two_percent_sell_price <= :maxSell)
+          and  (:minBuy   is null or s.weighted_two_percent_buy_price  >= :minBuy)
+          and  (:maxBuy   is null or s.weighted_two_percent_buy_price  <= :maxBuy)
+          and  (:minSpread is null or (s.weighted_two_percent_sell_price - s.weighted_two_percent_buy_price) >= :minSpread)
+        """, nativeQuery = true)
+    long countLatestFiltered(@Param("q")         String q,
+                             @Param("restrict")  boolean restrict,
+                             @Param("ids")       Collection<String> ids,
+                             @Param("minSell")   Double minSell,
+                             @Param("maxSell")   Double maxSell,
+                             @Param("minBuy")    Double minBuy,
+                             @Param("maxBuy")    Double maxBuy,
+                             @Param("minSpread") Double minSpread);
+
     /**
      * Aggregates the visible sell-side order book of the latest snapshot per product.
      * Returns visible standing sell units, order count and cost so the manipulation
@@ -147,26 +248,28 @@ public interface BazaarProductSnapshotRepository
         """, nativeQuery = true)
     List<SellSideAggregateRow> aggregateLatestSellSide(@Param("ids") Collection<String> ids);
 
-    @Query(value = "select max(fetched_at) from bazaar_product_snapshot", nativeQuery = true)
-    Optional<Instant> findLatestFetchTime();
-
-    @Query(value = "select count(distinct product_id) from bazaar_product_snapshot", nativeQuery = true)
-    int countDistinctProducts();
-
+    /**
+     * Public market overview in one pass over each product's latest snapshot (index
+     * walk per product via idx_snapshot_product_id_fetched_at). Margin is the plain
+     * buy − sell spread in coins over products with both sides quoted.
+     */
     @Query(value = """
-        select coalesce(count(*), 0) from (
-          select distinct on (product_id)
-                 case
-                   when weighted_two_percent_buy_price > weighted_two_percent_sell_price then 1
-                   else 0
-                 end as is_profitable
-          from bazaar_product_snapshot
-          where weighted_two_percent_buy_price > 0
-            and weighted_two_percent_sell_price > 0
-          order by product_id, fetched_at desc
-        ) as latest where is_profitable = 1
+        select count(*)                                                   as totalItems,
+               count(*) filter (where l.buy > 0 and l.sell > 0 and l.buy > l.sell) as profitableItems,
+               avg(l.buy - l.sell) filter (where l.buy > 0 and l.sell > 0) as avgProfitMargin,
+               max(l.fetched_at)                                          as latestFetch
+        from   bazaar_item i
+        join   lateral (
+                 select s.weighted_two_percent_buy_price  as buy,
+                        s.weighted_two_percent_sell_price as sell,
+                        s.fetched_at
+                 from   bazaar_product_snapshot s
+                 where  s.product_id = i.product_id
+                 order  by s.fetched_at desc
+                 limit  1
+               ) l on true
         """, nativeQuery = true)
-    Integer countProfitableItems();
+    MarketOverviewRow marketOverview();
 
     @Query(value = """
         with latest as (
@@ -245,10 +348,4 @@ public interface BazaarProductSnapshotRepository
      */
     @Query("select count(s) from BazaarItemSnapshot s where s.fetchedAt < :cutoff")
     long countByFetchedAtBefore(@Param("cutoff") Instant cutoff);
-
-    // findAverageProfitMargin - returns profit margin in coins, not percentage
-    @Query("select avg(s.weightedTwoPercentBuyPrice - s.weightedTwoPercentSellPrice) " +
-           "from BazaarItemSnapshot s " +
-           "where s.weightedTwoPercentBuyPrice > 0 and s.weightedTwoPercentSellPrice > 0")
-    Optional<Double> findAverageProfitMargin();
 }
@@ -1,12 +1,78 @@
 package com.modernbazaar.core.repository;
 
 import com.modernbazaar.core.domain.ReferralCode;
+import com.modernbazaar.core.repository.projection.ReferralCodeStatsRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface ReferralCodeRepository extends JpaRepository<ReferralCode, Long> {
     Optional<ReferralCode> findByUserId(String userId);
     Optional<ReferralCode> findByCodeIgnoreCase(String code);
     boolean existsByCodeIgnoreCase(String code);
+
+    /**
+     * The whole affiliate overview in one pass: every code with its clicks, signups,
+     * referred subscribers (by their LATEST subscription), collected revenue, eligible
+     * commission and payouts. Each source is grouped by code before the join, so the
+     * result is one row per code however many clicks/invoices sit behind it.
+     * "Entitled" = active, or canceled but still inside the paid period.
+     */
+    @Query(value = """
+        with clicks as (
+               select code, count(*) as cnt from referral_click group by code),
+             signups as (
+               select code, count(*) as cnt from referral_signup group by code),
+             subs as (
+               select rc.code,
+                      count(*) as subscribers,
+                      count(*) filter (where ls.entitled) as active,
+                      count(*) filter (where ls.entitled
+                                         and ls.last_seen_at > now() - interval '7 days') as active_recent,
+                      max(ls.last_seen_at) as last_activity
+               from   referral_conversion rc
+               join   lateral (
+                        select us.last_seen_at,
+                               (lower(us.status) = 'active'
+                                 or (lower(us.status) = 'canceled' and us.current_period_end > now())) as entitled
+                        from   user_subscription us
+                        where  us.user_id = rc.referred_user_id
+                        order  by us.id desc
+                        limit  1
+                      ) ls on true
+               group  by rc.code),
+             earned as (
+               select code,
+                      sum(greatest(0, net_revenue_cents - refunded_cents)) as collected,
+                      sum(commission_cents) filter (where eligible_at <= now()) as eligible
+               from   referral_earning group by code),
+             payouts as (
+               select code,
+                      sum(amount_cents) filter (where lower(status) = 'paid')  as paid,
+                      sum(amount_cents) filter (where lower(status) <> 'paid') as pending
+               from   referral_payout group by code)
+        select c.id                          as id,
+               c.code                        as code,
+               c.user_id                     as userId,
+               c.created_at                  as createdAt,
+               coalesce(cl.cnt, 0)           as clicks,
+               coalesce(sg.cnt, 0)           as signups,
+               coalesce(s.subscribers, 0)    as subscribers,
+               coalesce(s.active, 0)         as active,
+               coalesce(s.active_recent, 0)  as activeRecent,
+               s.last_activity               as lastActivity,
+               coalesce(e.collected, 0)      as collectedCents,
+               coalesce(e.eligible, 0)       as eligibleCommissionCents,
+               coalesce(p.pending, 0)        as pendingCents,
+               coalesce(p.paid, 0)           as paidCents
+        from   referral_code c
+        left   join clicks  cl on cl.code = c.code
+        left   join signups sg on sg.code = c.code
+        left   join subs    s  on s.code  = c.code
+        left   join earned  e  on e.code  = c.code
+        left   join payouts p  on p.code  = c.code
+        """, nativeQuery = true)
+    List<ReferralCodeStatsRow> overviewStats();
 }
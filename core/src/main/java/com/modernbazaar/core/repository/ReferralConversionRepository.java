@@ -1,7 +1,7 @@
 package com.modernbazaar.core.repository;
 
 import com.modernbazaar.core.domain.ReferralConversion;
-import com.modernbazaar.core.repository.projection.ReferralUserStatRow;
+import com.modernbazaar.core.repository.projection.ReferralPlanCountRow;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
@@ -13,24 +13,25 @@ public interface ReferralConversionRepository extends JpaRepository<ReferralConv
     Optional<ReferralConversion> findByReferredUserId(String referredUserId);
 
     /**
-     * Each converted (first-paid) referred user with their LATEST subscription
-     * state, tagged with the referring code. Drives the affiliate overview:
-     * plan mix, active count, revenue, and last-seen usage per creator.
+     * Plan mix of the currently-entitled referred users per code, judged on each
+     * user's LATEST subscription (same rule as {@link ReferralCodeRepository#overviewStats}).
      */
     @Query(value = """
-        select rc.code                 as code,
-               ls.plan_slug            as plan,
-               ls.status               as status,
-               ls.last_seen_at         as lastSeen,
-               ls.current_period_end   as periodEnd
+        select rc.code       as code,
+               ls.plan_slug  as plan,
+               count(*)      as cnt
         from   referral_conversion rc
         join   lateral (
-                 select plan_slug, status, last_seen_at, current_period_end
+                 select plan_slug, status, current_period_end
                  from   user_subscription us
                  where  us.user_id = rc.referred_user_id
                  order  by us.id desc
                  limit  1
                ) ls on true
+        where  ls.plan_slug is not null
+          and  (lower(ls.status) = 'active'
+                or (lower(ls.status) = 'canceled' and ls.current_period_end > now()))
+        group  by rc.code, ls.plan_slug
         """, nativeQuery = true)
-    List<ReferralUserStatRow> referredUserStats();
+    List<ReferralPlanCountRow> activePlanCountsByCode();
 }
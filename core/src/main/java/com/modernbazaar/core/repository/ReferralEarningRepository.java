@@ -2,12 +2,20 @@ package com.modernbazaar.core.repository;
 
 import com.modernbazaar.core.domain.ReferralEarning;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-import java.util.List;
+import java.time.OffsetDateTime;
 import java.util.Optional;
 
 public interface ReferralEarningRepository extends JpaRepository<ReferralEarning, Long> {
     Optional<ReferralEarning> findByStripeInvoiceId(String stripeInvoiceId);
     Optional<ReferralEarning> findFirstByStripeChargeId(String stripeChargeId);
-    List<ReferralEarning> findAllByCode(String code);
+
+    /** Commission past its refund hold for one code. */
+    @Query("""
+        select coalesce(sum(e.commissionCents), 0) from ReferralEarning e
+        where e.code = :code and e.eligibleAt <= :now
+        """)
+    long sumEligibleCommission(@Param("code") String code, @Param("now") OffsetDateTime now);
 }
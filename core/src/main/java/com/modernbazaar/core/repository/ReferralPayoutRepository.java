@@ -2,11 +2,16 @@ package com.modernbazaar.core.repository;
 
 import com.modernbazaar.core.domain.ReferralPayout;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface ReferralPayoutRepository extends JpaRepository<ReferralPayout, Long> {
     List<ReferralPayout> findAllByOrderByCreatedAtDesc();
-    List<ReferralPayout> findByCodeOrderByCreatedAtDesc(String code);
     boolean existsByCodeAndPeriodStartAndPeriodEnd(String code, java.time.LocalDate periodStart, java.time.LocalDate periodEnd);
+
+    /** Everything already recorded against a code, pending or paid. */
+    @Query("select coalesce(sum(p.amountCents), 0) from ReferralPayout p where p.code = :code")
+    long sumAmountByCode(@Param("code") String code);
 }
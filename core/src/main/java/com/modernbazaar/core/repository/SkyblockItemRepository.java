@@ -1,6 +1,8 @@
 package com.modernbazaar.core.repository;
 
 import com.modernbazaar.core.domain.SkyblockItem;
+import com.modernbazaar.core.repository.projection.IdHashRow;
+import com.modernbazaar.core.repository.projection.IdNameRow;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -12,7 +14,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface SkyblockItemRepository extends JpaRepository<SkyblockItem, String> {
+public interface SkyblockItemRepository extends JpaRepository<SkyblockItem, String>, SkyblockItemRepositoryCustom {
 
     @Query(value = """
         select max(s.last_refreshed) from skyblock_item s
@@ -21,6 +23,37 @@ public interface SkyblockItemRepository extends JpaRepository<SkyblockItem, Stri
 
     List<SkyblockItem> findAllByIdIn(Collection<String> ids);
 
+    /** Content hashes of the whole catalog; a refresh only rewrites rows whose hash moved. */
+    @Query("select s.id as id, s.contentHash as contentHash from SkyblockItem s")
+    List<IdHashRow> findAllHashes();
+
+    @Query("select s.id as id, s.name as name from SkyblockItem s")
+    List<IdNameRow> findAllIdNames();
+
+    /**
+     * The {@link #search} filters restricted to ids the search index matched; the
+     * caller ranks and pages in memory, so no ordering or count query here.
+     */
+    @Query("""
+  select s from SkyblockItem s
+  where s.id in :ids
+    and (:tier is null or s.tier     = :tier)
+    and (:category is null or s.category = :category)
+    and (:inBazaar = false or exists (
+         select 1 from BazaarItem bi join bi.skyblockItem si where si.id = s.id
+       ))
+    and (:minNpc is null or s.npcSellPrice >= :minNpc)
+    and (:maxNpc is null or s.npcSellPrice <= :maxNpc)
+""")
+    List<SkyblockItem> findFilteredIn(
+            @Param("ids")      Collection<String> ids,
+            @Param("tier")     String tier,
+            @Param("category") String category,
+            @Param("inBazaar") boolean inBazaar,
+            @Param("minNpc")   Double minNpc,
+            @Param("maxNpc")   Double maxNpc
+    );
+
     @Query("""
   select s from SkyblockItem s
   where (:q     is null
@@ -43,5 +76,52 @@ public interface SkyblockItemRepository extends JpaRepository<SkyblockItem, Stri
             Pageable page
     );
 
+    /** Keyset variant of {@link #search}: ordered by id, seeks past {@code after}, no count query. */
+    @Query("""
+  select s from SkyblockItem s
+  where (:q     is null
+         or lower(s.name) like lower(concat('%', cast(:q as string), '%')))
+    and (:tier is null or s.tier     = :tier)
+    and (:category is null or s.category = :category)
+    and (:inBazaar = false or exists (
+         select 1 from BazaarItem bi join bi.skyblockItem si where si.id = s.id
+       ))
+    and (:minNpc is null or s.npcSellPrice >= :minNpc)
+    and (:maxNpc is null or s.npcSellPrice <= :maxNpc)
+    and (cast(:after as string) is null or s.id > cast(:after as string))
+  order by s.id asc
+""")
+    List<SkyblockItem> searchAfter(
+            @Param("q")        String q,
+            @Param("tier")     String tier,
+            @Param("category") String category,
+            @Param("inBazaar") boolean inBazaar,
+            @Param("minNpc")   Double minNpc,
+            @Param("maxNpc")   Double maxNpc,
+            @Param("after")    String after,
+            Pageable page
+    );
+
+    @Query("""
+  select count(s) from SkyblockItem s
+  where (:q     is null
+         or lower(s.name) like lower(concat('%', cast(:q as string), '%')))
+    and (:tier is null or s.tier     = :tier)
+    and (:category is null or s.category = :category)
+    and (:inBazaar = false or exists (
+         select 1 from BazaarItem bi join bi.skyblockItem si where si.id = s.id
+       ))
+    and (:minNpc is null or s.npcSellPrice >= :minNpc)
+    and (:maxNpc is null or s.npcSellPrice <= :maxNpc)
+""")
+    long countSearch(
+            @Param("q")        String q,
+            @Param("tier")     String tier,
+            @Param("category") String category,
+            @Param("inBazaar") boolean inBazaar,
+            @Param("minNpc")   Double minNpc,
+            @Param("maxNpc")   Double maxNpc
+    );
+
     Optional<SkyblockItem> findById(String id);
 }
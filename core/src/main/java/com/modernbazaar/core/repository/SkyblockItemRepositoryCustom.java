@@ -0,0 +1,12 @@
+package com.modernbazaar.core.repository;
+
+import com.modernbazaar.core.domain.SkyblockItem;
+
+import java.util.Collection;
+
+/** Bulk writes for {@link SkyblockItemRepository} that JPA's merge-per-row can't do efficiently. */
+public interface SkyblockItemRepositoryCustom {
+
+    /** Inserts or fully overwrites the given items with batched {@code INSERT .. ON CONFLICT} statements. */
+    void upsertAll(Collection<SkyblockItem> items);
+}
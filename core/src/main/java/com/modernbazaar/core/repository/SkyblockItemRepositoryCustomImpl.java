@@ -0,0 +1,44 @@
+package com.modernbazaar.core.repository;
+
+import com.modernbazaar.core.domain.SkyblockItem;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Collection;
+
+@RequiredArgsConstructor
+class SkyblockItemRepositoryCustomImpl implements SkyblockItemRepositoryCustom {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbc;
+
+    @Override
+    public void upsertAll(Collection<SkyblockItem> items) {
+        if (items.isEmpty()) return;
+        jdbc.batchUpdate("""
+                insert into skyblock_item
+                    (id, name, material, color, category, tier, npc_sell_price, stats_json, last_refreshed, content_hash)
+                values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                on conflict (id) do update
+                   set name = excluded.name, material = excluded.material, color = excluded.color,
+                       category = excluded.category, tier = excluded.tier,
+                       npc_sell_price = excluded.npc_sell_price, stats_json = excluded.stats_json,
+                       last_refreshed = excluded.last_refreshed, content_hash = excluded.content_hash
+                """, items, BATCH_SIZE, (ps, it) -> {
+            ps.setString(1, it.getId());
+            ps.setString(2, it.getName());
+            ps.setString(3, it.getMaterial());
+            ps.setString(4, it.getColor());
+            ps.setString(5, it.getCategory());
+            ps.setString(6, it.getTier());
+            if (it.getNpcSellPrice() != null) ps.setDouble(7, it.getNpcSellPrice());
+            else ps.setNull(7, Types.DOUBLE);
+            ps.setString(8, it.getStatsJson());
+            ps.setTimestamp(9, Timestamp.from(it.getLastRefreshed()));
+            ps.setString(10, it.getContentHash());
+        });
+    }
+}
@@ -2,6 +2,17 @@ package com.modernbazaar.core.repository;
 
 import com.modernbazaar.core.domain.StripeWebhookEvent;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface StripeWebhookEventRepository extends JpaRepository<StripeWebhookEvent, String> {
+
+    /** Inbox depth: events still waiting for (another) attempt, including in-flight ones. */
+    @Query(value = """
+            select count(*) from stripe_webhook_event
+            where status in ('pending', 'processing', 'failed')
+            """, nativeQuery = true)
+    long countOpen();
+
+    @Query(value = "select count(*) from stripe_webhook_event where status = 'dead'", nativeQuery = true)
+    long countDead();
 }
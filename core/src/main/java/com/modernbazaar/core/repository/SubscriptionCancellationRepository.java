@@ -1,7 +1,14 @@
 package com.modernbazaar.core.repository;
 
 import com.modernbazaar.core.domain.SubscriptionCancellation;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface SubscriptionCancellationRepository extends JpaRepository<SubscriptionCancellation, Long> {
+
+    /** Keyset scrolling for the admin churn list (?after=). */
+    Window<SubscriptionCancellation> findAllBy(ScrollPosition position, Sort sort, Limit limit);
 }
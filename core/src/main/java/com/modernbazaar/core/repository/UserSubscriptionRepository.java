@@ -3,8 +3,12 @@ package com.modernbazaar.core.repository;
 import com.modernbazaar.core.domain.UserSubscription;
 import com.modernbazaar.core.repository.projection.DayCountRow;
 import com.modernbazaar.core.repository.projection.LabelCountRow;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -28,6 +32,15 @@ public interface UserSubscriptionRepository extends JpaRepository<UserSubscripti
         """)
     Page<UserSubscription> search(@Param("q") String q, Pageable pageable);
 
+    /* keyset scrolling for the admin list (?after=); position keys = sort field + id */
+    Window<UserSubscription> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    Window<UserSubscription> findByUserIdContainingIgnoreCaseOrEmailContainingIgnoreCaseOrNameContainingIgnoreCase(
+            String userId, String email, String name, ScrollPosition position, Sort sort, Limit limit);
+
+    long countByUserIdContainingIgnoreCaseOrEmailContainingIgnoreCaseOrNameContainingIgnoreCase(
+            String userId, String email, String name);
+
     /* ───────────────────── admin analytics ───────────────────── */
 
     @Query(value = "select count(distinct user_id) from user_subscription", nativeQuery = true)
@@ -63,7 +76,7 @@ public interface UserSubscriptionRepository extends JpaRepository<UserSubscripti
 
     @Query(value = """
         select count(*) from user_subscription
-        where status = 'canceled' and updated_at >= now() - (:days * interval '1 day')
+        where status = 'canceled' and canceled_at >= now() - (:days * interval '1 day')
         """, nativeQuery = true)
     long countCanceledWithinDays(@Param("days") int days);
 
@@ -0,0 +1,7 @@
+package com.modernbazaar.core.repository.projection;
+
+/** Product id plus its keyset sort key (signed price or spread; 0 when paging in id order). */
+public interface CursorIdRow {
+    String getId();
+    Double getSortKey();
+}
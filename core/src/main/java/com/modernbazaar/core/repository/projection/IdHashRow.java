@@ -0,0 +1,7 @@
+package com.modernbazaar.core.repository.projection;
+
+/** (id, stored content hash) pair used to diff a catalog refresh without loading entities. */
+public interface IdHashRow {
+    String getId();
+    String getContentHash();
+}
@@ -0,0 +1,7 @@
+package com.modernbazaar.core.repository.projection;
+
+/** Catalog id plus display name, for in-memory lookups that don't need the full entity. */
+public interface IdNameRow {
+    String getId();
+    String getName();
+}
@@ -0,0 +1,11 @@
+package com.modernbazaar.core.repository.projection;
+
+import java.time.Instant;
+
+/** Latest-state market totals behind the public {@code /api/metrics}. */
+public interface MarketOverviewRow {
+    long getTotalItems();
+    long getProfitableItems();
+    Double getAvgProfitMargin();
+    Instant getLatestFetch();
+}
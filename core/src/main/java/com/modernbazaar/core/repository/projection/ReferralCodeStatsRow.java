@@ -0,0 +1,21 @@
+package com.modernbazaar.core.repository.projection;
+
+import java.time.Instant;
+
+/** One referral code with its funnel, subscriber and money totals, aggregated in SQL. */
+public interface ReferralCodeStatsRow {
+    Long getId();
+    String getCode();
+    String getUserId();
+    Instant getCreatedAt();
+    long getClicks();
+    long getSignups();
+    int getSubscribers();
+    int getActive();
+    int getActiveRecent();
+    Instant getLastActivity();
+    long getCollectedCents();
+    long getEligibleCommissionCents();
+    long getPendingCents();
+    long getPaidCents();
+}
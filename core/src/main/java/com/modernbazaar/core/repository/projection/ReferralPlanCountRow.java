@@ -0,0 +1,8 @@
+package com.modernbazaar.core.repository.projection;
+
+/** Currently-entitled referred subscribers of one code on one plan. */
+public interface ReferralPlanCountRow {
+    String getCode();
+    String getPlan();
+    int getCnt();
+}
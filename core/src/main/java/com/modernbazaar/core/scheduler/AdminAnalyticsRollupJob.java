@@ -0,0 +1,55 @@
+package com.modernbazaar.core.scheduler;
+
+import com.modernbazaar.core.service.AdminAnalyticsRollupService;
+import com.modernbazaar.core.service.JobLeaseService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the admin analytics rollup current. Runs once at startup (which also
+ * backfills history on the first deploy) and then every interval-minutes.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "skyblock.analytics.rollup", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class AdminAnalyticsRollupJob {
+
+    private final AdminAnalyticsRollupService service;
+    private final JobLeaseService leases;
+    private static final ReentrantLock LOCK = new ReentrantLock();
+    private volatile boolean shuttingDown = false;
+
+    @Scheduled(initialDelayString = "#{${skyblock.analytics.rollup.interval-minutes:60} * 60000}",
+               fixedDelayString = "#{${skyblock.analytics.rollup.interval-minutes:60} * 60000}")
+    public void scheduledRun() {
+        if (shuttingDown) return;
+        run();
+    }
+
+    /** Startup run, driven by {@link StartupWarmup}. */
+    public void onStartup() {
+        run();
+    }
+
+    private void run() {
+        LOCK.lock();
+        try {
+            leases.runIfLeader(JobLeaseService.ANALYTICS_ROLLUP, lease -> service.refresh());
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void onContextClosed() {
+        shuttingDown = true;
+    }
+}
@@ -2,6 +2,8 @@ package com.modernbazaar.core.scheduler;
 
 import com.modernbazaar.core.repository.BazaarFinanceMetricsRepository;
 import com.modernbazaar.core.service.BazaarFinanceMetricsAggregationService;
+import com.modernbazaar.core.service.JobLeaseService;
+import com.modernbazaar.core.service.PipelineTelemetry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -9,9 +11,9 @@ import org.springframework.context.event.EventListener;
 import org.springframework.context.event.ContextClosedEvent;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.boot.context.event.ApplicationReadyEvent;
 
 import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Job que recalcula métricas financeiras agregadas (1h,6h,48h) mantendo apenas uma linha por janela.
@@ -25,7 +27,9 @@ public class BazaarFinanceMetricsAggregationJob {
 
     private final BazaarFinanceMetricsAggregationService service;
     private final BazaarFinanceMetricsRepository metricsRepo;
-    private static final Object LOCK = new Object();
+    private final JobLeaseService leases;
+    private final PipelineTelemetry telemetry;
+    private static final ReentrantLock LOCK = new ReentrantLock();
     private volatile boolean shuttingDown = false;
 
     // Executa a cada N minutos (interval-minutes). Usa SpEL para multiplicar por 60000 (ms)
@@ -38,7 +42,7 @@ public class BazaarFinanceMetricsAggregationJob {
         runInternal(false);
     }
 
-    @EventListener(ApplicationReadyEvent.class)
+    /** Startup run, driven by {@link StartupWarmup}. */
     public void onStartup() {
         // se tabela vazia, força execução imediata
         if (metricsRepo.count() == 0L) {
@@ -48,12 +52,13 @@ public class BazaarFinanceMetricsAggregationJob {
     }
 
     private void runInternal(boolean startup) {
-        synchronized (LOCK) {
-            try {
-                service.recomputeAll(Set.of(1,6,48));
-            } catch (Exception ex) {
-                log.error("Finance metrics aggregation failed (startup={})", startup, ex);
-            }
+        LOCK.lock();
+        try {
+            boolean ran = leases.runIfLeader(JobLeaseService.FINANCE_METRICS, lease ->
+                    telemetry.run(PipelineTelemetry.FINANCE, () -> service.recomputeAll(Set.of(1,6,48))));
+            if (!ran && startup) log.info("Finance metrics startup run left to the lease holder");
+        } finally {
+            LOCK.unlock();
         }
     }
 
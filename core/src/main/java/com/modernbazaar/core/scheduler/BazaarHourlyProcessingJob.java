@@ -1,6 +1,8 @@
 package com.modernbazaar.core.scheduler;
 
 import com.modernbazaar.core.service.BazaarHourlyProcessingService;
+import com.modernbazaar.core.service.JobLeaseService;
+import com.modernbazaar.core.service.PipelineTelemetry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -10,6 +12,7 @@ import org.springframework.stereotype.Component;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Component
 @ConditionalOnProperty(prefix = "skyblock.bazaar.processing.hourly", name = "enabled", havingValue = "true")
@@ -18,35 +21,45 @@ import java.time.temporal.ChronoUnit;
 public class BazaarHourlyProcessingJob {
 
     private final BazaarHourlyProcessingService service;
-    private static final Object LOCK = new Object();
+    private final JobLeaseService leases;
+    private final PipelineTelemetry telemetry;
+    private static final ReentrantLock LOCK = new ReentrantLock();
 
     /**
-     * Runs every 5 minutes, with a 2-minute grace: picks the oldest snapshot as window start
+     * Runs every 5 minutes, with a 2-minute grace: picks the oldest snapshot as window start.
+     * Only the node holding the compaction lease does the work.
      */
     @Scheduled(cron = "0 */5 * * * *")
     public void compactLoop() {
-        synchronized (LOCK) {
-            Instant oldest = service.findOldestSnapshotTimestamp();
-            if (oldest == null) return;
-
-            Duration duration = Duration.between(oldest, Instant.now());
-            long hours = duration.toHours();
-            long minutes = duration.minusHours(hours).toMinutes();
-            log.info("Compacting bazaar hourly data for {}h{} min ago", hours, minutes);
-
-            Instant windowStart = oldest;
-            Instant windowEnd   = windowStart.plus(1, ChronoUnit.HOURS);
-
-            // wait until we have a full hour of data (plus 2 min grace)
-            if (Instant.now().isBefore(windowEnd.plusSeconds(120))) {
-                return;
-            }
-
-            try {
-                service.processSingleHour(windowStart);
-            } catch (Exception ex) {
-                log.error("Compaction failed for {}", windowStart, ex);
-            }
+        LOCK.lock();
+        try {
+            leases.runIfLeader(JobLeaseService.HOURLY_COMPACTION, lease -> compactOldestHour());
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    private void compactOldestHour() {
+        Instant oldest = service.findOldestSnapshotTimestamp();
+        if (oldest == null) return;
+
+        Duration duration = Duration.between(oldest, Instant.now());
+        long hours = duration.toHours();
+        long minutes = duration.minusHours(hours).toMinutes();
+        log.info("Compacting bazaar hourly data for {}h{} min ago", hours, minutes);
+
+        Instant windowStart = oldest;
+        Instant windowEnd   = windowStart.plus(1, ChronoUnit.HOURS);
+
+        // wait until we have a full hour of data (plus 2 min grace)
+        if (Instant.now().isBefore(windowEnd.plusSeconds(120))) {
+            return;
+        }
+
+        try {
+            telemetry.run(PipelineTelemetry.COMPACTION, () -> service.processSingleHour(windowStart)); // incl. commit
+        } catch (Exception ex) {
+            log.error("Compaction failed for {}", windowStart, ex);
         }
     }
 }
@@ -1,7 +1,9 @@
 package com.modernbazaar.core.scheduler;
 
 import com.modernbazaar.core.service.BazaarItemsFetchService;
+import com.modernbazaar.core.service.JobLeaseService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
@@ -9,16 +11,27 @@ import org.springframework.stereotype.Component;
 @Component
 @ConditionalOnProperty(prefix = "skyblock.bazaar.poll", name = "enabled", havingValue = "true")
 @RequiredArgsConstructor
+@Slf4j
 public class BazaarItemsPollJob {
 
     private final BazaarItemsFetchService fetchService;
+    private final JobLeaseService leases;
 
     /**
-     * Triggers the fetch once every configured interval.
+     * Triggers the fetch once every configured interval, on the node holding the poll lease.
      * Interval is defined by bazaar.poll.interval-seconds in application.yml.
+     * Other nodes skip and pick the results up through {@code PollCompletionFollower}.
      */
     @Scheduled(fixedDelayString = "${skyblock.bazaar.poll.interval-seconds:60}000")
     public void run() {
-        fetchService.fetchAndStore();
+        JobLeaseService.Lease lease;
+        try {
+            lease = leases.tryAcquire(JobLeaseService.BAZAAR_POLL);
+        } catch (Exception e) {
+            log.warn("Bazaar poll skipped, lease unavailable: {}", e.getMessage());
+            return;
+        }
+        if (lease == null) return;
+        fetchService.fetchAndStore(lease);
     }
 }
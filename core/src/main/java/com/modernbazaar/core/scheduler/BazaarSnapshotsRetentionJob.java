@@ -3,11 +3,11 @@ package com.modernbazaar.core.scheduler;
 import com.modernbazaar.core.repository.BazaarProductSnapshotRepository;
 import com.modernbazaar.core.repository.BazaarItemHourSummaryRepository;
 import com.modernbazaar.core.repository.BazaarHourPointRepository;
+import com.modernbazaar.core.service.JobLeaseService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.context.event.ContextClosedEvent;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -26,6 +26,7 @@ public class BazaarSnapshotsRetentionJob {
     private final BazaarProductSnapshotRepository repo;
     private final BazaarItemHourSummaryRepository hourSummaryRepo;
     private final BazaarHourPointRepository hourPointRepo;
+    private final JobLeaseService leases;
 
     @Value("${skyblock.bazaar.retention.interval-days:30}")
     private long retentionDays;
@@ -33,9 +34,9 @@ public class BazaarSnapshotsRetentionJob {
     private volatile boolean shuttingDown = false;
 
     /**
-     * Runs on application startup to purge old data immediately
+     * Runs once after startup to purge old data, in the background warmup
+     * ({@link StartupWarmup}) so it doesn't hold up readiness.
      */
-    @EventListener(ApplicationReadyEvent.class)
     @Transactional
     public void onStartup() {
         log.info("Application started, running initial Bazaar data retention cleanup...");
@@ -45,6 +46,7 @@ public class BazaarSnapshotsRetentionJob {
     /**
      * Scheduled job to purge old Bazaar data (minute points, hour summaries, and snapshots).
      * Runs daily at 03:00 and deletes records older than the configured retention period.
+     * Only the node holding the retention lease purges; the lease is re-checked before commit.
      */
     @Scheduled(cron = "0 0 3 * * *") // runs daily at 03:00
     @Transactional
@@ -53,6 +55,10 @@ public class BazaarSnapshotsRetentionJob {
             log.warn("Skipping Bazaar retention purge - application is shutting down");
             return;
         }
+        leases.runIfLeader(JobLeaseService.SNAPSHOT_RETENTION, lease -> purge());
+    }
+
+    private void purge() {
         Instant cutoff = Instant.now().minus(retentionDays, ChronoUnit.DAYS);
         
         // Quick count of records to be deleted (single query per table)
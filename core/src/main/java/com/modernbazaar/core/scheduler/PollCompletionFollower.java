@@ -0,0 +1,91 @@
+package com.modernbazaar.core.scheduler;
+
+import com.modernbazaar.core.domain.BazaarItemSnapshot;
+import com.modernbazaar.core.repository.BazaarItemRepository;
+import com.modernbazaar.core.repository.BazaarProductSnapshotRepository;
+import com.modernbazaar.core.service.BazaarStreamService;
+import com.modernbazaar.core.service.ClusterEventBus;
+import com.modernbazaar.core.service.JobLeaseService;
+import com.modernbazaar.core.service.MarketGeneration;
+import com.modernbazaar.core.service.MetricsService;
+import com.modernbazaar.core.service.ProductNameDictionary;
+import com.modernbazaar.core.util.PrimaryReads;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lets a node that is not polling (read-only replica, or a follower in a cluster)
+ * react to polls that landed elsewhere: the leader stamps {@code job_lease.completed_at}
+ * in the poll's own transaction, and here we watch that stamp (a primary-key read)
+ * and replay the local side effects the fetch service runs after commit — market
+ * generation bump, SSE deltas, public metrics, name dictionary. The poll's NOTIFY
+ * ({@link ClusterEventBus}) triggers the check within milliseconds; the schedule is
+ * only the fallback.
+ *
+ * Runs with every job disabled; does nothing while this node holds the poll lease.
+ */
+@Component
+@ConditionalOnProperty(prefix = "skyblock.cluster.follow-poll", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class PollCompletionFollower {
+
+    private final JobLeaseService leases;
+    private final BazaarItemRepository itemRepo;
+    private final BazaarProductSnapshotRepository snapRepo;
+    private final BazaarStreamService streamService;
+    private final MarketGeneration marketGeneration;
+    private final MetricsService metricsService;
+    private final ProductNameDictionary productNames;
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    private volatile Instant seen;
+
+    /** A poll committed somewhere (NOTIFY), or we may have missed one: look now. */
+    @EventListener
+    public void onClusterEvent(ClusterEventBus.ClusterEvent event) {
+        if (event.is(ClusterEventBus.POLL_COMPLETED) || event.is(ClusterEventBus.RESYNC)) check();
+    }
+
+    /** Safety net for lost notifications. */
+    @Scheduled(fixedDelayString = "${skyblock.cluster.follow-poll.check-seconds:30}", timeUnit = TimeUnit.SECONDS)
+    public void check() {
+        if (leases.holds(JobLeaseService.BAZAAR_POLL)) return; // the fetch service publishes itself
+        LOCK.lock();
+        try {
+            Instant completed = leases.lastCompleted(JobLeaseService.BAZAAR_POLL);
+            if (completed == null || (seen != null && !completed.isAfter(seen))) return;
+            boolean first = seen == null;
+            seen = completed;
+            if (first) return; // startup already loaded current state; only later polls are news
+
+            // the poll just committed on the primary; a replica may not have replayed it yet
+            List<String> ids = PrimaryReads.call(itemRepo::findAllProductIds);
+            if (ids.isEmpty()) return;
+            Map<String, Map<String, Number>> polled = new HashMap<>(ids.size() * 2);
+            for (BazaarItemSnapshot snap : PrimaryReads.call(() -> snapRepo.findLatestByProductIds(ids))) {
+                polled.put(snap.getProductId(), BazaarStreamService.fieldsOf(snap));
+            }
+            streamService.publish(marketGeneration.advance(), polled); // diffs against what we last sent
+            metricsService.refresh();
+            if (productNames.hasUnknown(ids)) productNames.reload(); // rebuilds the search index too
+            log.debug("Followed poll completed at {} ({} products)", completed, polled.size());
+        } catch (Exception e) {
+            log.warn("Poll completion check failed: {}", e.getMessage());
+        } finally {
+            LOCK.unlock();
+        }
+    }
+}
@@ -1,12 +1,11 @@
 package com.modernbazaar.core.scheduler;
 
+import com.modernbazaar.core.service.JobLeaseService;
 import com.modernbazaar.core.service.SkyblockItemsCatalogService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
@@ -19,18 +18,19 @@ import java.time.Duration;
 public class SkyblockItemsCatalogJob {
 
     private final SkyblockItemsCatalogService service;
+    private final JobLeaseService leases;
 
     @Value("${skyblock.catalog.refresh-days:30}")
     private int refreshDays;
 
-    @EventListener(ApplicationReadyEvent.class)
+    /** Startup run, driven by {@link StartupWarmup}. */
     public void runOnStartup() {
-        refreshIfStale("startup");
+        leases.runIfLeader(JobLeaseService.CATALOG_REFRESH, lease -> refreshIfStale("startup"));
     }
 
     @Scheduled(cron = "${skyblock.catalog.cron:0 0 3 * * *}") // 03:00 daily by default
     public void run() {
-        refreshIfStale("scheduled");
+        leases.runIfLeader(JobLeaseService.CATALOG_REFRESH, lease -> refreshIfStale("scheduled"));
     }
 
     private void refreshIfStale(String trigger) {
@@ -0,0 +1,178 @@
+package com.modernbazaar.core.scheduler;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.modernbazaar.core.service.MetricsService;
+import com.modernbazaar.core.service.ProductNameDictionary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the startup work off the boot thread, in stages, instead of one synchronous
+ * {@code ApplicationReadyEvent} listener per job.
+ *
+ * Stage 1 ("serving": names, search index, public metrics) is what requests need; the
+ * {@code warmup} health indicator stays OUT_OF_SERVICE until it is done, so
+ * {@code /actuator/health/readiness} (and the container healthcheck) only turn UP once
+ * the node can answer properly. Stage 2 ("background": finance metrics backfill, catalog
+ * download, analytics rollup, retention purge) runs after that on the same thread and
+ * never holds readiness; its progress shows in the indicator details.
+ *
+ * Metrics, seconds since JVM start: {@code modernbazaar.startup.warm} (stage 1 done),
+ * {@code modernbazaar.startup.complete} (stage 2 done) and
+ * {@code modernbazaar.startup.first_request} (first non-actuator request served);
+ * {@code modernbazaar.startup.stage{stage,outcome}} times each step.
+ */
+@Component("warmup")
+@Slf4j
+public class StartupWarmup implements HealthIndicator {
+
+    private enum Status { PENDING, RUNNING, DONE, FAILED }
+
+    private record Step(String name, boolean serving, Runnable action) {}
+
+    private final List<Step> steps;
+    private final Map<String, Status> status = new LinkedHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final boolean async;
+    private final ExecutorService runner;
+    private final AtomicBoolean firstRequestSeen = new AtomicBoolean();
+
+    private volatile boolean warm = false;
+    private volatile double warmSeconds = Double.NaN;
+    private volatile double completeSeconds = Double.NaN;
+    private volatile double firstRequestSeconds = Double.NaN;
+
+    public StartupWarmup(
+            ProductNameDictionary names,
+            MetricsService publicMetrics,
+            ObjectProvider<BazaarFinanceMetricsAggregationJob> financeJob,
+            ObjectProvider<SkyblockItemsCatalogJob> catalogJob,
+            ObjectProvider<AdminAnalyticsRollupJob> analyticsJob,
+            ObjectProvider<BazaarSnapshotsRetentionJob> retentionJob,
+            MeterRegistry meterRegistry,
+            @Value("${skyblock.warmup.async:true}") boolean async
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.async = async;
+        this.steps = List.of(
+                new Step("names",           true,  names::onStartup), // and the search index
+                new Step("public-metrics",  true,  publicMetrics::onStartup),
+                new Step("finance-metrics", false, () -> financeJob.ifAvailable(BazaarFinanceMetricsAggregationJob::onStartup)),
+                new Step("catalog",         false, () -> catalogJob.ifAvailable(SkyblockItemsCatalogJob::runOnStartup)),
+                new Step("analytics",       false, () -> analyticsJob.ifAvailable(AdminAnalyticsRollupJob::onStartup)),
+                new Step("retention",       false, () -> retentionJob.ifAvailable(BazaarSnapshotsRetentionJob::onStartup)));
+        steps.forEach(s -> status.put(s.name(), Status.PENDING));
+        this.runner = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("warmup")
+                .setDaemon(true)
+                .build());
+
+        TimeGauge.builder("modernbazaar.startup.warm", this, TimeUnit.SECONDS, w -> w.warmSeconds)
+                .description("Time from JVM start until the serving warmup stage finished")
+                .register(meterRegistry);
+        TimeGauge.builder("modernbazaar.startup.complete", this, TimeUnit.SECONDS, w -> w.completeSeconds)
+                .description("Time from JVM start until all startup work finished")
+                .register(meterRegistry);
+        TimeGauge.builder("modernbazaar.startup.first_request", this, TimeUnit.SECONDS, w -> w.firstRequestSeconds)
+                .description("Time from JVM start until the first non-actuator request was served")
+                .register(meterRegistry);
+    }
+
+    /* ───── RUN ───── */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (async) runner.execute(this::runAll);
+        else runAll(); // tests: deterministic, same thread
+    }
+
+    private void runAll() {
+        for (Step step : steps) {
+            if (!step.serving() && !warm) markWarm();
+            if (Thread.currentThread().isInterrupted()) return; // shutting down
+            run(step);
+        }
+        if (!warm) markWarm();
+        completeSeconds = uptimeSeconds();
+        log.info("Startup warmup complete after {} s", String.format("%.1f", completeSeconds));
+        runner.shutdown();
+    }
+
+    private void run(Step step) {
+        setStatus(step.name(), Status.RUNNING);
+        long start = System.nanoTime();
+        String outcome = "ok";
+        try {
+            step.action().run();
+            setStatus(step.name(), Status.DONE);
+        } catch (RuntimeException e) {
+            // a failed step must not keep the node out of service; its job retries on schedule
+            outcome = "failed";
+            setStatus(step.name(), Status.FAILED);
+            log.warn("Warmup step {} failed: {}", step.name(), e.getMessage());
+        } finally {
+            Timer.builder("modernbazaar.startup.stage")
+                    .tag("stage", step.name())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void markWarm() {
+        warm = true;
+        warmSeconds = uptimeSeconds();
+        log.info("Startup warmup: serving stage done after {} s, accepting traffic", String.format("%.1f", warmSeconds));
+    }
+
+    private synchronized void setStatus(String step, Status s) {
+        status.put(step, s);
+    }
+
+    @EventListener(ServletRequestHandledEvent.class)
+    public void onRequest(ServletRequestHandledEvent e) {
+        if (firstRequestSeen.get() || e.getRequestUrl().startsWith("/actuator")) return; // probes don't count
+        if (firstRequestSeen.compareAndSet(false, true)) firstRequestSeconds = uptimeSeconds();
+    }
+
+    private static double uptimeSeconds() {
+        return ManagementFactory.getRuntimeMXBean().getUptime() / 1000.0;
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stop() {
+        runner.shutdownNow();
+    }
+
+    /* ───── HEALTH ───── */
+
+    @Override
+    public Health health() {
+        Health.Builder b = warm ? Health.up() : Health.outOfService();
+        synchronized (this) {
+            status.forEach((step, s) -> b.withDetail(step, s.name()));
+        }
+        if (warm) b.withDetail("warmSeconds", warmSeconds);
+        return b.build();
+    }
+}
@@ -0,0 +1,193 @@
+package com.modernbazaar.core.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains {@code analytics_daily_rollup} and answers the admin summary from it.
+ *
+ * Flow metrics are per-day counts recomputed incrementally: each refresh only redoes
+ * the newest stored day of that metric (it may have been partial) up to today, so
+ * they bucket on timestamps that never move once set ({@code created_at},
+ * {@code canceled_at}); a column later writes bump would count one row twice. State metrics (user
+ * total, active subscriptions, plan mix, status mix) need the whole table once, so
+ * they are snapshotted per refresh instead of per page load. "Days" are the
+ * database session's calendar days, like the old live {@code signupsTrend}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AdminAnalyticsRollupService {
+
+    static final String SIGNUPS = "signups";
+    static final String CANCELLATIONS = "cancellations";
+    static final String USERS_TOTAL = "users_total";
+    static final String ACTIVE_TOTAL = "active_total";
+    static final String PLAN = "plan";
+    static final String STATUS = "status";
+
+    private final JdbcTemplate jdbc;
+
+    /** Latest state snapshot: scalar metrics plus the labelled breakdowns, in count order. */
+    public record State(OffsetDateTime computedAt, long usersTotal, long activeTotal,
+                        Map<String, Long> plans, Map<String, Long> statuses) {}
+
+    /* ───── REFRESH ───── */
+
+    @Transactional
+    public void refresh() {
+        long t0 = System.currentTimeMillis();
+        LocalDate from = upsertFlow(SIGNUPS, "created_at");
+        upsertFlow(CANCELLATIONS, "canceled_at");
+
+        jdbc.update("""
+                delete from analytics_daily_rollup
+                where day = current_date and metric in ('users_total', 'active_total', 'plan', 'status')
+                """);
+        jdbc.update("""
+                insert into analytics_daily_rollup (day, metric, label, cnt, computed_at)
+                select current_date, 'users_total', '', count(distinct user_id), now() from user_subscription
+                union all
+                select current_date, 'active_total', '', count(*), now() from user_subscription
+                 where status = 'active' and plan_slug <> 'free'
+                """);
+        jdbc.update("""
+                insert into analytics_daily_rollup (day, metric, label, cnt, computed_at)
+                select current_date, 'plan', latest.plan_slug, count(*), now()
+                from  (select distinct on (user_id) user_id, plan_slug
+                       from user_subscription order by user_id, id desc) latest
+                group by latest.plan_slug
+                """);
+        jdbc.update("""
+                insert into analytics_daily_rollup (day, metric, label, cnt, computed_at)
+                select current_date, 'status', status, count(*), now()
+                from user_subscription group by status
+                """);
+        log.info("Admin analytics rollup refreshed from {} in {} ms", from, System.currentTimeMillis() - t0);
+    }
+
+    /**
+     * One row per day from the metric's own watermark to today, zero days included so
+     * the watermark always advances. Rows count where {@code timeColumn} falls on the day.
+     */
+    private LocalDate upsertFlow(String metric, String timeColumn) {
+        LocalDate from = jdbc.queryForObject("""
+                select coalesce(
+                         (select max(day) from analytics_daily_rollup where metric = ?),
+                         (select min(%1$s)::date from user_subscription),
+                         current_date)
+                """.formatted(timeColumn), LocalDate.class, metric);
+        jdbc.update("""
+                insert into analytics_daily_rollup (day, metric, label, cnt, computed_at)
+                select d::date, ?, '', count(us.id), now()
+                from   generate_series(?::date, current_date, interval '1 day') d
+                left   join user_subscription us
+                       on us.%1$s >= d and us.%1$s < d + interval '1 day'
+                group  by d
+                on conflict (day, metric, label)
+                   do update set cnt = excluded.cnt, computed_at = excluded.computed_at
+                """.formatted(timeColumn), metric, from);
+        return from;
+    }
+
+    /* ───── READ ───── */
+
+    /** Most recent state snapshot, or null before the first refresh. */
+    @Transactional(readOnly = true)
+    public State latestState() {
+        List<Map<String, Object>> rows = jdbc.queryForList("""
+                select metric, label, cnt, computed_at from analytics_daily_rollup
+                where day = (select max(day) from analytics_daily_rollup where metric = 'users_total')
+                  and metric in ('users_total', 'active_total', 'plan', 'status')
+                order by cnt desc
+                """);
+        if (rows.isEmpty()) return null;
+
+        long users = 0, active = 0;
+        OffsetDateTime computedAt = null;
+        Map<String, Long> plans = new LinkedHashMap<>();
+        Map<String, Long> statuses = new LinkedHashMap<>();
+        for (Map<String, Object> r : rows) {
+            long cnt = ((Number) r.get("cnt")).longValue();
+            String label = (String) r.get("label");
+            switch ((String) r.get("metric")) {
+                case USERS_TOTAL -> {
+                    users = cnt;
+                    computedAt = toOffset(r.get("computed_at"));
+                }
+                case ACTIVE_TOTAL -> active = cnt;
+                case PLAN -> plans.put(label, cnt);
+                case STATUS -> statuses.put(label, cnt);
+                default -> { }
+            }
+        }
+        return new State(computedAt, users, active, plans, statuses);
+    }
+
+    /** Stored per-day counts of a flow metric for days in [today - days, today), oldest first. */
+    @Transactional(readOnly = true)
+    public Map<LocalDate, Long> pastDays(String metric, int days) {
+        Map<LocalDate, Long> out = new LinkedHashMap<>();
+        jdbc.query("""
+                select day, cnt from analytics_daily_rollup
+                where metric = ? and label = ''
+                  and day >= current_date - ? and day < current_date
+                order by day
+                """, rs -> {
+            out.put(rs.getObject("day", LocalDate.class), rs.getLong("cnt"));
+        }, metric, days);
+        return out;
+    }
+
+    /** Today's count of a flow metric: live from the indexed range, or as of the last refresh. */
+    @Transactional(readOnly = true)
+    public long today(String metric, boolean live) {
+        if (!live) {
+            List<Long> stored = jdbc.queryForList("""
+                    select cnt from analytics_daily_rollup
+                    where metric = ? and label = '' and day = current_date
+                    """, Long.class, metric);
+            return stored.isEmpty() ? 0 : stored.get(0);
+        }
+        String sql = SIGNUPS.equals(metric)
+                ? "select count(*) from user_subscription where created_at >= current_date"
+                : "select count(*) from user_subscription where canceled_at >= current_date";
+        Long n = jdbc.queryForObject(sql, Long.class);
+        return n == null ? 0 : n;
+    }
+
+    /** The database's "today", which is what every stored day is relative to. */
+    @Transactional(readOnly = true)
+    public LocalDate currentDay() {
+        return jdbc.queryForObject("select current_date", LocalDate.class);
+    }
+
+    /** Users whose first subscription row appeared after {@code since} (live delta on the user total). */
+    @Transactional(readOnly = true)
+    public long newUsersSince(OffsetDateTime since) {
+        Long n = jdbc.queryForObject("""
+                select count(distinct us.user_id) from user_subscription us
+                where us.created_at > ?
+                  and not exists (select 1 from user_subscription p
+                                  where p.user_id = us.user_id and p.created_at <= ?)
+                """, Long.class, since, since);
+        return n == null ? 0 : n;
+    }
+
+    private static OffsetDateTime toOffset(Object value) {
+        if (value instanceof OffsetDateTime o) return o;
+        if (value instanceof Timestamp ts) return ts.toInstant().atOffset(ZoneOffset.UTC);
+        return null;
+    }
+}
@@ -9,19 +9,65 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Admin summary. Served from {@link AdminAnalyticsRollupService}'s daily rollup; with
+ * {@code live} the current day (signups, cancellations, new users) is added from cheap
+ * indexed range counts. Falls back to the live aggregates until the first rollup exists.
+ */
 @Service
 @RequiredArgsConstructor
 public class AdminAnalyticsService {
 
+    private static final int CANCELED_WINDOW_DAYS = 30;
+
     private final UserSubscriptionRepository subs;
     private final PlanRepository plans;
+    private final AdminAnalyticsRollupService rollup;
 
     @Transactional(readOnly = true)
-    public AdminAnalyticsSummaryDTO summary(int trendDays) {
+    public AdminAnalyticsSummaryDTO summary(int trendDays, boolean live) {
         int days = trendDays > 0 ? trendDays : 30;
 
+        AdminAnalyticsRollupService.State state = rollup.latestState();
+        if (state == null) return liveSummary(days);
+
+        long totalUsers = state.usersTotal();
+        if (live && state.computedAt() != null) totalUsers += rollup.newUsersSince(state.computedAt());
+
+        long canceled = rollup.pastDays(AdminAnalyticsRollupService.CANCELLATIONS, CANCELED_WINDOW_DAYS)
+                .values().stream().mapToLong(Long::longValue).sum()
+                + rollup.today(AdminAnalyticsRollupService.CANCELLATIONS, live);
+
+        List<DayCount> trend = new ArrayList<>();
+        rollup.pastDays(AdminAnalyticsRollupService.SIGNUPS, days).forEach((day, cnt) -> {
+            if (cnt > 0) trend.add(new DayCount(day.toString(), cnt));
+        });
+        long todaySignups = rollup.today(AdminAnalyticsRollupService.SIGNUPS, live);
+        if (todaySignups > 0) trend.add(new DayCount(rollup.currentDay().toString(), todaySignups));
+
+        return new AdminAnalyticsSummaryDTO(
+                totalUsers,
+                state.activeTotal(),
+                canceled,
+                (int) plans.count(),
+                named(state.plans()),
+                named(state.statuses()),
+                trend
+        );
+    }
+
+    private static List<NamedCount> named(Map<String, Long> counts) {
+        return counts.entrySet().stream()
+                .map(e -> new NamedCount(e.getKey(), e.getValue()))
+                .toList();
+    }
+
+    /** Full live aggregates; only used before the rollup has been filled once. */
+    private AdminAnalyticsSummaryDTO liveSummary(int days) {
         List<NamedCount> planDist = subs.planDistribution().stream()
                 .map(r -> new NamedCount(r.getLabel(), r.getCnt()))
                 .toList();
@@ -35,7 +81,7 @@ public class AdminAnalyticsService {
         return new AdminAnalyticsSummaryDTO(
                 subs.countDistinctUsers(),
                 subs.countActive(),
-                subs.countCanceledWithinDays(30),
+                subs.countCanceledWithinDays(CANCELED_WINDOW_DAYS),
                 (int) plans.count(),
                 planDist,
                 statuses,
@@ -5,15 +5,22 @@ import com.modernbazaar.core.api.dto.PagedResponseDTO;
 import com.modernbazaar.core.domain.UserSubscription;
 import com.modernbazaar.core.repository.PlanRepository;
 import com.modernbazaar.core.repository.UserSubscriptionRepository;
+import com.modernbazaar.core.util.CursorCodec;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -22,6 +29,7 @@ public class AdminUserService {
     private final UserSubscriptionRepository subs;
     private final PlanRepository plans;
     private final Auth0ManagementService auth0;
+    private final EntitlementCache entitlements;
 
     @Transactional(readOnly = true)
     public PagedResponseDTO<AdminUserDTO> list(int page, int limit, String q, String sortBy, String dir) {
@@ -40,6 +48,68 @@ public class AdminUserService {
         return PagedResponseDTO.fromPage(p.map(AdminUserDTO::of));
     }
 
+    /** Sort fields that are NOT NULL, so keyset comparisons never drop rows. */
+    private static final Set<String> KEYSET_SORTS = Set.of("userId", "planSlug", "status", "createdAt");
+
+    /**
+     * Cursor variant of {@link #list}: keyset on (sortBy, id) via Spring Data
+     * scrolling. The token pins sort field and direction, so a cursor can't be
+     * replayed against a different ordering. {@code after} blank = first page.
+     */
+    @Transactional(readOnly = true)
+    public PagedResponseDTO<AdminUserDTO> listAfter(int limit, String q, String sortBy, String dir, String after) {
+        if (limit <= 0) limit = 25;
+        String field = (sortBy == null || sortBy.isBlank()) ? "userId" : sortBy;
+        if (!KEYSET_SORTS.contains(field)) {
+            throw new IllegalArgumentException("Cursor pagination supports sortBy userId, planSlug, status or createdAt");
+        }
+        var direction = "desc".equalsIgnoreCase(dir) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = Sort.by(direction, field).and(Sort.by(direction, "id"));
+
+        ScrollPosition position = ScrollPosition.keyset();
+        boolean first = CursorCodec.isFirstPage(after);
+        if (!first) {
+            String[] k = CursorCodec.decode(after, 4);
+            if (!k[0].equals(field) || !k[1].equals(direction.name())) {
+                throw new IllegalArgumentException("Cursor does not match sortBy/dir");
+            }
+            try {
+                Object key = "createdAt".equals(field) ? OffsetDateTime.parse(k[2]) : k[2];
+                position = ScrollPosition.forward(Map.of(field, key, "id", Long.parseLong(k[3])));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        Window<UserSubscription> w = (q == null || q.isBlank())
+                ? subs.findAllBy(position, sort, Limit.of(limit))
+                : subs.findByUserIdContainingIgnoreCaseOrEmailContainingIgnoreCaseOrNameContainingIgnoreCase(
+                        q.trim(), q.trim(), q.trim(), position, sort, Limit.of(limit));
+
+        String next = null;
+        if (w.hasNext() && !w.isEmpty()) {
+            UserSubscription last = w.getContent().get(w.size() - 1);
+            String key = switch (field) {
+                case "planSlug"  -> last.getPlanSlug();
+                case "status"    -> last.getStatus();
+                case "createdAt" -> last.getCreatedAt().toString();
+                default          -> last.getUserId();
+            };
+            next = CursorCodec.encode(field, direction.name(), key, last.getId().toString());
+        }
+        return PagedResponseDTO.ofCursor(w.getContent().stream().map(AdminUserDTO::of).toList(),
+                limit, next, !first, null);
+    }
+
+    /** Total for the admin list filter (cursor mode, {@code withTotal=true}); short-lived cache. */
+    @Cacheable(value = "pageTotals", key = "'users-'+#q")
+    @Transactional(readOnly = true)
+    public long count(String q) {
+        if (q == null || q.isBlank()) return subs.count();
+        String t = q.trim();
+        return subs.countByUserIdContainingIgnoreCaseOrEmailContainingIgnoreCaseOrNameContainingIgnoreCase(t, t, t);
+    }
+
     /** Admin override of a user's plan (no payment). */
     @Transactional
     public AdminUserDTO setPlan(String userId, String planSlug) {
@@ -70,6 +140,7 @@ public class AdminUserService {
             sub.setStatus("active");
         }
         var saved = subs.save(sub);
+        entitlements.invalidate(userId);
         // Sync Auth0 roles so access actually changes (grant on upgrade, revoke on
         // downgrade to free). Takes effect on the user's next token refresh / login.
         auth0.syncPlanRoles(userId, plan.getSlug());
@@ -85,6 +156,7 @@ public class AdminUserService {
     public void delete(String userId) {
         auth0.syncPlanRoles(userId, "free"); // revoke paid scopes
         subs.deleteByUserId(userId);
+        entitlements.invalidate(userId);
     }
 
     /** Maximum manual grant in one call (10 years) — guards against fat-finger / abuse. */
@@ -105,6 +177,8 @@ public class AdminUserService {
                 ? sub.getCurrentPeriodEnd() : now;
         sub.setCurrentPeriodEnd(base.plusDays(days));
         sub.setStatus("active");
-        return AdminUserDTO.of(subs.save(sub));
+        var saved = subs.save(sub);
+        entitlements.invalidate(userId);
+        return AdminUserDTO.of(saved);
     }
 }
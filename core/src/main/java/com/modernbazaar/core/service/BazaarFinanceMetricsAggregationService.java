@@ -2,6 +2,7 @@ package com.modernbazaar.core.service;
 
 import com.modernbazaar.core.domain.BazaarFinanceMetrics;
 import com.modernbazaar.core.domain.BazaarItemHourSummary;
+import com.modernbazaar.core.diagnostics.FinanceRecomputeEvent;
 import com.modernbazaar.core.repository.BazaarFinanceMetricsRepository;
 import com.modernbazaar.core.repository.BazaarItemHourSummaryRepository;
 import lombok.RequiredArgsConstructor;
@@ -21,6 +22,7 @@ public class BazaarFinanceMetricsAggregationService {
 
     private final BazaarItemHourSummaryRepository hourRepo;
     private final BazaarFinanceMetricsRepository metricsRepo;
+    private final ClusterEventBus clusterEvents;
 
     /** Recalcula métricas pré-computadas para todas as productIds e janelas pedidas. Mantém só 1 linha (upsert). */
     @Transactional
@@ -32,8 +34,21 @@ public class BazaarFinanceMetricsAggregationService {
         if (winList.isEmpty()) return;
         int maxWindow = winList.get(winList.size()-1);
 
+        FinanceRecomputeEvent jfr = FinanceRecomputeEvent.start(winList.toString());
+        try {
+            recompute(winList, maxWindow, jfr);
+        } finally {
+            jfr.commit(); // a failed run is recorded too, with success=false
+        }
+    }
+
+    private void recompute(List<Integer> winList, int maxWindow, FinanceRecomputeEvent jfr) {
         List<String> allIds = hourRepo.findDistinctProductIds();
-        if (allIds.isEmpty()) return;
+        if (allIds.isEmpty()) {
+            jfr.finish(0, 0);
+            return;
+        }
+        int totalUpserts = 0;
 
         final int batchSize = 500;
         Instant now = Instant.now();
@@ -64,9 +79,12 @@ public class BazaarFinanceMetricsAggregationService {
                     upsertCount++;
                 }
             }
+            totalUpserts += upsertCount;
             log.info("FinanceMetrics aggregation batch {} - {} items, upserts={} windows={}", (i/batchSize)+1, batch.size(), upsertCount, winList);
             metricsRepo.flush();
         }
+        clusterEvents.publish(ClusterEventBus.FINANCE_RECOMPUTED, winList.toString()); // other nodes drop their copies
+        jfr.finish(allIds.size(), totalUpserts);
     }
 
     private void fillMetrics(BazaarFinanceMetrics m, List<BazaarItemHourSummary> last, Instant now) {
@@ -3,6 +3,7 @@ package com.modernbazaar.core.service;
 import com.modernbazaar.core.domain.BazaarItemHourPoint;
 import com.modernbazaar.core.domain.BazaarItemHourSummary;
 import com.modernbazaar.core.domain.BazaarItemSnapshot;
+import com.modernbazaar.core.diagnostics.CompactionEvent;
 import com.modernbazaar.core.repository.BazaarProductSnapshotRepository;
 import com.modernbazaar.core.repository.BazaarItemHourSummaryRepository;
 import com.modernbazaar.core.repository.BazaarHourPointRepository;
@@ -32,6 +33,7 @@ public class BazaarHourlyProcessingService {
     private final BazaarItemHourSummaryRepository summaryRepo;
     private final BazaarHourPointRepository pointRepo;
     private final BazaarSnapshotToMinutePointMapper mapper;
+    private final ClusterEventBus clusterEvents;
 
     @PersistenceContext
     private final EntityManager em;
@@ -56,15 +58,22 @@ public class BazaarHourlyProcessingService {
             return;
         }
 
-        int totalKept = 0;
-        for (String pid : productIds) {
-            totalKept += compactProductHour(pid, windowStart, windowEnd);
-        }
+        CompactionEvent jfr = CompactionEvent.start(windowStart);
+        try {
+            int totalKept = 0;
+            for (String pid : productIds) {
+                totalKept += compactProductHour(pid, windowStart, windowEnd);
+            }
 
-        // Delete all snapshots (and associated order entries) in this window
-        snapRepo.cascadeDeleteHour(windowStart, windowEnd);
+            // Delete all snapshots (and associated order entries) in this window
+            snapRepo.cascadeDeleteHour(windowStart, windowEnd);
 
-        log.info("Window {} → products={}  points kept={}", windowStart, productIds.size(), totalKept);
+            clusterEvents.publish(ClusterEventBus.HOUR_SEALED, windowStart.toString()); // delivered on commit
+            log.info("Window {} → products={}  points kept={}", windowStart, productIds.size(), totalKept);
+            jfr.finish(productIds.size(), totalKept);
+        } finally {
+            jfr.commit(); // a failed compaction is recorded too, with success=false
+        }
     }
 
     /**
@@ -3,10 +3,15 @@ package com.modernbazaar.core.service;
 import com.modernbazaar.core.dto.RawBazaarResponse;
 import com.modernbazaar.core.dto.RawBazaarProduct;
 import com.modernbazaar.core.domain.BazaarItemSnapshot;
+import com.modernbazaar.core.diagnostics.PollEvent;
 import com.modernbazaar.core.repository.BazaarItemRepository;
 import com.modernbazaar.core.repository.BazaarProductSnapshotRepository;
+import com.modernbazaar.core.util.AfterCommit;
 import com.modernbazaar.core.util.RawBazaarProductToSnapshotMapper;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Nullable;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
@@ -14,7 +19,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -26,6 +36,14 @@ public class BazaarItemsFetchService {
     private final BazaarProductSnapshotRepository snapshotRepo;
     private final BazaarItemRepository itemRepo;
     private final MeterRegistry meterRegistry;
+    private final MarketGeneration marketGeneration;
+    private final BazaarStreamService streamService;
+    private final MetricsService metricsService;
+    private final ProductNameDictionary productNames;
+    private final JobLeaseService leases;
+    private final ClusterEventBus clusterEvents;
+    private final PipelineTelemetry telemetry;
+    private final ObjectMapper objectMapper;
 
     private final static String BAZAAR_API_URI = "/skyblock/bazaar";
     private static final int BATCH_SIZE = 50;
@@ -33,11 +51,24 @@ public class BazaarItemsFetchService {
     @PersistenceContext
     private EntityManager em;
 
-    /** Entry point called by the scheduler. One TX, small batches, clear PC. */
+    /**
+     * Entry point called by the scheduler. One TX, small batches, clear PC.
+     * With a lease, the commit is fenced: it fails if another node took the poll over meanwhile.
+     */
     @Transactional
-    public void fetchAndStore() {
+    public void fetchAndStore(@Nullable JobLeaseService.Lease lease) {
+        PollEvent jfr = PollEvent.start();
+        try {
+            poll(lease, jfr);
+        } finally {
+            jfr.commit(); // failed polls too: bad response, parse error, exception
+        }
+    }
+
+    private void poll(@Nullable JobLeaseService.Lease lease, PollEvent jfr) {
         long startNanos = System.nanoTime();
-        RawBazaarResponse resp = fetchBazaar();
+        byte[] body = telemetry.time(PipelineTelemetry.FETCH, this::fetchBazaar);
+        RawBazaarResponse resp = body == null ? null : telemetry.time(PipelineTelemetry.PARSE, () -> parse(body));
         if (resp == null || !resp.isSuccess()) {
             log.warn("Bazaar poll failed: response was {}", resp == null ? "null" : "unsuccessful");
             meterRegistry.counter("modernbazaar.bazaar.poll.failures").increment();
@@ -45,15 +76,23 @@ public class BazaarItemsFetchService {
         }
 
         Instant apiTs = Instant.ofEpochMilli(resp.getLastUpdated());
+        telemetry.hypixelUpdated(apiTs);
+        long persistStart = System.nanoTime();
         upsertNewItems(resp);
 
         int fetched = resp.getProducts().size();
         int persisted = 0;
         int sinceFlush = 0;
+        long dedupeNanos = 0;
+        Map<String, Map<String, Number>> changed = new HashMap<>();
         for (RawBazaarProduct raw : resp.getProducts().values()) {
-            if (!shouldPersist(raw.getProductId(), apiTs)) continue;
+            long t = System.nanoTime();
+            boolean isNew = shouldPersist(raw.getProductId(), apiTs);
+            dedupeNanos += System.nanoTime() - t;
+            if (!isNew) continue;
             BazaarItemSnapshot snap = buildSnapshot(raw, resp.getLastUpdated());
             em.persist(snap);
+            changed.put(snap.getProductId(), BazaarStreamService.fieldsOf(snap));
             persisted++;
 
             if (++sinceFlush >= BATCH_SIZE) {
@@ -64,29 +103,56 @@ public class BazaarItemsFetchService {
         }
         em.flush();
         em.clear();
+        telemetry.record(PipelineTelemetry.DEDUPE, dedupeNanos);
+        telemetry.record(PipelineTelemetry.PERSIST, System.nanoTime() - persistStart - dedupeNanos);
+        if (lease != null) leases.fence(lease, persisted > 0); // stamps completion for read-only nodes
+        if (persisted > 0) clusterEvents.publish(ClusterEventBus.POLL_COMPLETED, String.valueOf(persisted));
+
+        if (persisted > 0) {
+            // after commit, so readers keyed on the new generation never see the previous market
+            AfterCommit.run(() -> {
+                streamService.publish(marketGeneration.advance(), changed);
+                metricsService.refresh();
+            });
+        }
 
         // Observability: surface throughput in Prometheus/Grafana and the logs.
         meterRegistry.counter("modernbazaar.bazaar.products.fetched").increment(fetched);
         meterRegistry.counter("modernbazaar.bazaar.snapshots.persisted").increment(persisted);
+        jfr.finish(fetched, persisted);
         double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
         log.info("Bazaar poll: fetched {} products, persisted {} new snapshots in {}s ({} duplicates skipped)",
                 fetched, persisted, String.format("%.2f", seconds), fetched - persisted);
     }
 
-    /** Calls Hypixel and maps the JSON payload. */
-    private RawBazaarResponse fetchBazaar() {
+    /** Calls Hypixel; the body is parsed separately so fetch and parse are timed apart. */
+    private byte[] fetchBazaar() {
         return webClient.get()
                 .uri(BAZAAR_API_URI)
                 .retrieve()
-                .bodyToMono(RawBazaarResponse.class)
+                .bodyToMono(byte[].class)
                 .block();
     }
 
-    /** Insert new product IDs without merging existing rows. */
+    /** Same leniency as the WebClient codec had: Hypixel adds fields without notice. */
+    private RawBazaarResponse parse(byte[] body) {
+        try {
+            return objectMapper.readerFor(RawBazaarResponse.class)
+                    .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                    .readValue(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unparseable bazaar response", e);
+        }
+    }
+
+    /** Insert new product IDs without merging existing rows; a new one reloads the name dictionary. */
     private void upsertNewItems(RawBazaarResponse resp) {
         for (String id : resp.getProducts().keySet()) {
             itemRepo.insertIgnore(id);
         }
+        if (productNames.hasUnknown(resp.getProducts().keySet())) {
+            AfterCommit.run(productNames::reload); // and the search index, so q= finds it right away
+        }
     }
 
     /** Fast boolean dedupe: skip if same productId + lastUpdated already stored. */
@@ -3,17 +3,22 @@ package com.modernbazaar.core.service;
 import com.modernbazaar.core.api.dto.*;
 import com.modernbazaar.core.domain.*;
 import com.modernbazaar.core.repository.*;
+import com.modernbazaar.core.repository.projection.CursorIdRow;
 import com.modernbazaar.core.repository.projection.PagedIdRow;
 import com.modernbazaar.core.strategy.metrics.FinanceAverages;
 import com.modernbazaar.core.strategy.metrics.FinanceMetricsService;
+import com.modernbazaar.core.util.CursorCodec;
 import jakarta.annotation.Nullable;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -29,12 +34,18 @@ public class BazaarItemsQueryService {
 
     private final BazaarItemHourSummaryRepository hourRepo;
     private final BazaarProductSnapshotRepository snapRepo;
-    private final BazaarItemRepository            itemRepo;
     private final FinanceMetricsService           finance;
+    private final ItemSearchIndex                 searchIndex;
+    private final ProductNameDictionary           productNames;
+    private final HeavyWorkExecutor               heavyWork;
+
+    /** Widest {@code from}/{@code to} range a history call may ask for; also the default without {@code from}. */
+    @Value("${skyblock.bazaar.history.max-window-days:90}")
+    private int maxHistoryWindowDays;
 
     /* ───────────────────── LIST ───────────────────── */
 
-    @Cacheable(value = "liveViewList", key = "'list-'+#filter.hashCode()+#sort.orElse('')+#limit+'-'+#page")
+    @Cacheable(value = "liveViewList", sync = true, key = "'list-'+#filter.hashCode()+#sort.orElse('')+#limit+'-'+#page+'-'+#includeHour")
     @Transactional(readOnly = true)
     public PagedResponseDTO<BazaarItemLiveViewResponseDTO> getLatestPaginated(
             BazaarItemFilterDTO filter,
@@ -49,9 +60,14 @@ public class BazaarItemsQueryService {
         if (limit > 200) limit = 200; // cap so one request can't scan the whole table (cost/DoS guard)
         int offset = page * limit;
 
+        ItemSearchIndex.Filter text = searchIndex.filter(filter.q());
+        if (text.none()) {
+            return new PagedResponseDTO<>(List.of(), 0, limit, 0, 1, false, false);
+        }
+
         /* 1️⃣ single query: page of IDs + total */
         List<PagedIdRow> idRows = snapRepo.findLatestProductIdsPagedWithTotal(
-                filter.q(),
+                text.q(), text.restrict(), text.sqlIds(),
                 filter.minSell(), filter.maxSell(),
                 filter.minBuy(),  filter.maxBuy(),
                 filter.minSpread(),
@@ -64,7 +80,7 @@ public class BazaarItemsQueryService {
             page = Math.max(0, totalPages - 1);
             offset = page * limit;
             idRows = snapRepo.findLatestProductIdsPagedWithTotal(
-                    filter.q(),
+                    text.q(), text.restrict(), text.sqlIds(),
                     filter.minSell(), filter.maxSell(),
                     filter.minBuy(),  filter.maxBuy(),
                     filter.minSpread(),
@@ -104,9 +120,113 @@ public class BazaarItemsQueryService {
                 page > 0);
     }
 
+    /**
+     * Cursor variant of {@link #getLatestPaginated}: seeks past {@code after}
+     * (blank = first page) on (sort key, product id) ordered in SQL, instead of
+     * OFFSET, and skips the count. Totals come from {@link #countLatest}. Without a
+     * known {@code sort} pages go in product-id order, which no poll can reshuffle;
+     * price sorts follow the live prices, so a row whose price moves between pages
+     * may show up twice or not at all. The token pins the sort it was issued for.
+     */
+    @Cacheable(value = "liveViewList", sync = true,
+               key = "'after-'+#filter.hashCode()+#sort.orElse('')+#limit+'-'+#after+'-'+#includeHour+'-'+@marketGeneration.current()")
+    @Transactional(readOnly = true)
+    public PagedResponseDTO<BazaarItemLiveViewResponseDTO> getLatestAfter(
+            BazaarItemFilterDTO filter,
+            Optional<String>   sort,
+            String             after,
+            int                limit,
+            boolean            includeHour) {
+
+        if (limit <= 0) limit = 25;
+        if (limit > 200) limit = 200;
+
+        CursorSort order = CursorSort.of(sort);
+        Double afterKey = null;
+        String afterId  = null;
+        if (!CursorCodec.isFirstPage(after)) {
+            String[] key = CursorCodec.decode(after, 3);
+            if (!key[0].equals(order.name())) {
+                throw new IllegalArgumentException("Cursor does not match sort");
+            }
+            try {
+                afterKey = Double.parseDouble(key[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            afterId = key[2];
+        }
+
+        ItemSearchIndex.Filter text = searchIndex.filter(filter.q());
+        if (text.none()) {
+            return PagedResponseDTO.ofCursor(List.of(), limit, null, afterId != null, null);
+        }
+
+        /* one extra row tells us whether there is a next page */
+        List<CursorIdRow> rows = snapRepo.findLatestProductIdsAfter(
+                text.q(), text.restrict(), text.sqlIds(),
+                filter.minSell(), filter.maxSell(),
+                filter.minBuy(),  filter.maxBuy(),
+                filter.minSpread(),
+                order.column(), order.sign(),
+                afterKey, afterId,
+                limit + 1);
+
+        boolean hasNext = rows.size() > limit;
+        if (hasNext) rows = rows.subList(0, limit);
+        String next = hasNext
+                ? CursorCodec.encode(order.name(),
+                                     rows.get(rows.size() - 1).getSortKey().toString(),
+                                     rows.get(rows.size() - 1).getId())
+                : null;
+
+        List<String> pageIds = rows.stream().map(CursorIdRow::getId).toList();
+        if (pageIds.isEmpty()) {
+            return PagedResponseDTO.ofCursor(List.of(), limit, null, afterId != null, null);
+        }
+
+        List<BazaarItemSnapshot> snaps = snapRepo.findLatestByProductIds(pageIds);
+        List<BazaarItemHourSummary> hrs = includeHour
+                ? hourRepo.findLatestByProductIds(pageIds)
+                : List.of();
+
+        // already in SQL order; no per-page re-sort
+        List<BazaarItemLiveViewResponseDTO> dtos = buildLiveViewDTOs(pageIds, snaps, hrs, includeHour);
+        return PagedResponseDTO.ofCursor(dtos, limit, next, afterId != null, null);
+    }
+
+    /** {@code sort=} as the keyset query takes it: column, sign (−1 = descending) and the name pinned in the token. */
+    private record CursorSort(String name, String column, int sign) {
+        static CursorSort of(Optional<String> sort) {
+            String k = sort.map(String::trim).map(String::toLowerCase).orElse("");
+            return switch (k) {
+                case "sellasc"    -> new CursorSort(k, "sell", 1);
+                case "selldesc"   -> new CursorSort(k, "sell", -1);
+                case "buyasc"     -> new CursorSort(k, "buy", 1);
+                case "buydesc"    -> new CursorSort(k, "buy", -1);
+                case "spreadasc"  -> new CursorSort(k, "spread", 1);
+                case "spreaddesc" -> new CursorSort(k, "spread", -1);
+                default           -> new CursorSort("id", null, 1);
+            };
+        }
+    }
+
+    /** Filter total for cursor pages; recomputed once per filter per market generation. */
+    @Cacheable(value = "pageTotals", key = "'items-'+#filter.hashCode()+'-'+@marketGeneration.current()")
+    @Transactional(readOnly = true)
+    public long countLatest(BazaarItemFilterDTO filter) {
+        ItemSearchIndex.Filter text = searchIndex.filter(filter.q());
+        if (text.none()) return 0L;
+        return snapRepo.countLatestFiltered(
+                text.q(), text.restrict(), text.sqlIds(),
+                filter.minSell(), filter.maxSell(),
+                filter.minBuy(),  filter.maxBuy(),
+                filter.minSpread());
+    }
+
     /* ───────────────────── DETAIL ─────────────────── */
 
-    @Cacheable(value = "liveViewItem", key = "#productId")
+    @Cacheable(value = "liveViewItem", sync = true, key = "#productId")
     @Transactional(readOnly = true)
     public BazaarItemLiveViewResponseDTO getItem(String productId) {
         // 1️⃣  Get the latest Snapshot row *without* collections (no warning)
@@ -126,10 +246,7 @@ public class BazaarItemsQueryService {
                 .findTopByProductIdOrderByHourStartDesc(productId)
                 .orElse(null);
 
-        String displayName = itemRepo.findById(productId)
-                .map(BazaarItem::getSkyblockItem)
-                .map(SkyblockItem::getName)
-                .orElse(null);
+        String displayName = productNames.nameOf(productId);
 
         BazaarItemSnapshotResponseDTO snapDto = snap != null
                 ? mapSnapshot(snap, displayName)
@@ -201,20 +318,31 @@ public class BazaarItemsQueryService {
 
     /* ───────────────────── HISTORY ────────────────── */
 
-    @Transactional(readOnly = true)
-    @Cacheable(value = "liveViewHistory", key = "'history-'+#productId+'-'+#from+'-'+#to+'-'+#withPoints")
+    private void checkHistoryWindow(Instant start, Instant end) {
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        if (Duration.between(start, end).compareTo(Duration.ofDays(maxHistoryWindowDays)) > 0) {
+            throw new IllegalArgumentException("History range is limited to " + maxHistoryWindowDays + " days");
+        }
+    }
+
+    /** Cache hits return here; misses load on the heavy pool, in a read-only transaction there. */
+    @Cacheable(value = "liveViewHistory", sync = true, key = "'history-'+#productId+'-'+#from+'-'+#to+'-'+#withPoints")
     public List<BazaarItemHourSummaryResponseDTO> getHistory(
             String  productId,
             Instant from,
             Instant to,
             boolean withPoints
     ) {
-        Instant start = from != null ? from : Instant.EPOCH;
         Instant end   = to   != null ? to   : Instant.now();
-        if (!start.isBefore(end)) {
-            throw new IllegalArgumentException("'from' must be before 'to'");
-        }
+        Instant start = from != null ? from : end.minus(maxHistoryWindowDays, ChronoUnit.DAYS);
+        checkHistoryWindow(start, end);
+        return heavyWork.callReadOnly(HeavyWorkExecutor.HISTORY, () -> loadHistory(productId, start, end, withPoints));
+    }
 
+    private List<BazaarItemHourSummaryResponseDTO> loadHistory(
+            String productId, Instant start, Instant end, boolean withPoints) {
         List<BazaarItemHourSummary> rows = withPoints
                 ? hourRepo.findRangeWithPoints(productId, start, end)
                 : hourRepo.findRange(productId, start, end);
@@ -225,42 +353,14 @@ public class BazaarItemsQueryService {
 
         return rows.stream()
                 .map(r -> BazaarItemHourSummaryResponseDTO.of(r, withPoints))
-                .map(dto -> {
-                    if (!withPoints) return dto;
-                    // Dedupe by exact snapshotTime so you never get 3 600 entries:
-                    Map<Instant, BazaarItemHourPointDTO> unique = new LinkedHashMap<>();
-                    assert dto.points() != null;
-                    for (var p : dto.points()) {
-                        unique.putIfAbsent(p.snapshotTime(), p);
-                    }
-                    return new BazaarItemHourSummaryResponseDTO(
-                            dto.productId(),
-                            dto.displayName(),
-                            dto.hourStart(),
-                            dto.openInstantBuyPrice(),
-                            dto.closeInstantBuyPrice(),
-                            dto.minInstantBuyPrice(),
-                            dto.maxInstantBuyPrice(),
-                            dto.openInstantSellPrice(),
-                            dto.closeInstantSellPrice(),
-                            dto.minInstantSellPrice(),
-                            dto.maxInstantSellPrice(),
-                            dto.createdBuyOrders(),
-                            dto.deltaBuyOrders(),
-                            dto.createdSellOrders(),
-                            dto.deltaSellOrders(),
-                            dto.addedItemsBuyOrders(),
-                            dto.addedItemsSellOrders(),
-                            new ArrayList<>(unique.values())
-                    );
-                })
+                .map(dto -> withPoints ? dedupePoints(dto) : dto)
                 .toList();
     }
 
     /* ───────────────────── LATEST SNAPSHOTS ────────────────── */
 
     @Transactional(readOnly = true)
-    @Cacheable(value = "liveViewSnapshots", key = "'snapshots-'+#productId+'-'+#limit")
+    @Cacheable(value = "liveViewSnapshots", sync = true, key = "'snapshots-'+#productId+'-'+#limit")
     public List<BazaarItemHourSummaryResponseDTO> getLatestSnapshots(
             String productId,
             int limit
@@ -275,10 +375,7 @@ public class BazaarItemsQueryService {
             return List.of();
         }
 
-        String displayName = itemRepo.findById(productId)
-                .map(BazaarItem::getSkyblockItem)
-                .map(SkyblockItem::getName)
-                .orElse(null);
+        String displayName = productNames.nameOf(productId);
 
         // Convert snapshots to hour summary format (lightweight, no order details)
         return snapshots.stream()
@@ -319,7 +416,7 @@ public class BazaarItemsQueryService {
     }
 
     @Transactional(readOnly = true)
-    @Cacheable(value = "liveViewHourAverage", key = "'hourAverage-'+#productId")
+    @Cacheable(value = "liveViewHourAverage", sync = true, key = "'hourAverage-'+#productId")
     public BazaarItemHourAverageResponseDTO getLast48HourAverage(String productId) {
         Optional<FinanceAverages> opt = finance.getAverages(productId, 48);
         if (opt.isEmpty()) {
@@ -327,10 +424,7 @@ public class BazaarItemsQueryService {
         }
         FinanceAverages a = opt.get();
 
-        String displayName = itemRepo.findById(productId)
-                .flatMap(item -> Optional.ofNullable(item.getSkyblockItem()))
-                .map(skyblockItem -> skyblockItem.getName())
-                .orElse(null);
+        String displayName = productNames.nameOf(productId);
 
         return BazaarItemHourAverageResponseDTO.of(
                 productId, displayName, Instant.now(), a.windowHours(),
@@ -340,15 +434,129 @@ public class BazaarItemsQueryService {
                 a.avgAddedItemsBuyOrders(), a.avgAddedItemsSellOrders());
     }
 
+    /* ───────────────────── BATCH ────────────────── */
+
+    /**
+     * Watchlist variant of {@link #getItem}: latest snapshot (with order books),
+     * latest hour summary and name for up to 50 products (capped on the request DTO) in a
+     * constant number of set-based queries. Unknown ids are omitted from the map.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, BazaarItemLiveViewResponseDTO> getItems(Collection<String> productIds) {
+        List<String> ids = normalizeBatchIds(productIds);
+
+        Map<String, BazaarItemSnapshot> snapById = snapRepo.findLatestByProductIds(ids).stream()
+                .collect(Collectors.toMap(BazaarItemSnapshot::getProductId, Function.identity()));
+        Map<String, BazaarItemHourSummary> hourById = hourRepo.findLatestByProductIds(ids).stream()
+                .collect(Collectors.toMap(BazaarItemHourSummary::getProductId, Function.identity()));
+        Map<String, String> names = preloadNames(new HashSet<>(ids));
+
+        // order books load in one batch per collection: every snapshot is already in the PC
+        Map<String, BazaarItemLiveViewResponseDTO> out = new LinkedHashMap<>();
+        for (String id : ids) {
+            BazaarItemSnapshot    snap = snapById.get(id);
+            BazaarItemHourSummary hs   = hourById.get(id);
+            if (snap == null && hs == null) continue;
+
+            String name = names.get(id);
+            out.put(id, new BazaarItemLiveViewResponseDTO(
+                    snap != null ? mapSnapshot(snap, name) : null,
+                    hs   != null ? buildDto(hs, name, false) : null));
+        }
+        return out;
+    }
+
+    /**
+     * Watchlist variant of {@link #getHistory}. Without {@code from} the window is
+     * the last 48h (a whole-history scan times 50 products is not a watchlist call).
+     * Products with no rows in range are omitted.
+     */
+    public Map<String, List<BazaarItemHourSummaryResponseDTO>> getHistories(
+            Collection<String> productIds,
+            Instant from,
+            Instant to,
+            boolean withPoints
+    ) {
+        List<String> ids = normalizeBatchIds(productIds);
+        Instant end   = to   != null ? to   : Instant.now();
+        Instant start = from != null ? from : end.minus(48, ChronoUnit.HOURS);
+        checkHistoryWindow(start, end);
+        return heavyWork.callReadOnly(HeavyWorkExecutor.HISTORY, () -> loadHistories(ids, start, end, withPoints));
+    }
+
+    private Map<String, List<BazaarItemHourSummaryResponseDTO>> loadHistories(
+            List<String> ids, Instant start, Instant end, boolean withPoints) {
+        List<BazaarItemHourSummary> rows = withPoints
+                ? hourRepo.findRangeWithPointsForProductIds(ids, start, end)
+                : hourRepo.findRangeForProductIds(ids, start, end);
+        Map<String, String> names = preloadNames(new HashSet<>(ids));
+
+        Map<String, List<BazaarItemHourSummaryResponseDTO>> byId = new HashMap<>();
+        for (BazaarItemHourSummary r : rows) {
+            BazaarItemHourSummaryResponseDTO dto =
+                    BazaarItemHourSummaryResponseDTO.of(r, withPoints, names.get(r.getProductId()));
+            byId.computeIfAbsent(r.getProductId(), k -> new ArrayList<>())
+                    .add(withPoints ? dedupePoints(dto) : dto);
+        }
+
+        Map<String, List<BazaarItemHourSummaryResponseDTO>> out = new LinkedHashMap<>();
+        for (String id : ids) {
+            List<BazaarItemHourSummaryResponseDTO> h = byId.get(id);
+            if (h != null) out.put(id, h);
+        }
+        return out;
+    }
+
+    private static List<String> normalizeBatchIds(Collection<String> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            throw new IllegalArgumentException("productIds must not be empty");
+        }
+        List<String> ids = productIds.stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .distinct()
+                .toList();
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("productIds must not be empty");
+        }
+        return ids;
+    }
+
     /* ───────────────────── helpers ────────────────── */
 
+    /** Dedupe by exact snapshotTime so you never get 3 600 entries. */
+    private static BazaarItemHourSummaryResponseDTO dedupePoints(BazaarItemHourSummaryResponseDTO dto) {
+        if (dto.points() == null) return dto;
+        Map<Instant, BazaarItemHourPointDTO> unique = new LinkedHashMap<>();
+        for (var p : dto.points()) {
+            unique.putIfAbsent(p.snapshotTime(), p);
+        }
+        return new BazaarItemHourSummaryResponseDTO(
+                dto.productId(),
+                dto.displayName(),
+                dto.hourStart(),
+                dto.openInstantBuyPrice(),
+                dto.closeInstantBuyPrice(),
+                dto.minInstantBuyPrice(),
+                dto.maxInstantBuyPrice(),
+                dto.openInstantSellPrice(),
+                dto.closeInstantSellPrice(),
+                dto.minInstantSellPrice(),
+                dto.maxInstantSellPrice(),
+                dto.createdBuyOrders(),
+                dto.deltaBuyOrders(),
+                dto.createdSellOrders(),
+                dto.deltaSellOrders(),
+                dto.addedItemsBuyOrders(),
+                dto.addedItemsSellOrders(),
+                new ArrayList<>(unique.values())
+        );
+    }
+
+    /** In-memory lookup; ids without a catalog name are absent. */
     private Map<String,String> preloadNames(Set<String> ids) {
-        return itemRepo.findAllByProductIdIn(ids).stream()
-                .filter(bi -> bi.getSkyblockItem() != null)
-                .collect(Collectors.toMap(
-                        BazaarItem::getProductId,
-                        bi -> bi.getSkyblockItem().getName()
-                ));
+        return productNames.namesOf(ids);
     }
 
     private BazaarItemSnapshotResponseDTO mapSnapshot(
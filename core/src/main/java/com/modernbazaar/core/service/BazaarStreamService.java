@@ -0,0 +1,355 @@
+package com.modernbazaar.core.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.modernbazaar.core.domain.BazaarItemSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Server-sent delta stream of the live market.
+ *
+ * After each committed poll the fetch service hands over the scalar fields of
+ * every product it persisted; we diff them against the last published state and
+ * fan out only the fields that moved. The SSE event id is {@code <epoch>-<generation>}:
+ * the {@link MarketGeneration} restarts on reboot and differs between nodes, so it is
+ * prefixed with a random id drawn once per boot. A reconnecting client sends
+ * {@code Last-Event-ID} and gets the merged deltas it missed, or a full snapshot if
+ * it fell out of the window or its id came from another boot or node.
+ *
+ * Idle connections are plain async servlet responses (no thread each). Sends run
+ * on a small shared pool through one sequential executor per subscriber, so the
+ * poll thread never blocks on a slow client and per-client event order holds. A
+ * client that falls {@code max-queued-events} behind is disconnected (it reconnects
+ * and resumes) instead of growing its queue without bound.
+ */
+@Service
+@Slf4j
+public class BazaarStreamService {
+
+    private final ObjectMapper mapper;
+    private final long timeoutMillis;
+    private final int maxSubscribers;
+    private final int historyGenerations;
+    private final int maxQueuedEvents;
+    /** Prefix of every event id; a Last-Event-ID with another epoch gets a snapshot. */
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+    /** productId → last published fields. Guarded by LOCK for writes. */
+    private final Map<String, Map<String, Number>> state = new HashMap<>();
+    /** generation → changed fields per product, trimmed to the resume window. */
+    private final NavigableMap<Long, Map<String, Map<String, Number>>> history = new ConcurrentSkipListMap<>();
+    private volatile long currentGeneration;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService sendPool;
+
+    private final Counter eventsSent;
+    private final Counter sendFailures;
+    private final Counter dropped;
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final Set<String> products; // null = everything
+        final Executor sequential;
+        final AtomicInteger queued = new AtomicInteger();
+        volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, Set<String> products, Executor sequential) {
+            this.emitter = emitter;
+            this.products = products;
+            this.sequential = sequential;
+        }
+    }
+
+    @Autowired
+    public BazaarStreamService(
+            ObjectMapper mapper,
+            MeterRegistry meterRegistry,
+            @Value("${skyblock.bazaar.stream.timeout-minutes:30}") long timeoutMinutes,
+            @Value("${skyblock.bazaar.stream.max-subscribers:5000}") int maxSubscribers,
+            @Value("${skyblock.bazaar.stream.history-generations:60}") int historyGenerations,
+            @Value("${skyblock.bazaar.stream.max-queued-events:32}") int maxQueuedEvents,
+            @Value("${skyblock.bazaar.stream.send-threads:4}") int sendThreads
+    ) {
+        this(mapper, meterRegistry, timeoutMinutes, maxSubscribers, historyGenerations, maxQueuedEvents,
+                Executors.newFixedThreadPool(sendThreads, new ThreadFactoryBuilder()
+                        .setNameFormat("baz-sse-%d")
+                        .setDaemon(true)
+                        .build()));
+    }
+
+    /** Test seam: the pool subscribers' sequential executors run on. */
+    BazaarStreamService(ObjectMapper mapper, MeterRegistry meterRegistry, long timeoutMinutes,
+                        int maxSubscribers, int historyGenerations, int maxQueuedEvents,
+                        ExecutorService sendPool) {
+        this.mapper = mapper;
+        this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+        this.maxSubscribers = maxSubscribers;
+        this.historyGenerations = historyGenerations;
+        this.maxQueuedEvents = maxQueuedEvents;
+        this.sendPool = sendPool;
+
+        this.eventsSent = meterRegistry.counter("modernbazaar.bazaar.stream.events.sent");
+        this.sendFailures = meterRegistry.counter("modernbazaar.bazaar.stream.send.failures");
+        this.dropped = meterRegistry.counter("modernbazaar.bazaar.stream.dropped");
+        meterRegistry.gauge("modernbazaar.bazaar.stream.subscribers", subscribers, Set::size);
+    }
+
+    /** Scalar fields we stream, named like {@code BazaarItemSnapshotResponseDTO}. */
+    public static Map<String, Number> fieldsOf(BazaarItemSnapshot s) {
+        Map<String, Number> f = new LinkedHashMap<>();
+        f.put("instantBuyPrice", s.getInstantBuyPrice());
+        f.put("instantSellPrice", s.getInstantSellPrice());
+        f.put("weightedTwoPercentBuyPrice", s.getWeightedTwoPercentBuyPrice());
+        f.put("weightedTwoPercentSellPrice", s.getWeightedTwoPercentSellPrice());
+        f.put("buyMovingWeek", s.getBuyMovingWeek());
+        f.put("sellMovingWeek", s.getSellMovingWeek());
+        f.put("buyVolume", s.getBuyVolume());
+        f.put("sellVolume", s.getSellVolume());
+        f.put("activeBuyOrdersCount", s.getActiveBuyOrdersCount());
+        f.put("activeSellOrdersCount", s.getActiveSellOrdersCount());
+        return f;
+    }
+
+    /* ───── SUBSCRIBE ───── */
+
+    /**
+     * Registers a client. Returns null when the subscriber cap is reached.
+     *
+     * @param products    optional product filter (null/empty = all products)
+     * @param lastEventId event id the client last saw, from {@code Last-Event-ID}
+     */
+    public SseEmitter subscribe(Set<String> products, String lastEventId) {
+        if (subscribers.size() >= maxSubscribers) return null;
+
+        SseEmitter emitter = newEmitter(timeoutMillis);
+        Set<String> filter = products == null || products.isEmpty() ? null : Set.copyOf(products);
+        Subscriber sub = new Subscriber(emitter, filter, MoreExecutors.newSequentialExecutor(sendPool));
+
+        emitter.onCompletion(() -> subscribers.remove(sub));
+        emitter.onTimeout(() -> subscribers.remove(sub));
+        emitter.onError(e -> subscribers.remove(sub));
+
+        LOCK.lock();
+        try {
+            Long resumeFrom = parseGeneration(lastEventId);
+            long gen = currentGeneration;
+            if (resumeFrom == null || !canResume(resumeFrom)) {
+                enqueue(sub, "snapshot", gen, filter(state, filter));
+            } else if (resumeFrom < gen) {
+                Map<String, Map<String, Number>> merged = new HashMap<>();
+                history.subMap(resumeFrom, false, gen, true).values()
+                        .forEach(delta -> delta.forEach((id, fields) ->
+                                merged.computeIfAbsent(id, k -> new LinkedHashMap<>()).putAll(fields)));
+                enqueue(sub, "delta", gen, filter(merged, filter));
+            }
+            subscribers.add(sub);
+        } finally {
+            LOCK.unlock();
+        }
+        return emitter;
+    }
+
+    SseEmitter newEmitter(long timeout) {
+        return new SseEmitter(timeout);
+    }
+
+    private boolean canResume(long resumeFrom) {
+        if (resumeFrom > currentGeneration) return false;   // same boot can't be ahead; be safe
+        if (resumeFrom == currentGeneration) return true;
+        return !history.isEmpty() && history.firstKey() <= resumeFrom + 1;
+    }
+
+    /** Generation from an id this boot issued; null (→ snapshot) for anything else. */
+    private Long parseGeneration(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) return null;
+        String id = lastEventId.trim();
+        int dash = id.lastIndexOf('-');
+        if (dash <= 0 || !epoch.equals(id.substring(0, dash))) return null; // other boot or node
+        try {
+            return Long.parseLong(id.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private String eventId(long generation) {
+        return epoch + "-" + generation;
+    }
+
+    /* ───── PUBLISH ───── */
+
+    /**
+     * Diffs the polled products against the last published state and fans out the
+     * changed fields. Called once per committed poll, never throws.
+     */
+    public void publish(long generation, Map<String, Map<String, Number>> polled) {
+        try {
+            Map<String, Map<String, Number>> delta = new HashMap<>();
+            LOCK.lock();
+            try {
+                polled.forEach((id, fields) -> {
+                    Map<String, Number> prev = state.get(id);
+                    Map<String, Number> changed = new LinkedHashMap<>();
+                    fields.forEach((name, value) -> {
+                        if (prev == null || !Objects.equals(prev.get(name), value)) changed.put(name, value);
+                    });
+                    if (!changed.isEmpty()) {
+                        delta.put(id, changed);
+                        state.put(id, fields);
+                    }
+                });
+                currentGeneration = generation;
+                history.put(generation, delta);
+                while (history.size() > historyGenerations) history.pollFirstEntry();
+            } finally {
+                LOCK.unlock();
+            }
+            if (delta.isEmpty() || subscribers.isEmpty()) return;
+
+            String all = toJson(generation, delta); // shared by every unfiltered subscriber
+            for (Subscriber sub : subscribers) {
+                if (sub.products == null) enqueueRaw(sub, "delta", generation, all);
+                else {
+                    Map<String, Map<String, Number>> mine = filter(delta, sub.products);
+                    if (!mine.isEmpty()) enqueue(sub, "delta", generation, mine);
+                }
+            }
+            log.debug("Bazaar stream: generation {} → {} changed products, {} subscribers",
+                    generation, delta.size(), subscribers.size());
+        } catch (Exception e) {
+            log.warn("Bazaar stream publish failed for generation {}: {}", generation, e.getMessage());
+        }
+    }
+
+    /** Keeps proxies from closing idle streams. */
+    @Scheduled(fixedDelayString = "${skyblock.bazaar.stream.heartbeat-seconds:25}", timeUnit = TimeUnit.SECONDS)
+    public void heartbeat() {
+        for (Subscriber sub : subscribers) {
+            submit(sub, SseEmitter.event().comment("hb"));
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void onShutdown() {
+        subscribers.forEach(sub -> sub.emitter.complete());
+        subscribers.clear();
+        sendPool.shutdown();
+    }
+
+    /* ───── internals ───── */
+
+    private static Map<String, Map<String, Number>> filter(Map<String, Map<String, Number>> src, Set<String> products) {
+        if (products == null) return src;
+        Map<String, Map<String, Number>> out = new HashMap<>();
+        for (String id : products) {
+            Map<String, Number> f = src.get(id);
+            if (f != null) out.put(id, f);
+        }
+        return out;
+    }
+
+    private void enqueue(Subscriber sub, String name, long generation, Map<String, Map<String, Number>> changes) {
+        try {
+            enqueueRaw(sub, name, generation, toJson(generation, changes));
+        } catch (JsonProcessingException e) {
+            log.warn("Bazaar stream: could not serialize {} event: {}", name, e.getMessage());
+        }
+    }
+
+    private void enqueueRaw(Subscriber sub, String name, long generation, String json) {
+        submit(sub, SseEmitter.event()
+                .id(eventId(generation))
+                .name(name)
+                .data(json));
+    }
+
+    /** Queues one event; a subscriber already {@code max-queued-events} behind is dropped instead. */
+    private void submit(Subscriber sub, SseEmitter.SseEventBuilder event) {
+        if (sub.closed) return;
+        if (sub.queued.incrementAndGet() > maxQueuedEvents) {
+            sub.queued.decrementAndGet();
+            drop(sub);
+            return;
+        }
+        try {
+            sub.sequential.execute(() -> {
+                try {
+                    send(sub, event);
+                } finally {
+                    sub.queued.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            sub.queued.decrementAndGet(); // shutting down
+        }
+    }
+
+    private void send(Subscriber sub, SseEmitter.SseEventBuilder event) {
+        if (sub.closed) return; // dropped while this event was queued
+        try {
+            sub.emitter.send(event);
+            eventsSent.increment();
+        } catch (IOException | IllegalStateException e) {
+            // client went away; the emitter callbacks may not fire for a broken pipe
+            sendFailures.increment();
+            sub.closed = true;
+            subscribers.remove(sub);
+            sub.emitter.completeWithError(e);
+        }
+    }
+
+    /**
+     * Disconnects a client that stopped reading. Completing may wait for a send blocked on
+     * its socket, so it runs on the send pool, never on the poll thread.
+     */
+    private void drop(Subscriber sub) {
+        if (sub.closed) return;
+        sub.closed = true;
+        subscribers.remove(sub);
+        dropped.increment();
+        log.debug("Bazaar stream: dropped a subscriber {} events behind", maxQueuedEvents);
+        try {
+            sendPool.execute(sub.emitter::complete);
+        } catch (RejectedExecutionException e) {
+            sub.emitter.complete();
+        }
+    }
+
+    private String toJson(long generation, Map<String, Map<String, Number>> changes) throws JsonProcessingException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("generation", generation);
+        body.put("changes", changes);
+        return mapper.writeValueAsString(body);
+    }
+}
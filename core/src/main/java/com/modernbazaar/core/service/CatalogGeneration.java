@@ -0,0 +1,35 @@
+package com.modernbazaar.core.service;
+
+import com.modernbazaar.core.config.ReplicaLagMonitor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link MarketGeneration}'s counterpart for the Skyblock item catalog: bumped after a
+ * catalog refresh commit that changed rows, so responses derived from the catalog
+ * (encoded {@code /api/skyblock/items} bytes) go stale at once instead of after their TTL.
+ *
+ * Fences the read replica the same way, so the refill reads the rows just written.
+ */
+@Component
+public class CatalogGeneration {
+
+    private final AtomicLong generation = new AtomicLong();
+    private final ObjectProvider<ReplicaLagMonitor> replica;
+
+    public CatalogGeneration(ObjectProvider<ReplicaLagMonitor> replica) {
+        this.replica = replica;
+    }
+
+    public long current() {
+        return generation.get();
+    }
+
+    /** Called after a commit that changed the catalog. Returns the new generation. */
+    public long advance() {
+        replica.ifAvailable(ReplicaLagMonitor::fence);
+        return generation.incrementAndGet();
+    }
+}
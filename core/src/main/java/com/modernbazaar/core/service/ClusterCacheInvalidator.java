@@ -0,0 +1,60 @@
+package com.modernbazaar.core.service;
+
+import com.modernbazaar.core.service.ClusterEventBus.ClusterEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies cluster events to this node's Spring caches, so every node drops the same
+ * entries at the same moment instead of each serving its own TTL's worth of old data.
+ * Runs for the publishing node too (it hears its own NOTIFY).
+ *
+ * Events {@link Cache#clear() clear} their caches, which for the stale-while-revalidate
+ * ones means "stale, reload in the background"; a {@link ClusterEventBus#RESYNC}
+ * {@link Cache#invalidate() invalidates} everything, since we can't tell what we missed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ClusterCacheInvalidator {
+
+    /** event type → caches derived from what that event changed. */
+    private static final Map<String, List<String>> CACHES_BY_EVENT = Map.of(
+            ClusterEventBus.POLL_COMPLETED, List.of(
+                    "liveViewList", "liveViewItem", "liveViewSnapshots",
+                    "flipOpportunities", "flipOpportunitiesAdvanced", "manipulationOpportunities"),
+            ClusterEventBus.HOUR_SEALED, List.of(
+                    "liveViewHistory", "liveViewHourAverage"),
+            ClusterEventBus.FINANCE_RECOMPUTED, List.of(
+                    "financeAverages", "flipOpportunities", "flipOpportunitiesAdvanced", "manipulationOpportunities")
+    );
+
+    private final CacheManager cacheManager;
+
+    @EventListener
+    public void onClusterEvent(ClusterEvent event) {
+        if (event.is(ClusterEventBus.RESYNC)) {
+            cacheManager.getCacheNames().forEach(name -> {
+                Cache cache = cacheManager.getCache(name);
+                if (cache != null) cache.invalidate(); // we may have missed anything
+            });
+            return;
+        }
+        List<String> names = CACHES_BY_EVENT.get(event.type());
+        if (names == null) return;
+        names.forEach(this::clear);
+        log.debug("Cluster event {} from {}: cleared {}", event.type(), event.origin(), names);
+    }
+
+    private void clear(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache != null) cache.clear();
+    }
+}
@@ -0,0 +1,196 @@
+package com.modernbazaar.core.service;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.modernbazaar.core.config.ReplicaLagMonitor;
+import com.modernbazaar.core.util.AfterCommit;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Cross-node invalidation over Postgres {@code LISTEN/NOTIFY}: no broker, just the
+ * database every node already talks to.
+ *
+ * {@link #publish} issues {@code pg_notify} through the caller's transaction, so the
+ * event is delivered exactly when (and only if) the write it describes commits. Each
+ * node keeps one dedicated, unpooled connection LISTENing on {@link #CHANNEL} and
+ * re-publishes what arrives as a Spring {@link ClusterEvent}, its own events included;
+ * caches and in-memory state subscribe with {@code @EventListener}. After the listen
+ * connection drops, a {@link #RESYNC} event tells consumers they may have missed some.
+ *
+ * Off (or on a non-Postgres URL, e.g. tests) events are dispatched locally after commit.
+ *
+ * With a read replica the publishing node fences it ({@link ReplicaLagMonitor#fence()})
+ * as soon as the write commits, before its own after-commit invalidations run and without
+ * waiting for its NOTIFY to come back, so a reload right after the write reads the primary.
+ */
+@Component
+@Slf4j
+public class ClusterEventBus {
+
+    public static final String CHANNEL = "modernbazaar_events";
+
+    /** A poll committed new snapshots. Payload: number persisted. */
+    public static final String POLL_COMPLETED = "poll";
+    /** An hour window was compacted into summaries. Payload: hour start. */
+    public static final String HOUR_SEALED = "hour";
+    /** Finance metrics were recomputed. */
+    public static final String FINANCE_RECOMPUTED = "finance";
+    /** A user's subscription/plan changed. Payload: user id. */
+    public static final String SUBSCRIPTION_CHANGED = "subscription";
+    /** Local only: the listen connection was re-established, events may have been missed. */
+    public static final String RESYNC = "resync";
+
+    /** What consumers receive. {@code local} = published by this node. */
+    public record ClusterEvent(String type, String payload, String origin, boolean local) {
+        public boolean is(String t) {
+            return type.equals(t);
+        }
+    }
+
+    private final JdbcTemplate jdbc;
+    private final ApplicationEventPublisher publisher;
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<ReplicaLagMonitor> replica;
+    private final String nodeId;
+    private final boolean enabled;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int pollMillis;
+
+    private final ExecutorService listener = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("cluster-events")
+            .setDaemon(true)
+            .build());
+    private volatile boolean running;
+
+    public ClusterEventBus(
+            JdbcTemplate jdbc,
+            ApplicationEventPublisher publisher,
+            MeterRegistry meterRegistry,
+            ObjectProvider<ReplicaLagMonitor> replica,
+            JobLeaseService leases,
+            @Value("${skyblock.cluster.events.enabled:true}") boolean enabled,
+            @Value("${spring.datasource.url:}") String url,
+            @Value("${spring.datasource.username:}") String username,
+            @Value("${spring.datasource.password:}") String password,
+            @Value("${skyblock.cluster.events.poll-millis:500}") int pollMillis
+    ) {
+        this.jdbc = jdbc;
+        this.publisher = publisher;
+        this.meterRegistry = meterRegistry;
+        this.replica = replica;
+        this.nodeId = leases.nodeId();
+        this.enabled = enabled && url != null && url.startsWith("jdbc:postgresql:");
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.pollMillis = pollMillis;
+    }
+
+    /* ───── PUBLISH ───── */
+
+    /** Broadcasts on commit of the current transaction (immediately outside one). Never throws. */
+    public void publish(String type, String payload) {
+        String body = payload == null ? "" : payload;
+        meterRegistry.counter("modernbazaar.cluster.events.published", "type", type).increment();
+        AfterCommit.run(() -> replica.ifAvailable(ReplicaLagMonitor::fence));
+        if (!enabled) {
+            AfterCommit.run(() -> dispatch(new ClusterEvent(type, body, nodeId, true)));
+            return;
+        }
+        try {
+            jdbc.queryForList("select pg_notify(?, ?)", CHANNEL, type + "|" + nodeId + "|" + body);
+        } catch (Exception e) {
+            // receivers fall back to their TTLs; never fail the write over an invalidation
+            log.warn("Could not publish cluster event {}: {}", type, e.getMessage());
+        }
+    }
+
+    /* ───── LISTEN ───── */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Cluster events: local dispatch only");
+            return;
+        }
+        running = true;
+        listener.execute(this::listenLoop);
+    }
+
+    private void listenLoop() {
+        long backoffMs = 1_000;
+        boolean reconnect = false;
+        while (running) {
+            try (Connection c = DriverManager.getConnection(url, username, password);
+                 Statement st = c.createStatement()) {
+                st.execute("LISTEN " + CHANNEL);
+                PGConnection pg = c.unwrap(PGConnection.class);
+                listening(reconnect);
+                backoffMs = 1_000;
+                while (running) {
+                    PGNotification[] batch = pg.getNotifications(pollMillis);
+                    if (batch == null) continue;
+                    for (PGNotification n : batch) receive(n.getParameter());
+                }
+            } catch (Exception e) {
+                if (!running) return;
+                reconnect = true;
+                meterRegistry.counter("modernbazaar.cluster.events.reconnects").increment();
+                log.warn("Cluster events listener dropped, retrying in {} ms: {}", backoffMs, e.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, 30_000);
+            }
+        }
+    }
+
+    /** The listen connection is up; after a drop, consumers are told they may have missed events. */
+    void listening(boolean reconnect) {
+        log.info("Cluster events: listening on {}", CHANNEL);
+        if (reconnect) dispatch(new ClusterEvent(RESYNC, "", nodeId, true));
+    }
+
+    /** {@code type|origin|payload}; the payload may itself contain {@code |}. */
+    void receive(String message) {
+        String[] parts = message.split("\\|", 3);
+        if (parts.length < 3) return;
+        dispatch(new ClusterEvent(parts[0], parts[2], parts[1], nodeId.equals(parts[1])));
+    }
+
+    private void dispatch(ClusterEvent event) {
+        try {
+            publisher.publishEvent(event);
+            meterRegistry.counter("modernbazaar.cluster.events.received", "type", event.type()).increment();
+        } catch (Exception e) {
+            log.warn("Cluster event {} handler failed: {}", event.type(), e.getMessage());
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stop() {
+        running = false;
+        listener.shutdownNow();
+    }
+}
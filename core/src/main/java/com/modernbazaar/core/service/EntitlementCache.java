@@ -0,0 +1,106 @@
+package com.modernbazaar.core.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.modernbazaar.core.util.AfterCommit;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.function.Function;
+
+/**
+ * userId → effective plan, so plan-gated requests skip the subscription lookup.
+ *
+ * Entries carry the instant they stop being true ({@code validUntil}: the paid-through
+ * end of a cancelled plan or an admin comp) and expire exactly then, so access lapses
+ * on time without a job. Open-ended entries live for {@code max-ttl} as a safety net
+ * for out-of-band DB edits; every in-app write path calls {@link #invalidate}, which
+ * drops the entry once the writing transaction commits (a read racing the write can't
+ * re-cache the old row after the eviction).
+ */
+@Component
+public class EntitlementCache {
+
+    /** The plan a user gets the benefits of, and until when (null = until something changes). */
+    public record Entitlement(String planSlug, OffsetDateTime validUntil) {
+
+        boolean expired(OffsetDateTime now) {
+            return validUntil != null && !validUntil.isAfter(now);
+        }
+    }
+
+    private final Cache<String, Entitlement> cache;
+    private final ClusterEventBus clusterEvents;
+
+    public EntitlementCache(
+            MeterRegistry meterRegistry,
+            @Value("${skyblock.entitlements.max-ttl-minutes:10}") long maxTtlMinutes,
+            @Value("${skyblock.entitlements.max-users:50000}") long maxUsers,
+            ClusterEventBus clusterEvents
+    ) {
+        this.clusterEvents = clusterEvents;
+        long maxTtlNanos = Duration.ofMinutes(maxTtlMinutes).toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfter(new Expiry<String, Entitlement>() {
+                    @Override
+                    public long expireAfterCreate(String userId, Entitlement e, long currentTime) {
+                        if (e.validUntil() == null) return maxTtlNanos;
+                        long untilEnd = Duration.between(OffsetDateTime.now(), e.validUntil()).toNanos();
+                        return Math.max(0, Math.min(maxTtlNanos, untilEnd));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String userId, Entitlement e, long currentTime, long currentDuration) {
+                        return expireAfterCreate(userId, e, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String userId, Entitlement e, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "entitlements");
+        Gauge.builder("modernbazaar.entitlements.hit_ratio", cache, c -> c.stats().hitRate())
+                .register(meterRegistry);
+    }
+
+    /** Cached entitlement, loading (and caching) it on a miss or once it lapsed. */
+    public Entitlement get(String userId, Function<String, Entitlement> loader) {
+        Entitlement e = cache.get(userId, loader);
+        if (e.expired(OffsetDateTime.now())) { // belt and braces: never serve past validUntil
+            cache.invalidate(userId);
+            e = cache.get(userId, loader);
+        }
+        return e;
+    }
+
+    /**
+     * Forget the user's entitlement once the current transaction commits (inline outside one),
+     * here and, through the cluster bus, on every other node.
+     */
+    public void invalidate(String userId) {
+        if (userId == null) return;
+        clusterEvents.publish(ClusterEventBus.SUBSCRIPTION_CHANGED, userId); // fences the replica first on commit
+        AfterCommit.run(() -> cache.invalidate(userId));
+    }
+
+    @EventListener
+    public void onClusterEvent(ClusterEventBus.ClusterEvent event) {
+        if (event.is(ClusterEventBus.SUBSCRIPTION_CHANGED) && !event.local()) {
+            cache.invalidate(event.payload());
+        } else if (event.is(ClusterEventBus.RESYNC)) {
+            cache.invalidateAll();
+        }
+    }
+}
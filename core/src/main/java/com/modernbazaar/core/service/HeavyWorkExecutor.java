@@ -0,0 +1,245 @@
+package com.modernbazaar.core.service;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for the expensive endpoints (strategy scoring, history with points).
+ *
+ * The work runs on a small dedicated pool instead of the request thread or the JVM-wide
+ * common ForkJoinPool, so however many scoring requests arrive at once they use at most
+ * {@code threads} cores and the poller and Tomcat keep theirs. Waiting tasks are ordered
+ * by plan tier (elite, flipper, other paid, free, anonymous) and then by arrival; when
+ * {@code queue-capacity} tasks are already waiting, new ones are shed at once with
+ * {@link OverloadedException} (503 + Retry-After) rather than queueing behind work that
+ * can't finish in time.
+ *
+ * Every task gets a wall-clock budget that covers its queue wait (the caller stops
+ * waiting and the task is cancelled once it is spent) and a CPU budget, enforced by
+ * {@link #checkpoint()} calls in the scoring loops.
+ */
+@Component
+@Slf4j
+public class HeavyWorkExecutor {
+
+    public static final String FLIPPING = "flipping";
+    public static final String MANIPULATION = "manipulation";
+    public static final String HISTORY = "history";
+
+    /** Lower runs first. */
+    private static final Map<String, Integer> TIER_RANK = Map.of(
+            "elite", 0,
+            "flipper", 1,
+            "free", 3,
+            TieredRateLimiter.ANONYMOUS, 4);
+    private static final int OTHER_PAID_RANK = 2;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final ThreadLocal<Budget> BUDGET = new ThreadLocal<>();
+
+    private final SubscriptionService subscriptions;
+    private final TransactionTemplate readOnlyTx;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor pool;
+    private final int queueCapacity;
+    private final long budgetNanos;
+    private final long cpuBudgetNanos;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public HeavyWorkExecutor(
+            SubscriptionService subscriptions,
+            PlatformTransactionManager txManager,
+            MeterRegistry meterRegistry,
+            @Value("${skyblock.heavy.threads:0}") int threads,
+            @Value("${skyblock.heavy.queue-capacity:32}") int queueCapacity,
+            @Value("${skyblock.heavy.budget-ms:10000}") long budgetMs,
+            @Value("${skyblock.heavy.cpu-budget-ms:3000}") long cpuBudgetMs
+    ) {
+        this.subscriptions = subscriptions;
+        this.meterRegistry = meterRegistry;
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.queueCapacity = Math.max(0, queueCapacity);
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMs);
+        this.cpuBudgetNanos = THREADS.isCurrentThreadCpuTimeSupported()
+                ? TimeUnit.MILLISECONDS.toNanos(cpuBudgetMs) : 0;
+
+        int n = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.pool = new ThreadPoolExecutor(n, n, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("heavy-%d")
+                        .setDaemon(true)
+                        .build());
+
+        meterRegistry.gauge("modernbazaar.heavy.queue.size", pool, p -> p.getQueue().size());
+        meterRegistry.gauge("modernbazaar.heavy.active", pool, ThreadPoolExecutor::getActiveCount);
+        log.info("Heavy work pool: {} threads, queue {}, budget {} ms (cpu {} ms)", n, queueCapacity, budgetMs, cpuBudgetMs);
+    }
+
+    /* ───── SUBMIT ───── */
+
+    /** Runs {@code work} on the pool for the current caller's tier and waits for it within the budget. */
+    public <T> T call(String kind, Supplier<T> work) {
+        String tier = currentTier();
+        if (pool.getQueue().size() >= queueCapacity) {
+            rejected(kind, "queue_full");
+            throw new OverloadedException("Server is busy, please retry shortly", retryAfterSeconds());
+        }
+        Task<T> task = new Task<>(kind, tier, work);
+        pool.execute(task);
+        try {
+            return task.get(Math.max(0, task.deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            cancel(task);
+            rejected(kind, "budget");
+            throw new OverloadedException("Request exceeded its time budget", retryAfterSeconds());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(task);
+            throw new OverloadedException("Request interrupted", 1);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof OverloadedException) rejected(kind, "cpu");
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /** {@link #call} inside a read-only transaction opened on the worker thread. */
+    public <T> T callReadOnly(String kind, Supplier<T> work) {
+        return call(kind, () -> readOnlyTx.execute(status -> work.get()));
+    }
+
+    /**
+     * Called from heavy loops: throws {@link OverloadedException} once the running task
+     * has spent its CPU budget or its caller gave up. Cheap (samples every 64 calls);
+     * a no-op outside the pool, e.g. in unit tests.
+     */
+    public static void checkpoint() {
+        Budget b = BUDGET.get();
+        if (b == null || (++b.calls & 63) != 0) return;
+        if (Thread.currentThread().isInterrupted() || System.nanoTime() > b.deadline
+                || (b.cpuBudget > 0 && THREADS.getCurrentThreadCpuTime() - b.cpuStart > b.cpuBudget)) {
+            throw new OverloadedException("Request exceeded its compute budget", 1);
+        }
+    }
+
+    private void cancel(Task<?> task) {
+        task.cancel(true);
+        pool.remove(task); // don't leave it occupying a queue slot
+    }
+
+    /** Rough time for the current backlog to drain, assuming ~1 s per task. */
+    private long retryAfterSeconds() {
+        return Math.max(1, pool.getQueue().size() / Math.max(1, pool.getMaximumPoolSize()));
+    }
+
+    private void rejected(String kind, String reason) {
+        meterRegistry.counter("modernbazaar.heavy.rejected", "kind", kind, "reason", reason).increment();
+    }
+
+    private String currentTier() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (!(auth instanceof JwtAuthenticationToken jwt)) return TieredRateLimiter.ANONYMOUS;
+        try {
+            return subscriptions.effectivePlanSlug(jwt.getToken().getSubject());
+        } catch (Exception e) {
+            return "free";
+        }
+    }
+
+    /* ───── TASK ───── */
+
+    private static final class Budget {
+        final long deadline;
+        final long cpuStart;
+        final long cpuBudget;
+        int calls;
+
+        Budget(long deadline, long cpuBudget) {
+            this.deadline = deadline;
+            this.cpuBudget = cpuBudget;
+            this.cpuStart = cpuBudget > 0 ? THREADS.getCurrentThreadCpuTime() : 0;
+        }
+    }
+
+    private final class Task<T> extends FutureTask<T> implements Comparable<Task<?>> {
+        final String kind;
+        final String tier;
+        final int rank;
+        final long seq = sequence.incrementAndGet();
+        final long enqueuedAt = System.nanoTime();
+        final long deadline = enqueuedAt + budgetNanos;
+
+        Task(String kind, String tier, Supplier<T> work) {
+            super(work::get);
+            this.kind = kind;
+            this.tier = tier;
+            this.rank = TIER_RANK.getOrDefault(tier, OTHER_PAID_RANK);
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            Timer.builder("modernbazaar.heavy.queue.wait").tag("kind", kind).tag("tier", tier)
+                    .register(meterRegistry).record(start - enqueuedAt, TimeUnit.NANOSECONDS);
+            if (isCancelled() || start > deadline) return; // the caller has already given up
+            Budget budget = new Budget(deadline, cpuBudgetNanos);
+            BUDGET.set(budget);
+            try {
+                super.run();
+            } finally {
+                BUDGET.remove();
+                Timer.builder("modernbazaar.heavy.execution").tag("kind", kind)
+                        .register(meterRegistry).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (budget.cpuBudget > 0) {
+                    Timer.builder("modernbazaar.heavy.cpu").tag("kind", kind).register(meterRegistry)
+                            .record(THREADS.getCurrentThreadCpuTime() - budget.cpuStart, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+
+        @Override
+        public int compareTo(Task<?> o) {
+            int c = Integer.compare(rank, o.rank);
+            return c != 0 ? c : Long.compare(seq, o.seq);
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stop() {
+        pool.shutdownNow();
+    }
+
+    /** Shed: the queue is full or the request ran out of budget. Mapped to 503 with Retry-After. */
+    @Getter
+    public static class OverloadedException extends RuntimeException {
+        private final long retryAfterSeconds;
+
+        public OverloadedException(String message, long retryAfterSeconds) {
+            super(message);
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+    }
+}
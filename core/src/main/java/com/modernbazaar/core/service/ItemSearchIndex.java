@@ -0,0 +1,222 @@
+package com.modernbazaar.core.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * In-memory trigram index over product ids and catalog display names.
+ *
+ * The list, flipping and manipulation queries used to match {@code q} with a
+ * leading-wildcard ILIKE over the snapshot ⋈ catalog join, which no index can
+ * serve. Here every id/name is split into lowercase 3-grams with sorted posting
+ * lists; a query intersects the postings of its grams, verifies the substring on
+ * the few survivors and ranks them (exact → prefix → word prefix → substring).
+ * Queries shorter than one gram scan the ~6k entries directly.
+ *
+ * The index is an immutable snapshot swapped atomically on rebuild. It holds no
+ * data source of its own: {@link ProductNameDictionary} rebuilds it from the same
+ * load it swaps in, so ids and names are read once and the two never disagree.
+ * Until the first build (or when a query matches too much to be worth an IN list)
+ * callers fall back to the SQL ILIKE via {@link Filter#sql}.
+ */
+@Component
+@Slf4j
+public class ItemSearchIndex {
+
+    private static final int GRAM = 3;
+    /** Stand-in for {@code in (:ids)} when not restricting; an empty list renders invalid SQL. */
+    private static final List<String> NO_IDS = List.of("");
+
+    private final int maxCandidates;
+
+    private volatile Snapshot snapshot;
+
+    private final Timer queryTimer;
+    private final Counter fallbacks;
+
+    public record Hit(String productId, String name) {}
+
+    /**
+     * How a query applies {@code q}: by the index's candidate ids ({@code restrict}),
+     * ranked best-first, or — when the index can't help — by the SQL ILIKE on {@code q}.
+     */
+    public record Filter(String q, boolean restrict, List<String> ids) {
+
+        public static Filter sql(String q) {
+            return new Filter(q, false, List.of());
+        }
+
+        /** The index proved nothing matches; callers can skip the query entirely. */
+        public boolean none() {
+            return restrict && ids.isEmpty();
+        }
+
+        /** Value for the {@code in (:ids)} parameter; never empty so the SQL stays valid. */
+        public List<String> sqlIds() {
+            return ids.isEmpty() ? NO_IDS : ids;
+        }
+    }
+
+    /** Immutable build; arrays are indexed by entry number, postings hold sorted entry numbers. */
+    private record Snapshot(String[] ids, String[] names, String[] idKeys, String[] nameKeys,
+                            Map<String, int[]> postings) {}
+
+    public ItemSearchIndex(
+            MeterRegistry meterRegistry,
+            @Value("${skyblock.bazaar.search-index.max-candidates:1000}") int maxCandidates
+    ) {
+        this.maxCandidates = maxCandidates;
+
+        this.queryTimer = meterRegistry.timer("modernbazaar.search_index.query");
+        this.fallbacks = meterRegistry.counter("modernbazaar.search_index.fallbacks");
+        meterRegistry.gauge("modernbazaar.search_index.entries", this,
+                idx -> idx.snapshot == null ? 0 : idx.snapshot.ids().length);
+    }
+
+    /* ───── BUILD ───── */
+
+    /**
+     * Builds from productId → display name (null when the catalog has none) and swaps
+     * the snapshot. Called by {@link ProductNameDictionary} after each load.
+     */
+    void rebuild(SortedMap<String, String> entries) {
+        long t0 = System.nanoTime();
+        Snapshot built = build(entries);
+        snapshot = built;
+        log.info("Search index rebuilt: {} entries, {} grams in {} ms",
+                built.ids().length, built.postings().size(), (System.nanoTime() - t0) / 1_000_000);
+    }
+
+    private static Snapshot build(Map<String, String> entries) {
+        int n = entries.size();
+        String[] ids = new String[n];
+        String[] names = new String[n];
+        String[] idKeys = new String[n];
+        String[] nameKeys = new String[n];
+        Map<String, List<Integer>> lists = new HashMap<>();
+
+        int i = 0;
+        for (Map.Entry<String, String> e : entries.entrySet()) {
+            ids[i] = e.getKey();
+            names[i] = e.getValue();
+            idKeys[i] = normalize(e.getKey());
+            nameKeys[i] = e.getValue() == null ? null : normalize(e.getValue());
+
+            Set<String> grams = new HashSet<>();
+            addGrams(idKeys[i], grams);
+            if (nameKeys[i] != null) addGrams(nameKeys[i], grams);
+            for (String g : grams) lists.computeIfAbsent(g, k -> new ArrayList<>()).add(i); // i ascends → sorted
+            i++;
+        }
+
+        Map<String, int[]> postings = new HashMap<>(lists.size() * 2);
+        lists.forEach((g, l) -> postings.put(g, l.stream().mapToInt(Integer::intValue).toArray()));
+        return new Snapshot(ids, names, idKeys, nameKeys, postings);
+    }
+
+    /* ───── QUERY ───── */
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /** Ranked substring/prefix matches over ids and names; empty until the first build. */
+    public List<Hit> search(String q, int limit) {
+        Snapshot s = snapshot;
+        if (s == null || q == null || q.isBlank()) return List.of();
+        List<Integer> ranked = queryTimer.record(() -> match(s, normalize(q)));
+        return ranked.stream()
+                .limit(Math.max(0, limit))
+                .map(e -> new Hit(s.ids()[e], s.names()[e]))
+                .toList();
+    }
+
+    /** Candidate ids for a list filter, or the SQL fallback when the index can't narrow it. */
+    public Filter filter(String q) {
+        Snapshot s = snapshot;
+        if (s == null || q == null || q.isBlank()) return Filter.sql(q);
+
+        List<Integer> ranked = queryTimer.record(() -> match(s, normalize(q)));
+        if (ranked.size() > maxCandidates) { // an IN list that long costs more than the scan it replaces
+            fallbacks.increment();
+            return Filter.sql(q);
+        }
+        List<String> ids = new ArrayList<>(ranked.size());
+        for (int e : ranked) ids.add(s.ids()[e]);
+        return new Filter(null, true, Collections.unmodifiableList(ids));
+    }
+
+    private static List<Integer> match(Snapshot s, String key) {
+        List<Integer> hits = new ArrayList<>();
+        if (key.length() < GRAM) {
+            for (int e = 0; e < s.ids().length; e++) {
+                if (contains(s, e, key)) hits.add(e);
+            }
+        } else {
+            int[] cand = intersect(s, key);
+            for (int e : cand) {
+                if (contains(s, e, key)) hits.add(e); // grams may come from id and name separately
+            }
+        }
+
+        hits.sort(Comparator
+                .comparingInt((Integer e) -> rank(key, s.idKeys()[e], s.nameKeys()[e]))
+                .thenComparingInt(e -> s.names()[e] == null ? s.ids()[e].length() : s.names()[e].length())
+                .thenComparing(e -> s.ids()[e]));
+        return hits;
+    }
+
+    /** Intersects the posting lists of every gram in {@code key}, shortest first. */
+    private static int[] intersect(Snapshot s, String key) {
+        Set<String> grams = new HashSet<>();
+        addGrams(key, grams);
+        List<int[]> lists = new ArrayList<>(grams.size());
+        for (String g : grams) {
+            int[] p = s.postings().get(g);
+            if (p == null) return new int[0];
+            lists.add(p);
+        }
+        lists.sort(Comparator.comparingInt(p -> p.length));
+
+        int[] acc = lists.get(0);
+        for (int k = 1; k < lists.size() && acc.length > 0; k++) {
+            int[] other = lists.get(k);
+            int[] out = new int[Math.min(acc.length, other.length)];
+            int a = 0, b = 0, o = 0;
+            while (a < acc.length && b < other.length) {
+                if (acc[a] < other[b]) a++;
+                else if (acc[a] > other[b]) b++;
+                else { out[o++] = acc[a]; a++; b++; }
+            }
+            acc = Arrays.copyOf(out, o);
+        }
+        return acc;
+    }
+
+    private static boolean contains(Snapshot s, int e, String key) {
+        String name = s.nameKeys()[e];
+        return s.idKeys()[e].contains(key) || (name != null && name.contains(key));
+    }
+
+    /** 0 exact, 1 prefix, 2 word prefix (name word or id segment), 3 plain substring. */
+    private static int rank(String key, String idKey, String nameKey) {
+        if (key.equals(idKey) || key.equals(nameKey)) return 0;
+        if (idKey.startsWith(key) || (nameKey != null && nameKey.startsWith(key))) return 1;
+        if (idKey.contains("_" + key) || (nameKey != null && nameKey.contains(" " + key))) return 2;
+        return 3;
+    }
+
+    private static void addGrams(String key, Set<String> out) {
+        for (int i = 0; i + GRAM <= key.length(); i++) out.add(key.substring(i, i + GRAM));
+    }
+
+    private static String normalize(String s) {
+        return s.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,204 @@
+package com.modernbazaar.core.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Cluster-wide single-runner guarantee for scheduled jobs, backed by {@code job_lease}.
+ *
+ * A node runs a job only while it holds that job's lease. Leases are sticky: the
+ * holder keeps renewing them from {@link #heartbeat()}, so the same node keeps polling
+ * minute after minute, and another node takes over once a lease expires (crash, hang)
+ * or is released (graceful shutdown). Every change of owner bumps the fencing token;
+ * {@link #fence} re-checks owner + token inside the job's own transaction and fails it
+ * if the lease moved, so a stalled ex-leader can't commit a duplicate poll.
+ *
+ * Jobs still keep their local single-flight lock: a lease is per node, not per thread.
+ */
+@Service
+@Slf4j
+public class JobLeaseService {
+
+    public static final String BAZAAR_POLL = "bazaar-poll";
+    public static final String HOURLY_COMPACTION = "bazaar-hourly";
+    public static final String FINANCE_METRICS = "finance-metrics";
+    public static final String SNAPSHOT_RETENTION = "snapshot-retention";
+    public static final String CATALOG_REFRESH = "catalog-refresh";
+    public static final String ANALYTICS_ROLLUP = "analytics-rollup";
+
+    private final JdbcTemplate jdbc;
+    private final MeterRegistry meterRegistry;
+    private final String nodeId;
+    private final int leaseSeconds;
+
+    /** job → fencing token of the leases this node currently holds. */
+    private final Map<String, Long> held = new ConcurrentHashMap<>();
+
+    /** Proof of leadership handed to the job body; pass it to {@link #fence}. */
+    public record Lease(String job, long token) {}
+
+    public JobLeaseService(
+            JdbcTemplate jdbc,
+            MeterRegistry meterRegistry,
+            @Value("${skyblock.cluster.node-id:}") String nodeId,
+            @Value("${skyblock.cluster.lease-seconds:90}") int leaseSeconds
+    ) {
+        this.jdbc = jdbc;
+        this.meterRegistry = meterRegistry;
+        this.nodeId = nodeId == null || nodeId.isBlank()
+                ? ManagementFactory.getRuntimeMXBean().getName() // pid@host
+                : nodeId;
+        this.leaseSeconds = leaseSeconds;
+        meterRegistry.gauge("modernbazaar.cluster.leases.held", held, Map::size);
+        log.info("Job leases: node id {}, lease {}s", this.nodeId, leaseSeconds);
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /* ───── ACQUIRE / RENEW ───── */
+
+    /**
+     * Takes or renews the lease. Returns null while another node holds an unexpired one.
+     * A takeover (new owner) bumps the token; a renewal by the owner keeps it.
+     */
+    public Lease tryAcquire(String job) {
+        List<Long> token = jdbc.queryForList("""
+                insert into job_lease (job_name, owner, fencing_token, acquired_at, renewed_at, expires_at)
+                values (?, ?, 1, now(), now(), now() + make_interval(secs => ?))
+                on conflict (job_name) do update
+                   set fencing_token = case when job_lease.owner = excluded.owner
+                                            then job_lease.fencing_token else job_lease.fencing_token + 1 end,
+                       acquired_at   = case when job_lease.owner = excluded.owner
+                                            then job_lease.acquired_at else now() end,
+                       owner         = excluded.owner,
+                       renewed_at    = now(),
+                       expires_at    = excluded.expires_at
+                 where job_lease.owner = excluded.owner or job_lease.expires_at < now()
+                returning fencing_token
+                """, Long.class, job, nodeId, leaseSeconds);
+        if (token.isEmpty()) {
+            held.remove(job);
+            return null;
+        }
+        Long previous = held.put(job, token.get(0));
+        if (previous == null || !previous.equals(token.get(0))) {
+            meterRegistry.counter("modernbazaar.cluster.leases.acquired", "job", job).increment();
+            log.info("Acquired lease on {} (token {})", job, token.get(0));
+        }
+        return new Lease(job, token.get(0));
+    }
+
+    /** Whether this node held the job's lease at its last acquire/renew. */
+    public boolean holds(String job) {
+        return held.containsKey(job);
+    }
+
+    /** Keeps held leases alive across long runs and between runs. */
+    @Scheduled(fixedDelayString = "#{${skyblock.cluster.lease-seconds:90} * 1000 / 3}")
+    public void heartbeat() {
+        held.forEach((job, token) -> {
+            try {
+                int rows = jdbc.update("""
+                        update job_lease
+                           set renewed_at = now(), expires_at = now() + make_interval(secs => ?)
+                         where job_name = ? and owner = ? and fencing_token = ?
+                        """, leaseSeconds, job, nodeId, token);
+                if (rows == 0 && held.remove(job, token)) {
+                    meterRegistry.counter("modernbazaar.cluster.leases.lost", "job", job).increment();
+                    log.warn("Lost lease on {} (token {}) to another node", job, token);
+                }
+            } catch (Exception e) {
+                log.warn("Lease renewal for {} failed: {}", job, e.getMessage());
+            }
+        });
+    }
+
+    /* ───── RUN ───── */
+
+    /**
+     * Runs {@code body} only if this node holds (or can take) the job's lease, then
+     * stamps the completion. Returns whether it ran. Failures are logged; inside a
+     * transaction they propagate instead, so the caller rolls back (fencing included).
+     */
+    public boolean runIfLeader(String job, Consumer<Lease> body) {
+        Lease lease;
+        try {
+            lease = tryAcquire(job);
+        } catch (Exception e) {
+            log.warn("Could not acquire lease on {}: {}", job, e.getMessage());
+            return false;
+        }
+        if (lease == null) {
+            log.debug("Skipping {}: lease held by another node", job);
+            return false;
+        }
+        try {
+            body.accept(lease);
+            fence(lease, true);
+        } catch (RuntimeException e) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) throw e;
+            log.error("Job {} failed under lease token {}", job, lease.token(), e);
+        }
+        return true;
+    }
+
+    /**
+     * Verifies, in the caller's transaction, that the lease is still ours with the same
+     * token, optionally stamping {@code completed_at}. The row lock taken here makes a
+     * concurrent takeover wait for our commit. Throws {@link IllegalStateException} (and
+     * so rolls the caller back) if the lease moved.
+     */
+    public void fence(Lease lease, boolean completed) {
+        int rows = jdbc.update("""
+                update job_lease
+                   set completed_at = case when ? then now() else completed_at end,
+                       completed_by = case when ? then owner else completed_by end
+                 where job_name = ? and owner = ? and fencing_token = ? and expires_at > now()
+                """, completed, completed, lease.job(), nodeId, lease.token());
+        if (rows == 0) {
+            held.remove(lease.job(), lease.token());
+            meterRegistry.counter("modernbazaar.cluster.leases.fenced", "job", lease.job()).increment();
+            throw new IllegalStateException("Lease on " + lease.job() + " lost (token " + lease.token() + ")");
+        }
+    }
+
+    /** When the job last completed on any node, or null. */
+    public Instant lastCompleted(String job) {
+        List<Timestamp> ts = jdbc.queryForList(
+                "select completed_at from job_lease where job_name = ?", Timestamp.class, job);
+        return ts.isEmpty() || ts.get(0) == null ? null : ts.get(0).toInstant();
+    }
+
+    /* ───── SHUTDOWN ───── */
+
+    /** Expires our leases so another node takes over on its next tick, not after the TTL. */
+    @EventListener(ContextClosedEvent.class)
+    public void releaseAll() {
+        if (held.isEmpty()) return;
+        try {
+            jdbc.update("update job_lease set expires_at = now() where owner = ?", nodeId);
+            log.info("Released job leases {}", held.keySet());
+        } catch (Exception e) {
+            log.warn("Could not release job leases: {}", e.getMessage());
+        } finally {
+            held.clear();
+        }
+    }
+}
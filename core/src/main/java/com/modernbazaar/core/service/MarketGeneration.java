@@ -0,0 +1,38 @@
+package com.modernbazaar.core.service;
+
+import com.modernbazaar.core.config.ReplicaLagMonitor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic "market generation" counter. Bumped once per successful bazaar poll
+ * that persisted new snapshots, so anything derived from the latest market state
+ * (encoded response bytes, stream deltas, ...) can key on it and go stale
+ * automatically when new data lands.
+ *
+ * With a read replica, a bump first fences it ({@link ReplicaLagMonitor#fence()}):
+ * whatever fills a cache under the new generation reads the primary until the replica
+ * has replayed the poll, so it can't store the previous market under the new key.
+ */
+@Component
+public class MarketGeneration {
+
+    private final AtomicLong generation = new AtomicLong();
+    private final ObjectProvider<ReplicaLagMonitor> replica;
+
+    public MarketGeneration(ObjectProvider<ReplicaLagMonitor> replica) {
+        this.replica = replica;
+    }
+
+    public long current() {
+        return generation.get();
+    }
+
+    /** Called by the poll after a commit that changed the market. Returns the new generation. */
+    public long advance() {
+        replica.ifAvailable(ReplicaLagMonitor::fence);
+        return generation.incrementAndGet();
+    }
+}
@@ -2,65 +2,121 @@ package com.modernbazaar.core.service;
 
 import com.modernbazaar.core.api.dto.MetricsResponseDTO;
 import com.modernbazaar.core.repository.BazaarProductSnapshotRepository;
-import lombok.RequiredArgsConstructor;
-import org.springframework.dao.DataAccessException;
-import org.springframework.jdbc.core.JdbcTemplate;
+import com.modernbazaar.core.repository.projection.MarketOverviewRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import javax.sql.DataSource;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
+import java.sql.Connection;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Backs the public {@code /api/metrics}. Serving it touches no database: the market
+ * figures are computed once per committed poll ({@link #refresh()}, one set query)
+ * into an immutable {@link Market}, and the DB status comes from a probe that runs
+ * on its own schedule. Scrapers hammering the endpoint cost a volatile read.
+ */
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class MetricsService {
 
     private final BazaarProductSnapshotRepository snapshotRepository;
-    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final int healthTimeoutSeconds;
+
+    /** Market figures as of the last refresh. Replaced wholesale, never mutated. */
+    record Market(Instant latestFetch, int totalItems, int profitableItems, double avgProfitMargin) {
+        static final Market EMPTY = new Market(null, 0, 0, 0.0);
+    }
+
+    private volatile Market market = Market.EMPTY;
+    private volatile boolean dbHealthy = true;
+
+    public MetricsService(
+            BazaarProductSnapshotRepository snapshotRepository,
+            DataSource dataSource,
+            @Value("${skyblock.metrics.db-health-timeout-seconds:2}") int healthTimeoutSeconds
+    ) {
+        this.snapshotRepository = snapshotRepository;
+        this.dataSource = dataSource;
+        this.healthTimeoutSeconds = healthTimeoutSeconds;
+    }
 
     /**
      * Returns basic system metrics suitable for free users.
      * Limited information to avoid exposing too much data to unauthenticated users.
      */
     public MetricsResponseDTO getSystemMetrics() {
-        Instant latest = snapshotRepository.findLatestFetchTime().orElse(null);
+        Market m = market;
+        Instant latest = m.latestFetch();
         LocalDateTime lastFetch = latest != null
                 ? LocalDateTime.ofInstant(latest, ZoneId.systemDefault())
                 : LocalDateTime.now().minusDays(1);
 
-        String dbStatus = checkDatabaseHealth() ? "Healthy" : "Unhealthy";
-        
-        // Limited metrics for free users - only basic information
-        int totalItems = snapshotRepository.countDistinctProducts();
-        
-        // Cap values to prevent exposing exact profitable item counts
-        // Show general ranges instead of exact numbers
-        Integer profitableItemsResult = snapshotRepository.countProfitableItems();
-        int actualProfitableItems = profitableItemsResult != null ? profitableItemsResult : 0;
-        
+        String dbStatus = dbHealthy ? "Healthy" : "Unhealthy";
+
         // Round profitable items to nearest 50 to avoid exposing exact counts
-        int profitableItems = Math.round(actualProfitableItems / 50.0f) * 50;
-        
+        int profitableItems = Math.round(m.profitableItems() / 50.0f) * 50;
+
         // Provide general activity score without revealing exact profit margins
-        double profitableRatio = totalItems > 0 ? (double) actualProfitableItems / totalItems : 0.0;
-        double freshnessScore = latest != null ? Math.min(1.0, (double) java.time.Duration.between(latest, Instant.now()).toHours() / 24.0) : 0.0;
+        double profitableRatio = m.totalItems() > 0 ? (double) m.profitableItems() / m.totalItems() : 0.0;
+        double freshnessScore = latest != null ? Math.min(1.0, (double) Duration.between(latest, Instant.now()).toHours() / 24.0) : 0.0;
         double marketActivityScore = (profitableRatio * 0.7 + (1.0 - freshnessScore) * 0.3) * 100.0;
 
-        // allowed to even for free users
-        double avgProfitMargin = snapshotRepository.findAverageProfitMargin().orElse(0.0);
-
         return new MetricsResponseDTO(
                 lastFetch,
-                totalItems,
+                m.totalItems(),
                 profitableItems,
-                avgProfitMargin,
+                m.avgProfitMargin(),
                 marketActivityScore,
                 dbStatus
         );
     }
 
+    /* ───── REFRESH ───── */
+
+    /** Recomputes the market figures. Called after each committed poll and at startup; never throws. */
+    public void refresh() {
+        try {
+            MarketOverviewRow row = snapshotRepository.marketOverview();
+            if (row == null) return;
+            market = new Market(
+                    row.getLatestFetch(),
+                    (int) row.getTotalItems(),
+                    (int) row.getProfitableItems(),
+                    row.getAvgProfitMargin() != null ? row.getAvgProfitMargin() : 0.0);
+        } catch (Exception e) {
+            log.warn("Public metrics refresh failed (serving previous values): {}", e.getMessage());
+        }
+    }
+
+    /** Startup load, driven by {@link com.modernbazaar.core.scheduler.StartupWarmup}. */
+    public void onStartup() {
+        probeDatabase();
+        refresh();
+    }
+
+    /**
+     * Checks the health of the database connection with a driver-level validation
+     * (no statement round trip on drivers that support it), bounded by a timeout.
+     */
+    @Scheduled(fixedDelayString = "${skyblock.metrics.db-health-seconds:15}", timeUnit = TimeUnit.SECONDS)
+    public void probeDatabase() {
+        try (Connection c = dataSource.getConnection()) {
+            dbHealthy = c.isValid(healthTimeoutSeconds);
+        } catch (Exception e) {
+            dbHealthy = false;
+        }
+    }
+
     /**
      * Calculates the percentage of heap memory currently in use.
      *
@@ -70,25 +126,11 @@ public class MetricsService {
         MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
         long heapUsed = memoryBean.getHeapMemoryUsage().getUsed();
         long heapMax = memoryBean.getHeapMemoryUsage().getMax();
-        
+
         if (heapMax == -1) {
             return 0.0; // Unable to determine max heap
         }
-        
-        return (double) heapUsed / heapMax * 100.0;
-    }
 
-    /**
-     * Checks the health of the database connection by executing a simple query.
-     *
-     * @return true if the database is healthy, false otherwise
-     */
-    private boolean checkDatabaseHealth() {
-        try {
-            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
-            return true;
-        } catch (DataAccessException e) {
-            return false;
-        }
+        return (double) heapUsed / heapMax * 100.0;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,180 @@
+package com.modernbazaar.core.service;
+
+import com.modernbazaar.core.api.dto.PipelineStatusDTO;
+import com.modernbazaar.core.repository.BazaarFinanceMetricsRepository;
+import com.modernbazaar.core.repository.BazaarItemHourSummaryRepository;
+import com.modernbazaar.core.repository.BazaarProductSnapshotRepository;
+import com.modernbazaar.core.util.PrimaryReads;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Telemetry for the market data pipeline: Hypixel poll → hourly compaction → finance metrics.
+ *
+ * Stage timers ({@code modernbazaar.pipeline.stage{stage}}) publish a percentile histogram
+ * to Prometheus, so p99 alerts work across nodes; the p50/p99 in {@link #status()} are local
+ * and cover the last hour. Lag gauges ({@code modernbazaar.pipeline.lag{source}}, seconds)
+ * tell which end is behind:
+ * <ul>
+ *   <li>{@code hypixel}: age of the newest Hypixel {@code lastUpdated} seen,</li>
+ *   <li>{@code unprocessed}: age of the oldest snapshot not compacted yet (normally 1-2 h),</li>
+ *   <li>{@code sealed_hour}: time since the end of the newest compacted hour,</li>
+ *   <li>{@code finance}: age of the newest finance-metrics {@code computedAt}.</li>
+ * </ul>
+ * They are read from the primary every {@code lag-refresh-seconds}, not at scrape time, and
+ * work on every node, poller or not. NaN until the first probe (or when the table is empty).
+ */
+@Service
+@Slf4j
+public class PipelineTelemetry {
+
+    public static final String FETCH = "fetch";
+    public static final String PARSE = "parse";
+    public static final String DEDUPE = "dedupe";
+    public static final String PERSIST = "persist";
+    public static final String COMPACTION = "compaction";
+    public static final String FINANCE = "finance";
+    private static final List<String> STAGES = List.of(FETCH, PARSE, DEDUPE, PERSIST, COMPACTION, FINANCE);
+
+    public static final String LAG_HYPIXEL = "hypixel";
+    public static final String LAG_UNPROCESSED = "unprocessed";
+    public static final String LAG_SEALED_HOUR = "sealed_hour";
+    public static final String LAG_FINANCE = "finance";
+
+    private final BazaarProductSnapshotRepository snapshotRepo;
+    private final BazaarItemHourSummaryRepository hourRepo;
+    private final BazaarFinanceMetricsRepository financeRepo;
+
+    private final Map<String, Timer> timers = new LinkedHashMap<>();
+    private final Map<String, Instant> lastRun = new ConcurrentHashMap<>();
+    private final Map<String, Instant> lagMarks = new ConcurrentHashMap<>();
+    private volatile Instant lastProbe;
+
+    public PipelineTelemetry(BazaarProductSnapshotRepository snapshotRepo,
+                             BazaarItemHourSummaryRepository hourRepo,
+                             BazaarFinanceMetricsRepository financeRepo,
+                             MeterRegistry meterRegistry) {
+        this.snapshotRepo = snapshotRepo;
+        this.hourRepo = hourRepo;
+        this.financeRepo = financeRepo;
+
+        for (String stage : STAGES) {
+            timers.put(stage, Timer.builder("modernbazaar.pipeline.stage")
+                    .description("Duration of one run of a market data pipeline stage")
+                    .tag("stage", stage)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofMinutes(10))
+                    .publishPercentiles(0.5, 0.99)
+                    .percentilePrecision(1)
+                    .distributionStatisticExpiry(Duration.ofHours(1)) // compaction/finance run rarely
+                    .distributionStatisticBufferLength(3)
+                    .register(meterRegistry));
+        }
+        for (String source : List.of(LAG_HYPIXEL, LAG_UNPROCESSED, LAG_SEALED_HOUR, LAG_FINANCE)) {
+            TimeGauge.builder("modernbazaar.pipeline.lag", this, TimeUnit.SECONDS, t -> t.ageSeconds(source))
+                    .description("How far behind a market data pipeline source is")
+                    .tag("source", source)
+                    .register(meterRegistry);
+        }
+    }
+
+    /* ───── STAGES ───── */
+
+    public void record(String stage, long nanos) {
+        timers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+        lastRun.put(stage, Instant.now());
+    }
+
+    public <T> T time(String stage, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            record(stage, System.nanoTime() - start);
+        }
+    }
+
+    public void run(String stage, Runnable work) {
+        time(stage, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /** Called by the poller with each response's timestamp, so this node's gauge doesn't wait for a probe. */
+    public void hypixelUpdated(Instant lastUpdated) {
+        lagMarks.merge(LAG_HYPIXEL, lastUpdated, (a, b) -> a.isAfter(b) ? a : b);
+    }
+
+    /* ───── LAG ───── */
+
+    @Scheduled(initialDelayString = "${skyblock.pipeline.lag-refresh-seconds:30}",
+               fixedDelayString   = "${skyblock.pipeline.lag-refresh-seconds:30}",
+               timeUnit = TimeUnit.SECONDS)
+    public void refreshLag() {
+        try {
+            PrimaryReads.run(() -> {
+                Instant newestApi = snapshotRepo.findNewestLastUpdated();
+                if (newestApi != null) hypixelUpdated(newestApi);
+                mark(LAG_UNPROCESSED, snapshotRepo.findOldestLastUpdated());
+                Instant newestHour = hourRepo.findNewestHourStart();
+                mark(LAG_SEALED_HOUR, newestHour == null ? null : newestHour.plus(1, ChronoUnit.HOURS));
+                mark(LAG_FINANCE, financeRepo.findNewestComputedAt());
+            });
+            lastProbe = Instant.now();
+        } catch (Exception e) {
+            log.debug("Pipeline lag probe failed (keeping previous values): {}", e.getMessage());
+        }
+    }
+
+    private void mark(String source, Instant at) {
+        if (at == null) lagMarks.remove(source);
+        else lagMarks.put(source, at);
+    }
+
+    private double ageSeconds(String source) {
+        Instant at = lagMarks.get(source);
+        return at == null ? Double.NaN : Math.max(0, Duration.between(at, Instant.now()).toMillis() / 1000.0);
+    }
+
+    /* ───── SUMMARY ───── */
+
+    public PipelineStatusDTO status() {
+        List<PipelineStatusDTO.Stage> stages = new ArrayList<>();
+        timers.forEach((name, timer) -> {
+            HistogramSnapshot s = timer.takeSnapshot();
+            Double p50 = null, p99 = null;
+            for (ValueAtPercentile v : s.percentileValues()) {
+                if (v.percentile() == 0.5) p50 = v.value(TimeUnit.MILLISECONDS);
+                else if (v.percentile() == 0.99) p99 = v.value(TimeUnit.MILLISECONDS);
+            }
+            stages.add(new PipelineStatusDTO.Stage(name, timer.count(),
+                    timer.count() == 0 ? null : timer.mean(TimeUnit.MILLISECONDS),
+                    p50, p99, s.max(TimeUnit.MILLISECONDS), lastRun.get(name)));
+        });
+        List<PipelineStatusDTO.Lag> lags = new ArrayList<>();
+        for (String source : List.of(LAG_HYPIXEL, LAG_UNPROCESSED, LAG_SEALED_HOUR, LAG_FINANCE)) {
+            double age = ageSeconds(source);
+            lags.add(new PipelineStatusDTO.Lag(source, lagMarks.get(source), Double.isNaN(age) ? null : age));
+        }
+        return new PipelineStatusDTO(Instant.now(), lastProbe, stages, lags);
+    }
+}
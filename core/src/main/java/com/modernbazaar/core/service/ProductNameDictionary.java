@@ -0,0 +1,141 @@
+package com.modernbazaar.core.service;
+
+import com.modernbazaar.core.repository.BazaarItemRepository;
+import com.modernbazaar.core.repository.SkyblockItemRepository;
+import com.modernbazaar.core.repository.projection.IdNameRow;
+import com.modernbazaar.core.util.PrimaryReads;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * productId → display name, held in memory.
+ *
+ * Names come from the catalog ({@code skyblock_item}, same id space as
+ * {@code bazaar_item}) and change at most once a day, yet every list, flipping and
+ * manipulation request used to resolve them through the {@code bazaar_item ⋈
+ * skyblock_item} entity graph. The dictionary is an immutable snapshot swapped
+ * atomically: at startup, after a catalog refresh that changed rows, after a
+ * poll that inserted a product we had not seen, and periodically as a safety net.
+ * Lookups never touch the database.
+ *
+ * Each load also rebuilds the {@link ItemSearchIndex}, so the ids and names are
+ * read once for both.
+ */
+@Component
+@Slf4j
+public class ProductNameDictionary {
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    private final SkyblockItemRepository catalogRepo;
+    private final BazaarItemRepository itemRepo;
+    private final ItemSearchIndex searchIndex;
+
+    /** Catalog names, plus every bazaar product id known at build time (named or not). */
+    private record Snapshot(Map<String, String> names, Set<String> products) {}
+
+    private volatile Snapshot snapshot;
+
+    public ProductNameDictionary(SkyblockItemRepository catalogRepo,
+                                 BazaarItemRepository itemRepo,
+                                 ItemSearchIndex searchIndex,
+                                 MeterRegistry meterRegistry) {
+        this.catalogRepo = catalogRepo;
+        this.itemRepo = itemRepo;
+        this.searchIndex = searchIndex;
+        meterRegistry.gauge("modernbazaar.names.entries", this,
+                d -> d.snapshot == null ? 0 : d.snapshot.names().size());
+    }
+
+    /* ───── BUILD ───── */
+
+    /** Startup load, driven by {@link com.modernbazaar.core.scheduler.StartupWarmup}. */
+    public void onStartup() {
+        reload();
+    }
+
+    /** Safety net; new products and catalog changes trigger a reload themselves. */
+    @Scheduled(initialDelayString = "#{${skyblock.bazaar.search-index.rebuild-minutes:30} * 60000}",
+               fixedDelayString   = "#{${skyblock.bazaar.search-index.rebuild-minutes:30} * 60000}")
+    public void scheduledReload() {
+        reload();
+    }
+
+    /**
+     * Reloads names and product ids, swaps the snapshot and rebuilds the search index
+     * from the same rows. Never throws; a failed load keeps the old dictionary and index.
+     */
+    public void reload() {
+        LOCK.lock();
+        try {
+            PrimaryReads.run(this::load); // reloads follow writes; a lagging replica could miss them
+        } catch (Exception e) {
+            log.warn("Product name reload failed, keeping previous dictionary: {}", e.getMessage());
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    private void load() {
+        long t0 = System.nanoTime();
+        SortedMap<String, String> entries = new TreeMap<>(); // every id, null name when uncatalogued
+        Map<String, String> names = new HashMap<>();
+        for (IdNameRow row : catalogRepo.findAllIdNames()) {
+            entries.put(row.getId(), row.getName());
+            if (row.getName() != null) names.put(row.getId(), row.getName());
+        }
+        List<String> products = itemRepo.findAllProductIds();
+        for (String id : products) entries.putIfAbsent(id, null);
+
+        Snapshot built = new Snapshot(Map.copyOf(names), Set.copyOf(products));
+        snapshot = built;
+        searchIndex.rebuild(entries);
+        log.info("Product names loaded: {} names, {} products in {} ms",
+                built.names().size(), built.products().size(), (System.nanoTime() - t0) / 1_000_000);
+    }
+
+    /** Current snapshot, loading it on first use if a request beats the startup load. */
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            reload();
+            s = snapshot;
+        }
+        return s;
+    }
+
+    /* ───── LOOKUP ───── */
+
+    /** Display name of a product, or null when the catalog has none. */
+    public String nameOf(String productId) {
+        Snapshot s = current();
+        return s == null || productId == null ? null : s.names().get(productId);
+    }
+
+    /** Names for the given ids; ids without a catalog name are absent from the result. */
+    public Map<String, String> namesOf(Collection<String> productIds) {
+        Snapshot s = current();
+        if (s == null) return Map.of();
+        Map<String, String> out = new HashMap<>(Math.max(16, productIds.size() * 2));
+        for (String id : productIds) {
+            String name = s.names().get(id);
+            if (name != null) out.put(id, name);
+        }
+        return out;
+    }
+
+    /** True when any id was not a bazaar product at the last load, i.e. a reload is due. */
+    public boolean hasUnknown(Collection<String> productIds) {
+        Snapshot s = snapshot;
+        if (s == null) return true;
+        for (String id : productIds) {
+            if (!s.products().contains(id)) return true;
+        }
+        return false;
+    }
+}
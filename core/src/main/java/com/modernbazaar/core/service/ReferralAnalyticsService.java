@@ -1,20 +1,20 @@
 package com.modernbazaar.core.service;
 
-import com.modernbazaar.core.domain.ReferralClick;
 import com.modernbazaar.core.domain.ReferralPayout;
 import com.modernbazaar.core.domain.ReferralSignup;
 import com.modernbazaar.core.dto.AdminReferralOverviewDTO;
 import com.modernbazaar.core.dto.ReferralPayoutDTO;
 import com.modernbazaar.core.repository.*;
-import com.modernbazaar.core.repository.projection.ReferralUserStatRow;
+import com.modernbazaar.core.repository.projection.ReferralCodeStatsRow;
+import com.modernbazaar.core.repository.projection.ReferralPlanCountRow;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Instant;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.*;
 
 /**
@@ -29,24 +29,23 @@ public class ReferralAnalyticsService {
 
     private final ReferralCodeRepository codeRepo;
     private final ReferralConversionRepository conversionRepo;
-    private final ReferralClickRepository clickRepo;
     private final ReferralPayoutRepository payoutRepo;
     private final ReferralSignupRepository signupRepo;
 
     private final ReferralEarningRepository earningRepo;
+    private final WriteBehindBuffer writeBehind;
 
-    /** Records a referral-link click. Best-effort; unknown codes are ignored (no error to the visitor). */
-    @Transactional
+    /**
+     * Records a referral-link click. Best-effort; unknown codes are ignored (no error
+     * to the visitor). Queued in {@link WriteBehindBuffer}, whose batched insert
+     * deduplicates per visitor and drops unknown codes.
+     */
     public void recordClick(String code, String visitorKey) {
         if (code == null || code.isBlank() || visitorKey == null || visitorKey.isBlank()) return;
         String norm = code.trim().toUpperCase();
         String visitor = visitorKey.trim();
         if (!visitor.matches("[A-Za-z0-9_-]{16,64}")) return;
-        if (!codeRepo.existsByCodeIgnoreCase(norm)) {
-            log.debug("Referral click for unknown code {} - ignoring", norm);
-            return;
-        }
-        clickRepo.insertDeduplicated(norm, visitor);
+        writeBehind.recordClick(norm, visitor);
     }
 
     /**
@@ -70,83 +69,33 @@ public class ReferralAnalyticsService {
         log.info("Referral signup recorded for code={}", codeRow.getCode());
     }
 
+    /**
+     * One row per code. Everything is grouped by code in SQL ({@link ReferralCodeRepository#overviewStats}),
+     * so the cost tracks the number of creators, not clicks, invoices or payouts ever recorded.
+     */
     @Transactional(readOnly = true)
     public List<AdminReferralOverviewDTO> overview() {
-        var codes = codeRepo.findAll();
-
-        // clicks per code
-        Map<String, Long> clicks = new HashMap<>();
-        clickRepo.clickCountsByCode().forEach(r -> clicks.put(r.getLabel(), r.getCnt()));
-
-        // attributed free-account signups per code (the funnel's middle step)
-        Map<String, Long> signups = new HashMap<>();
-        signupRepo.signupCountsByCode().forEach(r -> signups.put(r.getLabel(), r.getCnt()));
-
-        // referred users' latest subscription state, grouped by code
-        Map<String, List<ReferralUserStatRow>> byCode = new HashMap<>();
-        for (ReferralUserStatRow row : conversionRepo.referredUserStats()) {
-            byCode.computeIfAbsent(row.getCode(), k -> new ArrayList<>()).add(row);
-        }
-
-        // payouts grouped by code
-        Map<String, Long> pendingByCode = new HashMap<>();
-        Map<String, Long> paidByCode = new HashMap<>();
-        for (ReferralPayout p : payoutRepo.findAll()) {
-            if ("paid".equalsIgnoreCase(p.getStatus())) {
-                paidByCode.merge(p.getCode(), p.getAmountCents(), Long::sum);
-            } else {
-                pendingByCode.merge(p.getCode(), p.getAmountCents(), Long::sum);
-            }
-        }
-
-        Map<String, Long> collectedByCode = new HashMap<>();
-        Map<String, Long> eligibleCommissionByCode = new HashMap<>();
-        OffsetDateTime nowOffset = OffsetDateTime.now();
-        for (var earning : earningRepo.findAll()) {
-            long collected = Math.max(0, earning.getNetRevenueCents() - earning.getRefundedCents());
-            collectedByCode.merge(earning.getCode(), collected, Long::sum);
-            if (!earning.getEligibleAt().isAfter(nowOffset)) {
-                eligibleCommissionByCode.merge(earning.getCode(), earning.getCommissionCents(), Long::sum);
-            }
+        Map<String, Map<String, Integer>> plansByCode = new HashMap<>();
+        for (ReferralPlanCountRow r : conversionRepo.activePlanCountsByCode()) {
+            plansByCode.computeIfAbsent(r.getCode(), k -> new TreeMap<>()).put(r.getPlan(), r.getCnt());
         }
 
-        Instant now = Instant.now();
-        Instant sevenDaysAgo = now.minusSeconds(7 * 24 * 3600);
-
         List<AdminReferralOverviewDTO> out = new ArrayList<>();
-        for (var c : codes) {
-            List<ReferralUserStatRow> rows = byCode.getOrDefault(c.getCode(), List.of());
-            int subscribers = rows.size();
-            int active = 0, activeRecent = 0;
-            Map<String, Integer> activeByPlan = new TreeMap<>();
-            Instant lastActivity = null;
-
-            for (ReferralUserStatRow r : rows) {
-                boolean entitled = isEntitled(r.getStatus(), r.getPeriodEnd(), now);
-                if (entitled) {
-                    active++;
-                    if (r.getPlan() != null) activeByPlan.merge(r.getPlan(), 1, Integer::sum);
-                    if (r.getLastSeen() != null && r.getLastSeen().isAfter(sevenDaysAgo)) activeRecent++;
-                }
-                if (r.getLastSeen() != null && (lastActivity == null || r.getLastSeen().isAfter(lastActivity))) {
-                    lastActivity = r.getLastSeen();
-                }
-            }
-
-            long codeClicks = clicks.getOrDefault(c.getCode(), 0L);
-            Double convRate = codeClicks > 0 ? (subscribers * 100.0 / codeClicks) : null;
-            long alreadyRecorded = pendingByCode.getOrDefault(c.getCode(), 0L)
-                    + paidByCode.getOrDefault(c.getCode(), 0L);
-            long owed = Math.max(0, eligibleCommissionByCode.getOrDefault(c.getCode(), 0L) - alreadyRecorded);
+        for (ReferralCodeStatsRow c : codeRepo.overviewStats()) {
+            long codeClicks = c.getClicks();
+            Double convRate = codeClicks > 0 ? (c.getSubscribers() * 100.0 / codeClicks) : null;
+            long alreadyRecorded = c.getPendingCents() + c.getPaidCents();
+            long owed = Math.max(0, c.getEligibleCommissionCents() - alreadyRecorded);
 
             out.add(new AdminReferralOverviewDTO(
-                    c.getId(), c.getCode(), c.getUserId(), c.getCreatedAt(),
-                    codeClicks, signups.getOrDefault(c.getCode(), 0L),
-                    subscribers, active, activeRecent, activeByPlan,
-                    convRate, collectedByCode.getOrDefault(c.getCode(), 0L), owed,
-                    pendingByCode.getOrDefault(c.getCode(), 0L),
-                    paidByCode.getOrDefault(c.getCode(), 0L),
-                    lastActivity));
+                    c.getId(), c.getCode(), c.getUserId(),
+                    c.getCreatedAt() != null ? c.getCreatedAt().atOffset(ZoneOffset.UTC) : null,
+                    codeClicks, c.getSignups(),
+                    c.getSubscribers(), c.getActive(), c.getActiveRecent(),
+                    plansByCode.getOrDefault(c.getCode(), new TreeMap<>()),
+                    convRate, c.getCollectedCents(), owed,
+                    c.getPendingCents(), c.getPaidCents(),
+                    c.getLastActivity()));
         }
 
         // Most valuable creators first (by owed, then subscribers, then clicks).
@@ -157,13 +106,6 @@ public class ReferralAnalyticsService {
         return out;
     }
 
-    private static boolean isEntitled(String status, Instant periodEnd, Instant now) {
-        if (status == null) return false;
-        if ("active".equalsIgnoreCase(status)) return true;
-        // A canceled sub still counts while inside the paid period.
-        return "canceled".equalsIgnoreCase(status) && periodEnd != null && periodEnd.isAfter(now);
-    }
-
     /* ─────────────────────────── payouts ─────────────────────────── */
 
     @Transactional(readOnly = true)
@@ -218,14 +160,8 @@ public class ReferralAnalyticsService {
     }
 
     private long eligibleOutstanding(String code) {
-        OffsetDateTime now = OffsetDateTime.now();
-        long eligible = earningRepo.findAllByCode(code).stream()
-                .filter(e -> !e.getEligibleAt().isAfter(now))
-                .mapToLong(com.modernbazaar.core.domain.ReferralEarning::getCommissionCents)
-                .sum();
-        long recorded = payoutRepo.findByCodeOrderByCreatedAtDesc(code).stream()
-                .mapToLong(ReferralPayout::getAmountCents)
-                .sum();
+        long eligible = earningRepo.sumEligibleCommission(code, OffsetDateTime.now());
+        long recorded = payoutRepo.sumAmountByCode(code);
         return Math.max(0, eligible - recorded);
     }
 }
@@ -1,36 +1,72 @@
 package com.modernbazaar.core.service;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.google.common.hash.Hashing;
 import com.modernbazaar.core.api.dto.PagedResponseDTO;
 import com.modernbazaar.core.api.dto.SkyblockItemDTO;
 import com.modernbazaar.core.domain.SkyblockItem;
 import com.modernbazaar.core.dto.RawSkyblockItem;
-import com.modernbazaar.core.dto.RawSkyblockItemsResponse;
 import com.modernbazaar.core.repository.SkyblockItemRepository;
+import com.modernbazaar.core.repository.projection.IdHashRow;
+import com.modernbazaar.core.util.AfterCommit;
+import com.modernbazaar.core.util.CursorCodec;
 import com.modernbazaar.core.util.RawSkyblockItemToItemMapper;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class SkyblockItemsCatalogService {
 
     private final WebClient webClient;
     private final SkyblockItemRepository repo;
     private final RawSkyblockItemToItemMapper mapper;
+    private final ItemSearchIndex searchIndex;
+    private final ProductNameDictionary productNames;
+    private final CatalogGeneration catalogGeneration;
 
     private static final String ITEMS_URI = "/resources/skyblock/items";
 
+    /** Bump when {@link RawSkyblockItemToItemMapper} changes, so every row is rewritten once. */
+    private static final int HASH_VERSION = 1;
+
+    /** Lenient like WebClient's default codec: Hypixel items carry many fields we don't map. */
+    private static final ObjectReader ITEM_READER = JsonMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build()
+            .readerFor(RawSkyblockItem.class);
+
+    public SkyblockItemsCatalogService(WebClient webClient,
+                                       SkyblockItemRepository repo,
+                                       RawSkyblockItemToItemMapper mapper,
+                                       ItemSearchIndex searchIndex,
+                                       ProductNameDictionary productNames,
+                                       CatalogGeneration catalogGeneration) {
+        this.webClient = webClient;
+        this.repo = repo;
+        this.mapper = mapper;
+        this.searchIndex = searchIndex;
+        this.productNames = productNames;
+        this.catalogGeneration = catalogGeneration;
+    }
+
     @Transactional(readOnly = true)
     public PagedResponseDTO<SkyblockItemDTO> search(
             String q,
@@ -42,6 +78,16 @@ public class SkyblockItemsCatalogService {
             int page,
             int limit
     ) {
+        ItemSearchIndex.Filter text = searchIndex.filter(q);
+        if (text.restrict()) {
+            List<SkyblockItem> ranked = rankedMatches(text, tier, category, inBazaar, minNpc, maxNpc);
+            PageRequest pr = PageRequest.of(page, limit);
+            int from = (int) Math.min(pr.getOffset(), ranked.size());
+            int to = Math.min(from + limit, ranked.size());
+            return PagedResponseDTO.fromPage(
+                    new PageImpl<>(ranked.subList(from, to), pr, ranked.size()).map(this::toDTO));
+        }
+
         Page<SkyblockItem> p = repo.search(
                 q,
                 tier,
@@ -55,6 +101,71 @@ public class SkyblockItemsCatalogService {
         return PagedResponseDTO.fromPage(dtoPage);
     }
 
+    /** Cursor variant of {@link #search}: id-ordered keyset pages, {@code after} blank = first page. */
+    @Transactional(readOnly = true)
+    public PagedResponseDTO<SkyblockItemDTO> searchAfter(
+            String q,
+            String tier,
+            String category,
+            boolean inBazaar,
+            Double minNpc,
+            Double maxNpc,
+            String after,
+            int limit
+    ) {
+        if (limit <= 0) limit = 50;
+        String afterId = CursorCodec.isFirstPage(after) ? null : CursorCodec.decode(after, 1)[0];
+
+        ItemSearchIndex.Filter text = searchIndex.filter(q);
+        List<SkyblockItem> rows;
+        if (text.restrict()) {
+            // keyset pages stay id-ordered (cursor contract); the index only narrows the set
+            rows = rankedMatches(text, tier, category, inBazaar, minNpc, maxNpc).stream()
+                    .filter(it -> afterId == null || it.getId().compareTo(afterId) > 0)
+                    .sorted(Comparator.comparing(SkyblockItem::getId))
+                    .limit(limit + 1L)
+                    .collect(Collectors.toCollection(ArrayList::new));
+        } else {
+            rows = repo.searchAfter(q, tier, category, inBazaar, minNpc, maxNpc,
+                    afterId, PageRequest.of(0, limit + 1));
+        }
+        boolean hasNext = rows.size() > limit;
+        if (hasNext) rows = rows.subList(0, limit);
+        String next = hasNext ? CursorCodec.encode(rows.get(rows.size() - 1).getId()) : null;
+
+        return PagedResponseDTO.ofCursor(rows.stream().map(this::toDTO).toList(),
+                limit, next, afterId != null, null);
+    }
+
+    /** Total for a catalog filter; the catalog only changes on refresh (evicts, else 5 min TTL). */
+    @Cacheable(value = "pageTotals",
+            key = "'catalog-'+#q+'-'+#tier+'-'+#category+'-'+#inBazaar+'-'+#minNpc+'-'+#maxNpc")
+    @Transactional(readOnly = true)
+    public long countSearch(String q, String tier, String category, boolean inBazaar, Double minNpc, Double maxNpc) {
+        ItemSearchIndex.Filter text = searchIndex.filter(q);
+        if (text.restrict()) return rankedMatches(text, tier, category, inBazaar, minNpc, maxNpc).size();
+        return repo.countSearch(q, tier, category, inBazaar, minNpc, maxNpc);
+    }
+
+    /** Ranked name/id suggestions straight from the search index (no DB round trip). */
+    public List<ItemSearchIndex.Hit> suggest(String q, int limit) {
+        return searchIndex.search(q, Math.min(Math.max(limit, 1), 50));
+    }
+
+    /** Index candidates that pass the remaining filters, in the index's rank order. */
+    private List<SkyblockItem> rankedMatches(ItemSearchIndex.Filter text, String tier, String category,
+                                             boolean inBazaar, Double minNpc, Double maxNpc) {
+        if (text.none()) return List.of();
+        Map<String, SkyblockItem> byId = repo.findFilteredIn(text.ids(), tier, category, inBazaar, minNpc, maxNpc)
+                .stream().collect(Collectors.toMap(SkyblockItem::getId, it -> it));
+        List<SkyblockItem> out = new ArrayList<>(byId.size());
+        for (String id : text.ids()) {
+            SkyblockItem it = byId.get(id);
+            if (it != null) out.add(it);
+        }
+        return out;
+    }
+
     @Transactional(readOnly = true)
     public SkyblockItemDTO getById(String id) {
         SkyblockItem item = repo.findById(id)
@@ -72,55 +183,102 @@ public class SkyblockItemsCatalogService {
         return true;
     }
 
+    /**
+     * Streams the items array of the catalog payload and hashes each item's raw bytes.
+     * Items whose hash matches the stored one are skipped before any mapping; only
+     * new or changed items are deserialized, mapped and written (batched upsert).
+     */
     @Transactional
+    @CacheEvict(value = "pageTotals", allEntries = true)
     public void forceRefresh() {
-        RawSkyblockItemsResponse resp = webClient.get()
+        byte[] body = webClient.get()
                 .uri(ITEMS_URI)
                 .retrieve()
-                .bodyToMono(RawSkyblockItemsResponse.class)
+                .bodyToMono(byte[].class)
                 .block();
-
-        if (resp == null || !resp.isSuccess() || resp.getItems() == null) {
+        if (body == null) {
             log.warn("Skyblock items fetch failed or returned empty.");
             return;
         }
 
+        Map<String, String> stored = new HashMap<>();
+        for (IdHashRow row : repo.findAllHashes()) stored.put(row.getId(), row.getContentHash());
+
         Instant refreshedAt = Instant.now();
-        List<RawSkyblockItem> rawItems = resp.getItems();
-
-        Set<String> ids = rawItems.stream().map(RawSkyblockItem::getId).collect(Collectors.toSet());
-        Map<String, SkyblockItem> existing = repo.findAllByIdIn(ids).stream()
-                .collect(Collectors.toMap(SkyblockItem::getId, it -> it));
-
-        List<SkyblockItem> toSave = new ArrayList<>(rawItems.size());
-        for (RawSkyblockItem raw : rawItems) {
-            SkyblockItem current = mapper.toEntity(raw, refreshedAt);
-            SkyblockItem prior = existing.get(current.getId());
-            if (prior == null) {
-                toSave.add(current);
-            } else if (needsUpdate(prior, current)) {
-                current.setId(prior.getId());
-                toSave.add(current);
+        List<SkyblockItem> toSave = new ArrayList<>();
+        int received = 0;
+        boolean success = false, sawItems = false;
+
+        try (JsonParser p = ITEM_READER.getFactory().createParser(body)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                log.warn("Skyblock items payload is not a JSON object.");
+                return;
             }
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                if ("success".equals(field)) {
+                    success = p.getValueAsBoolean();
+                } else if ("items".equals(field) && value == JsonToken.START_ARRAY) {
+                    sawItems = true;
+                    while (p.nextToken() == JsonToken.START_OBJECT) {
+                        received++;
+                        int start = (int) p.currentTokenLocation().getByteOffset();
+                        String id = scanId(p);
+                        int end = (int) p.currentLocation().getByteOffset();
+                        if (id == null) continue;
+
+                        String hash = contentHash(body, start, end - start);
+                        if (hash.equals(stored.get(id))) continue;
+
+                        RawSkyblockItem raw = ITEM_READER.readValue(body, start, end - start);
+                        SkyblockItem item = mapper.toEntity(raw, refreshedAt);
+                        item.setContentHash(hash);
+                        toSave.add(item);
+                    }
+                } else {
+                    p.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Skyblock items payload could not be parsed: {}", e.getMessage());
+            return;
+        }
+
+        if (!success || !sawItems) {
+            log.warn("Skyblock items fetch failed or returned empty.");
+            return;
         }
 
         if (!toSave.isEmpty()) {
-            repo.saveAll(toSave);
-            log.info("Skyblock catalog refresh: saved {} records ({} total received).", toSave.size(), rawItems.size());
+            repo.upsertAll(toSave);
+            AfterCommit.run(productNames::reload); // also rebuilds the search index
+            AfterCommit.run(catalogGeneration::advance); // cached /api/skyblock/items bytes go stale
+            log.info("Skyblock catalog refresh: saved {} records ({} total received).", toSave.size(), received);
         } else {
-            log.info("Skyblock catalog refresh: no changes detected ({} items).", rawItems.size());
+            log.info("Skyblock catalog refresh: no changes detected ({} items).", received);
+        }
+    }
+
+    /** Walks one item object (parser on its START_OBJECT) to its END_OBJECT, returning its id. */
+    private static String scanId(JsonParser p) throws IOException {
+        String id = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            if ("id".equals(field)) id = p.getValueAsString();
+            else p.skipChildren();
         }
+        return id;
     }
 
-    private boolean needsUpdate(SkyblockItem a, SkyblockItem b) {
-        if (!Objects.equals(a.getName(), b.getName())) return true;
-        if (!Objects.equals(a.getMaterial(), b.getMaterial())) return true;
-        if (!Objects.equals(a.getColor(), b.getColor())) return true;
-        if (!Objects.equals(a.getCategory(), b.getCategory())) return true;
-        if (!Objects.equals(a.getTier(), b.getTier())) return true;
-        if (!Objects.equals(a.getNpcSellPrice(), b.getNpcSellPrice())) return true;
-        if (!Objects.equals(a.getStatsJson(), b.getStatsJson())) return true;
-        return false;
+    /** Hash of the item's raw JSON bytes, salted with the mapping version. */
+    static String contentHash(byte[] body, int offset, int length) {
+        return Hashing.murmur3_128().newHasher()
+                .putInt(HASH_VERSION)
+                .putBytes(body, offset, length)
+                .hash()
+                .toString();
     }
 
     private SkyblockItemDTO toDTO(SkyblockItem s) {
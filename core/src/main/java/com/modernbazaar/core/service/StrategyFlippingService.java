@@ -7,7 +7,6 @@ import com.modernbazaar.core.strategy.flipping.FlippingScorer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
 
@@ -16,10 +15,10 @@ import java.util.*;
 public class StrategyFlippingService {
 
     private final FlippingScorer scorer;
+    private final HeavyWorkExecutor heavyWork;
 
     // IMPORTANT: não incluir page/limit na chave para reutilizar cálculo caro entre páginas (só fazemos slice em memória)
-    @Cacheable(value = "flipOpportunities", key = "#filter+'-'+#sort+'-'+#budget+'-'+#horizonHours")
-    @Transactional(readOnly = true)
+    @Cacheable(value = "flipOpportunities", sync = true, key = "#filter+'-'+#sort+'-'+#budget+'-'+#horizonHours")
     public PagedResponseDTO<FlipOpportunityResponseDTO> list(
             BazaarItemFilterDTO filter,
             Optional<String>    sort,
@@ -31,14 +30,14 @@ public class StrategyFlippingService {
         if (limit <= 0) limit = 50;
         if (page < 0) page = 0;
 
-        List<FlipOpportunityResponseDTO> all = scorer.list(filter, budget, horizonHours);
+        List<FlipOpportunityResponseDTO> all = heavyWork.call(HeavyWorkExecutor.FLIPPING,
+                () -> scorer.list(filter, budget, horizonHours));
         all.sort(buildComparator(sort));
         return PagedResponseDTO.of(all, page, limit);
     }
 
     // Igual: retirar page/limit da chave de cache; filtros avançados agora aplicados dentro do scorer
-    @Cacheable(value = "flipOpportunitiesAdvanced", key = "#filter+'-'+#sort+'-'+#budget+'-'+#horizonHours+'-'+#maxTime+'-'+#minUnitsPerHour+'-'+#maxUnitsPerHour+'-'+#maxCompetitionPerHour+'-'+#maxRiskScore+'-'+#disableCompetitionPenalties+'-'+#disableRiskPenalties")
-    @Transactional(readOnly = true)
+    @Cacheable(value = "flipOpportunitiesAdvanced", sync = true, key = "#filter+'-'+#sort+'-'+#budget+'-'+#horizonHours+'-'+#maxTime+'-'+#minUnitsPerHour+'-'+#maxUnitsPerHour+'-'+#maxCompetitionPerHour+'-'+#maxRiskScore+'-'+#disableCompetitionPenalties+'-'+#disableRiskPenalties")
     public PagedResponseDTO<FlipOpportunityResponseDTO> listWithAdvancedFilters(
             BazaarItemFilterDTO filter,
             Optional<String>    sort,
@@ -57,10 +56,12 @@ public class StrategyFlippingService {
         if (limit <= 0) limit = 50;
         if (page < 0) page = 0;
 
-        List<FlipOpportunityResponseDTO> all = scorer.listWithAdvancedFilters(filter, budget, horizonHours,
-                                                                            maxTime, minUnitsPerHour, maxUnitsPerHour,
-                                                                            maxCompetitionPerHour, maxRiskScore,
-                                                                            disableCompetitionPenalties, disableRiskPenalties);
+        // scoring runs on the bounded heavy pool (its own read-only transaction, not ours)
+        List<FlipOpportunityResponseDTO> all = heavyWork.call(HeavyWorkExecutor.FLIPPING,
+                () -> scorer.listWithAdvancedFilters(filter, budget, horizonHours,
+                                                     maxTime, minUnitsPerHour, maxUnitsPerHour,
+                                                     maxCompetitionPerHour, maxRiskScore,
+                                                     disableCompetitionPenalties, disableRiskPenalties));
         all.sort(buildComparator(sort));
         return PagedResponseDTO.of(all, page, limit);
     }
@@ -7,7 +7,6 @@ import com.modernbazaar.core.strategy.manipulation.ManipulationScorer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Comparator;
 import java.util.List;
@@ -18,12 +17,12 @@ import java.util.Optional;
 public class StrategyManipulationService {
 
     private final ManipulationScorer scorer;
+    private final HeavyWorkExecutor heavyWork;
 
     // page/limit deliberately excluded from the cache key so the expensive scan is
     // computed once per filter combo and sliced in memory across pages.
-    @Cacheable(value = "manipulationOpportunities",
+    @Cacheable(value = "manipulationOpportunities", sync = true,
             key = "#filter+'-'+#sort+'-'+#budget+'-'+#roi+'-'+#taxRate+'-'+#sellWallFactor+'-'+#minDemandSupplyRatio+'-'+#minProfit+'-'+#maxCornerSupply+'-'+#maxItemPrice+'-'+#formulaVersion")
-    @Transactional(readOnly = true)
     public PagedResponseDTO<ManipulationOpportunityResponseDTO> list(
             BazaarItemFilterDTO filter,
             Optional<String>    sort,
@@ -42,8 +41,9 @@ public class StrategyManipulationService {
         if (limit <= 0) limit = 50;
         if (page < 0) page = 0;
 
-        List<ManipulationOpportunityResponseDTO> all =
-                scorer.list(filter, budget, roi, taxRate, sellWallFactor, minDemandSupplyRatio, minProfit, maxCornerSupply, maxItemPrice, formulaVersion);
+        // scoring runs on the bounded heavy pool (its own read-only transaction, not ours)
+        List<ManipulationOpportunityResponseDTO> all = heavyWork.call(HeavyWorkExecutor.MANIPULATION,
+                () -> scorer.list(filter, budget, roi, taxRate, sellWallFactor, minDemandSupplyRatio, minProfit, maxCornerSupply, maxItemPrice, formulaVersion));
 
         String key = sort.map(String::trim).filter(s -> !s.isEmpty()).map(String::toLowerCase).orElse("score");
         Comparator<ManipulationOpportunityResponseDTO> cmp = switch (key) {
@@ -1,45 +1,112 @@
 package com.modernbazaar.core.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.modernbazaar.core.domain.StripeWebhookEvent;
 import com.modernbazaar.core.repository.StripeWebhookEventRepository;
+import com.stripe.model.Event;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
+import java.util.Comparator;
+import java.util.List;
 
+/**
+ * Persistence side of the Stripe webhook inbox: store on receipt, claim for the
+ * worker, record the outcome. Each call is its own short transaction.
+ */
 @Service
 @RequiredArgsConstructor
 public class StripeWebhookEventService {
     private final StripeWebhookEventRepository repository;
+    private final JdbcTemplate jdbc;
+    private final ObjectMapper objectMapper;
 
+    /* ───── RECEIVE ───── */
+
+    /**
+     * Stores a verified event as pending. Returns false for a duplicate delivery
+     * (Stripe retries, replays); a redelivery of a dead event re-queues it.
+     */
     @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public boolean begin(String eventId, String eventType) {
-        OffsetDateTime now = OffsetDateTime.now();
-        var existing = repository.findById(eventId).orElse(null);
-        if (existing == null) {
-            repository.saveAndFlush(StripeWebhookEvent.builder()
-                    .eventId(eventId)
-                    .eventType(eventType)
-                    .status("processing")
-                    .attemptCount(1)
-                    .receivedAt(now)
-                    .build());
-            return true;
-        }
-        if ("processed".equals(existing.getStatus())) return false;
-        if ("processing".equals(existing.getStatus())
-                && existing.getReceivedAt() != null
-                && existing.getReceivedAt().isAfter(now.minusMinutes(10))) {
-            return false;
+    public boolean enqueue(Event event, String payload) {
+        int rows = jdbc.update("""
+                insert into stripe_webhook_event
+                    (event_id, event_type, status, attempt_count, received_at,
+                     payload, order_key, stripe_created, next_attempt_at)
+                values (?, ?, 'pending', 0, now(), ?, ?, ?, now())
+                on conflict (event_id) do update
+                   set status = 'pending', attempt_count = 0, next_attempt_at = now(),
+                       locked_until = null, last_error = null, payload = excluded.payload,
+                       order_key = excluded.order_key, stripe_created = excluded.stripe_created
+                 where stripe_webhook_event.status = 'dead'
+                """,
+                event.getId(), event.getType(), payload, orderKey(event.getId(), payload),
+                event.getCreated() != null ? event.getCreated() : System.currentTimeMillis() / 1000);
+        return rows > 0;
+    }
+
+    /**
+     * Events of one Stripe customer must apply in order (an {@code updated} landing
+     * after a later {@code deleted} would resurrect access), so they share a key.
+     * Falls back to the account, then to the event itself (no ordering constraint).
+     */
+    String orderKey(String eventId, String payload) {
+        try {
+            JsonNode obj = objectMapper.readTree(payload).path("data").path("object");
+            JsonNode customer = obj.path("customer");
+            String key = customer.isObject()
+                    ? StripeWebhookProcessor.textOrNull(customer.path("id"))
+                    : StripeWebhookProcessor.textOrNull(customer);
+            if (key == null) key = StripeWebhookProcessor.textOrNull(obj.path("metadata").path("user_id"));
+            if (key == null) key = StripeWebhookProcessor.textOrNull(obj.path("client_reference_id"));
+            if (key != null) return key;
+        } catch (Exception ignored) {
+            // signature already verified; an unparsable body just loses ordering
         }
-        existing.setStatus("processing");
-        existing.setAttemptCount(existing.getAttemptCount() + 1);
-        existing.setReceivedAt(now);
-        existing.setLastError(null);
-        repository.saveAndFlush(existing);
-        return true;
+        return eventId;
+    }
+
+    /* ───── WORKER ───── */
+
+    /**
+     * Leases up to {@code limit} due events, at most one per order key: an event is
+     * only eligible once nothing older for the same key is still open. Expired leases
+     * (a node died mid-event) are reclaimed. {@code SKIP LOCKED} keeps concurrent
+     * nodes from claiming the same rows.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<StripeWebhookEvent> claim(int limit, int leaseMinutes) {
+        List<String> ids = jdbc.queryForList("""
+                update stripe_webhook_event e
+                   set status = 'processing',
+                       attempt_count = e.attempt_count + 1,
+                       locked_until = now() + make_interval(mins => ?)
+                 where e.event_id in (
+                       select c.event_id from stripe_webhook_event c
+                        where c.payload is not null
+                          and ((c.status in ('pending', 'failed') and c.next_attempt_at <= now())
+                            or (c.status = 'processing' and c.locked_until < now()))
+                          and not exists (
+                                select 1 from stripe_webhook_event p
+                                 where p.order_key = c.order_key
+                                   and p.status in ('pending', 'processing', 'failed')
+                                   and (p.stripe_created, p.received_at, p.event_id)
+                                     < (c.stripe_created, c.received_at, c.event_id))
+                        order by c.stripe_created, c.received_at
+                        limit ?
+                        for update skip locked)
+                returning e.event_id
+                """, String.class, leaseMinutes, limit);
+        if (ids.isEmpty()) return List.of();
+        return repository.findAllById(ids).stream()
+                .sorted(Comparator.comparing(StripeWebhookEvent::getStripeCreated,
+                        Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
     }
 
     @Transactional(propagation = Propagation.REQUIRES_NEW)
@@ -47,18 +114,35 @@ public class StripeWebhookEventService {
         repository.findById(eventId).ifPresent(event -> {
             event.setStatus("processed");
             event.setProcessedAt(OffsetDateTime.now());
+            event.setLockedUntil(null);
             event.setLastError(null);
             repository.save(event);
         });
     }
 
+    /**
+     * Records a failed attempt. {@code retryAt} schedules the next one; null parks the
+     * event as {@code dead} (kept for inspection, and no longer blocks its order key).
+     */
     @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public void markFailed(String eventId, Exception error) {
+    public void markFailed(String eventId, Exception error, OffsetDateTime retryAt) {
         repository.findById(eventId).ifPresent(event -> {
-            event.setStatus("failed");
+            event.setStatus(retryAt == null ? "dead" : "failed");
+            event.setNextAttemptAt(retryAt);
+            event.setLockedUntil(null);
             String message = error.getMessage() == null ? error.getClass().getSimpleName() : error.getMessage();
             event.setLastError(message.substring(0, Math.min(message.length(), 1000)));
             repository.save(event);
         });
     }
+
+    @Transactional(readOnly = true)
+    public long openCount() {
+        return repository.countOpen();
+    }
+
+    @Transactional(readOnly = true)
+    public long deadCount() {
+        return repository.countDead();
+    }
 }
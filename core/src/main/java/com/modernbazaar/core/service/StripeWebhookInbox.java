@@ -0,0 +1,206 @@
+package com.modernbazaar.core.service;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.modernbazaar.core.domain.StripeWebhookEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Drains the Stripe webhook inbox. The webhook endpoint only verifies and stores
+ * the event, then {@link #wake()}s us; a scheduled poll is the safety net (missed
+ * wake-ups, retries coming due, other nodes' leftovers).
+ *
+ * Each round claims a batch holding at most one event per customer, so the batch
+ * runs in parallel on the worker pool while each customer's events still apply in
+ * Stripe order. Failures back off exponentially and are parked as {@code dead}
+ * after {@code max-attempts}.
+ */
+@Service
+@Slf4j
+public class StripeWebhookInbox {
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    private final StripeWebhookEventService events;
+    private final StripeWebhookProcessor processor;
+    private final MeterRegistry meterRegistry;
+    private final boolean billingEnabled;
+    private final int batchSize;
+    private final int leaseMinutes;
+    private final int maxAttempts;
+    private final Duration backoffBase;
+    private final Duration backoffMax;
+
+    private final ExecutorService workers;
+    private final ExecutorService waker;
+    private final AtomicBoolean wakeQueued = new AtomicBoolean();
+
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicLong dead = new AtomicLong();
+    private final Timer latency;
+    private final Counter retries;
+    private final Counter deadLettered;
+
+    public StripeWebhookInbox(
+            StripeWebhookEventService events,
+            StripeWebhookProcessor processor,
+            MeterRegistry meterRegistry,
+            @Value("${billing.enabled:false}") boolean billingEnabled,
+            @Value("${stripe.inbox.workers:4}") int workerThreads,
+            @Value("${stripe.inbox.batch-size:50}") int batchSize,
+            @Value("${stripe.inbox.lease-minutes:10}") int leaseMinutes,
+            @Value("${stripe.inbox.max-attempts:8}") int maxAttempts,
+            @Value("${stripe.inbox.backoff-base-seconds:30}") long backoffBaseSeconds,
+            @Value("${stripe.inbox.backoff-max-minutes:60}") long backoffMaxMinutes
+    ) {
+        this.events = events;
+        this.processor = processor;
+        this.meterRegistry = meterRegistry;
+        this.billingEnabled = billingEnabled;
+        this.batchSize = batchSize;
+        this.leaseMinutes = leaseMinutes;
+        this.maxAttempts = maxAttempts;
+        this.backoffBase = Duration.ofSeconds(backoffBaseSeconds);
+        this.backoffMax = Duration.ofMinutes(backoffMaxMinutes);
+
+        this.workers = Executors.newFixedThreadPool(workerThreads, new ThreadFactoryBuilder()
+                .setNameFormat("stripe-inbox-%d")
+                .setDaemon(true)
+                .build());
+        this.waker = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("stripe-inbox-wake")
+                .setDaemon(true)
+                .build());
+
+        // received → processed, i.e. what a customer waits for after paying
+        this.latency = Timer.builder("modernbazaar.stripe.inbox.latency")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.retries = meterRegistry.counter("modernbazaar.stripe.inbox.retries");
+        this.deadLettered = meterRegistry.counter("modernbazaar.stripe.inbox.dead_lettered");
+        meterRegistry.gauge("modernbazaar.stripe.inbox.depth", depth, AtomicLong::get);
+        meterRegistry.gauge("modernbazaar.stripe.inbox.dead", dead, AtomicLong::get);
+    }
+
+    /** Asks for a drain soon, off the caller's thread. Wake-ups arriving mid-drain coalesce into one. */
+    public void wake() {
+        if (wakeQueued.compareAndSet(false, true)) {
+            waker.execute(() -> {
+                wakeQueued.set(false);
+                drain();
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stripe.inbox.poll-seconds:5}", timeUnit = TimeUnit.SECONDS)
+    public void poll() {
+        if (billingEnabled) drain();
+    }
+
+    /** Claims and applies batches until nothing is due. Never throws. */
+    public void drain() {
+        LOCK.lock();
+        try {
+            List<StripeWebhookEvent> batch;
+            while (!(batch = events.claim(batchSize, leaseMinutes)).isEmpty()) {
+                List<Callable<Void>> tasks = new ArrayList<>(batch.size());
+                for (StripeWebhookEvent event : batch) {
+                    tasks.add(() -> {
+                        handle(event);
+                        return null;
+                    });
+                }
+                workers.invokeAll(tasks);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Stripe inbox drain failed: {}", e.getMessage());
+        } finally {
+            refreshGauges();
+            LOCK.unlock();
+        }
+    }
+
+    private void handle(StripeWebhookEvent event) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "processed";
+        try {
+            processor.apply(event.getEventType(), event.getPayload());
+            events.markProcessed(event.getEventId());
+            if (event.getReceivedAt() != null) {
+                latency.record(Duration.between(event.getReceivedAt(), OffsetDateTime.now()));
+            }
+        } catch (Exception e) {
+            int attempt = event.getAttemptCount();
+            OffsetDateTime retryAt = attempt >= maxAttempts ? null : OffsetDateTime.now().plus(backoff(attempt));
+            try {
+                events.markFailed(event.getEventId(), e, retryAt);
+            } catch (Exception markErr) {
+                // the lease expires and the event is reclaimed; nothing is lost
+                log.warn("Could not record failure of Stripe event {}: {}", event.getEventId(), markErr.getMessage());
+            }
+            if (retryAt == null) {
+                outcome = "dead";
+                deadLettered.increment();
+                log.error("Stripe event {} (type={}) dead after {} attempts",
+                        event.getEventId(), event.getEventType(), attempt, e);
+            } else {
+                outcome = "retry";
+                retries.increment();
+                log.warn("Stripe event {} (type={}) failed, attempt {} — retrying at {}: {}",
+                        event.getEventId(), event.getEventType(), attempt, retryAt, e.getMessage());
+            }
+        } finally {
+            sample.stop(meterRegistry.timer("modernbazaar.stripe.inbox.handle",
+                    "type", event.getEventType(), "outcome", outcome));
+        }
+    }
+
+    /** base · 2^(attempt-1), capped. */
+    Duration backoff(int attempt) {
+        int shift = Math.min(Math.max(attempt - 1, 0), 20);
+        Duration d = backoffBase.multipliedBy(1L << shift);
+        return d.compareTo(backoffMax) > 0 ? backoffMax : d;
+    }
+
+    private void refreshGauges() {
+        try {
+            depth.set(events.openCount());
+            dead.set(events.deadCount());
+        } catch (Exception e) {
+            log.debug("Stripe inbox gauge refresh failed: {}", e.getMessage());
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void onShutdown() {
+        waker.shutdownNow();
+        workers.shutdown();
+        try {
+            // in-flight events that don't finish are reclaimed once their lease expires
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
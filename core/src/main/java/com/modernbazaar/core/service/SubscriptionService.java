@@ -9,10 +9,15 @@ import com.modernbazaar.core.domain.UserSubscription;
 import com.modernbazaar.core.repository.PlanRepository;
 import com.modernbazaar.core.repository.SubscriptionCancellationRepository;
 import com.modernbazaar.core.repository.UserSubscriptionRepository;
+import com.modernbazaar.core.util.CursorCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,6 +25,7 @@ import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -33,6 +39,8 @@ public class SubscriptionService {
     private final Auth0ManagementService auth0ManagementService;
     private final SubscriptionCancellationRepository cancellationRepository;
     private final StripeBillingService stripeBillingService;
+    private final EntitlementCache entitlements;
+    private final WriteBehindBuffer writeBehind;
 
     /* Annual price ids live in config, not on the plan row; the webhook maps
        them back to a plan slug here. */
@@ -52,22 +60,36 @@ public class SubscriptionService {
      * Free gets market data only; flipper adds flipping; elite adds manipulation.
      * A cancelled plan keeps access until the period end.
      */
-    @Transactional(readOnly = true)
     public Set<String> entitledScopes(String userId) {
         Set<String> scopes = new LinkedHashSet<>();
         scopes.add("read:market_data"); // every signed-in user, including free
-        var sub = findCurrentForUser(userId).orElse(null);
-        if (sub == null) return scopes;
-        boolean active = "active".equalsIgnoreCase(sub.getStatus())
-                || ("canceled".equalsIgnoreCase(sub.getStatus()) && sub.getCurrentPeriodEnd() != null
-                    && sub.getCurrentPeriodEnd().isAfter(OffsetDateTime.now()));
-        if (!active) return scopes;
-        String plan = sub.getPlanSlug() == null ? "free" : sub.getPlanSlug().toLowerCase();
+        String plan = effectivePlanSlug(userId);
         if (plan.equals("flipper") || plan.equals("elite")) scopes.add("use:bazaar-flipping");
         if (plan.equals("elite")) scopes.add("use:bazaar-manipulation");
         return scopes;
     }
 
+    /**
+     * The plan slug the user currently gets the benefits of (lowercase): their
+     * plan while active or cancelled-but-paid-through, otherwise {@code free}.
+     * Served from {@link EntitlementCache}; a hit costs no transaction or query.
+     */
+    public String effectivePlanSlug(String userId) {
+        return entitlements.get(userId, this::loadEntitlement).planSlug();
+    }
+
+    private EntitlementCache.Entitlement loadEntitlement(String userId) {
+        var sub = findCurrentForUser(userId).orElse(null);
+        if (sub == null) return new EntitlementCache.Entitlement("free", null);
+        String plan = sub.getPlanSlug() == null ? "free" : sub.getPlanSlug().toLowerCase();
+        if ("active".equalsIgnoreCase(sub.getStatus())) return new EntitlementCache.Entitlement(plan, null);
+        if ("canceled".equalsIgnoreCase(sub.getStatus()) && sub.getCurrentPeriodEnd() != null
+                && sub.getCurrentPeriodEnd().isAfter(OffsetDateTime.now())) {
+            return new EntitlementCache.Entitlement(plan, sub.getCurrentPeriodEnd()); // lapses at period end
+        }
+        return new EntitlementCache.Entitlement("free", null);
+    }
+
     /**
      * Admin churn view: cancellation feedback, newest first, paginated. One row per
      * cancellation request (the "why they left" captured in {@link #requestCancellation}).
@@ -82,6 +104,47 @@ public class SubscriptionService {
                 c.getId(), c.getUserId(), c.getPlanSlug(), c.getReason(), c.getComment(), c.getCreatedAt())));
     }
 
+    /**
+     * Cursor variant of {@link #listCancellations}: keyset on (createdAt, id),
+     * newest first. {@code after} blank = first page.
+     */
+    @Transactional(readOnly = true)
+    public PagedResponseDTO<AdminCancellationDTO> listCancellationsAfter(int limit, String after) {
+        if (limit <= 0) limit = 50;
+        ScrollPosition position = ScrollPosition.keyset();
+        boolean first = CursorCodec.isFirstPage(after);
+        if (!first) {
+            String[] k = CursorCodec.decode(after, 2);
+            try {
+                position = ScrollPosition.forward(Map.of(
+                        "createdAt", OffsetDateTime.parse(k[0]), "id", Long.parseLong(k[1])));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+        Window<SubscriptionCancellation> w = cancellationRepository.findAllBy(position,
+                Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id")),
+                Limit.of(limit));
+
+        String next = null;
+        if (w.hasNext() && !w.isEmpty()) {
+            SubscriptionCancellation last = w.getContent().get(w.size() - 1);
+            next = CursorCodec.encode(last.getCreatedAt().toString(), last.getId().toString());
+        }
+        return PagedResponseDTO.ofCursor(w.getContent().stream()
+                        .map(c -> new AdminCancellationDTO(c.getId(), c.getUserId(), c.getPlanSlug(),
+                                c.getReason(), c.getComment(), c.getCreatedAt()))
+                        .toList(),
+                limit, next, !first, null);
+    }
+
+    /** Total cancellations for cursor mode ({@code withTotal=true}); short-lived cache. */
+    @Cacheable(value = "pageTotals", key = "'cancellations'")
+    @Transactional(readOnly = true)
+    public long countCancellations() {
+        return cancellationRepository.count();
+    }
+
     public boolean isEntitled(String userId, String scope) {
         return entitledScopes(userId).contains(scope);
     }
@@ -89,23 +152,12 @@ public class SubscriptionService {
     /**
      * Stamps the user's latest subscription with "seen now". Called from the
      * dashboard's session-bootstrap endpoints, so it fires roughly once per
-     * visit; throttled to one write per 10 minutes to keep it cheap. Drives
-     * the affiliate cockpit's "uses the site regularly" signal.
+     * visit; queued in {@link WriteBehindBuffer} (coalesced per user, batched,
+     * at most one write per 10 minutes) so the request never waits on it.
+     * Drives the affiliate cockpit's "uses the site regularly" signal.
      */
-    @Transactional
     public void touchLastSeen(String userId) {
-        try {
-            userSubscriptionRepository.findFirstByUserIdOrderByIdDesc(userId).ifPresent(sub -> {
-                OffsetDateTime now = OffsetDateTime.now();
-                if (sub.getLastSeenAt() == null || sub.getLastSeenAt().isBefore(now.minusMinutes(10))) {
-                    sub.setLastSeenAt(now);
-                    userSubscriptionRepository.save(sub);
-                }
-            });
-        } catch (Exception e) {
-            // Usage tracking must never break the request that carried it.
-            log.debug("touchLastSeen failed for user {}: {}", userId, e.getMessage());
-        }
+        writeBehind.touchLastSeen(userId);
     }
 
     @Transactional
@@ -147,6 +199,7 @@ public class SubscriptionService {
                     .currentPeriodEnd(null)
                     .build();
             sub = userSubscriptionRepository.save(sub);
+            entitlements.invalidate(userId);
             log.info("✅ Automatically created FREE plan subscription for new user: {}", userId);
             return sub;
         } catch (Exception e) {
@@ -219,6 +272,7 @@ public class SubscriptionService {
         sub.setStatus(status == null ? "active" : status);
         sub.setCurrentPeriodEnd(periodEndEpoch == null ? null : OffsetDateTime.ofInstant(Instant.ofEpochSecond(periodEndEpoch), ZoneOffset.UTC));
         userSubscriptionRepository.save(sub);
+        entitlements.invalidate(userId);
 
         // Safety net against double billing: the user checked out again (a NEW subscription)
         // instead of changing plans, while a DIFFERENT subscription was still active. The
@@ -277,6 +331,7 @@ public class SubscriptionService {
         if (cancelled) {
             sub.setStatus("canceled");
             userSubscriptionRepository.save(sub);
+            entitlements.invalidate(userId);
             log.info("User {} cancelled subscription with payment provider. Access until {}", userId, sub.getCurrentPeriodEnd());
         } else {
             log.info("Cancellation feedback recorded for user {} (provider not called: not configured or no subscription id)", userId);
@@ -301,6 +356,7 @@ public class SubscriptionService {
         if (isCancelled && stillWithinPeriod && setProviderCancelled(sub.getStripeSubscriptionId(), false)) {
             sub.setStatus("active");
             userSubscriptionRepository.save(sub);
+            entitlements.invalidate(userId);
             log.info("User {} resumed subscription; active again until {}", userId, sub.getCurrentPeriodEnd());
         } else {
             log.info("Resume requested by user {} but not applied (status={}, withinPeriod={})",
@@ -0,0 +1,177 @@
+package com.modernbazaar.core.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.modernbazaar.core.repository.PlanRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Per-subject token buckets sized by plan tier.
+ *
+ * Replaces the single global {@code bazaarEndpoint} Resilience4j bucket, where one
+ * scraper could burn the shared 200/min and hand paying users 429s. Each subject
+ * (JWT {@code sub}, or client IP when anonymous) gets its own bucket; buckets live
+ * in a size-bounded Caffeine map that forgets idle subjects, and each bucket is a
+ * lock-free CAS on an immutable (tokens, timestamp) pair — no lock is shared
+ * between subjects, and a subject's own requests never block each other.
+ *
+ * Refill rate and burst come from the tier: {@code limits.requestsPerMinute} in the
+ * plan's {@code features_json} when present, otherwise the configured default for
+ * that slug. Requests spend {@code cost} tokens, so expensive endpoints drain faster.
+ */
+@Service
+@Slf4j
+public class TieredRateLimiter {
+
+    public static final String ANONYMOUS = "anonymous";
+
+    private final SubscriptionService subscriptions;
+    private final PlanRepository plans;
+    private final ObjectMapper mapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Integer> defaultPerMinute;
+
+    private final Cache<String, TokenBucket> buckets;
+    private final Cache<String, Integer> perMinuteByTier;
+
+    private final Map<String, Counter> allowedByTier = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejectedByTier = new ConcurrentHashMap<>();
+
+    /** Outcome of one acquire; {@code retryAfterSeconds} is 0 when allowed. */
+    public record Decision(boolean allowed, String tier, int limitPerMinute, long remaining, long retryAfterSeconds) {}
+
+    public TieredRateLimiter(
+            SubscriptionService subscriptions,
+            PlanRepository plans,
+            ObjectMapper mapper,
+            MeterRegistry meterRegistry,
+            @Value("${skyblock.ratelimit.anonymous-per-minute:60}") int anonymousPerMinute,
+            @Value("${skyblock.ratelimit.free-per-minute:120}") int freePerMinute,
+            @Value("${skyblock.ratelimit.flipper-per-minute:300}") int flipperPerMinute,
+            @Value("${skyblock.ratelimit.elite-per-minute:600}") int elitePerMinute,
+            @Value("${skyblock.ratelimit.max-subjects:100000}") long maxSubjects,
+            @Value("${skyblock.ratelimit.idle-minutes:10}") long idleMinutes
+    ) {
+        this.subscriptions = subscriptions;
+        this.plans = plans;
+        this.mapper = mapper;
+        this.meterRegistry = meterRegistry;
+        this.defaultPerMinute = Map.of(
+                ANONYMOUS, anonymousPerMinute,
+                "free", freePerMinute,
+                "flipper", flipperPerMinute,
+                "elite", elitePerMinute);
+
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxSubjects)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes)) // an idle bucket is full anyway
+                .build();
+        this.perMinuteByTier = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(5))
+                .build();
+
+        Gauge.builder("modernbazaar.ratelimit.subjects", buckets, Cache::estimatedSize)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Spends {@code cost} tokens from the subject's bucket.
+     *
+     * @param userId JWT subject, or null for anonymous callers
+     * @param ip     client address, used as the key when {@code userId} is null
+     */
+    public Decision tryAcquire(String userId, String ip, int cost) {
+        String tier = userId == null ? ANONYMOUS : tierOf(userId);
+        String key = userId == null ? "ip:" + ip : "u:" + userId;
+        int perMinute = perMinuteOf(tier);
+
+        double capacity = perMinute;                         // burst = one minute of budget
+        double perNano = perMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        double left = buckets.get(key, k -> new TokenBucket(capacity))
+                .tryConsume(cost, capacity, perNano, System.nanoTime());
+
+        if (left >= 0) {
+            counter(allowedByTier, "modernbazaar.ratelimit.allowed", tier).increment();
+            return new Decision(true, tier, perMinute, (long) left, 0);
+        }
+        counter(rejectedByTier, "modernbazaar.ratelimit.rejections", tier).increment();
+        long retry = (long) Math.ceil(-left / perNano / TimeUnit.SECONDS.toNanos(1));
+        return new Decision(false, tier, perMinute, 0, Math.max(1, retry));
+    }
+
+    /** Plan slug via the entitlement cache, so plan changes apply on the next request. */
+    private String tierOf(String userId) {
+        try {
+            return subscriptions.effectivePlanSlug(userId);
+        } catch (Exception e) {
+            log.debug("Rate limit tier lookup failed for {}: {}", userId, e.getMessage());
+            return "free"; // a DB hiccup shouldn't turn into 429s or 500s
+        }
+    }
+
+    private int perMinuteOf(String tier) {
+        return perMinuteByTier.get(tier, t -> {
+            int fallback = defaultPerMinute.getOrDefault(t, defaultPerMinute.get("free"));
+            if (ANONYMOUS.equals(t)) return fallback;
+            try {
+                return plans.findBySlug(t)
+                        .map(p -> readPerMinute(p.getFeaturesJson()))
+                        .filter(v -> v > 0)
+                        .orElse(fallback);
+            } catch (Exception e) {
+                return fallback;
+            }
+        });
+    }
+
+    private int readPerMinute(String featuresJson) {
+        if (featuresJson == null || featuresJson.isBlank()) return -1;
+        try {
+            JsonNode v = mapper.readTree(featuresJson).path("limits").path("requestsPerMinute");
+            return v.canConvertToInt() ? v.asInt() : -1;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private Counter counter(Map<String, Counter> byTier, String name, String tier) {
+        return byTier.computeIfAbsent(tier, t -> meterRegistry.counter(name, "tier", t));
+    }
+
+    /** Lock-free token bucket; the limits are passed per call so a tier change applies immediately. */
+    static final class TokenBucket {
+
+        private record State(double tokens, long stampNanos) {}
+
+        private final AtomicReference<State> state;
+
+        TokenBucket(double initialTokens) {
+            this.state = new AtomicReference<>(new State(initialTokens, System.nanoTime()));
+        }
+
+        /** Returns the tokens left after spending {@code cost}, or the (negative) shortfall if denied. */
+        double tryConsume(int cost, double capacity, double perNano, long now) {
+            while (true) {
+                State s = state.get();
+                long elapsed = Math.max(0, now - s.stampNanos());
+                double available = Math.min(capacity, s.tokens() + elapsed * perNano);
+                if (available < cost) return available - cost;
+                State next = new State(available - cost, Math.max(now, s.stampNanos()));
+                if (state.compareAndSet(s, next)) return next.tokens();
+            }
+        }
+    }
+}
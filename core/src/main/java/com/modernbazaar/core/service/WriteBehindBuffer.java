@@ -0,0 +1,200 @@
+package com.modernbazaar.core.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for low-value, high-frequency writes: "last seen" stamps and
+ * referral link clicks. Requests only drop an entry into a bounded in-memory map
+ * and return; a scheduled flush turns everything pending into a couple of
+ * multi-row statements.
+ *
+ * Entries coalesce while they wait — one last-seen per user (newest wins), one
+ * click per (code, visitor), which is what the unique index keeps anyway. When a
+ * map is at capacity new keys are dropped and counted rather than blocking the
+ * request. Everything pending is flushed on shutdown; a crash loses at most one
+ * flush interval of best-effort analytics.
+ */
+@Service
+@Slf4j
+public class WriteBehindBuffer {
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+    private static final int ROWS_PER_STATEMENT = 500;
+
+    private final JdbcTemplate jdbc;
+    private final int capacity;
+
+    private final Map<String, Instant> lastSeen = new ConcurrentHashMap<>();
+    private final Map<ClickKey, Instant> clicks = new ConcurrentHashMap<>();
+    private final AtomicInteger lastSeenPending = new AtomicInteger();
+    private final AtomicInteger clicksPending = new AtomicInteger();
+
+    private final MeterRegistry meterRegistry;
+    private final Timer flushTimer;
+    private final Counter flushFailures;
+
+    private record ClickKey(String code, String visitorKey) {}
+
+    public WriteBehindBuffer(
+            JdbcTemplate jdbc,
+            MeterRegistry meterRegistry,
+            @Value("${skyblock.write-behind.capacity:10000}") int capacity
+    ) {
+        this.jdbc = jdbc;
+        this.capacity = capacity;
+        this.meterRegistry = meterRegistry;
+
+        this.flushTimer = meterRegistry.timer("modernbazaar.writebehind.flush");
+        this.flushFailures = meterRegistry.counter("modernbazaar.writebehind.flush.failures");
+        meterRegistry.gauge("modernbazaar.writebehind.pending", Tags.of("kind", "last_seen"),
+                lastSeenPending, AtomicInteger::get);
+        meterRegistry.gauge("modernbazaar.writebehind.pending", Tags.of("kind", "click"),
+                clicksPending, AtomicInteger::get);
+    }
+
+    /* ───── ENQUEUE ───── */
+
+    /** Marks the user as seen now; coalesces with any stamp already waiting. */
+    public void touchLastSeen(String userId) {
+        if (userId == null || userId.isBlank()) return;
+        offer(lastSeen, lastSeenPending, userId, Instant.now(), "last_seen");
+    }
+
+    /** Queues a (normalized) referral click; unknown codes are filtered out at flush. */
+    public void recordClick(String code, String visitorKey) {
+        offer(clicks, clicksPending, new ClickKey(code, visitorKey), Instant.now(), "click");
+    }
+
+    private <K> void offer(Map<K, Instant> map, AtomicInteger pending, K key, Instant at, String kind) {
+        if (map.replace(key, at) != null) {                 // already waiting: coalesce
+            counter("modernbazaar.writebehind.coalesced", kind).increment();
+            return;
+        }
+        if (pending.incrementAndGet() > capacity) {         // full: shed, never block the request
+            pending.decrementAndGet();
+            counter("modernbazaar.writebehind.dropped", kind).increment();
+            return;
+        }
+        if (map.putIfAbsent(key, at) != null) pending.decrementAndGet(); // lost a race to the same key
+        counter("modernbazaar.writebehind.enqueued", kind).increment();
+    }
+
+    /* ───── FLUSH ───── */
+
+    @Scheduled(fixedDelayString = "${skyblock.write-behind.flush-seconds:5}", timeUnit = TimeUnit.SECONDS)
+    public void flush() {
+        LOCK.lock();
+        try {
+            flushTimer.record(() -> {
+                Map<String, Instant> seen = drain(lastSeen, lastSeenPending);
+                Map<ClickKey, Instant> clicked = drain(clicks, clicksPending);
+                if (!seen.isEmpty()) run("last_seen", seen.size(), () -> writeLastSeen(seen));
+                if (!clicked.isEmpty()) run("click", clicked.size(), () -> writeClicks(clicked));
+            });
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void onShutdown() {
+        flush();
+        log.info("Write-behind buffer flushed on shutdown");
+    }
+
+    private void run(String kind, int rows, Runnable write) {
+        try {
+            write.run();
+            counter("modernbazaar.writebehind.flushed", kind).increment(rows);
+        } catch (Exception e) {
+            // best-effort data: drop the batch instead of retrying into a sick DB
+            flushFailures.increment();
+            log.warn("Write-behind flush of {} {} rows failed: {}", rows, kind, e.getMessage());
+        }
+    }
+
+    /** Same rule as before: only the latest subscription row, at most one write per 10 minutes. */
+    private void writeLastSeen(Map<String, Instant> seen) {
+        for (List<Map.Entry<String, Instant>> chunk : chunks(new ArrayList<>(seen.entrySet()))) {
+            String values = String.join(",", Collections.nCopies(chunk.size(), "(?, cast(? as timestamptz))"));
+            List<Object> args = new ArrayList<>(chunk.size() * 2);
+            for (Map.Entry<String, Instant> e : chunk) {
+                args.add(e.getKey());
+                args.add(Timestamp.from(e.getValue()));
+            }
+            jdbc.update("""
+                update user_subscription us
+                   set last_seen_at = v.seen
+                  from (values %s) as v(user_id, seen)
+                 where us.id = (select max(id) from user_subscription where user_id = v.user_id)
+                   and (us.last_seen_at is null or us.last_seen_at < v.seen - interval '10 minutes')
+                """.formatted(values), args.toArray());
+        }
+    }
+
+    /** Inserts only clicks whose code exists; the unique (code, visitor) index dedupes the rest. */
+    private void writeClicks(Map<ClickKey, Instant> clicked) {
+        for (List<Map.Entry<ClickKey, Instant>> chunk : chunks(new ArrayList<>(clicked.entrySet()))) {
+            String values = String.join(",", Collections.nCopies(chunk.size(), "(?, ?, cast(? as timestamptz))"));
+            List<Object> args = new ArrayList<>(chunk.size() * 3);
+            for (Map.Entry<ClickKey, Instant> e : chunk) {
+                args.add(e.getKey().code());
+                args.add(e.getKey().visitorKey());
+                args.add(Timestamp.from(e.getValue()));
+            }
+            jdbc.update("""
+                insert into referral_click (code, visitor_key, clicked_at)
+                select v.code, v.visitor_key, v.clicked_at
+                  from (values %s) as v(code, visitor_key, clicked_at)
+                 where exists (select 1 from referral_code rc where upper(rc.code) = v.code)
+                on conflict (code, visitor_key) where visitor_key is not null do nothing
+                """.formatted(values), args.toArray());
+        }
+    }
+
+    private static <K> Map<K, Instant> drain(Map<K, Instant> map, AtomicInteger pending) {
+        Map<K, Instant> out = new HashMap<>();
+        for (K key : map.keySet()) {
+            Instant at = map.remove(key);
+            if (at != null) {
+                out.put(key, at);
+                pending.decrementAndGet();
+            }
+        }
+        return out;
+    }
+
+    private static <T> List<List<T>> chunks(List<T> rows) {
+        List<List<T>> out = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i += ROWS_PER_STATEMENT) {
+            out.add(rows.subList(i, Math.min(rows.size(), i + ROWS_PER_STATEMENT)));
+        }
+        return out;
+    }
+
+    private Counter counter(String name, String kind) {
+        return meterRegistry.counter(name, "kind", kind);
+    }
+}
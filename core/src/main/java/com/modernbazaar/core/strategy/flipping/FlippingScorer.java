@@ -2,10 +2,12 @@ package com.modernbazaar.core.strategy.flipping;
 
 import com.modernbazaar.core.api.dto.BazaarItemFilterDTO;
 import com.modernbazaar.core.api.dto.FlipOpportunityResponseDTO;
-import com.modernbazaar.core.domain.BazaarItem;
 import com.modernbazaar.core.domain.BazaarItemSnapshot;
-import com.modernbazaar.core.repository.BazaarItemRepository;
+import com.modernbazaar.core.diagnostics.StrategyScoringEvent;
 import com.modernbazaar.core.repository.BazaarProductSnapshotRepository;
+import com.modernbazaar.core.service.HeavyWorkExecutor;
+import com.modernbazaar.core.service.ItemSearchIndex;
+import com.modernbazaar.core.service.ProductNameDictionary;
 import com.modernbazaar.core.strategy.metrics.FinanceAverages;
 import com.modernbazaar.core.strategy.metrics.FinanceMetricsService;
 import com.modernbazaar.core.strategy.metrics.RiskToolkit;
@@ -75,8 +77,9 @@ public class FlippingScorer {
     private final RiskToolkit riskToolkit;
 
     private final BazaarProductSnapshotRepository snapRepo;
-    private final BazaarItemRepository itemRepo;
     private final FinanceMetricsService finance;
+    private final ItemSearchIndex searchIndex;
+    private final ProductNameDictionary productNames;
 
     // Liquidity shaping: penaliza mercados com throughput/h muito baixo (ex.: 1/h)
     private final double minThroughputFloor; // abaixo disso, peso ~0
@@ -85,16 +88,18 @@ public class FlippingScorer {
     @Autowired
     public FlippingScorer(RiskToolkit riskToolkit,
                           BazaarProductSnapshotRepository snapRepo,
-                          BazaarItemRepository itemRepo,
-                          FinanceMetricsService finance) {
-        this(riskToolkit, 0.005, 1.5, 5.0, 80.0, snapRepo, itemRepo, finance);
+                          FinanceMetricsService finance,
+                          ItemSearchIndex searchIndex,
+                          ProductNameDictionary productNames) {
+        this(riskToolkit, 0.005, 1.5, 5.0, 80.0, snapRepo, finance, searchIndex, productNames);
     }
 
     public FlippingScorer(RiskToolkit riskToolkit, double competitionCoeff, double riskPenaltyCoeff,
                           BazaarProductSnapshotRepository snapRepo,
-                          BazaarItemRepository itemRepo,
-                          FinanceMetricsService finance) {
-        this(riskToolkit, competitionCoeff, riskPenaltyCoeff, 5.0, 80.0, snapRepo, itemRepo, finance);
+                          FinanceMetricsService finance,
+                          ItemSearchIndex searchIndex,
+                          ProductNameDictionary productNames) {
+        this(riskToolkit, competitionCoeff, riskPenaltyCoeff, 5.0, 80.0, snapRepo, finance, searchIndex, productNames);
     }
 
     public FlippingScorer(RiskToolkit riskToolkit,
@@ -103,16 +108,18 @@ public class FlippingScorer {
                           double minThroughputFloor,
                           double goodThroughputRef,
                           BazaarProductSnapshotRepository snapRepo,
-                          BazaarItemRepository itemRepo,
-                          FinanceMetricsService finance) {
+                          FinanceMetricsService finance,
+                          ItemSearchIndex searchIndex,
+                          ProductNameDictionary productNames) {
         this.riskToolkit = riskToolkit;
         this.competitionCoeff = competitionCoeff <= 0 ? 0.005 : competitionCoeff;
         this.riskPenaltyCoeff = riskPenaltyCoeff <= 0 ? 1.5 : riskPenaltyCoeff;
         this.minThroughputFloor = Math.max(0.0, minThroughputFloor);
         this.goodThroughputRef = Math.max(this.minThroughputFloor + 1.0, goodThroughputRef);
         this.snapRepo = snapRepo;
-        this.itemRepo = itemRepo;
         this.finance = finance;
+        this.searchIndex = searchIndex;
+        this.productNames = productNames;
     }
 
     public record Inputs(
@@ -330,11 +337,37 @@ public class FlippingScorer {
                                                                      Double maxRiskScore,
                                                                      Boolean disableCompetitionPenalties,
                                                                      Boolean disableRiskPenalties) {
-        // 1) Snapshots mais recentes conforme filtro
+        StrategyScoringEvent jfr = StrategyScoringEvent.start("flipping");
+        try {
+            List<FlipOpportunityResponseDTO> out = scoreLatest(jfr, filter, budget, horizonHours, maxTime,
+                    minUnitsPerHour, maxUnitsPerHour, maxCompetitionPerHour, maxRiskScore,
+                    disableCompetitionPenalties, disableRiskPenalties);
+            jfr.finish(out.size());
+            return out;
+        } finally {
+            jfr.commit(); // empty and failed passes too, with success=false on a throw
+        }
+    }
+
+    private List<FlipOpportunityResponseDTO> scoreLatest(StrategyScoringEvent jfr,
+                                                         BazaarItemFilterDTO filter,
+                                                         Double budget,
+                                                         Double horizonHours,
+                                                         Double maxTime,
+                                                         Double minUnitsPerHour,
+                                                         Double maxUnitsPerHour,
+                                                         Double maxCompetitionPerHour,
+                                                         Double maxRiskScore,
+                                                         Boolean disableCompetitionPenalties,
+                                                         Boolean disableRiskPenalties) {
+        // 1) Snapshots mais recentes conforme filtro (texto resolvido pelo índice em memória)
+        ItemSearchIndex.Filter text = searchIndex.filter(filter.q());
+        if (text.none()) return List.of();
         List<BazaarItemSnapshot> snaps = snapRepo.searchLatest(
-                filter.q(), filter.minSell(), filter.maxSell(),
+                text.q(), text.restrict(), text.sqlIds(), filter.minSell(), filter.maxSell(),
                 filter.minBuy(), filter.maxBuy(), filter.minSpread());
         if (snaps == null || snaps.isEmpty()) return List.of();
+        jfr.candidates(snaps.size());
 
         // 2) Ids e nomes (ordenar ids para chave de cache estável em camadas superiores)
         List<String> ids = snaps.stream().map(BazaarItemSnapshot::getProductId).distinct().sorted().toList();
@@ -354,11 +387,10 @@ public class FlippingScorer {
         final double fMaxComp  = maxCompetitionPerHour != null ? maxCompetitionPerHour : Double.POSITIVE_INFINITY;
         final double fMaxRisk  = maxRiskScore != null ? maxRiskScore : Double.POSITIVE_INFINITY;
 
-        // 4) Score item a item com early-filter; usar parallel se nº itens grande
-        boolean useParallel = snaps.size() >= 128; // threshold heurístico
-        var stream = useParallel ? snaps.parallelStream() : snaps.stream();
-
-        List<FlipOpportunityResponseDTO> out = stream.map(s -> {
+        // 4) Score item a item com early-filter. Sequencial: corre numa thread do
+        //    HeavyWorkExecutor, nunca no ForkJoinPool comum (que é de toda a JVM)
+        List<FlipOpportunityResponseDTO> out = snaps.stream().map(s -> {
+            HeavyWorkExecutor.checkpoint();
             String id = s.getProductId();
             FinanceAverages a48 = avgs48.get(id);
             FinanceAverages a06 = avgs06.get(id);
@@ -442,13 +474,9 @@ public class FlippingScorer {
         return out;
     }
 
+    /** Names from the in-memory dictionary, never the catalog join. */
     private Map<String, String> preloadNames(Set<String> ids) {
-        return itemRepo.findAllByProductIdIn(ids).stream()
-                .filter(bi -> bi.getSkyblockItem() != null)
-                .collect(Collectors.toMap(
-                        BazaarItem::getProductId,
-                        bi -> bi.getSkyblockItem().getName()
-                ));
+        return productNames.namesOf(ids);
     }
 
     private static double nonNeg(Double v) { return (v != null && Double.isFinite(v) && v > 0) ? v : 0.0; }
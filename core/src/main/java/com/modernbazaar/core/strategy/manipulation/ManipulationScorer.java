@@ -2,17 +2,18 @@ package com.modernbazaar.core.strategy.manipulation;
 
 import com.modernbazaar.core.api.dto.BazaarItemFilterDTO;
 import com.modernbazaar.core.api.dto.ManipulationOpportunityResponseDTO;
-import com.modernbazaar.core.domain.BazaarItem;
 import com.modernbazaar.core.domain.BazaarItemSnapshot;
-import com.modernbazaar.core.repository.BazaarItemRepository;
+import com.modernbazaar.core.diagnostics.StrategyScoringEvent;
 import com.modernbazaar.core.repository.BazaarProductSnapshotRepository;
+import com.modernbazaar.core.service.HeavyWorkExecutor;
+import com.modernbazaar.core.service.ItemSearchIndex;
+import com.modernbazaar.core.service.ProductNameDictionary;
 import com.modernbazaar.core.repository.projection.SellSideAggregateRow;
 import com.modernbazaar.core.strategy.BazaarConstants;
 import com.modernbazaar.core.strategy.metrics.FinanceAverages;
 import com.modernbazaar.core.strategy.metrics.FinanceMetricsService;
 import com.modernbazaar.core.strategy.metrics.RiskToolkit;
 import com.modernbazaar.core.strategy.metrics.RiskToolkit.RiskAssessment;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -127,8 +128,9 @@ public class ManipulationScorer {
 
     private final RiskToolkit riskToolkit;
     private final BazaarProductSnapshotRepository snapRepo;
-    private final BazaarItemRepository itemRepo;
     private final FinanceMetricsService finance;
+    private final ItemSearchIndex searchIndex;
+    private final ProductNameDictionary productNames;
 
     private enum FormulaVersion {
         OVERCLOCKER,
@@ -147,15 +149,16 @@ public class ManipulationScorer {
         }
     }
 
-    @Autowired
     public ManipulationScorer(RiskToolkit riskToolkit,
                               BazaarProductSnapshotRepository snapRepo,
-                              BazaarItemRepository itemRepo,
-                              FinanceMetricsService finance) {
+                              FinanceMetricsService finance,
+                              ItemSearchIndex searchIndex,
+                              ProductNameDictionary productNames) {
         this.riskToolkit = riskToolkit;
         this.snapRepo = snapRepo;
-        this.itemRepo = itemRepo;
         this.finance = finance;
+        this.searchIndex = searchIndex;
+        this.productNames = productNames;
     }
 
     // ─────────────────────────────────────────────────────────────────────────
@@ -330,10 +333,35 @@ public class ManipulationScorer {
                                                          Long maxCornerSupply,
                                                          Double maxItemPrice,
                                                          String formulaVersion) {
+        StrategyScoringEvent jfr = StrategyScoringEvent.start("manipulation");
+        try {
+            List<ManipulationOpportunityResponseDTO> out = scoreLatest(jfr, filter, budget, roi, taxRate,
+                    sellWallFactor, minDemandSupplyRatio, minProfit, maxCornerSupply, maxItemPrice, formulaVersion);
+            jfr.finish(out.size());
+            return out;
+        } finally {
+            jfr.commit(); // empty and failed passes too, with success=false on a throw
+        }
+    }
+
+    private List<ManipulationOpportunityResponseDTO> scoreLatest(StrategyScoringEvent jfr,
+                                                                 BazaarItemFilterDTO filter,
+                                                                 Double budget,
+                                                                 Double roi,
+                                                                 Double taxRate,
+                                                                 Double sellWallFactor,
+                                                                 Double minDemandSupplyRatio,
+                                                                 Double minProfit,
+                                                                 Long maxCornerSupply,
+                                                                 Double maxItemPrice,
+                                                                 String formulaVersion) {
+        ItemSearchIndex.Filter text = searchIndex.filter(filter.q());
+        if (text.none()) return List.of();
         List<BazaarItemSnapshot> snaps = snapRepo.searchLatest(
-                filter.q(), filter.minSell(), filter.maxSell(),
+                text.q(), text.restrict(), text.sqlIds(), filter.minSell(), filter.maxSell(),
                 filter.minBuy(), filter.maxBuy(), filter.minSpread());
         if (snaps == null || snaps.isEmpty()) return List.of();
+        jfr.candidates(snaps.size());
 
         List<String> ids = snaps.stream().map(BazaarItemSnapshot::getProductId).distinct().sorted().toList();
         Map<String, String> names = preloadNames(new HashSet<>(ids));
@@ -363,6 +391,7 @@ public class ManipulationScorer {
 
         List<ManipulationOpportunityResponseDTO> out = new ArrayList<>(snaps.size());
         for (BazaarItemSnapshot s : snaps) {
+            HeavyWorkExecutor.checkpoint();
             String id = s.getProductId();
             if (isExcludedAlternativeSupply(id)) continue;
             if (Double.isFinite(fMaxItemPrice)
@@ -472,10 +501,9 @@ public class ManipulationScorer {
         return out;
     }
 
+    /** Names from the in-memory dictionary, never the catalog join. */
     private Map<String, String> preloadNames(Set<String> ids) {
-        return itemRepo.findAllByProductIdIn(ids).stream()
-                .filter(bi -> bi.getSkyblockItem() != null)
-                .collect(Collectors.toMap(BazaarItem::getProductId, bi -> bi.getSkyblockItem().getName()));
+        return productNames.namesOf(ids);
     }
 
     private static boolean isExcludedAlternativeSupply(String productId) {
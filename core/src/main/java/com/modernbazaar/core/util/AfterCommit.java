@@ -0,0 +1,27 @@
+package com.modernbazaar.core.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers side effects (generation bumps, index rebuilds, stream fan-out) until the
+ * surrounding transaction commits, so nothing derived from the DB can observe
+ * state that might still roll back. Outside a transaction the action runs inline.
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {}
+
+    public static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
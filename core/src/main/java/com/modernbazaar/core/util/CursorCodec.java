@@ -0,0 +1,50 @@
+package com.modernbazaar.core.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque {@code after=} tokens for keyset pagination. A token is just the last
+ * row's sort key parts, versioned and base64url-encoded so clients treat it as
+ * a blob and we can change the layout later. Anything that doesn't decode to
+ * the expected shape is a 400 (IllegalArgumentException), never a 500.
+ */
+public final class CursorCodec {
+
+    private static final String VERSION = "v1";
+    private static final char SEP = '\u001F'; // unit separator: can't appear in ids/names we page on
+
+    private CursorCodec() {}
+
+    public static String encode(String... parts) {
+        StringBuilder sb = new StringBuilder(VERSION);
+        for (String p : parts) {
+            if (p.indexOf(SEP) >= 0) throw new IllegalArgumentException("Cursor part contains separator");
+            sb.append(SEP).append(p);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Decodes a token into exactly {@code expectedParts} parts. */
+    public static String[] decode(String token, int expectedParts) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String[] split = raw.split(String.valueOf(SEP), -1);
+        if (split.length != expectedParts + 1 || !VERSION.equals(split[0])) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String[] parts = new String[expectedParts];
+        System.arraycopy(split, 1, parts, 0, expectedParts);
+        return parts;
+    }
+
+    /** True when the request asked for cursor mode but this is the first page ({@code ?after=}). */
+    public static boolean isFirstPage(String after) {
+        return after != null && after.isBlank();
+    }
+}
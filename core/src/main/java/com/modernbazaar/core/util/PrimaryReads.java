@@ -0,0 +1,38 @@
+package com.modernbazaar.core.util;
+
+import java.util.function.Supplier;
+
+/**
+ * Pins read-only work on the current thread to the primary database, for reads that
+ * must see a write that just committed (possibly on another node) and so can't risk a
+ * replica that is still replaying it. Without a read replica configured this is a no-op.
+ */
+public final class PrimaryReads {
+
+    private static final ThreadLocal<Integer> DEPTH = ThreadLocal.withInitial(() -> 0);
+
+    private PrimaryReads() {}
+
+    public static <T> T call(Supplier<T> action) {
+        DEPTH.set(DEPTH.get() + 1);
+        try {
+            return action.get();
+        } finally {
+            int depth = DEPTH.get() - 1;
+            if (depth == 0) DEPTH.remove();
+            else DEPTH.set(depth);
+        }
+    }
+
+    public static void run(Runnable action) {
+        call(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /** Whether the current thread is inside {@link #call}/{@link #run}. */
+    public static boolean active() {
+        return DEPTH.get() > 0;
+    }
+}
@@ -0,0 +1,27 @@
+-- Stripe webhook inbox: the webhook only verifies and stores the event, a worker
+-- applies it later. Events of one customer are applied in Stripe order
+-- (order_key + stripe_created), failures back off via next_attempt_at.
+ALTER TABLE stripe_webhook_event ADD COLUMN IF NOT EXISTS payload         text;
+ALTER TABLE stripe_webhook_event ADD COLUMN IF NOT EXISTS order_key       varchar(255);
+ALTER TABLE stripe_webhook_event ADD COLUMN IF NOT EXISTS stripe_created  bigint;
+ALTER TABLE stripe_webhook_event ADD COLUMN IF NOT EXISTS next_attempt_at timestamptz;
+ALTER TABLE stripe_webhook_event ADD COLUMN IF NOT EXISTS locked_until    timestamptz;
+
+ALTER TABLE stripe_webhook_event ALTER COLUMN attempt_count SET DEFAULT 0;
+
+ALTER TABLE stripe_webhook_event DROP CONSTRAINT IF EXISTS ck_stripe_webhook_event_status;
+ALTER TABLE stripe_webhook_event
+    ADD CONSTRAINT ck_stripe_webhook_event_status
+        CHECK (status IN ('pending', 'processing', 'processed', 'failed', 'dead'));
+
+-- Rows from the synchronous handler carry no payload and cannot be replayed here.
+-- A Stripe redelivery of one of them re-queues it (see StripeWebhookEventService#enqueue).
+UPDATE stripe_webhook_event SET status = 'dead' WHERE status <> 'processed' AND payload IS NULL;
+
+UPDATE stripe_webhook_event SET order_key = event_id WHERE order_key IS NULL;
+UPDATE stripe_webhook_event SET stripe_created = extract(epoch FROM received_at)::bigint WHERE stripe_created IS NULL;
+
+-- Only unfinished events are ever scanned by the worker.
+CREATE INDEX IF NOT EXISTS idx_stripe_webhook_event_open
+    ON stripe_webhook_event (order_key, stripe_created, received_at)
+    WHERE status IN ('pending', 'processing', 'failed');
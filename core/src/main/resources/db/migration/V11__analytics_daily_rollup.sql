@@ -0,0 +1,21 @@
+-- Daily rollup behind the admin analytics summary (AdminAnalyticsRollupService).
+-- Flow metrics ('signups', 'cancellations') get one row per day; state metrics
+-- ('users_total', 'active_total', 'plan', 'status') are snapshotted for the day of
+-- each refresh, so past days double as a history of the subscriber base.
+CREATE TABLE IF NOT EXISTS analytics_daily_rollup (
+    day         date         NOT NULL,
+    metric      varchar(40)  NOT NULL,
+    label       varchar(100) NOT NULL DEFAULT '',
+    cnt         bigint       NOT NULL,
+    computed_at timestamptz  NOT NULL DEFAULT now(),
+    PRIMARY KEY (day, metric, label)
+);
+CREATE INDEX IF NOT EXISTS idx_analytics_daily_rollup_metric_day
+    ON analytics_daily_rollup (metric, day);
+
+-- Range scans for the incremental refresh and the live "today" delta.
+CREATE INDEX IF NOT EXISTS idx_user_subscription_created_at
+    ON user_subscription (created_at);
+CREATE INDEX IF NOT EXISTS idx_user_subscription_canceled_updated
+    ON user_subscription (updated_at)
+    WHERE status = 'canceled';
@@ -0,0 +1,3 @@
+-- Per-item hash of the raw Hypixel JSON, so the catalog refresh only rewrites
+-- items that changed. Existing rows start NULL and are rewritten once.
+ALTER TABLE skyblock_item ADD COLUMN IF NOT EXISTS content_hash varchar(32);
@@ -0,0 +1,16 @@
+-- One row per scheduled job: which node may run it, until when, and a fencing
+-- token that grows on every change of owner (JobLeaseService). Writes done under
+-- a lease re-check owner + token in their own transaction, so a node that lost the
+-- lease mid-run (GC pause, network split) cannot commit over the new owner.
+-- completed_at is stamped in the same transaction as the job's writes; read-only
+-- nodes watch it to learn that a poll landed.
+CREATE TABLE IF NOT EXISTS job_lease (
+    job_name      varchar(64)  PRIMARY KEY,
+    owner         varchar(128) NOT NULL,
+    fencing_token bigint       NOT NULL,
+    acquired_at   timestamptz  NOT NULL DEFAULT now(),
+    renewed_at    timestamptz  NOT NULL DEFAULT now(),
+    expires_at    timestamptz  NOT NULL,
+    completed_at  timestamptz,
+    completed_by  varchar(128)
+);
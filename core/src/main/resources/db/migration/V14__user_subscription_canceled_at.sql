@@ -0,0 +1,14 @@
+-- When a subscription became canceled, stamped once on the transition (UserSubscription).
+-- The cancellations rollup buckets on it instead of updated_at, which every later write
+-- (period-end webhook, admin extension, replay) moves to another day.
+ALTER TABLE user_subscription ADD COLUMN IF NOT EXISTS canceled_at timestamptz;
+UPDATE user_subscription SET canceled_at = updated_at
+ WHERE status = 'canceled' AND canceled_at IS NULL;
+
+DROP INDEX IF EXISTS idx_user_subscription_canceled_updated;
+CREATE INDEX IF NOT EXISTS idx_user_subscription_canceled_at
+    ON user_subscription (canceled_at)
+    WHERE canceled_at IS NOT NULL;
+
+-- Stored days were counted on updated_at; the next refresh rebuilds them from canceled_at.
+DELETE FROM analytics_daily_rollup WHERE metric = 'cancellations';
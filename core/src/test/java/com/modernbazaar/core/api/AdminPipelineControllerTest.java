@@ -0,0 +1,48 @@
+package com.modernbazaar.core.api;
+
+import com.modernbazaar.core.api.dto.PipelineStatusDTO;
+import com.modernbazaar.core.service.PipelineTelemetry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdminPipelineControllerTest {
+
+    @InjectMocks
+    private AdminPipelineController controller;
+
+    @Mock
+    private PipelineTelemetry telemetry;
+
+    @Test
+    void status_returnsStageTimingsAndLags() throws Exception {
+        Instant now = Instant.parse("2025-07-26T10:00:00Z");
+        when(telemetry.status()).thenReturn(new PipelineStatusDTO(now, now,
+                List.of(new PipelineStatusDTO.Stage("fetch", 3, 120.0, 110.0, 180.0, 190.0, now),
+                        new PipelineStatusDTO.Stage("finance", 0, null, null, null, 0.0, null)),
+                List.of(new PipelineStatusDTO.Lag("hypixel", now, 42.0),
+                        new PipelineStatusDTO.Lag("finance", null, null))));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        mockMvc.perform(get("/api/admin/pipeline"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stages[0].name").value("fetch"))
+                .andExpect(jsonPath("$.stages[0].runs").value(3))
+                .andExpect(jsonPath("$.stages[0].p99Ms").value(180.0))
+                .andExpect(jsonPath("$.lags[0].source").value("hypixel"))
+                .andExpect(jsonPath("$.lags[0].ageSeconds").value(42.0))
+                .andExpect(jsonPath("$.lags[1].ageSeconds").isEmpty());
+    }
+}
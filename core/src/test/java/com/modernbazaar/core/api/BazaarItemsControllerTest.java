@@ -8,16 +8,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -68,4 +73,28 @@ class BazaarItemsControllerTest {
                         .value("Name1"))
                 .andExpect(jsonPath("$.totalItems").value(1));
     }
+
+    @Test
+    void listEndpoint_skips_hour_load_when_fields_need_no_hour_data() throws Exception {
+        when(service.getLatestPaginated(any(), eq(Optional.empty()), eq(0), eq(50), eq(false)))
+                .thenReturn(PagedResponseDTO.of(List.of(), 0, 50));
+
+        mockMvc.perform(get("/api/bazaar/items")
+                        .param("withHour", "true")
+                        .param("fields", "instantBuyPrice,instantSellPrice"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalItems").value(0));
+    }
+
+    @Test
+    void batchEndpoints_rejectMoreThan50Ids_beforeTheService() throws Exception {
+        String ids = IntStream.range(0, 51).mapToObj(i -> "\"ID" + i + "\"")
+                .collect(Collectors.joining(",", "{\"productIds\":[", "]}"));
+
+        for (String path : List.of("/api/bazaar/items/batch", "/api/bazaar/items/history/batch")) {
+            mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(ids))
+                    .andExpect(status().isBadRequest());
+        }
+        verifyNoInteractions(service);
+    }
 }
@@ -0,0 +1,133 @@
+package com.modernbazaar.core.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.modernbazaar.core.api.dto.BazaarItemHourSummaryResponseDTO;
+import com.modernbazaar.core.api.dto.BazaarItemLiveViewResponseDTO;
+import com.modernbazaar.core.api.dto.BazaarItemSnapshotResponseDTO;
+import com.modernbazaar.core.api.dto.FlipOpportunityResponseDTO;
+import com.modernbazaar.core.api.dto.ManipulationOpportunityResponseDTO;
+import com.modernbazaar.core.api.dto.PagedResponseDTO;
+import com.modernbazaar.core.config.JacksonConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.lang.reflect.RecordComponent;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link SparseFields} parsing, and what {@code ?fields=} does to the wide DTOs when
+ * written through the application's mapper ({@link JacksonConfig} mix-ins), the way the
+ * message converter writes a {@link MappingJacksonValue}.
+ */
+class SparseFieldsTest {
+
+    private final JsonMapper mapper = new JacksonConfig().objectMapper();
+
+    /** A record with every component set (strings to their own name), so nothing is dropped as null. */
+    private static <R extends Record> R sample(Class<R> type) throws Exception {
+        RecordComponent[] components = type.getRecordComponents();
+        Class<?>[] types = Arrays.stream(components).map(RecordComponent::getType).toArray(Class<?>[]::new);
+        Object[] args = Arrays.stream(components).map(SparseFieldsTest::sampleValue).toArray();
+        return type.getDeclaredConstructor(types).newInstance(args);
+    }
+
+    private static Object sampleValue(RecordComponent c) {
+        Class<?> t = c.getType();
+        if (t == String.class) return c.getName();
+        if (t == double.class || t == Double.class) return 1.5;
+        if (t == long.class || t == Long.class) return 2L;
+        if (t == int.class || t == Integer.class) return 3;
+        if (t == boolean.class || t == Boolean.class) return true;
+        if (t == Instant.class) return Instant.parse("2025-07-26T10:00:00Z");
+        if (t == List.class) return List.of();
+        throw new IllegalArgumentException("No sample for " + t);
+    }
+
+    private static List<String> componentNames(Class<? extends Record> type) {
+        return Arrays.stream(type.getRecordComponents()).map(RecordComponent::getName).toList();
+    }
+
+    private JsonNode write(Object body, Set<String> fields) throws Exception {
+        MappingJacksonValue value = SparseFields.wrap(body, fields);
+        ObjectWriter writer = value.getFilters() != null ? mapper.writer(value.getFilters()) : mapper.writer();
+        return mapper.readTree(writer.writeValueAsString(value.getValue()));
+    }
+
+    private static List<String> names(JsonNode node) {
+        List<String> out = new ArrayList<>();
+        node.fieldNames().forEachRemaining(out::add);
+        return out;
+    }
+
+    /* ───── parse / wantsHour ───── */
+
+    @Test
+    void parse_blankOrEmptyLists_meanEverything() {
+        assertThat(SparseFields.parse(null)).isNull();
+        assertThat(SparseFields.parse("")).isNull();
+        assertThat(SparseFields.parse("   ")).isNull();
+        assertThat(SparseFields.parse(",,")).isNull();
+        assertThat(SparseFields.parse(" , ,")).isNull();
+    }
+
+    @Test
+    void parse_trimsAndAlwaysKeepsProductId() {
+        assertThat(SparseFields.parse(" instantBuyPrice,,spread ,"))
+                .containsExactlyInAnyOrder("instantBuyPrice", "spread", "productId");
+    }
+
+    @Test
+    void wantsHour_onlyForHourOnlyFieldsOrNoSelection() {
+        assertThat(SparseFields.wantsHour(null)).isTrue();
+        assertThat(SparseFields.wantsHour(SparseFields.parse("instantBuyPrice,displayName"))).isFalse();
+        assertThat(SparseFields.wantsHour(SparseFields.parse("instantBuyPrice,closeInstantSellPrice"))).isTrue();
+    }
+
+    /* ───── serialization ───── */
+
+    @Test
+    void fields_trimEveryWideDto_andKeepProductId() throws Exception {
+        Set<String> fields = SparseFields.parse("displayName");
+        for (Class<? extends Record> type : List.of(BazaarItemSnapshotResponseDTO.class,
+                BazaarItemHourSummaryResponseDTO.class, FlipOpportunityResponseDTO.class,
+                ManipulationOpportunityResponseDTO.class)) {
+            assertThat(names(write(sample(type), fields))).as(type.getSimpleName())
+                    .containsExactlyInAnyOrder("productId", "displayName");
+        }
+    }
+
+    @Test
+    void fields_applyInsideWrappers_whichAlwaysSerialize() throws Exception {
+        BazaarItemLiveViewResponseDTO live = new BazaarItemLiveViewResponseDTO(
+                sample(BazaarItemSnapshotResponseDTO.class), sample(BazaarItemHourSummaryResponseDTO.class));
+
+        JsonNode page = write(PagedResponseDTO.of(List.of(live), 0, 50),
+                SparseFields.parse("instantBuyPrice,openInstantBuyPrice"));
+
+        assertThat(page.has("totalItems")).isTrue();
+        JsonNode item = page.get("items").get(0);
+        assertThat(names(item)).containsExactlyInAnyOrder("snapshot", "lastHourSummary");
+        assertThat(names(item.get("snapshot"))).containsExactlyInAnyOrder("productId", "instantBuyPrice");
+        assertThat(names(item.get("lastHourSummary"))).containsExactlyInAnyOrder("productId", "openInstantBuyPrice");
+    }
+
+    @Test
+    void withoutFields_everyPropertyIsWritten() throws Exception {
+        for (Class<? extends Record> type : List.of(BazaarItemSnapshotResponseDTO.class,
+                BazaarItemHourSummaryResponseDTO.class, FlipOpportunityResponseDTO.class,
+                ManipulationOpportunityResponseDTO.class)) {
+            assertThat(names(write(sample(type), null))).as(type.getSimpleName())
+                    .containsExactlyInAnyOrderElementsOf(componentNames(type));
+            assertThat(names(mapper.readTree(mapper.writeValueAsString(sample(type))))).as("plain " + type.getSimpleName())
+                    .containsExactlyInAnyOrderElementsOf(componentNames(type));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.modernbazaar.core.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link ConnectionLimitingDataSource}: permits sized to the wrapped pool
+ * and metered per pool, returned on close, and a fast failure once they run out.
+ */
+class ConnectionLimitingDataSourceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<DataSource> limited = new ArrayList<>(); // gauges hold their semaphore weakly
+
+    private double available(String pool) {
+        return registry.get("modernbazaar.db.permits.available").tag("pool", pool).gauge().value();
+    }
+
+    @Test
+    void forPool_sizesPermitsToEachPool() {
+        try (HikariDataSource primary = new HikariDataSource(); HikariDataSource replica = new HikariDataSource()) {
+            primary.setMaximumPoolSize(15);
+            replica.setMaximumPoolSize(10);
+
+            limited.add(ConnectionLimitingDataSource.forPool(primary, "primary", 100, registry));
+            limited.add(ConnectionLimitingDataSource.forPool(replica, "replica", 100, registry));
+
+            assertThat(available("primary")).isEqualTo(15);
+            assertThat(available("replica")).isEqualTo(10);
+        }
+    }
+
+    @Test
+    void exhaustedPermits_failFast_untilAConnectionIsClosed() throws Exception {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(inv -> mock(Connection.class));
+        ConnectionLimitingDataSource limited = new ConnectionLimitingDataSource(target, "primary", 1, 10, registry);
+
+        Connection held = limited.getConnection();
+        assertThatThrownBy(limited::getConnection)
+                .isInstanceOf(ConnectionLimitingDataSource.PermitTimeoutException.class);
+        assertThat(registry.get("modernbazaar.db.permits.rejected").tag("pool", "primary").counter().count())
+                .isEqualTo(1);
+
+        held.close();
+        held.close(); // a second close must not hand out a second permit
+        assertThat(available("primary")).isEqualTo(1);
+        limited.getConnection();
+        assertThat(available("primary")).isZero();
+    }
+}
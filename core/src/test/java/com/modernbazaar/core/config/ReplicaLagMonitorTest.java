@@ -0,0 +1,110 @@
+package com.modernbazaar.core.config;
+
+import com.modernbazaar.core.service.ClusterEventBus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link ReplicaLagMonitor}: the lag verdict from a probe, falling back
+ * while the replica is down, and the write fence holding reads on the primary until the
+ * replica has replayed past it.
+ */
+class ReplicaLagMonitorTest {
+
+    private static final String CURRENT_LSN = "select pg_current_wal_lsn()::text";
+
+    private final JdbcTemplate primary = mock(JdbcTemplate.class);
+    private final JdbcTemplate replica = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ReplicaLagMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        monitor = new ReplicaLagMonitor(primary, replica, 5, registry);
+        when(primary.queryForObject(CURRENT_LSN, String.class)).thenReturn("0/100");
+    }
+
+    private void replicaAt(long bytesBehind, double ageSeconds) {
+        when(replica.queryForMap(anyString(), eq("0/100")))
+                .thenReturn(Map.of("standby", true, "behind", bytesBehind, "age", ageSeconds));
+    }
+
+    private void replicaReplayedPast(String lsn, boolean replayed) {
+        when(replica.queryForObject(anyString(), eq(Boolean.class), eq(lsn))).thenReturn(replayed);
+    }
+
+    @Test
+    void startsOnThePrimary_untilAProbePasses() {
+        assertThat(monitor.replicaUsable()).isFalse();
+
+        replicaAt(0, 120); // idle primary: old last transaction, but nothing to replay
+        monitor.probe();
+
+        assertThat(monitor.replicaUsable()).isTrue();
+        assertThat(monitor.lagSeconds()).isZero();
+    }
+
+    @Test
+    void replicaBehindMoreThanTheMaximum_isBypassed() {
+        replicaAt(4096, 12);
+        monitor.probe();
+
+        assertThat(monitor.replicaUsable()).isFalse();
+        assertThat(monitor.lagSeconds()).isEqualTo(12);
+        assertThat(registry.get("modernbazaar.db.replica.usable").gauge().value()).isZero();
+    }
+
+    @Test
+    void unreachableReplica_isBypassed() {
+        replicaAt(0, 0);
+        monitor.probe();
+        when(replica.queryForMap(anyString(), eq("0/100"))).thenThrow(new IllegalStateException("connection refused"));
+
+        monitor.probe();
+
+        assertThat(monitor.replicaUsable()).isFalse();
+        assertThat(monitor.lagSeconds()).isEqualTo(-1);
+    }
+
+    @Test
+    void fence_holdsReadsOnThePrimary_untilTheReplicaReplaysPastIt() {
+        replicaAt(0, 0);
+        monitor.probe();
+        when(primary.queryForObject(CURRENT_LSN, String.class)).thenReturn("0/200");
+
+        monitor.fence();
+        assertThat(monitor.replicaUsable()).isFalse();
+
+        when(replica.queryForMap(anyString(), eq("0/200")))
+                .thenReturn(Map.of("standby", true, "behind", 0L, "age", 0.0));
+        replicaReplayedPast("0/200", false);
+        monitor.probe();
+        assertThat(monitor.replicaUsable()).isFalse(); // under the lag limit, but not past the write yet
+
+        replicaReplayedPast("0/200", true);
+        monitor.probe();
+        assertThat(monitor.replicaUsable()).isTrue();
+    }
+
+    @Test
+    void onlyOtherNodesEvents_fenceHere() {
+        monitor.onClusterEvent(new ClusterEventBus.ClusterEvent(ClusterEventBus.POLL_COMPLETED, "3", "self", true));
+        monitor.onClusterEvent(new ClusterEventBus.ClusterEvent(ClusterEventBus.RESYNC, "", "self", true));
+        verify(primary, never()).queryForObject(CURRENT_LSN, String.class);
+
+        monitor.onClusterEvent(new ClusterEventBus.ClusterEvent(ClusterEventBus.POLL_COMPLETED, "3", "other", false));
+        verify(primary).queryForObject(CURRENT_LSN, String.class);
+    }
+}
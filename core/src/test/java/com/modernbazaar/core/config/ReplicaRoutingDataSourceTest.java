@@ -0,0 +1,106 @@
+package com.modernbazaar.core.config;
+
+import com.modernbazaar.core.util.PrimaryReads;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link ReplicaRoutingDataSource}: replica while usable, primary when it
+ * is lagging, down, refuses a connection or is saturated, and always under
+ * {@link PrimaryReads}.
+ */
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    @Mock private DataSource primary;
+    @Mock private DataSource replica;
+    @Mock private ReplicaLagMonitor lag;
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        routing = new ReplicaRoutingDataSource(primary, replica, lag, registry);
+    }
+
+    private double routed(String target) {
+        return registry.get("modernbazaar.db.readonly.routed").tag("target", target).counter().count();
+    }
+
+    @Test
+    void usableReplica_servesReads() throws Exception {
+        when(lag.replicaUsable()).thenReturn(true);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        assertThat(routing.getConnection()).isSameAs(replicaConnection);
+        assertThat(routed("replica")).isEqualTo(1);
+    }
+
+    @Test
+    void laggingOrDownReplica_readsThePrimary() throws Exception {
+        when(lag.replicaUsable()).thenReturn(false);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        verifyNoInteractions(replica);
+    }
+
+    @Test
+    void refusedReplicaConnection_marksItDown_andFallsBackToThePrimary() throws Exception {
+        when(lag.replicaUsable()).thenReturn(true);
+        when(replica.getConnection()).thenThrow(new SQLException("too many clients"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        verify(lag).markDown(anyString());
+        assertThat(registry.get("modernbazaar.db.replica.fallbacks").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void saturatedReplica_sendsTheCallerToThePrimary_withoutMarkingItDown() throws Exception {
+        when(lag.replicaUsable()).thenReturn(true);
+        when(replica.getConnection())
+                .thenThrow(new ConnectionLimitingDataSource.PermitTimeoutException("no permit"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        verify(lag, never()).markDown(anyString());
+        assertThat(routed("primary")).isEqualTo(1);
+    }
+
+    @Test
+    void primaryReads_forceThePrimary_evenWithAUsableReplica() throws Exception {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        Connection c = PrimaryReads.call(() -> {
+            try {
+                return routing.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThat(c).isSameAs(primaryConnection);
+        assertThat(PrimaryReads.active()).isFalse();
+        verifyNoInteractions(replica, lag);
+    }
+}
@@ -0,0 +1,155 @@
+package com.modernbazaar.core.config;
+
+import com.modernbazaar.core.service.CatalogGeneration;
+import com.modernbazaar.core.service.MarketGeneration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for {@link ResponseBytesCacheFilter}: the normalized key, generation bumps,
+ * gzip negotiation, what is never stored, and the headers on hits and misses.
+ */
+class ResponseBytesCacheFilterTest {
+
+    private static final String BODY = "{\"items\":[1,2,3]}";
+
+    @SuppressWarnings("unchecked")
+    private final MarketGeneration market = new MarketGeneration(mock(ObjectProvider.class));
+    @SuppressWarnings("unchecked")
+    private final CatalogGeneration catalog = new CatalogGeneration(mock(ObjectProvider.class));
+    private final ResponseBytesCacheFilter filter =
+            new ResponseBytesCacheFilter(market, catalog, new SimpleMeterRegistry(), true, 1 << 20, 64, 300);
+
+    /** Downstream handler; counts how often the request got past the cache. */
+    private final AtomicInteger handled = new AtomicInteger();
+
+    private FilterChain chain(int status, String contentType, String body, String staleHeader) {
+        return (req, res) -> {
+            handled.incrementAndGet();
+            HttpServletResponse http = (HttpServletResponse) res;
+            http.setStatus(status);
+            http.setContentType(contentType);
+            if (staleHeader != null) http.setHeader(StaleWhileRevalidateCache.STALE_HEADER, staleHeader);
+            http.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private FilterChain json() {
+        return chain(200, "application/json", BODY, null);
+    }
+
+    private static MockHttpServletRequest get(String uri, String... params) {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", uri);
+        for (int i = 0; i < params.length; i += 2) req.addParameter(params[i], params[i + 1]);
+        return req;
+    }
+
+    private MockHttpServletResponse run(MockHttpServletRequest req, FilterChain chain) throws Exception {
+        MockHttpServletResponse res = new MockHttpServletResponse();
+        filter.doFilter(req, res, chain);
+        return res;
+    }
+
+    @Test
+    void cacheKey_ignoresParameterOrder() {
+        String a = ResponseBytesCacheFilter.cacheKey(get("/api/bazaar/items", "sort", "buyAsc", "limit", "50"), 1, 0);
+        String b = ResponseBytesCacheFilter.cacheKey(get("/api/bazaar/items", "limit", "50", "sort", "buyAsc"), 1, 0);
+
+        assertThat(a).isEqualTo(b);
+        assertThat(ResponseBytesCacheFilter.cacheKey(get("/api/bazaar/items", "limit", "50", "sort", "buyAsc"), 2, 0))
+                .isNotEqualTo(a);
+    }
+
+    @Test
+    void reorderedParams_hit_andAGenerationBump_misses() throws Exception {
+        assertThat(run(get("/api/bazaar/items", "b", "2", "a", "1"), json()).getHeader("X-Cache")).isEqualTo("MISS");
+        assertThat(run(get("/api/bazaar/items", "a", "1", "b", "2"), json()).getHeader("X-Cache")).isEqualTo("HIT");
+        assertThat(handled).hasValue(1);
+
+        market.advance();
+        assertThat(run(get("/api/bazaar/items", "a", "1", "b", "2"), json()).getHeader("X-Cache")).isEqualTo("MISS");
+
+        run(get("/api/skyblock/items"), json());
+        catalog.advance();
+        assertThat(run(get("/api/skyblock/items"), json()).getHeader("X-Cache")).isEqualTo("MISS");
+        assertThat(handled).hasValue(4);
+    }
+
+    @Test
+    void acceptsGzip_honoursZeroWeights() {
+        assertThat(acceptsGzip(null)).isFalse();
+        assertThat(acceptsGzip("gzip")).isTrue();
+        assertThat(acceptsGzip("br, GZIP;q=0.8")).isTrue();
+        assertThat(acceptsGzip("deflate, br")).isFalse();
+        assertThat(acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(acceptsGzip("gzip; q=0.0, br")).isFalse();
+    }
+
+    private static boolean acceptsGzip(String header) {
+        MockHttpServletRequest req = get("/api/bazaar/items");
+        if (header != null) req.addHeader("Accept-Encoding", header);
+        return ResponseBytesCacheFilter.acceptsGzip(req);
+    }
+
+    @Test
+    void nonCacheableResponses_areNeverStored() throws Exception {
+        FilterChain[] chains = {
+                chain(404, "application/json", BODY, null),
+                chain(200, "text/plain", BODY, null),
+                chain(200, "application/json", "{\"big\":\"" + "x".repeat(100) + "\"}", null), // over 64 bytes
+                chain(200, "application/json", BODY, "42"),
+        };
+        for (FilterChain c : chains) {
+            handled.set(0);
+            MockHttpServletResponse first = run(get("/api/bazaar/items"), c);
+            MockHttpServletResponse second = run(get("/api/bazaar/items"), c);
+
+            assertThat(handled).hasValue(2);
+            assertThat(first.getHeader("X-Cache")).isNull();
+            assertThat(second.getContentAsString()).isEqualTo(first.getContentAsString()); // body still passed through
+        }
+    }
+
+    @Test
+    void storedBodies_varyOnAcceptEncoding_andServeGzipWhenAccepted() throws Exception {
+        MockHttpServletResponse miss = run(get("/api/bazaar/items"), json());
+        assertThat(miss.getHeader("Vary")).isEqualTo("Accept-Encoding");
+        assertThat(miss.getHeader("Content-Encoding")).isNull();
+        assertThat(miss.getContentAsString()).isEqualTo(BODY);
+
+        MockHttpServletRequest gzipReq = get("/api/bazaar/items");
+        gzipReq.addHeader("Accept-Encoding", "gzip, br");
+        MockHttpServletResponse hit = run(gzipReq, json());
+
+        assertThat(hit.getHeader("X-Cache")).isEqualTo("HIT");
+        assertThat(hit.getHeader("Vary")).isEqualTo("Accept-Encoding");
+        assertThat(hit.getHeader("Content-Encoding")).isEqualTo("gzip");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(hit.getContentAsByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+        }
+    }
+
+    @Test
+    void otherPathsAndMethods_passStraightThrough() throws Exception {
+        run(get("/api/strategies/flipping"), json());
+        MockHttpServletRequest post = get("/api/bazaar/items");
+        post.setMethod("POST");
+        run(post, json());
+        run(post, json());
+
+        assertThat(handled).hasValue(3);
+    }
+}
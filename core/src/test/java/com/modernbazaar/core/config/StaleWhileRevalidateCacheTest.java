@@ -0,0 +1,149 @@
+package com.modernbazaar.core.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StaleWhileRevalidateCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final ExecutorService background = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        background.shutdownNow();
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    /** Fresh for 1 ms, refreshes run inline so the test sees their effect at once. */
+    private StaleWhileRevalidateCache cache(Duration grace) {
+        return new StaleWhileRevalidateCache("test", Duration.ofMillis(1), grace, 100, Runnable::run, registry);
+    }
+
+    /** Same, but refreshes run on another thread, as they do behind a request. */
+    private StaleWhileRevalidateCache backgroundCache() {
+        return new StaleWhileRevalidateCache("test", Duration.ofMillis(1), Duration.ofMinutes(1), 100, background, registry);
+    }
+
+    /** Waits for the refreshes queued so far. */
+    private void drain() throws Exception {
+        background.submit(() -> {}).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void serves_the_stale_value_and_refreshes_behind_it() throws Exception {
+        StaleWhileRevalidateCache cache = cache(Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.get("k", loads::incrementAndGet)).isEqualTo(1);
+        Thread.sleep(5);
+
+        assertThat(cache.get("k", loads::incrementAndGet)).isEqualTo(1); // old value, reload kicked off
+        assertThat(cache.get("k", () -> -1)).isEqualTo(2);               // the reload's result
+        assertThat(registry.counter("modernbazaar.cache.stale.served", "cache", "test").count()).isGreaterThanOrEqualTo(1.0);
+    }
+
+    @Test
+    void keeps_serving_stale_while_refreshes_fail() throws Exception {
+        StaleWhileRevalidateCache cache = cache(Duration.ofMinutes(1));
+        cache.put("k", "last-known");
+        Thread.sleep(5);
+
+        assertThat(cache.get("k", () -> { throw new IllegalStateException("db down"); })).isEqualTo("last-known");
+        assertThat(cache.get("k", () -> { throw new IllegalStateException("db down"); })).isEqualTo("last-known");
+        assertThat(registry.counter("modernbazaar.cache.refresh", "cache", "test", "outcome", "failed").count())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    void loads_synchronously_once_the_grace_is_over() throws Exception {
+        StaleWhileRevalidateCache cache = cache(Duration.ofMillis(1));
+        cache.put("k", "old");
+        Thread.sleep(10);
+
+        assertThatThrownBy(() -> cache.get("k", () -> { throw new IllegalStateException("db down"); }))
+                .isInstanceOf(Cache.ValueRetrievalException.class)
+                .hasRootCauseMessage("db down");
+    }
+
+    @Test
+    void background_refresh_runs_as_the_caller_that_found_the_entry_stale() throws Exception {
+        StaleWhileRevalidateCache cache = backgroundCache();
+        cache.put("k", "old");
+        Thread.sleep(5);
+        Authentication caller = new TestingAuthenticationToken("elite-user", null, "ROLE_USER");
+        SecurityContextHolder.getContext().setAuthentication(caller);
+        AtomicReference<Authentication> seenByLoader = new AtomicReference<>();
+
+        assertThat(cache.get("k", () -> {
+            seenByLoader.set(SecurityContextHolder.getContext().getAuthentication());
+            return "new";
+        })).isEqualTo("old");
+        drain();
+
+        assertThat(seenByLoader.get()).isSameAs(caller); // HeavyWorkExecutor ranks it at this caller's tier
+        assertThat(cache.get("k", () -> "unused")).isEqualTo("new");
+    }
+
+    @Test
+    void failed_background_refresh_keeps_the_stale_entry_and_is_counted() throws Exception {
+        StaleWhileRevalidateCache cache = backgroundCache();
+        cache.put("k", "last-known");
+        Thread.sleep(5);
+
+        assertThat(cache.get("k", () -> { throw new IllegalStateException("db down"); })).isEqualTo("last-known");
+        drain();
+
+        assertThat(registry.counter("modernbazaar.cache.refresh", "cache", "test", "outcome", "failed").count())
+                .isEqualTo(1.0);
+        assertThat(registry.counter("modernbazaar.cache.refresh", "cache", "test", "outcome", "ok").count())
+                .isZero();
+        assertThat(cache.get("k", String.class)).isEqualTo("last-known");
+    }
+
+    @Test
+    void request_after_a_clear_is_served_stale_from_cache_and_refreshed_behind_it() throws Exception {
+        StaleWhileRevalidateCache cache = new StaleWhileRevalidateCache("test", Duration.ofMinutes(2),
+                Duration.ofMinutes(1), 100, background, registry);
+        cache.put("k", "before-poll");
+        cache.clear(); // what a cluster POLL_COMPLETED does
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), response));
+
+        assertThat(cache.get("k", () -> "after-poll")).isEqualTo("before-poll");
+        assertThat(response.getHeader(StaleWhileRevalidateCache.STALE_HEADER)).isEqualTo("0");
+        drain();
+
+        assertThat(cache.get("k", () -> "unused")).isEqualTo("after-poll");
+    }
+
+    @Test
+    void invalidate_drops_entries_at_once() {
+        StaleWhileRevalidateCache cache = cache(Duration.ofMinutes(1));
+        cache.put("k", "old");
+
+        cache.invalidate();
+
+        assertThat(cache.get("k")).isNull();
+    }
+}
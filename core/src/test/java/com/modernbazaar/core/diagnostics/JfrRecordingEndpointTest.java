@@ -0,0 +1,97 @@
+package com.modernbazaar.core.diagnostics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link JfrRecordingEndpoint} against the real Flight Recorder: the duration
+ * cap, one recording at a time, and downloads limited to the files the endpoint kept.
+ */
+class JfrRecordingEndpointTest {
+
+    @TempDir
+    Path dir;
+
+    private JfrRecordingEndpoint endpoint;
+
+    @AfterEach
+    void tearDown() {
+        if (endpoint != null) endpoint.close();
+    }
+
+    private JfrRecordingEndpoint endpoint(long maxSeconds, int keep) {
+        endpoint = new JfrRecordingEndpoint(dir.toString(), maxSeconds, 10, keep);
+        return endpoint;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> recording(WebEndpointResponse<Map<String, Object>> response) {
+        return (Map<String, Object>) response.getBody().get("recording");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> keptFiles(Map<String, Object> status) {
+        return ((List<Map<String, Object>>) status.get("files")).stream()
+                .map(f -> (String) f.get("file"))
+                .toList();
+    }
+
+    /** Records briefly and returns the name of the file it kept. */
+    private String recordOnce(JfrRecordingEndpoint jfr) {
+        var started = jfr.start(60, "default");
+        assertThat(started.getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+        String file = (String) recording(started).get("file");
+        assertThat(jfr.stop().getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+        return file;
+    }
+
+    @Test
+    void requestedDuration_isCappedAtMaxSeconds() {
+        var started = endpoint(30, 3).start(3600, "profile");
+
+        assertThat(started.getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+        assertThat(recording(started).get("duration")).isEqualTo(30L);
+    }
+
+    @Test
+    void secondStart_whileRecording_is409() {
+        JfrRecordingEndpoint jfr = endpoint(30, 3);
+        assertThat(jfr.start(10, "default").getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+
+        var second = jfr.start(10, "default");
+        assertThat(second.getStatus()).isEqualTo(409);
+        assertThat(second.getBody()).containsKey("error");
+    }
+
+    @Test
+    void unknownSettings_areRejected() {
+        assertThat(endpoint(30, 3).start(10, "everything").getStatus())
+                .isEqualTo(WebEndpointResponse.STATUS_BAD_REQUEST);
+    }
+
+    @Test
+    void downloads_areLimitedToTheFilesKept() throws Exception {
+        JfrRecordingEndpoint jfr = endpoint(30, 1);
+        String evicted = recordOnce(jfr);
+        String kept = recordOnce(jfr);
+        Files.writeString(dir.resolve("planted.jfr"), "not ours");
+
+        assertThat(keptFiles(jfr.status())).containsExactly(kept);
+        assertThat(Files.exists(dir.resolve(evicted))).isFalse();
+
+        assertThat(jfr.download(kept).getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+        assertThat(jfr.download(evicted).getStatus()).isEqualTo(WebEndpointResponse.STATUS_NOT_FOUND);
+        assertThat(jfr.download("planted.jfr").getStatus()).isEqualTo(WebEndpointResponse.STATUS_NOT_FOUND);
+        assertThat(jfr.download("../" + dir.getFileName() + "/" + kept).getStatus())
+                .isEqualTo(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+}
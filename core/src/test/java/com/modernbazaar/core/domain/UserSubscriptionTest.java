@@ -0,0 +1,44 @@
+package com.modernbazaar.core.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@code canceled_at} is what the cancellations rollup buckets on: it must be set once
+ * when a subscription turns canceled and survive the updates that follow, or one
+ * cancellation is counted on several days.
+ */
+class UserSubscriptionTest {
+
+    @Test
+    void canceledAt_isStampedOnce_andSurvivesLaterUpdates() {
+        UserSubscription sub = UserSubscription.builder().userId("u1").planSlug("flipper").status("active").build();
+        sub.onCreate();
+        assertThat(sub.getCanceledAt()).isNull();
+
+        sub.setStatus("canceled");               // customer.subscription.updated, cancel_at_period_end
+        sub.onUpdate();
+        OffsetDateTime canceledAt = sub.getCanceledAt();
+        assertThat(canceledAt).isNotNull();
+
+        sub.setCurrentPeriodEnd(OffsetDateTime.now().plusDays(7)); // admin extension
+        sub.onUpdate();
+        sub.onUpdate();                          // customer.subscription.deleted at period end / replay
+        assertThat(sub.getCanceledAt()).isEqualTo(canceledAt);
+        assertThat(sub.getUpdatedAt()).isAfterOrEqualTo(canceledAt);
+    }
+
+    @Test
+    void reactivation_clearsCanceledAt_soTheNextCancelIsItsOwnEvent() {
+        UserSubscription sub = UserSubscription.builder().userId("u1").planSlug("flipper").status("canceled").build();
+        sub.onCreate();
+        assertThat(sub.getCanceledAt()).isNotNull();
+
+        sub.setStatus("active");
+        sub.onUpdate();
+        assertThat(sub.getCanceledAt()).isNull();
+    }
+}
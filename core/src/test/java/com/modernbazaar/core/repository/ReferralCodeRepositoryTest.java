@@ -0,0 +1,123 @@
+package com.modernbazaar.core.repository;
+
+import com.modernbazaar.core.domain.ReferralCode;
+import com.modernbazaar.core.domain.ReferralConversion;
+import com.modernbazaar.core.dto.AdminReferralOverviewDTO;
+import com.modernbazaar.core.repository.projection.ReferralCodeStatsRow;
+import com.modernbazaar.core.service.ReferralAnalyticsService;
+import com.modernbazaar.core.service.WriteBehindBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * {@link ReferralCodeRepository#overviewStats} against PostgreSQL (lateral join, FILTER and
+ * interval arithmetic don't run on H2), on the schema Flyway + Hibernate build in production.
+ * Skipped when Docker is not available.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class ReferralCodeRepositoryTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16");
+
+    @Autowired private TestEntityManager em;
+    @Autowired private ReferralCodeRepository codeRepo;
+    @Autowired private ReferralConversionRepository conversionRepo;
+    @Autowired private ReferralPayoutRepository payoutRepo;
+    @Autowired private ReferralSignupRepository signupRepo;
+    @Autowired private ReferralEarningRepository earningRepo;
+
+    private void sql(String statement) {
+        em.getEntityManager().createNativeQuery(statement).executeUpdate();
+    }
+
+    @BeforeEach
+    void seed() {
+        em.persist(ReferralCode.builder().code("ALPHA").userId("creator-a").build());
+        em.persist(ReferralCode.builder().code("BETA").userId("creator-b").build());
+
+        sql("insert into referral_click (code, visitor_key) values ('ALPHA', 'v1'), ('ALPHA', 'v2'), ('ALPHA', 'v3')");
+        sql("insert into referral_signup (code, user_id) values ('ALPHA', 'u1'), ('ALPHA', 'u2')");
+
+        for (String user : new String[]{"u1", "u2", "u3"}) {
+            em.persist(ReferralConversion.builder().code("ALPHA").referredUserId(user).build());
+        }
+        sql("""
+            insert into user_subscription (user_id, plan_slug, status, current_period_end, last_seen_at) values
+              ('u1', 'flipper', 'active',   null,                        now() - interval '1 day'),
+              ('u2', 'flipper', 'canceled', now() - interval '3 days',   now() - interval '30 days'),
+              ('u3', 'elite',   'active',   null,                        now() - interval '60 days'),
+              ('u3', 'elite',   'canceled', now() + interval '10 days',  now() - interval '20 days')
+            """); // u3's latest row is what counts: canceled but still inside the paid period
+
+        sql("""
+            insert into referral_earning (stripe_invoice_id, code, referred_user_id, currency,
+                                          net_revenue_cents, refunded_cents, commission_cents,
+                                          occurred_at, eligible_at, status) values
+              ('in_1', 'ALPHA', 'u1', 'usd', 1000,   0, 300, now() - interval '40 days', now() - interval '10 days', 'earned'),
+              ('in_2', 'ALPHA', 'u2', 'usd',  500, 700, 150, now() - interval '40 days', now() - interval '10 days', 'refunded'),
+              ('in_3', 'ALPHA', 'u3', 'usd', 2000,   0, 600, now() - interval '5 days',  now() + interval '25 days', 'earned')
+            """);
+        sql("""
+            insert into referral_payout (code, amount_cents, status) values
+              ('ALPHA', 100, 'paid'), ('ALPHA', 200, 'pending'), ('ALPHA', 50, 'pending')
+            """);
+        em.flush();
+    }
+
+    @Test
+    void overviewStats_aggregatesFunnelSubscribersAndMoneyPerCode() {
+        Map<String, ReferralCodeStatsRow> byCode = codeRepo.overviewStats().stream()
+                .collect(Collectors.toMap(ReferralCodeStatsRow::getCode, Function.identity()));
+
+        ReferralCodeStatsRow alpha = byCode.get("ALPHA");
+        assertThat(alpha.getClicks()).isEqualTo(3);
+        assertThat(alpha.getSignups()).isEqualTo(2);
+        assertThat(alpha.getSubscribers()).isEqualTo(3);
+        assertThat(alpha.getActive()).isEqualTo(2);       // u1 active, u3 canceled inside its period
+        assertThat(alpha.getActiveRecent()).isEqualTo(1); // only u1 was seen this week
+        assertThat(alpha.getCollectedCents()).isEqualTo(3000);         // 1000 + max(0, 500 - 700) + 2000
+        assertThat(alpha.getEligibleCommissionCents()).isEqualTo(450); // in_3 is not eligible yet
+        assertThat(alpha.getPaidCents()).isEqualTo(100);
+        assertThat(alpha.getPendingCents()).isEqualTo(250);
+
+        ReferralCodeStatsRow beta = byCode.get("BETA"); // no activity at all: zeros, not nulls
+        assertThat(beta.getClicks()).isZero();
+        assertThat(beta.getSubscribers()).isZero();
+        assertThat(beta.getEligibleCommissionCents()).isZero();
+        assertThat(beta.getPendingCents()).isZero();
+    }
+
+    @Test
+    void overview_owesEligibleCommissionMinusPendingAndPaid() {
+        ReferralAnalyticsService service = new ReferralAnalyticsService(codeRepo, conversionRepo, payoutRepo,
+                signupRepo, earningRepo, mock(WriteBehindBuffer.class));
+
+        Map<String, AdminReferralOverviewDTO> byCode = service.overview().stream()
+                .collect(Collectors.toMap(AdminReferralOverviewDTO::code, Function.identity()));
+
+        AdminReferralOverviewDTO alpha = byCode.get("ALPHA");
+        assertThat(alpha.eligibleOwedCents()).isEqualTo(100); // 450 - (250 pending + 100 paid)
+        assertThat(alpha.activeByPlan()).containsOnly(Map.entry("elite", 1), Map.entry("flipper", 1));
+        assertThat(alpha.conversionRatePct()).isEqualTo(100.0); // 3 subscribers / 3 clicks
+        assertThat(byCode.get("BETA").eligibleOwedCents()).isZero();
+    }
+}
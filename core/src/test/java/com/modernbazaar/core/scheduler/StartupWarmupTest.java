@@ -0,0 +1,119 @@
+package com.modernbazaar.core.scheduler;
+
+import com.modernbazaar.core.service.MetricsService;
+import com.modernbazaar.core.service.ProductNameDictionary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.Status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+
+/**
+ * Unit tests for {@link StartupWarmup}: readiness waits for the serving stage only, a failing
+ * step never holds it, and the synchronous mode runs every step in order on the caller.
+ */
+@ExtendWith(MockitoExtension.class)
+class StartupWarmupTest {
+
+    @Mock private ProductNameDictionary names;
+    @Mock private MetricsService publicMetrics;
+    @Mock private BazaarFinanceMetricsAggregationJob financeJob;
+    @Mock private SkyblockItemsCatalogJob catalogJob;
+    @Mock private AdminAnalyticsRollupJob analyticsJob;
+    @Mock private BazaarSnapshotsRetentionJob retentionJob;
+
+    @Mock private ObjectProvider<BazaarFinanceMetricsAggregationJob> financeProvider;
+    @Mock private ObjectProvider<SkyblockItemsCatalogJob> catalogProvider;
+    @Mock private ObjectProvider<AdminAnalyticsRollupJob> analyticsProvider;
+    @Mock private ObjectProvider<BazaarSnapshotsRetentionJob> retentionProvider;
+
+    private static <T> void provides(ObjectProvider<T> provider, T bean) {
+        doAnswer(inv -> {
+            inv.<Consumer<T>>getArgument(0).accept(bean);
+            return null;
+        }).when(provider).ifAvailable(any());
+    }
+
+    private StartupWarmup warmup(boolean async) {
+        provides(financeProvider, financeJob);
+        provides(catalogProvider, catalogJob);
+        provides(analyticsProvider, analyticsJob);
+        provides(retentionProvider, retentionJob);
+        return new StartupWarmup(names, publicMetrics, financeProvider, catalogProvider, analyticsProvider,
+                retentionProvider, new SimpleMeterRegistry(), async);
+    }
+
+    @Test
+    void readiness_isOutOfService_untilTheServingStageIsDone() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        doAnswer(inv -> release.await(5, TimeUnit.SECONDS)).when(names).onStartup();
+        List<Status> duringBackground = new ArrayList<>();
+        StartupWarmup warmup = warmup(true);
+        doAnswer(inv -> {
+            duringBackground.add(warmup.health().getStatus());
+            return null;
+        }).when(financeJob).onStartup();
+        doAnswer(inv -> {
+            finished.countDown();
+            return null;
+        }).when(retentionJob).onStartup();
+
+        warmup.start();
+        assertThat(warmup.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        release.countDown();
+        assertThat(finished.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(duringBackground).containsExactly(Status.UP); // background steps never hold readiness
+        assertThat(warmup.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void failingStep_doesNotBlockReadiness() {
+        doThrow(new IllegalStateException("db down")).when(names).onStartup();
+        StartupWarmup warmup = warmup(false);
+
+        warmup.start();
+
+        var health = warmup.health();
+        assertThat(health.getStatus()).isEqualTo(Status.UP);
+        assertThat(health.getDetails()).containsEntry("names", "FAILED")
+                .containsEntry("public-metrics", "DONE")
+                .containsEntry("retention", "DONE");
+    }
+
+    @Test
+    void synchronousMode_runsEveryStepInOrder_onTheCallerThread() {
+        Thread caller = Thread.currentThread();
+        List<Thread> threads = new ArrayList<>();
+        doAnswer(inv -> threads.add(Thread.currentThread())).when(names).onStartup();
+        StartupWarmup warmup = warmup(false);
+
+        warmup.start();
+
+        InOrder order = inOrder(names, publicMetrics, financeJob, catalogJob, analyticsJob, retentionJob);
+        order.verify(names).onStartup();
+        order.verify(publicMetrics).onStartup();
+        order.verify(financeJob).onStartup();
+        order.verify(catalogJob).runOnStartup();
+        order.verify(analyticsJob).onStartup();
+        order.verify(retentionJob).onStartup();
+        assertThat(threads).containsExactly(caller);
+        assertThat(warmup.health().getStatus()).isEqualTo(Status.UP);
+    }
+}
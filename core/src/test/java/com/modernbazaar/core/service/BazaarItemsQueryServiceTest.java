@@ -2,27 +2,41 @@ package com.modernbazaar.core.service;
 
 import com.modernbazaar.core.api.dto.BazaarItemHourAverageResponseDTO;
 import com.modernbazaar.core.api.dto.BazaarItemHourSummaryResponseDTO;
+import com.modernbazaar.core.api.dto.BazaarItemFilterDTO;
 import com.modernbazaar.core.api.dto.BazaarItemLiveViewResponseDTO;
+import com.modernbazaar.core.api.dto.PagedResponseDTO;
 import com.modernbazaar.core.domain.*;
 import com.modernbazaar.core.repository.BazaarItemHourSummaryRepository;
 import com.modernbazaar.core.repository.BazaarItemRepository;
 import com.modernbazaar.core.repository.BazaarProductSnapshotRepository;
+import com.modernbazaar.core.repository.projection.CursorIdRow;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,6 +45,9 @@ class BazaarItemsQueryServiceTest {
     @Mock private BazaarProductSnapshotRepository snapshotRepo;
     @Mock private BazaarItemRepository            itemRepo;
     @Mock private BazaarItemHourSummaryRepository hourRepo;
+    @Mock private ItemSearchIndex                 searchIndex;
+    @Mock private ProductNameDictionary           productNames;
+    @Mock private HeavyWorkExecutor               heavyWork;
 
     @InjectMocks
     private BazaarItemsQueryService service;
@@ -39,6 +56,8 @@ class BazaarItemsQueryServiceTest {
 
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.setField(service, "maxHistoryWindowDays", 90);
+
         Instant hr = Instant.parse("2025-07-26T10:00:00Z")
                 .truncatedTo(ChronoUnit.HOURS);
 
@@ -61,6 +80,118 @@ class BazaarItemsQueryServiceTest {
                 .build();
     }
 
+    /* ───── cursor pages ───── */
+
+    /** Latest snapshot per product, as the keyset query sees it. */
+    private final TreeMap<String, BazaarItemSnapshot> market = new TreeMap<>();
+
+    private record Row(String getId, Double getSortKey) implements CursorIdRow {}
+
+    private void marketOf(String... ids) {
+        for (int i = 0; i < ids.length; i++) {
+            market.put(ids[i], snapshot(ids[i], 100 + i, Instant.parse("2025-07-26T10:00:00Z")));
+        }
+        when(searchIndex.filter(null)).thenReturn(ItemSearchIndex.Filter.sql(null));
+        when(snapshotRepo.findLatestProductIdsAfter(any(), anyBoolean(), any(), any(), any(), any(), any(), any(),
+                any(), anyInt(), any(), any(), anyInt())).thenAnswer(this::seek);
+        when(snapshotRepo.findLatestByProductIds(any())).thenAnswer(inv ->
+                inv.<Collection<String>>getArgument(0).stream().map(market::get).toList());
+    }
+
+    /** A poll: every product gets a new fetched_at (and prices move). */
+    private void poll() {
+        Instant now = Instant.parse("2025-07-26T10:01:00Z");
+        market.replaceAll((id, s) -> snapshot(id, s.getInstantSellPrice() + 1, now));
+    }
+
+    /** In-memory stand-in for findLatestProductIdsAfter's seek on (sort key, id). */
+    private List<CursorIdRow> seek(InvocationOnMock inv) {
+        String by = inv.getArgument(8);
+        int sign = inv.getArgument(9);
+        Double afterKey = inv.getArgument(10);
+        String afterId = inv.getArgument(11);
+        int limit = inv.getArgument(12);
+        Comparator<Row> order = Comparator.comparing(Row::getSortKey).thenComparing(Row::getId);
+        return market.values().stream()
+                .map(s -> new Row(s.getProductId(), by == null ? 0.0 : sign * s.getInstantSellPrice()))
+                .sorted(order)
+                .filter(r -> afterId == null || order.compare(r, new Row(afterId, afterKey)) > 0)
+                .limit(limit)
+                .map(CursorIdRow.class::cast)
+                .toList();
+    }
+
+    private static BazaarItemSnapshot snapshot(String id, double sell, Instant fetchedAt) {
+        return BazaarItemSnapshot.builder()
+                .productId(id)
+                .instantSellPrice(sell)
+                .lastUpdated(fetchedAt)
+                .fetchedAt(fetchedAt)
+                .build();
+    }
+
+    private static List<String> ids(PagedResponseDTO<BazaarItemLiveViewResponseDTO> page) {
+        return page.items().stream().map(i -> i.snapshot().productId()).toList();
+    }
+
+    @Test
+    void cursorPages_surviveAPollBetweenPages() {
+        marketOf("A", "B", "C", "D", "E");
+        BazaarItemFilterDTO all = BazaarItemFilterDTO.of(null, null, null, null, null, null);
+
+        var page1 = service.getLatestAfter(all, Optional.empty(), "", 2, false);
+        poll(); // rewrites fetched_at for every row, which the old (fetched_at, id) key seeked on
+        var page2 = service.getLatestAfter(all, Optional.empty(), page1.nextCursor(), 2, false);
+        var page3 = service.getLatestAfter(all, Optional.empty(), page2.nextCursor(), 2, false);
+
+        List<String> seen = new ArrayList<>(ids(page1));
+        seen.addAll(ids(page2));
+        seen.addAll(ids(page3));
+        assertThat(seen).containsExactly("A", "B", "C", "D", "E");
+        assertThat(page3.hasNext()).isFalse();
+    }
+
+    @Test
+    void cursorPages_areOrderedBySortAcrossPages_andPinTheSort() {
+        marketOf("A", "B", "C", "D"); // sell 100..103
+        BazaarItemFilterDTO all = BazaarItemFilterDTO.of(null, null, null, null, null, null);
+
+        var page1 = service.getLatestAfter(all, Optional.of("sellDesc"), "", 2, false);
+        var page2 = service.getLatestAfter(all, Optional.of("sellDesc"), page1.nextCursor(), 2, false);
+
+        assertThat(ids(page1)).containsExactly("D", "C");
+        assertThat(ids(page2)).containsExactly("B", "A");
+        assertThatThrownBy(() -> service.getLatestAfter(all, Optional.of("buyAsc"), page1.nextCursor(), 2, false))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /* ───── history ───── */
+
+    @Test
+    void history_loadsOnTheHeavyPool() {
+        when(heavyWork.callReadOnly(eq(HeavyWorkExecutor.HISTORY), any()))
+                .thenAnswer(inv -> inv.<Supplier<?>>getArgument(1).get()); // pass-through
+        Instant from = sum.getHourStart().minus(1, ChronoUnit.HOURS);
+        Instant to   = sum.getHourStart().plus(1, ChronoUnit.HOURS);
+        when(hourRepo.findRange("A", from, to)).thenReturn(List.of(sum));
+
+        var out = service.getHistory("A", from, to, false);
+
+        assertThat(out).hasSize(1);
+        assertThat(out.get(0).productId()).isEqualTo("A");
+    }
+
+    @Test
+    void history_rangeWiderThanTheMaximum_isRejectedBeforeLoading() {
+        Instant to = sum.getHourStart();
+
+        assertThatThrownBy(() -> service.getHistory("A", to.minus(91, ChronoUnit.DAYS), to, false))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.getHistories(List.of("A"), Instant.EPOCH, to, false))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(heavyWork, hourRepo);
+    }
+
 //    @Test
 //    void getItem_returns_live_view_with_hour_summary_and_name() {
 //        // ── no snapshot available
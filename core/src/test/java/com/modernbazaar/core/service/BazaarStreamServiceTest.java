@@ -0,0 +1,160 @@
+package com.modernbazaar.core.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for {@link BazaarStreamService}: resume by {@code Last-Event-ID}, per-client
+ * product filters, the subscriber cap and dropping clients that stop reading. Sends run on
+ * a hand-drained queue, so "the client is slow" is simply "the queue was not drained".
+ */
+class BazaarStreamServiceTest {
+
+    private final Deque<Runnable> pool = new ArrayDeque<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    /** One SSE event as the client would parse it. */
+    private record Event(String id, String name, String data) {}
+
+    private static final class RecordingEmitter extends SseEmitter {
+        final List<Event> events = new ArrayList<>();
+        boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder raw = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType d : builder.build()) raw.append(d.getData());
+            String id = null, name = null, data = null;
+            for (String line : raw.toString().split("\n")) {
+                if (line.startsWith("id:")) id = line.substring(3);
+                else if (line.startsWith("event:")) name = line.substring(6);
+                else if (line.startsWith("data:")) data = line.substring(5);
+            }
+            if (name != null) events.add(new Event(id, name, data)); // heartbeats are comments
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+
+    private BazaarStreamService service(int maxSubscribers, int maxQueuedEvents) {
+        ExecutorService sendPool = mock(ExecutorService.class);
+        doAnswer(inv -> pool.add(inv.getArgument(0))).when(sendPool).execute(any());
+        return new BazaarStreamService(new ObjectMapper(), registry, 30, maxSubscribers, 60,
+                maxQueuedEvents, sendPool) {
+            @Override
+            SseEmitter newEmitter(long timeout) {
+                return new RecordingEmitter();
+            }
+        };
+    }
+
+    private void drain() {
+        while (!pool.isEmpty()) pool.poll().run();
+    }
+
+    private RecordingEmitter subscribe(BazaarStreamService stream, Set<String> products, String lastEventId) {
+        RecordingEmitter emitter = (RecordingEmitter) stream.subscribe(products, lastEventId);
+        drain();
+        return emitter;
+    }
+
+    private static Map<String, Map<String, Number>> prices(Object... idAndPrice) {
+        Map<String, Map<String, Number>> out = new LinkedHashMap<>();
+        for (int i = 0; i < idAndPrice.length; i += 2) {
+            out.put((String) idAndPrice[i], Map.of("instantBuyPrice", (Number) idAndPrice[i + 1]));
+        }
+        return out;
+    }
+
+    private double subscribers() {
+        return registry.get("modernbazaar.bazaar.stream.subscribers").gauge().value();
+    }
+
+    @Test
+    void resume_withinWindow_sendsOnlyWhatWasMissed() {
+        BazaarStreamService stream = service(10, 32);
+        stream.publish(1, prices("A", 1.0, "B", 1.0));
+        String seen = subscribe(stream, null, null).events.get(0).id();
+
+        stream.publish(2, prices("A", 2.0, "B", 1.0));
+        stream.publish(3, prices("A", 3.0, "B", 1.0));
+        RecordingEmitter resumed = subscribe(stream, null, seen);
+
+        assertThat(resumed.events).hasSize(1);
+        Event delta = resumed.events.get(0);
+        assertThat(delta.name()).isEqualTo("delta");
+        assertThat(delta.id()).endsWith("-3");
+        assertThat(delta.data()).contains("\"A\"").contains("3.0").doesNotContain("\"B\"");
+    }
+
+    @Test
+    void resume_withIdFromAnotherBootOrNode_getsSnapshot() {
+        BazaarStreamService stream = service(10, 32);
+        stream.publish(1, prices("A", 1.0));
+        stream.publish(2, prices("A", 2.0));
+        String epoch = subscribe(stream, null, null).events.get(0).id().split("-")[0];
+
+        for (String stale : List.of("1", "otherboot-1", epoch + "-99")) {
+            RecordingEmitter client = subscribe(stream, null, stale);
+            assertThat(client.events).as(stale).extracting(Event::name).containsExactly("snapshot");
+            assertThat(client.events.get(0).data()).contains("2.0");
+        }
+    }
+
+    @Test
+    void filteredSubscriber_receivesOnlyItsProducts() {
+        BazaarStreamService stream = service(10, 32);
+        RecordingEmitter client = subscribe(stream, Set.of("A"), null);
+        client.events.clear(); // empty snapshot
+
+        stream.publish(1, prices("A", 1.0, "B", 1.0));
+        stream.publish(2, prices("A", 1.0, "B", 2.0)); // only B moved
+        drain();
+
+        assertThat(client.events).hasSize(1);
+        assertThat(client.events.get(0).data()).contains("\"A\"").doesNotContain("\"B\"");
+    }
+
+    @Test
+    void subscribe_pastTheCap_isRefused() {
+        BazaarStreamService stream = service(1, 32);
+        assertThat(stream.subscribe(null, null)).isNotNull();
+        assertThat(stream.subscribe(null, null)).isNull();
+    }
+
+    @Test
+    void clientThatStopsReading_isDroppedAtTheQueueCap() {
+        BazaarStreamService stream = service(10, 2);
+        RecordingEmitter slow = (RecordingEmitter) stream.subscribe(null, null); // snapshot queued: 1
+        stream.publish(1, prices("A", 1.0));                                     // 2
+        assertThat(subscribers()).isEqualTo(1);
+
+        stream.publish(2, prices("A", 2.0));                                     // over the cap
+        assertThat(subscribers()).isZero();
+        assertThat(registry.get("modernbazaar.bazaar.stream.dropped").counter().count()).isEqualTo(1);
+
+        drain();
+        assertThat(slow.completed).isTrue();
+        assertThat(slow.events).isEmpty(); // nothing more is written to a dropped client
+    }
+}
@@ -0,0 +1,93 @@
+package com.modernbazaar.core.service;
+
+import com.modernbazaar.core.service.ClusterEventBus.ClusterEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.support.SimpleCacheManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for {@link ClusterCacheInvalidator}: which caches each cluster event clears,
+ * and RESYNC invalidating all of them.
+ */
+class ClusterCacheInvalidatorTest {
+
+    private static final List<String> MARKET = List.of("liveViewList", "liveViewItem", "liveViewSnapshots");
+    private static final List<String> STRATEGY = List.of(
+            "flipOpportunities", "flipOpportunitiesAdvanced", "manipulationOpportunities");
+    private static final List<String> HISTORY = List.of("liveViewHistory", "liveViewHourAverage");
+    private static final List<String> FINANCE = List.of("financeAverages");
+
+    private final Map<String, Cache> caches = Stream.of(MARKET, STRATEGY, HISTORY, FINANCE, List.of("pageTotals"))
+            .flatMap(List::stream)
+            .collect(Collectors.toMap(Function.identity(), name -> spy(new ConcurrentMapCache(name))));
+    private final ClusterCacheInvalidator invalidator;
+
+    ClusterCacheInvalidatorTest() {
+        SimpleCacheManager manager = new SimpleCacheManager();
+        manager.setCaches(caches.values());
+        manager.afterPropertiesSet();
+        invalidator = new ClusterCacheInvalidator(manager);
+    }
+
+    private void on(String type) {
+        invalidator.onClusterEvent(new ClusterEvent(type, "", "node-b", false));
+    }
+
+    private void assertClearedExactly(List<String> expected) {
+        caches.forEach((name, cache) -> {
+            if (expected.contains(name)) verify(cache).clear();
+            else verify(cache, never()).clear();
+            verify(cache, never()).invalidate();
+        });
+    }
+
+    @Test
+    void poll_clearsMarketAndStrategyCaches() {
+        on(ClusterEventBus.POLL_COMPLETED);
+
+        assertClearedExactly(Stream.concat(MARKET.stream(), STRATEGY.stream()).toList());
+    }
+
+    @Test
+    void sealedHour_clearsHistoryCaches() {
+        on(ClusterEventBus.HOUR_SEALED);
+
+        assertClearedExactly(HISTORY);
+    }
+
+    @Test
+    void financeRecompute_clearsAveragesAndStrategyCaches() {
+        on(ClusterEventBus.FINANCE_RECOMPUTED);
+
+        assertClearedExactly(Stream.concat(FINANCE.stream(), STRATEGY.stream()).toList());
+    }
+
+    @Test
+    void eventsWithoutCaches_clearNothing() {
+        on(ClusterEventBus.SUBSCRIPTION_CHANGED);
+
+        assertClearedExactly(List.of());
+    }
+
+    @Test
+    void resync_invalidatesEveryCache() {
+        caches.get("liveViewItem").put("k", "v");
+
+        on(ClusterEventBus.RESYNC);
+
+        caches.values().forEach(cache -> verify(cache).invalidate());
+        assertThat(caches.get("liveViewItem").get("k")).isNull();
+    }
+}
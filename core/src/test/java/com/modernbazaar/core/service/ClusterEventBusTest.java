@@ -0,0 +1,134 @@
+package com.modernbazaar.core.service;
+
+import com.modernbazaar.core.config.ReplicaLagMonitor;
+import com.modernbazaar.core.service.ClusterEventBus.ClusterEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link ClusterEventBus}: parsing what arrives on the channel, the
+ * {@code local} flag, RESYNC after a reconnect, and local dispatch (NOTIFY off, as on
+ * a non-Postgres URL) happening only once the write commits.
+ */
+@ExtendWith(MockitoExtension.class)
+class ClusterEventBusTest {
+
+    @Mock private JdbcTemplate jdbc;
+    @Mock private ApplicationEventPublisher publisher;
+    @Mock private ObjectProvider<ReplicaLagMonitor> replicaProvider;
+    @Mock private ReplicaLagMonitor replica;
+    @Mock private JobLeaseService leases;
+
+    private ClusterEventBus bus;
+
+    @BeforeEach
+    void setUp() {
+        when(leases.nodeId()).thenReturn("node-a");
+        bus = new ClusterEventBus(jdbc, publisher, new SimpleMeterRegistry(), replicaProvider, leases,
+                true, "jdbc:h2:mem:test", "sa", "", 500);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private void withReplica() {
+        doAnswer(inv -> {
+            inv.<Consumer<ReplicaLagMonitor>>getArgument(0).accept(replica);
+            return null;
+        }).when(replicaProvider).ifAvailable(any());
+    }
+
+    private static void commit() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    }
+
+    @Test
+    void publish_fencesTheReplicaOnCommit_beforeDispatching() {
+        withReplica();
+        TransactionSynchronizationManager.initSynchronization();
+
+        bus.publish(ClusterEventBus.SUBSCRIPTION_CHANGED, "u1");
+        verifyNoInteractions(replica, publisher);
+
+        commit();
+        InOrder order = inOrder(replica, publisher);
+        order.verify(replica).fence();
+        order.verify(publisher).publishEvent(new ClusterEvent(ClusterEventBus.SUBSCRIPTION_CHANGED, "u1", "node-a", true));
+        verifyNoInteractions(jdbc);
+    }
+
+    @Test
+    void publish_outsideATransaction_dispatchesAtOnce() {
+        bus.publish(ClusterEventBus.HOUR_SEALED, null);
+
+        verify(publisher).publishEvent(new ClusterEvent(ClusterEventBus.HOUR_SEALED, "", "node-a", true));
+    }
+
+    @Test
+    void publish_inATransactionThatNeverCommits_dispatchesNothing() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        bus.publish(ClusterEventBus.POLL_COMPLETED, "12");
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verifyNoInteractions(publisher);
+    }
+
+    @Test
+    void receive_parsesTypeOriginAndPayload_keepingPipesInThePayload() {
+        bus.receive("subscription|node-b|user|with|pipes");
+
+        verify(publisher).publishEvent(new ClusterEvent(ClusterEventBus.SUBSCRIPTION_CHANGED, "user|with|pipes", "node-b", false));
+    }
+
+    @Test
+    void receive_marksOurOwnEventsLocal() {
+        bus.receive("poll|node-a|42");
+        bus.receive("finance|node-a|");
+
+        verify(publisher).publishEvent(new ClusterEvent(ClusterEventBus.POLL_COMPLETED, "42", "node-a", true));
+        verify(publisher).publishEvent(new ClusterEvent(ClusterEventBus.FINANCE_RECOMPUTED, "", "node-a", true));
+    }
+
+    @Test
+    void receive_ignoresMalformedMessages() {
+        bus.receive("poll");
+        bus.receive("poll|node-b");
+
+        verifyNoInteractions(publisher);
+    }
+
+    @Test
+    void reconnect_dispatchesResync_butTheFirstConnectDoesNot() {
+        bus.listening(false);
+        verifyNoInteractions(publisher);
+
+        bus.listening(true);
+        verify(publisher).publishEvent(new ClusterEvent(ClusterEventBus.RESYNC, "", "node-a", true));
+    }
+}
@@ -0,0 +1,58 @@
+package com.modernbazaar.core.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class EntitlementCacheTest {
+
+    private final ClusterEventBus clusterEvents = mock(ClusterEventBus.class);
+    private final EntitlementCache cache = new EntitlementCache(new SimpleMeterRegistry(), 10, 100, clusterEvents);
+
+    @Test
+    void open_ended_entitlement_is_served_from_cache_until_invalidated() {
+        AtomicInteger loads = new AtomicInteger();
+        var entitlement = new EntitlementCache.Entitlement("elite", null);
+
+        cache.get("u1", id -> { loads.incrementAndGet(); return entitlement; });
+        cache.get("u1", id -> { loads.incrementAndGet(); return entitlement; });
+        assertThat(loads).hasValue(1);
+
+        cache.invalidate("u1"); // no transaction active → immediate
+        cache.get("u1", id -> { loads.incrementAndGet(); return entitlement; });
+        assertThat(loads).hasValue(2);
+        verify(clusterEvents).publish(ClusterEventBus.SUBSCRIPTION_CHANGED, "u1");
+    }
+
+    @Test
+    void remote_invalidation_evicts_but_own_echo_does_not() {
+        AtomicInteger loads = new AtomicInteger();
+        var entitlement = new EntitlementCache.Entitlement("elite", null);
+        cache.get("u3", id -> { loads.incrementAndGet(); return entitlement; });
+
+        cache.onClusterEvent(new ClusterEventBus.ClusterEvent(ClusterEventBus.SUBSCRIPTION_CHANGED, "u3", "self", true));
+        cache.get("u3", id -> { loads.incrementAndGet(); return entitlement; });
+        assertThat(loads).hasValue(1);
+
+        cache.onClusterEvent(new ClusterEventBus.ClusterEvent(ClusterEventBus.SUBSCRIPTION_CHANGED, "u3", "other", false));
+        cache.get("u3", id -> { loads.incrementAndGet(); return entitlement; });
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void lapsed_period_end_is_never_served() {
+        var lapsed = new EntitlementCache.Entitlement("elite", OffsetDateTime.now().minusSeconds(1));
+        var free = new EntitlementCache.Entitlement("free", null);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("u2", id -> lapsed);
+        var e = cache.get("u2", id -> loads.getAndIncrement() == 0 ? free : lapsed);
+        assertThat(e.planSlug()).isEqualTo("free");
+    }
+}
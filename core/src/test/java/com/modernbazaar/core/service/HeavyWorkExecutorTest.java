@@ -0,0 +1,87 @@
+package com.modernbazaar.core.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(MockitoExtension.class)
+class HeavyWorkExecutorTest {
+
+    @Mock private SubscriptionService subscriptions;
+    @Mock private PlatformTransactionManager txManager;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private HeavyWorkExecutor executor(int queueCapacity, long budgetMs) {
+        return new HeavyWorkExecutor(subscriptions, txManager, registry, 1, queueCapacity, budgetMs, 0);
+    }
+
+    @Test
+    void runs_work_on_the_pool_and_returns_its_result() {
+        HeavyWorkExecutor heavy = executor(4, 5_000);
+
+        String thread = heavy.call(HeavyWorkExecutor.FLIPPING, () -> Thread.currentThread().getName());
+
+        assertThat(thread).startsWith("heavy-");
+        assertThat(registry.timer("modernbazaar.heavy.execution", "kind", "flipping").count()).isEqualTo(1);
+        heavy.stop();
+    }
+
+    @Test
+    void sheds_when_the_queue_is_full() throws Exception {
+        HeavyWorkExecutor heavy = executor(1, 5_000);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Object> running = CompletableFuture.supplyAsync(() ->
+                heavy.call(HeavyWorkExecutor.HISTORY, () -> await(release)));
+        awaitGauge("modernbazaar.heavy.active", 1);
+        CompletableFuture<Object> queued = CompletableFuture.supplyAsync(() ->
+                heavy.call(HeavyWorkExecutor.HISTORY, () -> "queued"));
+        awaitGauge("modernbazaar.heavy.queue.size", 1);
+
+        assertThatThrownBy(() -> heavy.call(HeavyWorkExecutor.HISTORY, () -> "shed"))
+                .isInstanceOf(HeavyWorkExecutor.OverloadedException.class);
+        assertThat(registry.counter("modernbazaar.heavy.rejected", "kind", "history", "reason", "queue_full").count())
+                .isEqualTo(1.0);
+
+        release.countDown();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("queued");
+        running.get(5, TimeUnit.SECONDS);
+        heavy.stop();
+    }
+
+    @Test
+    void gives_up_once_the_time_budget_is_spent() {
+        HeavyWorkExecutor heavy = executor(4, 50);
+
+        assertThatThrownBy(() -> heavy.call(HeavyWorkExecutor.MANIPULATION, () -> await(new CountDownLatch(1))))
+                .isInstanceOf(HeavyWorkExecutor.OverloadedException.class);
+        assertThat(registry.counter("modernbazaar.heavy.rejected", "kind", "manipulation", "reason", "budget").count())
+                .isEqualTo(1.0);
+        heavy.stop();
+    }
+
+    private static Object await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private void awaitGauge(String name, double value) throws InterruptedException {
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get(name).gauge().value() != value && System.nanoTime() < until) Thread.sleep(5);
+    }
+}
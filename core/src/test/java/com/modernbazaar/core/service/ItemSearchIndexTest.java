@@ -0,0 +1,92 @@
+package com.modernbazaar.core.service;
+
+import com.modernbazaar.core.repository.BazaarItemRepository;
+import com.modernbazaar.core.repository.SkyblockItemRepository;
+import com.modernbazaar.core.repository.projection.IdNameRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+
+    @Mock private SkyblockItemRepository catalogRepo;
+    @Mock private BazaarItemRepository   itemRepo;
+
+    private ItemSearchIndex index;
+    private ProductNameDictionary names;
+
+    @BeforeEach
+    void setUp() {
+        when(catalogRepo.findAllIdNames()).thenReturn(List.of(
+                row("ENCHANTED_DIAMOND", "Enchanted Diamond"),
+                row("DIAMOND", "Diamond"),
+                row("ENCHANTED_DIAMOND_BLOCK", "Enchanted Diamond Block"),
+                row("WHEAT", "Wheat")));
+        when(itemRepo.findAllProductIds()).thenReturn(List.of("DIAMOND", "BAZAAR_ONLY_ID"));
+
+        index = new ItemSearchIndex(new SimpleMeterRegistry(), 2);
+        names = new ProductNameDictionary(catalogRepo, itemRepo, index, new SimpleMeterRegistry());
+        names.reload(); // one load feeds both
+    }
+
+    @Test
+    void dictionary_and_index_share_one_load() {
+        assertThat(index.isReady()).isTrue();
+        assertThat(names.nameOf("DIAMOND")).isEqualTo("Diamond");
+        assertThat(names.hasUnknown(List.of("BAZAAR_ONLY_ID"))).isFalse();
+        verify(catalogRepo, times(1)).findAllIdNames();
+        verify(itemRepo, times(1)).findAllProductIds();
+    }
+
+    @Test
+    void ranks_exact_then_prefix_then_word_prefix() {
+        assertThat(index.search("diamond", 10))
+                .extracting(ItemSearchIndex.Hit::productId)
+                .containsExactly("DIAMOND", "ENCHANTED_DIAMOND", "ENCHANTED_DIAMOND_BLOCK");
+    }
+
+    @Test
+    void matches_ids_without_catalog_names_and_short_queries() {
+        assertThat(index.search("bazaar_on", 10))
+                .extracting(ItemSearchIndex.Hit::productId)
+                .containsExactly("BAZAAR_ONLY_ID");
+        assertThat(index.search("wh", 10))
+                .extracting(ItemSearchIndex.Hit::productId)
+                .containsExactly("WHEAT");
+    }
+
+    @Test
+    void filter_restricts_to_candidates_or_falls_back_to_sql() {
+        ItemSearchIndex.Filter none = index.filter("zzz");
+        assertThat(none.none()).isTrue();
+        assertThat(none.sqlIds()).isNotEmpty();
+
+        ItemSearchIndex.Filter block = index.filter("block");
+        assertThat(block.restrict()).isTrue();
+        assertThat(block.q()).isNull();
+        assertThat(block.ids()).containsExactly("ENCHANTED_DIAMOND_BLOCK");
+
+        // three matches > max-candidates (2): let SQL do it
+        ItemSearchIndex.Filter broad = index.filter("diamond");
+        assertThat(broad.restrict()).isFalse();
+        assertThat(broad.q()).isEqualTo("diamond");
+    }
+
+    private static IdNameRow row(String id, String name) {
+        return new IdNameRow() {
+            @Override public String getId()   { return id; }
+            @Override public String getName() { return name; }
+        };
+    }
+}
@@ -0,0 +1,110 @@
+package com.modernbazaar.core.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link JobLeaseService} against PostgreSQL ({@code on conflict ... where}, {@code make_interval}),
+ * with two services standing in for two nodes. Expiry is forced by moving {@code expires_at}
+ * back rather than by waiting out a lease. Skipped when Docker is not available.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class JobLeaseServiceTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16");
+
+    private static final String JOB = JobLeaseService.BAZAAR_POLL;
+
+    @Autowired private JdbcTemplate jdbc;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private JobLeaseService nodeA;
+    private JobLeaseService nodeB;
+
+    @BeforeEach
+    void setUp() {
+        nodeA = new JobLeaseService(jdbc, registry, "node-a", 90);
+        nodeB = new JobLeaseService(jdbc, registry, "node-b", 90);
+    }
+
+    private void expire() {
+        jdbc.update("update job_lease set expires_at = now() - interval '1 second' where job_name = ?", JOB);
+    }
+
+    @Test
+    void freeLease_isAcquired_andRenewalsKeepTheToken() {
+        JobLeaseService.Lease first = nodeA.tryAcquire(JOB);
+        JobLeaseService.Lease renewed = nodeA.tryAcquire(JOB);
+
+        assertThat(first).isEqualTo(new JobLeaseService.Lease(JOB, 1));
+        assertThat(renewed.token()).isEqualTo(1);
+        assertThat(nodeA.holds(JOB)).isTrue();
+    }
+
+    @Test
+    void leaseHeldByAnotherLiveNode_isRefused() {
+        nodeA.tryAcquire(JOB);
+
+        assertThat(nodeB.tryAcquire(JOB)).isNull();
+        assertThat(nodeB.holds(JOB)).isFalse();
+        assertThat(jdbc.queryForObject("select owner from job_lease where job_name = ?", String.class, JOB))
+                .isEqualTo("node-a");
+    }
+
+    @Test
+    void takeoverAfterExpiry_bumpsTheToken() {
+        nodeA.tryAcquire(JOB);
+        expire();
+
+        JobLeaseService.Lease taken = nodeB.tryAcquire(JOB);
+
+        assertThat(taken.token()).isEqualTo(2);
+        assertThat(nodeA.tryAcquire(JOB)).isNull(); // B's lease is live again
+    }
+
+    @Test
+    void fence_rejectsTheFormerHoldersWrite() {
+        JobLeaseService.Lease stale = nodeA.tryAcquire(JOB);
+        expire();
+        JobLeaseService.Lease current = nodeB.tryAcquire(JOB);
+
+        assertThatThrownBy(() -> nodeA.fence(stale, true))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("token 1");
+        assertThat(nodeA.lastCompleted(JOB)).isNull();
+
+        nodeB.fence(current, true);
+        assertThat(nodeB.lastCompleted(JOB)).isNotNull();
+        assertThat(registry.counter("modernbazaar.cluster.leases.fenced", "job", JOB).count()).isEqualTo(1);
+    }
+
+    @Test
+    void heartbeat_afterLosingTheLease_dropsLeadership() {
+        nodeA.tryAcquire(JOB);
+        expire();
+        nodeB.tryAcquire(JOB);
+
+        nodeA.heartbeat();
+        nodeB.heartbeat();
+
+        assertThat(nodeA.holds(JOB)).isFalse();
+        assertThat(nodeB.holds(JOB)).isTrue();
+        assertThat(registry.counter("modernbazaar.cluster.leases.lost", "job", JOB).count()).isEqualTo(1);
+    }
+}
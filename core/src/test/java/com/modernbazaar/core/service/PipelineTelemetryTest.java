@@ -0,0 +1,141 @@
+package com.modernbazaar.core.service;
+
+import com.modernbazaar.core.api.dto.PipelineStatusDTO;
+import com.modernbazaar.core.repository.BazaarFinanceMetricsRepository;
+import com.modernbazaar.core.repository.BazaarItemHourSummaryRepository;
+import com.modernbazaar.core.repository.BazaarProductSnapshotRepository;
+import com.modernbazaar.core.util.PrimaryReads;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link PipelineTelemetry}: stage timings in {@link PipelineTelemetry#status()}
+ * and the lag of each source, as computed from what the probe reads.
+ */
+@ExtendWith(MockitoExtension.class)
+class PipelineTelemetryTest {
+
+    @Mock private BazaarProductSnapshotRepository snapshotRepo;
+    @Mock private BazaarItemHourSummaryRepository hourRepo;
+    @Mock private BazaarFinanceMetricsRepository financeRepo;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private PipelineTelemetry telemetry;
+
+    @BeforeEach
+    void setUp() {
+        telemetry = new PipelineTelemetry(snapshotRepo, hourRepo, financeRepo, registry);
+    }
+
+    private Map<String, PipelineStatusDTO.Stage> stages() {
+        return telemetry.status().stages().stream()
+                .collect(Collectors.toMap(PipelineStatusDTO.Stage::name, Function.identity()));
+    }
+
+    private Map<String, PipelineStatusDTO.Lag> lags() {
+        return telemetry.status().lags().stream()
+                .collect(Collectors.toMap(PipelineStatusDTO.Lag::source, Function.identity()));
+    }
+
+    private double lagGauge(String source) {
+        return registry.get("modernbazaar.pipeline.lag").tag("source", source).timeGauge().value(TimeUnit.SECONDS);
+    }
+
+    /* ───── stages ───── */
+
+    @Test
+    void recordedStages_reportRunsMeanAndPercentiles_othersStayEmpty() {
+        for (int i = 0; i < 10; i++) telemetry.record(PipelineTelemetry.FETCH, TimeUnit.MILLISECONDS.toNanos(100));
+
+        PipelineStatusDTO.Stage fetch = stages().get(PipelineTelemetry.FETCH);
+        assertThat(fetch.runs()).isEqualTo(10);
+        assertThat(fetch.meanMs()).isCloseTo(100.0, within(0.01));
+        assertThat(fetch.p50Ms()).isCloseTo(100.0, within(25.0)); // histogram buckets at precision 1
+        assertThat(fetch.p99Ms()).isCloseTo(100.0, within(25.0));
+        assertThat(fetch.maxMs()).isCloseTo(100.0, within(0.01));
+        assertThat(fetch.lastRunAt()).isNotNull();
+
+        PipelineStatusDTO.Stage finance = stages().get(PipelineTelemetry.FINANCE);
+        assertThat(finance.runs()).isZero();
+        assertThat(finance.meanMs()).isNull();
+        assertThat(finance.lastRunAt()).isNull();
+        assertThat(telemetry.status().stages()).extracting(PipelineStatusDTO.Stage::name).containsExactly(
+                "fetch", "parse", "dedupe", "persist", "compaction", "finance"); // pipeline order
+    }
+
+    @Test
+    void failedStage_isTimedAnyway() {
+        assertThatThrownBy(() -> telemetry.run(PipelineTelemetry.COMPACTION, () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(stages().get(PipelineTelemetry.COMPACTION).runs()).isEqualTo(1);
+    }
+
+    /* ───── lag ───── */
+
+    @Test
+    void refreshLag_readsThePrimary_andAgesEachSource() {
+        Instant now = Instant.now();
+        when(snapshotRepo.findNewestLastUpdated()).thenAnswer(inv -> {
+            assertThat(PrimaryReads.active()).isTrue();
+            return now.minusSeconds(60);
+        });
+        when(snapshotRepo.findOldestLastUpdated()).thenReturn(now.minus(2, ChronoUnit.HOURS));
+        when(hourRepo.findNewestHourStart()).thenReturn(now.minus(90, ChronoUnit.MINUTES));
+        when(financeRepo.findNewestComputedAt()).thenReturn(null); // never computed
+
+        telemetry.refreshLag();
+
+        Map<String, PipelineStatusDTO.Lag> lags = lags();
+        assertThat(lags.get(PipelineTelemetry.LAG_HYPIXEL).ageSeconds()).isCloseTo(60, within(5.0));
+        assertThat(lags.get(PipelineTelemetry.LAG_UNPROCESSED).ageSeconds()).isCloseTo(7200, within(5.0));
+        assertThat(lags.get(PipelineTelemetry.LAG_SEALED_HOUR).ageSeconds()).isCloseTo(1800, within(5.0)); // hour end
+        assertThat(lags.get(PipelineTelemetry.LAG_FINANCE).ageSeconds()).isNull();
+        assertThat(lagGauge(PipelineTelemetry.LAG_FINANCE)).isNaN();
+        assertThat(lagGauge(PipelineTelemetry.LAG_HYPIXEL)).isCloseTo(60, within(5.0));
+        assertThat(telemetry.status().lagProbedAt()).isNotNull();
+    }
+
+    @Test
+    void hypixelLag_keepsTheNewestTimestampSeen() {
+        Instant now = Instant.now();
+        telemetry.hypixelUpdated(now.minusSeconds(10));
+        telemetry.hypixelUpdated(now.minusSeconds(300)); // an older response arriving late
+
+        assertThat(lags().get(PipelineTelemetry.LAG_HYPIXEL).at()).isEqualTo(now.minusSeconds(10));
+    }
+
+    @Test
+    void failedProbe_keepsThePreviousValues() {
+        Instant now = Instant.now();
+        when(snapshotRepo.findNewestLastUpdated()).thenReturn(now.minusSeconds(30));
+        when(snapshotRepo.findOldestLastUpdated()).thenReturn(now.minus(1, ChronoUnit.HOURS));
+        when(hourRepo.findNewestHourStart()).thenReturn(now.minus(2, ChronoUnit.HOURS));
+        when(financeRepo.findNewestComputedAt()).thenReturn(now.minus(10, ChronoUnit.MINUTES));
+        telemetry.refreshLag();
+        Instant probedAt = telemetry.status().lagProbedAt();
+
+        when(snapshotRepo.findNewestLastUpdated()).thenThrow(new IllegalStateException("db down"));
+        telemetry.refreshLag();
+
+        assertThat(lags().get(PipelineTelemetry.LAG_FINANCE).ageSeconds()).isCloseTo(600, within(5.0));
+        assertThat(telemetry.status().lagProbedAt()).isEqualTo(probedAt);
+    }
+}
@@ -18,18 +18,25 @@ import static org.mockito.Mockito.*;
 class ReferralAnalyticsServiceTest {
     @Mock ReferralCodeRepository codeRepo;
     @Mock ReferralConversionRepository conversionRepo;
-    @Mock ReferralClickRepository clickRepo;
     @Mock ReferralPayoutRepository payoutRepo;
     @Mock ReferralSignupRepository signupRepo;
     @Mock ReferralEarningRepository earningRepo;
+    @Mock WriteBehindBuffer writeBehind;
     @InjectMocks ReferralAnalyticsService service;
 
     @Test
-    void recordClickDeduplicatesVisitorPerCode() {
-        when(codeRepo.existsByCodeIgnoreCase("CREATOR")).thenReturn(true);
-        service.recordClick("creator", "1234567890abcdef");
+    void recordClickIsQueuedWithNormalizedCode() {
+        service.recordClick(" creator ", "1234567890abcdef");
 
-        verify(clickRepo).insertDeduplicated("CREATOR", "1234567890abcdef");
+        verify(writeBehind).recordClick("CREATOR", "1234567890abcdef");
+        verifyNoInteractions(codeRepo); // unknown codes are dropped by the batched insert
+    }
+
+    @Test
+    void recordClickIgnoresMalformedVisitorKey() {
+        service.recordClick("creator", "short");
+
+        verifyNoInteractions(writeBehind);
     }
 
     @Test
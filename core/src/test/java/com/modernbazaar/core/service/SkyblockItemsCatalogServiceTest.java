@@ -7,6 +7,7 @@ import com.modernbazaar.core.domain.SkyblockItem;
 import com.modernbazaar.core.dto.RawSkyblockItem;
 import com.modernbazaar.core.dto.RawSkyblockItemsResponse;
 import com.modernbazaar.core.repository.SkyblockItemRepository;
+import com.modernbazaar.core.repository.projection.IdHashRow;
 import com.modernbazaar.core.util.RawSkyblockItemToItemMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -36,19 +37,28 @@ class SkyblockItemsCatalogServiceTest {
     @Mock
     private RawSkyblockItemToItemMapper mapper;
 
+    @Mock
+    private ItemSearchIndex searchIndex;
+
+    @Mock
+    private ProductNameDictionary productNames;
+
+    @Mock
+    private CatalogGeneration catalogGeneration;
+
     @Test
     void refreshIfStale_returns_false_when_recent() {
         WebClient wc = WebClient.builder().exchangeFunction(req ->
                 Mono.just(jsonResponse("{}"))
         ).build();
 
-        SkyblockItemsCatalogService svc = new SkyblockItemsCatalogService(wc, repo, mapper);
+        SkyblockItemsCatalogService svc = new SkyblockItemsCatalogService(wc, repo, mapper, searchIndex, productNames, catalogGeneration);
 
         when(repo.findMaxLastRefreshed()).thenReturn(Instant.now().minus(Duration.ofHours(6)));
 
         boolean refreshed = svc.refreshIfStale(Duration.ofDays(2));
         assertThat(refreshed).isFalse();
-        verify(repo, never()).saveAll(anyList());
+        verify(repo, never()).upsertAll(any());
     }
 
     @Test
@@ -65,14 +75,11 @@ class SkyblockItemsCatalogServiceTest {
                 Mono.just(jsonResponse(json))
         ).build();
 
-        SkyblockItemsCatalogService svc = new SkyblockItemsCatalogService(wc, repo, mapper);
+        SkyblockItemsCatalogService svc = new SkyblockItemsCatalogService(wc, repo, mapper, searchIndex, productNames, catalogGeneration);
 
         when(repo.findMaxLastRefreshed()).thenReturn(Instant.now().minus(Duration.ofDays(10)));
 
-        SkyblockItem existing = SkyblockItem.builder()
-                .id("EXISTING_ID").name("Old Name").build();
-        when(repo.findAllByIdIn(argThat(set -> set.containsAll(Set.of("NEW_ID", "EXISTING_ID")))))
-                .thenReturn(List.of(existing));
+        when(repo.findAllHashes()).thenReturn(List.of(hashRow("EXISTING_ID", "stale-hash")));
 
         when(mapper.toEntity(any(RawSkyblockItem.class), any()))
                 .thenAnswer(inv -> {
@@ -85,19 +92,49 @@ class SkyblockItemsCatalogServiceTest {
                             .build();
                 });
 
-        @SuppressWarnings("unchecked")
-        ArgumentCaptor<List<SkyblockItem>> cap = ArgumentCaptor.forClass(List.class);
-        when(repo.saveAll(cap.capture())).thenAnswer(inv -> inv.getArgument(0));
-
         boolean refreshed = svc.refreshIfStale(Duration.ofDays(2));
         assertThat(refreshed).isTrue();
 
-        List<SkyblockItem> saved = cap.getValue();
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<SkyblockItem>> cap = ArgumentCaptor.forClass(Collection.class);
+        verify(repo).upsertAll(cap.capture());
+
+        Collection<SkyblockItem> saved = cap.getValue();
         assertThat(saved).extracting(SkyblockItem::getId)
                 .containsExactlyInAnyOrder("NEW_ID", "EXISTING_ID");
+        assertThat(saved).allSatisfy(s -> assertThat(s.getContentHash()).hasSize(32));
 
         assertThat(saved.stream().filter(s -> s.getId().equals("EXISTING_ID")).findFirst().get().getName())
                 .isEqualTo("Existing Item Updated");
+        verify(productNames).reload();
+        verify(catalogGeneration).advance();
+    }
+
+    @Test
+    void forceRefresh_skips_items_whose_content_hash_is_unchanged() throws Exception {
+        RawSkyblockItemsResponse payload = new RawSkyblockItemsResponse();
+        payload.setSuccess(true);
+        payload.setItems(List.of(raw("SAME_ID", "Same Item")));
+        byte[] json = new ObjectMapper().writeValueAsBytes(payload);
+
+        WebClient wc = WebClient.builder().exchangeFunction(req ->
+                Mono.just(jsonResponse(new String(json)))
+        ).build();
+        SkyblockItemsCatalogService svc = new SkyblockItemsCatalogService(wc, repo, mapper, searchIndex, productNames, catalogGeneration);
+
+        // hash of exactly the item's bytes inside the payload
+        String body = new String(json);
+        int start = body.lastIndexOf('{', body.indexOf("\"SAME_ID\""));
+        int end = body.indexOf('}', start) + 1;
+        when(repo.findAllHashes()).thenReturn(List.of(hashRow("SAME_ID",
+                SkyblockItemsCatalogService.contentHash(json, start, end - start))));
+
+        svc.forceRefresh();
+
+        verify(mapper, never()).toEntity(any(), any());
+        verify(repo, never()).upsertAll(any());
+        verify(productNames, never()).reload();
+        verify(catalogGeneration, never()).advance();
     }
 
     @Test
@@ -111,18 +148,19 @@ class SkyblockItemsCatalogServiceTest {
                 Mono.just(jsonResponse(json))
         ).build();
 
-        SkyblockItemsCatalogService svc = new SkyblockItemsCatalogService(wc, repo, mapper);
+        SkyblockItemsCatalogService svc = new SkyblockItemsCatalogService(wc, repo, mapper, searchIndex, productNames, catalogGeneration);
 
         svc.forceRefresh();
 
-        verify(repo, never()).saveAll(anyList());
+        verify(repo, never()).upsertAll(any());
     }
 
     @Test
     void search_returns_paged_dtos_from_repo_page() {
         WebClient wc = WebClient.builder().build();
-        SkyblockItemsCatalogService svc = new SkyblockItemsCatalogService(wc, repo, mapper);
+        SkyblockItemsCatalogService svc = new SkyblockItemsCatalogService(wc, repo, mapper, searchIndex, productNames, catalogGeneration);
 
+        when(searchIndex.filter(null)).thenReturn(ItemSearchIndex.Filter.sql(null));
         SkyblockItem e1 = SkyblockItem.builder().id("A").name("Name A").build();
         SkyblockItem e2 = SkyblockItem.builder().id("B").name("Name B").build();
 
@@ -145,7 +183,7 @@ class SkyblockItemsCatalogServiceTest {
     @Test
     void getById_maps_entity_to_dto() {
         WebClient wc = WebClient.builder().build();
-        SkyblockItemsCatalogService svc = new SkyblockItemsCatalogService(wc, repo, mapper);
+        SkyblockItemsCatalogService svc = new SkyblockItemsCatalogService(wc, repo, mapper, searchIndex, productNames, catalogGeneration);
 
         SkyblockItem e = SkyblockItem.builder()
                 .id("X").name("Name X").material("MAT").category("CAT").tier("RARE")
@@ -172,6 +210,13 @@ class SkyblockItemsCatalogServiceTest {
         return r;
     }
 
+    private static IdHashRow hashRow(String id, String hash) {
+        return new IdHashRow() {
+            @Override public String getId() { return id; }
+            @Override public String getContentHash() { return hash; }
+        };
+    }
+
     private static ClientResponse jsonResponse(String json) {
         return ClientResponse
                 .create(HttpStatus.OK)
@@ -0,0 +1,69 @@
+package com.modernbazaar.core.service;
+
+import com.modernbazaar.core.domain.StripeWebhookEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StripeWebhookInboxTest {
+
+    @Mock private StripeWebhookEventService events;
+    @Mock private StripeWebhookProcessor processor;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private StripeWebhookInbox inbox(int maxAttempts) {
+        return new StripeWebhookInbox(events, processor, registry, true, 2, 10, 10, maxAttempts, 30, 60);
+    }
+
+    private static StripeWebhookEvent event(String id, int attempt) {
+        return StripeWebhookEvent.builder()
+                .eventId(id).eventType("invoice.paid").status("processing")
+                .attemptCount(attempt).receivedAt(OffsetDateTime.now()).payload("{}")
+                .build();
+    }
+
+    @Test
+    void drains_until_nothing_is_due_and_marks_processed() throws Exception {
+        when(events.claim(10, 10)).thenReturn(List.of(event("evt_1", 1), event("evt_2", 1)), List.of());
+
+        inbox(8).drain();
+
+        verify(processor, times(2)).apply("invoice.paid", "{}");
+        verify(events).markProcessed("evt_1");
+        verify(events).markProcessed("evt_2");
+        assertThat(registry.timer("modernbazaar.stripe.inbox.latency").count()).isEqualTo(2);
+    }
+
+    @Test
+    void failure_backs_off_then_parks_the_event_as_dead() throws Exception {
+        when(events.claim(10, 10)).thenReturn(List.of(event("evt_1", 2)), List.of(event("evt_2", 3)), List.of());
+        doThrow(new IllegalStateException("stripe down")).when(processor).apply(any(), any());
+
+        inbox(3).drain();
+
+        verify(events).markFailed(eq("evt_1"), any(IllegalStateException.class), notNull());
+        verify(events).markFailed(eq("evt_2"), any(IllegalStateException.class), isNull());
+        verify(events, never()).markProcessed(any());
+        assertThat(registry.counter("modernbazaar.stripe.inbox.dead_lettered").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void backoff_doubles_and_is_capped() {
+        StripeWebhookInbox inbox = inbox(8);
+        assertThat(inbox.backoff(1)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(inbox.backoff(3)).isEqualTo(Duration.ofMinutes(2));
+        assertThat(inbox.backoff(20)).isEqualTo(Duration.ofMinutes(60));
+    }
+}
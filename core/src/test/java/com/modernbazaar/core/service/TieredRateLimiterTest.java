@@ -0,0 +1,63 @@
+package com.modernbazaar.core.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.modernbazaar.core.domain.Plan;
+import com.modernbazaar.core.repository.PlanRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TieredRateLimiterTest {
+
+    @Mock private SubscriptionService subscriptions;
+    @Mock private PlanRepository      plans;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private TieredRateLimiter limiter() {
+        lenient().when(plans.findBySlug(anyString())).thenReturn(Optional.empty());
+        return new TieredRateLimiter(subscriptions, plans, new ObjectMapper(), registry,
+                2, 3, 5, 10, 1000, 10);
+    }
+
+    @Test
+    void anonymous_callers_are_limited_per_ip_and_rejections_are_tagged_by_tier() {
+        TieredRateLimiter limiter = limiter();
+
+        assertThat(limiter.tryAcquire(null, "1.1.1.1", 1).allowed()).isTrue();
+        assertThat(limiter.tryAcquire(null, "1.1.1.1", 1).allowed()).isTrue();
+        TieredRateLimiter.Decision denied = limiter.tryAcquire(null, "1.1.1.1", 1);
+
+        assertThat(denied.allowed()).isFalse();
+        assertThat(denied.retryAfterSeconds()).isPositive();
+        assertThat(limiter.tryAcquire(null, "2.2.2.2", 1).allowed()).isTrue(); // separate bucket
+        assertThat(registry.counter("modernbazaar.ratelimit.rejections", "tier", "anonymous").count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void tier_limit_comes_from_plan_features_and_cost_weights_apply() {
+        when(subscriptions.effectivePlanSlug("user-1")).thenReturn("elite");
+        TieredRateLimiter limiter = limiter();
+        when(plans.findBySlug("elite")).thenReturn(Optional.of(Plan.builder()
+                .slug("elite").featuresJson("{\"limits\":{\"requestsPerMinute\":20}}").build()));
+
+        TieredRateLimiter.Decision first = limiter.tryAcquire("user-1", "1.1.1.1", 15);
+        assertThat(first.allowed()).isTrue();
+        assertThat(first.tier()).isEqualTo("elite");
+        assertThat(first.limitPerMinute()).isEqualTo(20);
+        assertThat(first.remaining()).isEqualTo(5);
+
+        assertThat(limiter.tryAcquire("user-1", "1.1.1.1", 10).allowed()).isFalse();
+    }
+}
@@ -0,0 +1,58 @@
+package com.modernbazaar.core.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindBufferTest {
+
+    @Mock private JdbcTemplate jdbc;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void coalescesPerKeyAndFlushesOneMultiRowStatementPerKind() {
+        WriteBehindBuffer buffer = new WriteBehindBuffer(jdbc, registry, 100);
+
+        buffer.touchLastSeen("u1");
+        buffer.touchLastSeen("u1");
+        buffer.touchLastSeen("u2");
+        buffer.recordClick("CREATOR", "1234567890abcdef");
+        buffer.recordClick("CREATOR", "1234567890abcdef");
+
+        buffer.flush();
+
+        ArgumentCaptor<Object[]> seenArgs = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbc).update(contains("update user_subscription"), seenArgs.capture());
+        assertThat(seenArgs.getValue()).hasSize(4); // two users × (id, timestamp)
+
+        ArgumentCaptor<Object[]> clickArgs = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbc).update(contains("insert into referral_click"), clickArgs.capture());
+        assertThat(clickArgs.getValue()).hasSize(3); // one click × (code, visitor, timestamp)
+
+        assertThat(registry.counter("modernbazaar.writebehind.coalesced", "kind", "last_seen").count()).isEqualTo(1.0);
+
+        buffer.flush(); // nothing pending → no more statements
+        verify(jdbc, times(2)).update(any(String.class), any(Object[].class));
+    }
+
+    @Test
+    void dropsNewKeysWhenFull() {
+        WriteBehindBuffer buffer = new WriteBehindBuffer(jdbc, registry, 1);
+
+        buffer.touchLastSeen("u1");
+        buffer.touchLastSeen("u2");
+
+        assertThat(registry.counter("modernbazaar.writebehind.dropped", "kind", "last_seen").count()).isEqualTo(1.0);
+    }
+}
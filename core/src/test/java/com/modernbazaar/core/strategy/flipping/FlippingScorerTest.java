@@ -16,7 +16,7 @@ import static org.assertj.core.api.Assertions.within;
  */
 class FlippingScorerTest {
 
-    private final FlippingScorer scorer = new FlippingScorer(new RiskToolkit(), null, null, null);
+    private final FlippingScorer scorer = new FlippingScorer(new RiskToolkit(), null, null, null, null);
 
     /** No-risk inputs: refs equal instant prices, healthy flow, no competition. */
     private static Inputs zeroRisk(double ib, double is, double demand, double supply) {
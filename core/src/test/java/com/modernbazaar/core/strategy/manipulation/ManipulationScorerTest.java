@@ -14,7 +14,7 @@ import static org.assertj.core.api.Assertions.within;
  */
 class ManipulationScorerTest {
 
-    private final ManipulationScorer scorer = new ManipulationScorer(null, null, null, null);
+    private final ManipulationScorer scorer = new ManipulationScorer(null, null, null, null, null);
 
     private static Inputs baseInputs() {
         // 1000 units cost 1,000,000 coins -> avg cost 1000/unit. Current top bid 500.
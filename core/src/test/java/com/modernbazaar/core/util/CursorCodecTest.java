@@ -0,0 +1,52 @@
+package com.modernbazaar.core.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link CursorCodec}: tokens round-trip, and anything tampered
+ * or shaped for a different endpoint is rejected as a bad argument (400).
+ */
+class CursorCodecTest {
+
+    @Test
+    void roundTrip_preservesParts() {
+        String token = CursorCodec.encode("1753524000000000", "ENCHANTED_DIAMOND");
+        assertThat(CursorCodec.decode(token, 2)).containsExactly("1753524000000000", "ENCHANTED_DIAMOND");
+    }
+
+    @Test
+    void token_isUrlSafe() {
+        String token = CursorCodec.encode("auth0|abc/def+ghi", "42");
+        assertThat(token).doesNotContain("+", "/", "=");
+    }
+
+    @Test
+    void wrongPartCount_isRejected() {
+        String token = CursorCodec.encode("only-one");
+        assertThatThrownBy(() -> CursorCodec.decode(token, 2))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    @Test
+    void garbageOrUnversioned_isRejected() {
+        assertThatThrownBy(() -> CursorCodec.decode("%%%not-base64%%%", 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        String unversioned = Base64.getUrlEncoder().encodeToString("x\u001Fy".getBytes(StandardCharsets.UTF_8));
+        assertThatThrownBy(() -> CursorCodec.decode(unversioned, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void emptyAfter_meansFirstCursorPage() {
+        assertThat(CursorCodec.isFirstPage("")).isTrue();
+        assertThat(CursorCodec.isFirstPage(null)).isFalse();
+        assertThat(CursorCodec.isFirstPage(CursorCodec.encode("a"))).isFalse();
+    }
+}
@@ -0,0 +1,5 @@
+#!/bin/bash
+# Lets the db-replica service stream WAL from this primary (first init only; for an
+# existing volume see docs/OPERATIONS.md → "Read replica").
+set -e
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
@@ -0,0 +1,16 @@
+#!/bin/bash
+# Streaming read replica of the "db" service: cloned once with pg_basebackup (-R writes
+# standby.signal + primary_conninfo), then started as a hot standby on every boot.
+set -e
+PGDATA=/var/lib/postgresql/data
+
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+    until pg_isready -h db -p 5432 -U "$PGUSER"; do sleep 1; done
+    pg_basebackup -h db -p 5432 -U "$PGUSER" -D "$PGDATA" -Fp -Xs -R -P
+    chmod 0700 "$PGDATA"
+fi
+
+exec postgres -D "$PGDATA" \
+    -c hot_standby=on \
+    -c hot_standby_feedback=on \
+    -c max_standby_streaming_delay=30s